@@ -0,0 +1,103 @@
+/*
+ * Copyright 2014 - 2024 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.benchmark;
+
+import com.blazebit.persistence.Criteria;
+import com.blazebit.persistence.CriteriaBuilderFactory;
+import com.blazebit.persistence.benchmark.view.DocumentView;
+import com.blazebit.persistence.benchmark.view.PersonView;
+import com.blazebit.persistence.benchmark.view.UpdatableDocumentView;
+import com.blazebit.persistence.testsuite.entity.Document;
+import com.blazebit.persistence.testsuite.entity.Person;
+import com.blazebit.persistence.testsuite.entity.Version;
+import com.blazebit.persistence.view.EntityViewManager;
+import com.blazebit.persistence.view.EntityViews;
+import com.blazebit.persistence.view.spi.EntityViewConfiguration;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+
+/**
+ * Bootstraps an in-memory H2 database with the core testsuite entities as well as the criteria builder factory and
+ * entity view manager that are shared by all benchmarks of a trial.
+ *
+ * @author Christian Beikov
+ * @since 1.6.13
+ */
+@State(Scope.Benchmark)
+public class BenchmarkContext {
+
+    public static final int PERSON_COUNT = 10;
+    public static final int DOCUMENT_COUNT = 100;
+
+    private EntityManagerFactory emf;
+    private CriteriaBuilderFactory cbf;
+    private EntityViewManager evm;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        emf = Persistence.createEntityManagerFactory("benchmark");
+        cbf = Criteria.getDefault().createCriteriaBuilderFactory(emf);
+
+        EntityViewConfiguration cfg = EntityViews.createDefaultConfiguration();
+        cfg.addEntityView(DocumentView.class);
+        cfg.addEntityView(PersonView.class);
+        cfg.addEntityView(UpdatableDocumentView.class);
+        evm = cfg.createEntityViewManager(cbf);
+
+        EntityManager em = emf.createEntityManager();
+        try {
+            em.getTransaction().begin();
+            Person[] persons = new Person[PERSON_COUNT];
+            for (int i = 0; i < persons.length; i++) {
+                persons[i] = new Person("Person " + i);
+                em.persist(persons[i]);
+            }
+            for (int i = 0; i < DOCUMENT_COUNT; i++) {
+                em.persist(new Document("Document " + i, persons[i % PERSON_COUNT], new Version(1), new Version(2)));
+            }
+            em.getTransaction().commit();
+        } finally {
+            em.close();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (emf != null) {
+            emf.close();
+        }
+    }
+
+    public EntityManagerFactory getEntityManagerFactory() {
+        return emf;
+    }
+
+    public CriteriaBuilderFactory getCriteriaBuilderFactory() {
+        return cbf;
+    }
+
+    public EntityViewManager getEntityViewManager() {
+        return evm;
+    }
+}
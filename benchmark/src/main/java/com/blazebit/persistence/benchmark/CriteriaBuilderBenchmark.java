@@ -0,0 +1,98 @@
+/*
+ * Copyright 2014 - 2024 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.benchmark;
+
+import com.blazebit.persistence.CriteriaBuilder;
+import com.blazebit.persistence.testsuite.entity.Document;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Tuple;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures building a criteria builder and rendering its query string via {@link CriteriaBuilder#getQueryString()}.
+ *
+ * @author Christian Beikov
+ * @since 1.6.13
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CriteriaBuilderBenchmark {
+
+    private EntityManager em;
+
+    @Setup(Level.Trial)
+    public void setUp(BenchmarkContext context) {
+        em = context.getEntityManagerFactory().createEntityManager();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        em.close();
+    }
+
+    @Benchmark
+    public String simpleQuery(BenchmarkContext context) {
+        return context.getCriteriaBuilderFactory().create(em, Document.class, "d")
+                .where("d.name").eq("Document 1")
+                .getQueryString();
+    }
+
+    @Benchmark
+    public String implicitJoinQuery(BenchmarkContext context) {
+        CriteriaBuilder<Tuple> cb = context.getCriteriaBuilderFactory().create(em, Tuple.class)
+                .from(Document.class, "d")
+                .select("d.id")
+                .select("d.name")
+                .select("d.owner.name")
+                .select("COUNT(d.versions.id)")
+                .where("d.owner.name").like().value("Person%").noEscape()
+                .where("d.age").ge(0L)
+                .groupBy("d.id", "d.name", "d.owner.name")
+                .orderByAsc("d.name")
+                .orderByAsc("d.id");
+        return cb.getQueryString();
+    }
+
+    @Benchmark
+    public String subqueryQuery(BenchmarkContext context) {
+        return context.getCriteriaBuilderFactory().create(em, Document.class, "d")
+                .where("d.owner.id").in()
+                    .from(Document.class, "sub")
+                    .select("sub.owner.id")
+                    .where("sub.age").gt(10L)
+                .end()
+                .orderByDesc("d.id")
+                .getQueryString();
+    }
+}
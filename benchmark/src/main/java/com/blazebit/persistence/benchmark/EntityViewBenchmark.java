@@ -0,0 +1,86 @@
+/*
+ * Copyright 2014 - 2024 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.benchmark;
+
+import com.blazebit.persistence.CriteriaBuilder;
+import com.blazebit.persistence.benchmark.view.DocumentView;
+import com.blazebit.persistence.testsuite.entity.Document;
+import com.blazebit.persistence.view.EntityViewSetting;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures applying an entity view setting to a criteria builder as well as fetching entity views,
+ * which includes the tuple transformation done by the object builders created from the
+ * {@code ViewTypeObjectBuilderTemplate}.
+ *
+ * @author Christian Beikov
+ * @since 1.6.13
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EntityViewBenchmark {
+
+    private EntityManager em;
+
+    @Setup(Level.Trial)
+    public void setUp(BenchmarkContext context) {
+        em = context.getEntityManagerFactory().createEntityManager();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        em.close();
+    }
+
+    private CriteriaBuilder<DocumentView> createBuilder(BenchmarkContext context) {
+        CriteriaBuilder<Document> cb = context.getCriteriaBuilderFactory().create(em, Document.class, "d")
+                .orderByAsc("d.id");
+        return context.getEntityViewManager().applySetting(EntityViewSetting.create(DocumentView.class), cb);
+    }
+
+    @Benchmark
+    public String applySetting(BenchmarkContext context) {
+        return createBuilder(context).getQueryString();
+    }
+
+    @Benchmark
+    public List<DocumentView> fetchViews(BenchmarkContext context) {
+        List<DocumentView> list = createBuilder(context).getResultList();
+        // Don't keep the entities around between invocations
+        em.clear();
+        return list;
+    }
+}
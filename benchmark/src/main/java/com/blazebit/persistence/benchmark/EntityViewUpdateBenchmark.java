@@ -0,0 +1,94 @@
+/*
+ * Copyright 2014 - 2024 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.benchmark;
+
+import com.blazebit.persistence.benchmark.view.UpdatableDocumentView;
+import com.blazebit.persistence.testsuite.entity.Document;
+import com.blazebit.persistence.view.EntityViewManager;
+import com.blazebit.persistence.view.EntityViewSetting;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures flushing dirty updatable entity views through the {@code EntityViewUpdaterImpl}.
+ *
+ * @author Christian Beikov
+ * @since 1.6.13
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EntityViewUpdateBenchmark {
+
+    private static final int BATCH_SIZE = 10;
+
+    private EntityManager em;
+    private List<UpdatableDocumentView> views;
+    private long counter;
+
+    @Setup(Level.Trial)
+    public void setUp(BenchmarkContext context) {
+        em = context.getEntityManagerFactory().createEntityManager();
+        views = context.getEntityViewManager().applySetting(
+                EntityViewSetting.create(UpdatableDocumentView.class),
+                context.getCriteriaBuilderFactory().create(em, Document.class, "d").orderByAsc("d.id")
+        ).setMaxResults(BATCH_SIZE).getResultList();
+        em.clear();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        em.close();
+    }
+
+    @Benchmark
+    public void saveViews(BenchmarkContext context) {
+        EntityViewManager evm = context.getEntityViewManager();
+        long age = ++counter;
+        em.getTransaction().begin();
+        try {
+            for (int i = 0; i < views.size(); i++) {
+                UpdatableDocumentView view = views.get(i);
+                view.setAge(age);
+                evm.save(em, view);
+            }
+            em.getTransaction().commit();
+        } finally {
+            if (em.getTransaction().isActive()) {
+                em.getTransaction().rollback();
+            }
+            em.clear();
+        }
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2014 - 2024 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.benchmark;
+
+import com.blazebit.persistence.parser.FunctionKind;
+import com.blazebit.persistence.parser.expression.BoundedExpressionCache;
+import com.blazebit.persistence.parser.expression.ConcurrentHashMapExpressionCache;
+import com.blazebit.persistence.parser.expression.ExpressionFactory;
+import com.blazebit.persistence.parser.expression.ExpressionFactoryImpl;
+import com.blazebit.persistence.parser.expression.SimpleCachingExpressionFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures parsing of typical expressions with {@link ExpressionFactoryImpl} with and without an expression cache.
+ *
+ * @author Christian Beikov
+ * @since 1.6.13
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExpressionFactoryBenchmark {
+
+    private static final String[] EXPRESSIONS = {
+        "d.owner.name",
+        "d.versions.versionIdx",
+        "UPPER(d.name)",
+        "COALESCE(d.owner.name, 'unknown')",
+        "CASE WHEN d.age > 10 THEN 'old' ELSE 'new' END",
+        "SIZE(d.versions)",
+        "KEY(d.contacts).name",
+        "TREAT(d.owner AS Person).name"
+    };
+    private static final String[] PREDICATES = {
+        "d.name = :name",
+        "d.age BETWEEN 1 AND 10 AND d.owner.name LIKE 'Person%'",
+        "d.owner.id IN :ids OR d.name IS NULL",
+        "NOT(d.age < 5) AND LENGTH(d.name) > 3"
+    };
+
+    @Param({ "none", "concurrent", "bounded" })
+    public String cache;
+
+    private ExpressionFactory expressionFactory;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Map<String, FunctionKind> functions = new HashMap<>();
+        functions.put("sum", FunctionKind.AGGREGATE);
+        functions.put("min", FunctionKind.AGGREGATE);
+        functions.put("max", FunctionKind.AGGREGATE);
+        functions.put("avg", FunctionKind.AGGREGATE);
+        functions.put("count", FunctionKind.AGGREGATE);
+        ExpressionFactory factory = new ExpressionFactoryImpl(functions, true, true);
+        switch (cache) {
+            case "none":
+                expressionFactory = factory;
+                break;
+            case "concurrent":
+                expressionFactory = new SimpleCachingExpressionFactory(factory, new ConcurrentHashMapExpressionCache<Object>());
+                break;
+            case "bounded":
+                expressionFactory = new SimpleCachingExpressionFactory(factory, new BoundedExpressionCache<Object>());
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown cache: " + cache);
+        }
+    }
+
+    @Benchmark
+    public void simpleExpressions(Blackhole blackhole) {
+        for (int i = 0; i < EXPRESSIONS.length; i++) {
+            blackhole.consume(expressionFactory.createSimpleExpression(EXPRESSIONS[i], false));
+        }
+    }
+
+    @Benchmark
+    public void booleanExpressions(Blackhole blackhole) {
+        for (int i = 0; i < PREDICATES.length; i++) {
+            blackhole.consume(expressionFactory.createBooleanExpression(PREDICATES[i], false));
+        }
+    }
+}
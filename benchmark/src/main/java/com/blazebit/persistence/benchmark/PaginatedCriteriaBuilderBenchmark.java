@@ -0,0 +1,96 @@
+/*
+ * Copyright 2014 - 2024 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.benchmark;
+
+import com.blazebit.persistence.PaginatedCriteriaBuilder;
+import com.blazebit.persistence.testsuite.entity.Document;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import javax.persistence.EntityManager;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the generation of the id, count and object queries of a {@link PaginatedCriteriaBuilder}
+ * that paginates over a collection join.
+ *
+ * @author Christian Beikov
+ * @since 1.6.13
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PaginatedCriteriaBuilderBenchmark {
+
+    private EntityManager em;
+
+    @Setup(Level.Trial)
+    public void setUp(BenchmarkContext context) {
+        em = context.getEntityManagerFactory().createEntityManager();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        em.close();
+    }
+
+    private PaginatedCriteriaBuilder<Document> createBuilder(BenchmarkContext context) {
+        return context.getCriteriaBuilderFactory().create(em, Document.class, "d")
+                .leftJoinFetch("d.versions", "v")
+                .where("d.owner.name").like().value("Person%").noEscape()
+                .orderByAsc("d.name")
+                .orderByAsc("d.id")
+                .page(0, 10);
+    }
+
+    @Benchmark
+    public String idQuery(BenchmarkContext context) {
+        return createBuilder(context).getPageIdQueryString();
+    }
+
+    @Benchmark
+    public String countQuery(BenchmarkContext context) {
+        return createBuilder(context).getPageCountQueryString();
+    }
+
+    @Benchmark
+    public String objectQuery(BenchmarkContext context) {
+        return createBuilder(context).getQueryString();
+    }
+
+    @Benchmark
+    public void allQueries(BenchmarkContext context, Blackhole blackhole) {
+        PaginatedCriteriaBuilder<Document> cb = createBuilder(context);
+        blackhole.consume(cb.getPageIdQueryString());
+        blackhole.consume(cb.getPageCountQueryString());
+        blackhole.consume(cb.getQueryString());
+    }
+}
@@ -108,6 +108,16 @@ public final class ConfigurationProperties {
      */
     public static final String EXPRESSION_CACHE_CLASS = "com.blazebit.persistence.expression.cache_class";
 
+    /**
+     * The maximum number of entries per cache of the expression cache.
+     * The value is passed to the <code>int</code> constructor of the expression cache implementation,
+     * so it can only be used with an implementation like <code>BoundedExpressionCache</code>.
+     * By default, the no-arg constructor is used.
+     *
+     * @since 1.6.13
+     */
+    public static final String EXPRESSION_CACHE_MAXIMUM_SIZE = "com.blazebit.persistence.expression.cache_maximum_size";
+
     /**
      * If set to false, tuples of a VALUES clause with all null values won't be filtered out.
      * Valid values for this property are <code>true</code> or <code>false</code>.
@@ -192,6 +202,61 @@ public final class ConfigurationProperties {
      */
     public static final String QUERY_PLAN_CACHE_ENABLED = "com.blazebit.persistence.query_plan_cache_enabled";
 
+    /**
+     * The fully qualified class name of a {@link com.blazebit.persistence.spi.QueryPlanCache} implementation
+     * that is used to cache the query plans of queries that require SQL replacement.
+     * By default, the query plan cache provided by the JPA provider integration is used, if the integration implements
+     * {@link com.blazebit.persistence.spi.QueryPlanCachingExtendedQuerySupport}.
+     *
+     * @since 1.6.13
+     */
+    public static final String QUERY_PLAN_CACHE_CLASS = "com.blazebit.persistence.query_plan_cache_class";
+
+    /**
+     * The maximum number of query plans that are cached for queries that require SQL replacement.
+     * When a {@link #QUERY_PLAN_CACHE_CLASS} is configured, the value is passed to its <code>int</code> constructor.
+     * Default is <code>2048</code>.
+     *
+     * @since 1.6.13
+     */
+    public static final String QUERY_PLAN_CACHE_MAXIMUM_SIZE = "com.blazebit.persistence.query_plan_cache_maximum_size";
+
+    /**
+     * The time to live in milliseconds of the entries in the {@link PaginationCountCache}.
+     * Counts are only cached for paginated criteria builders that enabled caching via {@link PaginatedCriteriaBuilder#withCountCache(boolean)}.
+     * Default is <code>60000</code>.
+     *
+     * @since 1.6.13
+     */
+    public static final String PAGINATION_COUNT_CACHE_TTL = "com.blazebit.persistence.pagination_count_cache_ttl";
+
+    /**
+     * The maximum number of counts that are cached in the {@link PaginationCountCache}.
+     * When the cache is full, the least recently used entry is evicted.
+     * Default is <code>1024</code>.
+     *
+     * @since 1.6.13
+     */
+    public static final String PAGINATION_COUNT_CACHE_MAXIMUM_SIZE = "com.blazebit.persistence.pagination_count_cache_maximum_size";
+
+    /**
+     * If set to true, runtime statistics of executed queries are aggregated per query string in the {@link QueryStatisticsRegistry}.
+     * Valid values for this property are <code>true</code> and <code>false</code>.
+     * Default is <code>false</code>.
+     *
+     * @since 1.6.13
+     */
+    public static final String QUERY_STATISTICS_ENABLED = "com.blazebit.persistence.query_statistics_enabled";
+
+    /**
+     * The maximum number of distinct query strings for which the {@link QueryStatisticsRegistry} aggregates statistics.
+     * Executions of further query strings are not recorded.
+     * Default is <code>256</code>.
+     *
+     * @since 1.6.13
+     */
+    public static final String QUERY_STATISTICS_MAXIMUM_QUERIES = "com.blazebit.persistence.query_statistics_maximum_queries";
+
     /**
      * If set to true, JPA Criteria predicates are wrapped in a negation predicate instead of copied with negation being propagated.
      * Valid values for this property are <code>true</code> and <code>false</code>.
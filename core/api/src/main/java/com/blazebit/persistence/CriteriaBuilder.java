@@ -61,6 +61,22 @@ public interface CriteriaBuilder<T> extends FullQueryBuilder<T, CriteriaBuilder<
      */
     public String getQueryRootCountQueryString(long maximumCount);
 
+    /**
+     * Prepares this query builder for repeated execution and returns an immutable prepared query that can be used concurrently.
+     * The query string is rendered once and every query created from the prepared query is bound with the parameter values of this query builder.
+     * After preparing, this query builder can't be modified anymore.
+     *
+     * Every created query uses a new instance of a {@link StatefulObjectBuilder}, like the ones of entity views, whereas other object builders
+     * are shared by all created queries and must be thread-safe. Entity view attributes that are fetched with separate queries
+     * use the entity manager that is passed for creating the query.
+     * Queries that require SQL level processing like CTEs, VALUES clauses or entity functions can't be prepared.
+     *
+     * @return The prepared query
+     * @throws IllegalStateException if the query requires SQL level processing
+     * @since 1.6.13
+     */
+    public PreparedCriteriaQuery<T> prepare();
+
     @Override
     public <Y> CriteriaBuilder<Y> copy(Class<Y> resultClass);
 
@@ -21,6 +21,7 @@ import com.blazebit.persistence.spi.JpqlFunction;
 import com.blazebit.persistence.spi.ServiceProvider;
 
 import javax.persistence.EntityManager;
+import java.util.Collection;
 import java.util.Map;
 
 /**
@@ -200,4 +201,17 @@ public interface CriteriaBuilderFactory extends ServiceProvider, ConfigurationSo
      * @since 1.2.0
      */
     public <T> InsertCriteriaBuilder<T> insertCollection(EntityManager entityManager, Class<T> insertOwnerClass, String collectionName);
+
+    /**
+     * Creates and caches the query plans of the queries of the given query builders without executing them.
+     * This can be used to pre-compile known query shapes at startup, so that the first executions don't have to pay the translation cost.
+     * Parameters don't have to be set, but collection valued parameters should be set to values of the size that is expected at runtime.
+     *
+     * Only queries that require SQL replacement e.g. because they use CTEs are cached in the {@link com.blazebit.persistence.spi.QueryPlanCache},
+     * the query plans of the other queries are cached by the JPA provider when the queries are created.
+     *
+     * @param queryBuilders The query builders for which to prepare the query plans
+     * @since 1.6.13
+     */
+    public void prepareQueryPlans(Collection<? extends Queryable<?, ?>> queryBuilders);
 }
@@ -135,6 +135,29 @@ public interface PaginatedCriteriaBuilder<T> extends FullQueryBuilder<T, Paginat
      */
     public long getBoundedCount();
 
+    /**
+     * Enables or disables the use of an estimated count based on the table statistics of the dbms instead of an exact count.
+     * The estimate is only used if the query is not filtered i.e. has a single root entity without restrictions or inner joins,
+     * the SQL has no restrictions either e.g. due to a Hibernate <code>@Where</code> mapping or an enabled session filter,
+     * no bounded count is used and the {@link com.blazebit.persistence.spi.DbmsDialect} implements {@link com.blazebit.persistence.spi.RowCountEstimatingDbmsDialect}.
+     * Otherwise, or if no statistics are available, the exact count is determined.
+     * Whether the total size is estimated can be checked via {@link PagedArrayList#isTotalSizeEstimated()}.
+     * Since an inlined count can't be replaced by the estimate, enabling the estimated count also disables the inlining of the count query.
+     *
+     * @param withEstimatedCount true to enable, false to disable the estimated count
+     * @return The query builder for chaining calls
+     * @since 1.6.13
+     */
+    public PaginatedCriteriaBuilder<T> withEstimatedCount(boolean withEstimatedCount);
+
+    /**
+     * Returns whether an estimated count is used if possible.
+     *
+     * @return true when enabled, false otherwise
+     * @since 1.6.13
+     */
+    public boolean isWithEstimatedCount();
+
     /**
      * Forces the use of an id query even if the pagination would not need it.
      *
@@ -204,6 +227,26 @@ public interface PaginatedCriteriaBuilder<T> extends FullQueryBuilder<T, Paginat
      */
     public boolean isWithInlineCountQuery();
 
+    /**
+     * Enables or disables the caching of the count query result in the {@link PaginationCountCache} of the criteria builder factory.
+     * When enabled, subsequent executions of a count query with the same query string and parameter values reuse the cached count
+     * until the entry expires or is invalidated, which is useful when a client navigates through the pages of the same filter.
+     * Since an inlined count can't be reused, enabling the count cache also disables the inlining of the count query.
+     *
+     * @param withCountCache true to enable, false to disable the count caching
+     * @return The query builder for chaining calls
+     * @since 1.6.13
+     */
+    public PaginatedCriteriaBuilder<T> withCountCache(boolean withCountCache);
+
+    /**
+     * Returns whether the count query result is cached.
+     *
+     * @return true when enabled, false otherwise
+     * @since 1.6.13
+     */
+    public boolean isWithCountCache();
+
     /**
      * Creates and returns a new {@link CriteriaBuilder} that can be used to query the id values for the current page.
      *
@@ -212,6 +255,23 @@ public interface PaginatedCriteriaBuilder<T> extends FullQueryBuilder<T, Paginat
      */
     public CriteriaBuilder<Object[]> createPageIdQuery();
 
+    /**
+     * Prepares this query builder for repeated execution and returns an immutable prepared query that can be used concurrently.
+     * The first result, the page size and the keyset page are bound when creating a query from the prepared query.
+     * All other settings and the parameter values of this query builder are captured. After preparing, this query builder can't be modified anymore.
+     *
+     * Every created query uses a new instance of a {@link StatefulObjectBuilder}, like the ones of entity views, whereas other object builders
+     * are shared by all created queries and must be thread-safe. Entity view attributes that are fetched with separate queries
+     * use the entity manager that is passed for creating the query.
+     * Queries that require SQL level processing like CTEs, VALUES clauses, entity functions or a bounded count can't be prepared
+     * and neither can queries that navigate to the page of an entity.
+     *
+     * @return The prepared query
+     * @throws IllegalStateException if the query can't be prepared
+     * @since 1.6.13
+     */
+    public PreparedPaginatedCriteriaQuery<T> prepare();
+
     /**
      * Execute the query and return the result as a type PagedList.
      *
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2014 - 2024 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence;
+
+/**
+ * A cache for the results of count queries of paginated criteria builders that enabled caching via {@link PaginatedCriteriaBuilder#withCountCache(boolean)}.
+ * Entries are keyed by the count query string and the bound parameter values and expire after the time to live
+ * configured via {@link ConfigurationProperties#PAGINATION_COUNT_CACHE_TTL}. Entity parameter values are keyed by their identifier.
+ *
+ * The tenant and the enabled session filters of the entity manager are only part of the key if the JPA integration
+ * implements {@link com.blazebit.persistence.spi.FilterAwareExtendedQuerySupport}, which is currently only the case for Hibernate before 6.
+ * With other JPA providers, the cache must not be used for queries that are subject to multi-tenancy or provider specific filters.
+ *
+ * The cache can be retrieved via {@link CriteriaBuilderFactory#getService(Class)}.
+ * Applications should invalidate the entries for an entity type after modifying entities of that type
+ * if stale totals within the time to live are not acceptable.
+ *
+ * @author Christian Beikov
+ * @since 1.6.13
+ */
+public interface PaginationCountCache {
+
+    /**
+     * Removes all cached counts of queries that use the given entity type, a sub- or a super type of it in the <code>FROM</code> clause.
+     *
+     * @param entityClass The entity type
+     */
+    public void invalidate(Class<?> entityClass);
+
+    /**
+     * Removes all cached counts.
+     */
+    public void invalidateAll();
+
+    /**
+     * Returns the number of cached counts, including entries that expired but were not removed yet.
+     *
+     * @return The number of cached counts
+     */
+    public int size();
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2014 - 2024 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence;
+
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+
+/**
+ * A query of a {@link CriteriaBuilder} that was prepared via {@link CriteriaBuilder#prepare()}.
+ * The query string is rendered once, so that creating a query only has to create the JPA query and bind the parameters.
+ * A prepared query is immutable and can be used by multiple threads concurrently.
+ *
+ * @param <T> The query result type
+ * @author Christian Beikov
+ * @since 1.6.13
+ */
+public interface PreparedCriteriaQuery<T> {
+
+    /**
+     * Returns the query string of the prepared query.
+     *
+     * @return The query string
+     */
+    public String getQueryString();
+
+    /**
+     * Creates a new query for the given entity manager.
+     * The query is bound with the parameter values that were set on the query builder when it was prepared,
+     * which can be overridden on the returned query.
+     *
+     * @param entityManager The entity manager to use for the query
+     * @return A new query
+     */
+    public TypedQuery<T> createQuery(EntityManager entityManager);
+}
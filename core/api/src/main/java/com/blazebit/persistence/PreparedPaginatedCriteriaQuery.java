@@ -0,0 +1,60 @@
+/*
+ * Copyright 2014 - 2024 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence;
+
+import javax.persistence.EntityManager;
+
+/**
+ * A query of a {@link PaginatedCriteriaBuilder} that was prepared via {@link PaginatedCriteriaBuilder#prepare()}.
+ * The first result, the page size and the keyset page are bound when creating a query. The query strings are rendered once
+ * for every keyset mode and page size, so that creating a query only has to create the JPA queries and bind the parameters.
+ * A prepared query is immutable and can be used by multiple threads concurrently.
+ *
+ * @param <T> The query result type
+ * @author Christian Beikov
+ * @since 1.6.13
+ */
+public interface PreparedPaginatedCriteriaQuery<T> {
+
+    /**
+     * Returns the query string of the object query of the prepared query for offset pagination.
+     *
+     * @return The query string
+     */
+    public String getQueryString();
+
+    /**
+     * Creates a new query for the given entity manager that uses offset pagination.
+     *
+     * @param entityManager The entity manager to use for the query
+     * @param firstResult The position of the first result to retrieve, numbered from 0
+     * @param maxResults The maximum number of results to retrieve
+     * @return A new query
+     */
+    public PaginatedTypedQuery<T> createQuery(EntityManager entityManager, int firstResult, int maxResults);
+
+    /**
+     * Creates a new query for the given entity manager that uses keyset pagination if possible like {@link FullQueryBuilder#page(KeysetPage, int, int)}.
+     *
+     * @param entityManager The entity manager to use for the query
+     * @param keysetPage The key set from a previous result, may be null
+     * @param firstResult The position of the first result to retrieve, numbered from 0
+     * @param maxResults The maximum number of results to retrieve
+     * @return A new query
+     */
+    public PaginatedTypedQuery<T> createQuery(EntityManager entityManager, KeysetPage keysetPage, int firstResult, int maxResults);
+}
@@ -0,0 +1,230 @@
+/*
+ * Copyright 2014 - 2024 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence;
+
+import com.blazebit.persistence.spi.HistogramQueryInstrumentationListener;
+
+/**
+ * A snapshot of the runtime statistics of a query shape as aggregated by the {@link QueryStatisticsRegistry}.
+ *
+ * The execution durations are recorded into a histogram with exponential buckets. The bucket with index <code>i</code> counts the durations
+ * that are smaller than <code>2^i</code> nanoseconds and not contained in a lower bucket.
+ *
+ * @author Christian Beikov
+ * @since 1.6.13
+ */
+public final class QueryStatistics {
+
+    /**
+     * The number of buckets of the execution duration histogram.
+     */
+    public static final int BUCKET_COUNT = HistogramQueryInstrumentationListener.Histogram.BUCKET_COUNT;
+
+    private final String query;
+    private final long executionCount;
+    private final long rowCount;
+    private final long totalNanos;
+    private final long maxNanos;
+    private final long[] bucketCounts;
+    private final long countQueryNanos;
+    private final long idQueryNanos;
+    private final long objectQueryNanos;
+    private final long queryPlanCacheHitCount;
+    private final long queryPlanCacheMissCount;
+
+    /**
+     * Creates a new snapshot.
+     *
+     * @param query The query string
+     * @param executionCount The number of executions
+     * @param rowCount The number of returned or modified rows
+     * @param totalNanos The sum of the execution durations in nanoseconds
+     * @param maxNanos The maximum execution duration in nanoseconds
+     * @param bucketCounts The counts of the execution duration histogram buckets
+     * @param countQueryNanos The sum of the count query durations of paginated queries in nanoseconds
+     * @param idQueryNanos The sum of the id query durations of paginated queries in nanoseconds
+     * @param objectQueryNanos The sum of the object query durations of paginated queries in nanoseconds
+     * @param queryPlanCacheHitCount The number of query plan cache hits
+     * @param queryPlanCacheMissCount The number of query plan cache misses
+     */
+    public QueryStatistics(String query, long executionCount, long rowCount, long totalNanos, long maxNanos, long[] bucketCounts,
+                           long countQueryNanos, long idQueryNanos, long objectQueryNanos, long queryPlanCacheHitCount, long queryPlanCacheMissCount) {
+        if (bucketCounts.length != BUCKET_COUNT) {
+            throw new IllegalArgumentException("Expected " + BUCKET_COUNT + " bucket counts but got " + bucketCounts.length);
+        }
+        this.query = query;
+        this.executionCount = executionCount;
+        this.rowCount = rowCount;
+        this.totalNanos = totalNanos;
+        this.maxNanos = maxNanos;
+        this.bucketCounts = bucketCounts.clone();
+        this.countQueryNanos = countQueryNanos;
+        this.idQueryNanos = idQueryNanos;
+        this.objectQueryNanos = objectQueryNanos;
+        this.queryPlanCacheHitCount = queryPlanCacheHitCount;
+        this.queryPlanCacheMissCount = queryPlanCacheMissCount;
+    }
+
+    /**
+     * Returns the query string of the query shape.
+     *
+     * @return the query string
+     */
+    public String getQuery() {
+        return query;
+    }
+
+    /**
+     * Returns the number of executions.
+     *
+     * @return the number of executions
+     */
+    public long getExecutionCount() {
+        return executionCount;
+    }
+
+    /**
+     * Returns the number of rows that were returned by or modified through the executions.
+     *
+     * @return the number of rows
+     */
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Returns the sum of all execution durations in nanoseconds.
+     *
+     * @return the sum of all execution durations
+     */
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    /**
+     * Returns the maximum execution duration in nanoseconds.
+     *
+     * @return the maximum execution duration
+     */
+    public long getMaxNanos() {
+        return maxNanos;
+    }
+
+    /**
+     * Returns the mean of the execution durations in nanoseconds.
+     *
+     * @return the mean of the execution durations or 0 if nothing was recorded
+     */
+    public double getMeanNanos() {
+        return executionCount == 0 ? 0d : (double) totalNanos / executionCount;
+    }
+
+    /**
+     * Returns an upper bound for the given percentile of the execution durations in nanoseconds.
+     *
+     * @param percentile The percentile between 0 and 1
+     * @return the upper bound of the bucket that contains the percentile or 0 if nothing was recorded
+     */
+    public long getPercentileNanos(double percentile) {
+        if (percentile < 0d || percentile > 1d) {
+            throw new IllegalArgumentException("Invalid percentile: " + percentile);
+        }
+        long total = 0L;
+        for (int i = 0; i < bucketCounts.length; i++) {
+            total += bucketCounts[i];
+        }
+        if (total == 0L) {
+            return 0L;
+        }
+        long threshold = (long) Math.ceil(percentile * total);
+        long cumulative = 0L;
+        for (int i = 0; i < bucketCounts.length; i++) {
+            cumulative += bucketCounts[i];
+            if (cumulative >= threshold && cumulative != 0L) {
+                return Math.min(HistogramQueryInstrumentationListener.Histogram.getBucketUpperBoundNanos(i), maxNanos);
+            }
+        }
+        return maxNanos;
+    }
+
+    /**
+     * Returns the counts of the execution duration histogram buckets.
+     *
+     * @return the counts of the buckets
+     */
+    public long[] getBucketCounts() {
+        return bucketCounts.clone();
+    }
+
+    /**
+     * Returns the sum of the count query durations of paginated queries in nanoseconds.
+     *
+     * @return the sum of the count query durations
+     */
+    public long getCountQueryNanos() {
+        return countQueryNanos;
+    }
+
+    /**
+     * Returns the sum of the id query durations of paginated queries in nanoseconds.
+     *
+     * @return the sum of the id query durations
+     */
+    public long getIdQueryNanos() {
+        return idQueryNanos;
+    }
+
+    /**
+     * Returns the sum of the object query durations of paginated queries in nanoseconds.
+     *
+     * @return the sum of the object query durations
+     */
+    public long getObjectQueryNanos() {
+        return objectQueryNanos;
+    }
+
+    /**
+     * Returns the number of query plan cache hits for executions that require SQL replacement.
+     *
+     * @return the number of query plan cache hits
+     */
+    public long getQueryPlanCacheHitCount() {
+        return queryPlanCacheHitCount;
+    }
+
+    /**
+     * Returns the number of query plan cache misses for executions that require SQL replacement.
+     *
+     * @return the number of query plan cache misses
+     */
+    public long getQueryPlanCacheMissCount() {
+        return queryPlanCacheMissCount;
+    }
+
+    @Override
+    public String toString() {
+        return "QueryStatistics{" +
+                "query='" + query + '\'' +
+                ", executionCount=" + executionCount +
+                ", rowCount=" + rowCount +
+                ", meanNanos=" + getMeanNanos() +
+                ", maxNanos=" + maxNanos +
+                ", queryPlanCacheHitCount=" + queryPlanCacheHitCount +
+                ", queryPlanCacheMissCount=" + queryPlanCacheMissCount +
+                '}';
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2014 - 2024 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence;
+
+import java.util.Map;
+
+/**
+ * A registry that aggregates runtime statistics of executed queries per query shape i.e. per JPQL query string.
+ * Since parameter values are not part of the query string, executions of a query with different parameter values are aggregated together.
+ *
+ * The registry is only available if enabled via {@link ConfigurationProperties#QUERY_STATISTICS_ENABLED}
+ * and can be retrieved via {@link CriteriaBuilderFactory#getService(Class)}.
+ * To bound the memory consumption, at most {@link ConfigurationProperties#QUERY_STATISTICS_MAXIMUM_QUERIES} query shapes are tracked.
+ *
+ * @author Christian Beikov
+ * @since 1.6.13
+ */
+public interface QueryStatisticsRegistry {
+
+    /**
+     * Returns a snapshot of the statistics of all tracked query shapes.
+     *
+     * @return The statistics by query string
+     */
+    public Map<String, QueryStatistics> getQueryStatistics();
+
+    /**
+     * Returns a snapshot of the statistics of the given query shape or null if the query shape is not tracked.
+     *
+     * @param query The query string
+     * @return The statistics or null
+     */
+    public QueryStatistics getQueryStatistics(String query);
+
+    /**
+     * Removes the statistics of all query shapes.
+     */
+    public void reset();
+}
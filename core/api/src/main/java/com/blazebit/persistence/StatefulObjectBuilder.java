@@ -0,0 +1,40 @@
+/*
+ * Copyright 2014 - 2024 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence;
+
+import javax.persistence.EntityManager;
+
+/**
+ * An object builder that holds state during the execution of a query and thus can't be shared between queries that are executed concurrently.
+ * Queries created from a {@link PreparedCriteriaQuery} or {@link PreparedPaginatedCriteriaQuery} use a new instance of such an object builder.
+ *
+ * @param <T> The type that this builder produces
+ * @author Christian Beikov
+ * @since 1.6.13
+ */
+public interface StatefulObjectBuilder<T> extends ObjectBuilder<T> {
+
+    /**
+     * Creates a new object builder that produces the same objects as this object builder, but doesn't share the execution state.
+     * The select items are not applied again, as the new object builder works on the same select items.
+     * Further queries that are executed by the new object builder, like the ones for correlations, must use the given entity manager.
+     *
+     * @param entityManager The entity manager of the query for which the object builder is created
+     * @return A new object builder
+     */
+    public StatefulObjectBuilder<T> newInstance(EntityManager entityManager);
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright 2014 - 2024 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence;
+
+/**
+ * An object builder that needs {@link #buildList(java.util.List)} to produce the final objects,
+ * but can do so for consecutive windows of the elements produced by {@link #build(Object[])}.
+ * This allows to stream results of such object builders with bounded memory.
+ *
+ * @param <T> The type that this builder produces
+ * @author Christian Beikov
+ * @since 1.6.13
+ */
+public interface WindowedObjectBuilder<T> extends ObjectBuilder<T> {
+
+    /**
+     * Returns the minimum number of elements to collect before passing them to {@link #buildList(java.util.List)}.
+     * A value smaller than 1 disables windowing, in which case all elements are passed to {@link #buildList(java.util.List)} at once.
+     *
+     * @return The window size
+     */
+    public int getWindowSize();
+
+    /**
+     * Returns whether a window may end between the given consecutive elements produced by {@link #build(Object[])}
+     * i.e. whether the elements do not contribute to the same object.
+     *
+     * @param previousElement The previous element
+     * @param element The element following the previous element
+     * @return Whether a window may end between the elements
+     */
+    public boolean isWindowBoundary(T previousElement, T element);
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright 2014 - 2024 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.spi;
+
+import javax.persistence.Query;
+
+/**
+ * An optional extension of {@link JpaProvider} for providers that can bind a Java array as single JDBC array parameter.
+ *
+ * Providers that do not implement this interface are assumed to not support array parameters.
+ *
+ * @author Christian Beikov
+ * @since 1.6.13
+ */
+public interface ArrayParameterJpaProvider extends JpaProvider {
+
+    /**
+     * Returns whether arrays of the given element type can be bound as single parameter.
+     *
+     * @param elementType The element type of the array
+     * @return true if supported, else false
+     */
+    public boolean supportsArrayParameter(Class<?> elementType);
+
+    /**
+     * Sets the given values as single array parameter on the given query.
+     *
+     * @param query The query to set the parameter on
+     * @param name The parameter name
+     * @param elementType The element type of the array
+     * @param values The array elements
+     */
+    public void setArrayParameter(Query query, String name, Class<?> elementType, Object[] values);
+}
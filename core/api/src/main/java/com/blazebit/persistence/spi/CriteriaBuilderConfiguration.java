@@ -125,6 +125,23 @@ public interface CriteriaBuilderConfiguration {
      */
     public List<EntityManagerFactoryIntegrator> getEntityManagerIntegrators();
 
+    /**
+     * Registers the given query instrumentation listener in the configuration.
+     *
+     * @param queryInstrumentationListener The listener that should be added
+     * @return this for method chaining
+     * @since 1.6.13
+     */
+    public CriteriaBuilderConfiguration registerQueryInstrumentationListener(QueryInstrumentationListener queryInstrumentationListener);
+
+    /**
+     * Returns a list of registered query instrumentation listeners.
+     *
+     * @return A list of registered query instrumentation listeners
+     * @since 1.6.13
+     */
+    public List<QueryInstrumentationListener> getQueryInstrumentationListeners();
+
     /**
      * Creates a new {@linkplain CriteriaBuilderFactory} based on this configuration.
      *
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2014 - 2024 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.blazebit.persistence.spi;
+
+import javax.persistence.EntityManager;
+
+/**
+ * An optional extension of {@link ExtendedQuerySupport} for JPA providers that support filters which restrict the results of queries
+ * in addition to the restrictions of the query and the mapping, like Hibernate session filters.
+ *
+ * @author Christian Beikov
+ * @since 1.6.13
+ */
+public interface FilterAwareExtendedQuerySupport extends ExtendedQuerySupport {
+
+    /**
+     * Returns whether the given entity manager has filters enabled that restrict the results of queries.
+     *
+     * @param em The entity manager
+     * @return Whether filters are enabled
+     */
+    public boolean hasEnabledFilters(EntityManager em);
+
+    /**
+     * Returns an object that identifies the tenant and the enabled filters with their parameter values of the given entity manager,
+     * or <code>null</code> if there is neither a tenant nor an enabled filter.
+     * Two entity managers for which equal discriminators are returned see the same rows when executing the same query.
+     * The returned object must implement {@link Object#equals(Object)} and {@link Object#hashCode()} and must not reference the entity manager.
+     *
+     * @param em The entity manager
+     * @return The filter discriminator or <code>null</code>
+     */
+    public Object getFilterDiscriminator(EntityManager em);
+}
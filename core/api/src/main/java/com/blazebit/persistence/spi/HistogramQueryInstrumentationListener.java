@@ -0,0 +1,274 @@
+/*
+ * Copyright 2014 - 2024 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.spi;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A {@link QueryInstrumentationListener} that aggregates the reported durations into histograms per phase
+ * and per query string of a phase. The histograms can be read at any time e.g. to export them to a metrics library
+ * or to find the slowest query shapes.
+ *
+ * To bound the memory consumption, at most {@link #getMaximumQueries()} distinct query strings are tracked.
+ * Durations of further query strings are only aggregated into the phase histograms.
+ *
+ * @author Christian Beikov
+ * @since 1.6.13
+ */
+public class HistogramQueryInstrumentationListener implements QueryInstrumentationListener {
+
+    /**
+     * The default maximum number of distinct query strings for which histograms are tracked.
+     */
+    public static final int DEFAULT_MAXIMUM_QUERIES = 256;
+
+    private final int maximumQueries;
+    private final AtomicInteger queryCount = new AtomicInteger();
+    private final Map<QueryPhase, Histogram> phaseHistograms = new EnumMap<>(QueryPhase.class);
+    private final Map<QueryPhase, ConcurrentMap<String, Histogram>> queryHistograms = new EnumMap<>(QueryPhase.class);
+
+    /**
+     * Creates a listener that tracks at most {@link #DEFAULT_MAXIMUM_QUERIES} distinct query strings.
+     */
+    public HistogramQueryInstrumentationListener() {
+        this(DEFAULT_MAXIMUM_QUERIES);
+    }
+
+    /**
+     * Creates a listener that tracks at most the given number of distinct query strings.
+     *
+     * @param maximumQueries The maximum number of distinct query strings to track
+     */
+    public HistogramQueryInstrumentationListener(int maximumQueries) {
+        if (maximumQueries < 0) {
+            throw new IllegalArgumentException("Invalid negative maximum queries: " + maximumQueries);
+        }
+        this.maximumQueries = maximumQueries;
+        for (QueryPhase phase : QueryPhase.values()) {
+            phaseHistograms.put(phase, new Histogram());
+            queryHistograms.put(phase, new ConcurrentHashMap<String, Histogram>());
+        }
+    }
+
+    @Override
+    public void onPhaseCompleted(QueryPhase phase, String query, long durationNanos) {
+        phaseHistograms.get(phase).record(durationNanos);
+        if (query != null) {
+            ConcurrentMap<String, Histogram> histograms = queryHistograms.get(phase);
+            Histogram histogram = histograms.get(query);
+            if (histogram == null) {
+                if (queryCount.get() >= maximumQueries) {
+                    return;
+                }
+                histogram = new Histogram();
+                Histogram oldHistogram = histograms.putIfAbsent(query, histogram);
+                if (oldHistogram == null) {
+                    queryCount.incrementAndGet();
+                } else {
+                    histogram = oldHistogram;
+                }
+            }
+            histogram.record(durationNanos);
+        }
+    }
+
+    /**
+     * Returns the maximum number of distinct query strings for which histograms are tracked.
+     *
+     * @return the maximum number of distinct query strings
+     */
+    public int getMaximumQueries() {
+        return maximumQueries;
+    }
+
+    /**
+     * Returns the histogram of all durations reported for the given phase.
+     *
+     * @param phase The phase
+     * @return the histogram of the phase
+     */
+    public Histogram getHistogram(QueryPhase phase) {
+        return phaseHistograms.get(phase);
+    }
+
+    /**
+     * Returns the histograms of the durations reported for the given phase by query string.
+     *
+     * @param phase The phase
+     * @return an unmodifiable view of the histograms by query string
+     */
+    public Map<String, Histogram> getQueryHistograms(QueryPhase phase) {
+        return Collections.unmodifiableMap(queryHistograms.get(phase));
+    }
+
+    /**
+     * Resets all histograms.
+     */
+    public void reset() {
+        for (QueryPhase phase : QueryPhase.values()) {
+            phaseHistograms.get(phase).reset();
+            queryHistograms.get(phase).clear();
+        }
+        queryCount.set(0);
+    }
+
+    /**
+     * A histogram of durations with exponential buckets. The bucket with index <code>i</code> counts the durations
+     * that are smaller than <code>2^i</code> nanoseconds and not contained in a lower bucket.
+     *
+     * @author Christian Beikov
+     * @since 1.6.13
+     */
+    public static final class Histogram {
+
+        /**
+         * The number of buckets of a histogram.
+         */
+        public static final int BUCKET_COUNT = 64;
+
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong totalNanos = new AtomicLong();
+        private final AtomicLong maxNanos = new AtomicLong();
+
+        /**
+         * Records the given duration.
+         *
+         * @param durationNanos The duration in nanoseconds
+         */
+        public void record(long durationNanos) {
+            long duration = Math.max(0L, durationNanos);
+            buckets.incrementAndGet(Math.min(BUCKET_COUNT - 1, Long.SIZE - Long.numberOfLeadingZeros(duration)));
+            count.incrementAndGet();
+            totalNanos.addAndGet(duration);
+            long max;
+            while ((max = maxNanos.get()) < duration) {
+                if (maxNanos.compareAndSet(max, duration)) {
+                    break;
+                }
+            }
+        }
+
+        /**
+         * Returns the number of recorded durations.
+         *
+         * @return the number of recorded durations
+         */
+        public long getCount() {
+            return count.get();
+        }
+
+        /**
+         * Returns the sum of all recorded durations in nanoseconds.
+         *
+         * @return the sum of all recorded durations
+         */
+        public long getTotalNanos() {
+            return totalNanos.get();
+        }
+
+        /**
+         * Returns the maximum recorded duration in nanoseconds.
+         *
+         * @return the maximum recorded duration
+         */
+        public long getMaxNanos() {
+            return maxNanos.get();
+        }
+
+        /**
+         * Returns the mean of the recorded durations in nanoseconds.
+         *
+         * @return the mean of the recorded durations or 0 if nothing was recorded
+         */
+        public double getMeanNanos() {
+            long count = this.count.get();
+            return count == 0 ? 0d : (double) totalNanos.get() / count;
+        }
+
+        /**
+         * Returns an upper bound for the given percentile of the recorded durations in nanoseconds.
+         *
+         * @param percentile The percentile between 0 and 1
+         * @return the upper bound of the bucket that contains the percentile or 0 if nothing was recorded
+         */
+        public long getPercentileNanos(double percentile) {
+            if (percentile < 0d || percentile > 1d) {
+                throw new IllegalArgumentException("Invalid percentile: " + percentile);
+            }
+            long[] bucketCounts = getBucketCounts();
+            long total = 0L;
+            for (int i = 0; i < bucketCounts.length; i++) {
+                total += bucketCounts[i];
+            }
+            if (total == 0L) {
+                return 0L;
+            }
+            long threshold = (long) Math.ceil(percentile * total);
+            long cumulative = 0L;
+            for (int i = 0; i < bucketCounts.length; i++) {
+                cumulative += bucketCounts[i];
+                if (cumulative >= threshold && cumulative != 0L) {
+                    return Math.min(getBucketUpperBoundNanos(i), maxNanos.get());
+                }
+            }
+            return maxNanos.get();
+        }
+
+        /**
+         * Returns a snapshot of the counts of the buckets.
+         *
+         * @return the counts of the buckets
+         */
+        public long[] getBucketCounts() {
+            long[] bucketCounts = new long[BUCKET_COUNT];
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                bucketCounts[i] = buckets.get(i);
+            }
+            return bucketCounts;
+        }
+
+        /**
+         * Returns the inclusive upper bound in nanoseconds of the bucket with the given index.
+         *
+         * @param bucketIndex The bucket index
+         * @return the inclusive upper bound of the bucket
+         */
+        public static long getBucketUpperBoundNanos(int bucketIndex) {
+            if (bucketIndex >= BUCKET_COUNT - 1) {
+                return Long.MAX_VALUE;
+            }
+            return (1L << bucketIndex) - 1L;
+        }
+
+        void reset() {
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                buckets.set(i, 0L);
+            }
+            count.set(0L);
+            totalNanos.set(0L);
+            maxNanos.set(0L);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+/*
+ * Copyright 2014 - 2024 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.spi;
+
+/**
+ * An optional extension of {@link DbmsDialect} for DBMS that limit the number of bind parameters of a statement.
+ *
+ * Dialects that do not implement this interface are assumed to have no bind parameter limit.
+ *
+ * @author Christian Beikov
+ * @since 1.6.13
+ */
+public interface ParameterLimitedDbmsDialect extends DbmsDialect {
+
+    /**
+     * Returns the maximum number of bind parameters a statement may contain or {@link Integer#MAX_VALUE} if there is no known limit.
+     *
+     * @return The maximum number of bind parameters
+     */
+    public int getMaximumParameterCount();
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2014 - 2024 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.spi;
+
+/**
+ * A listener that is notified about the time spent in the various phases of building and executing a query.
+ * Listeners are registered via {@link CriteriaBuilderConfiguration#registerQueryInstrumentationListener(QueryInstrumentationListener)}.
+ *
+ * The listener is invoked synchronously on the thread that builds or executes the query, so implementations must be thread safe
+ * and should be cheap. When no listener is registered, no timing is done at all.
+ *
+ * @author Christian Beikov
+ * @since 1.6.13
+ * @see HistogramQueryInstrumentationListener
+ */
+public interface QueryInstrumentationListener {
+
+    /**
+     * Is invoked when a query phase completed successfully.
+     *
+     * @param phase The phase that completed
+     * @param query The expression or query string the phase worked on, or <code>null</code> if not available for the phase
+     * @param durationNanos The time spent in the phase in nanoseconds
+     */
+    public void onPhaseCompleted(QueryPhase phase, String query, long durationNanos);
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2014 - 2024 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.spi;
+
+/**
+ * The phases of building and executing a query that are reported to a {@link QueryInstrumentationListener}.
+ *
+ * @author Christian Beikov
+ * @since 1.6.13
+ */
+public enum QueryPhase {
+
+    /**
+     * Parsing of a JPQL.next expression string into an expression tree. Only parses that miss the expression cache are reported.
+     * The query argument is the parsed expression string.
+     */
+    EXPRESSION_PARSING,
+    /**
+     * Resolving of the implicit joins of a main query, including the join resolution of its subqueries.
+     * The query argument is <code>null</code>.
+     */
+    JOIN_RESOLUTION,
+    /**
+     * Detection of aggregates and the generation of the implicit group by clauses of a main query.
+     * The query argument is <code>null</code>.
+     */
+    IMPLICIT_GROUP_BY,
+    /**
+     * Rendering of the JPQL query string of a main query.
+     * The query argument is the rendered JPQL query string.
+     */
+    QUERY_GENERATION,
+    /**
+     * Lookup or creation of the query plan for a query that requires SQL replacement.
+     * The query argument is the final SQL query string.
+     */
+    QUERY_PLAN_CACHE_LOOKUP,
+    /**
+     * Execution of a main query. This phase includes the {@link #QUERY_PLAN_CACHE_LOOKUP} and {@link #TUPLE_TRANSFORMATION} phases.
+     * The query argument is the JPQL query string.
+     */
+    EXECUTION,
+    /**
+     * Transformation of the result tuples of a query through an object builder.
+     * The query argument is <code>null</code>.
+     */
+    TUPLE_TRANSFORMATION
+
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright 2014 - 2024 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.spi;
+
+/**
+ * A cache for the query plans of queries that require SQL replacement e.g. because they use CTEs or a returning clause.
+ * Keys and values are opaque objects that are created by the {@link ExtendedQuerySupport}.
+ *
+ * A custom implementation can be configured via {@link com.blazebit.persistence.ConfigurationProperties#QUERY_PLAN_CACHE_CLASS}
+ * and the cache of a criteria builder factory can be retrieved via {@link ServiceProvider#getService(Class)}.
+ * Implementations must be thread safe.
+ *
+ * @param <K> The key type
+ * @param <V> The value type
+ * @author Christian Beikov
+ * @since 1.6.13
+ */
+public interface QueryPlanCache<K, V> {
+
+    /**
+     * Returns the cached query plan for the given key or <code>null</code>.
+     *
+     * @param key The cache key
+     * @return The cached query plan or <code>null</code>
+     */
+    public V get(K key);
+
+    /**
+     * Caches the given query plan if no query plan is cached for the given key yet.
+     *
+     * @param key The cache key
+     * @param value The query plan
+     * @return The query plan that was cached before or <code>null</code>
+     */
+    public V putIfAbsent(K key, V value);
+
+    /**
+     * Removes all query plans from the cache and resets the statistics.
+     */
+    public void clear();
+
+    /**
+     * Returns a snapshot of the statistics of the cache.
+     *
+     * @return The statistics
+     */
+    public Statistics getStatistics();
+
+    /**
+     * A snapshot of the statistics of a query plan cache.
+     *
+     * @author Christian Beikov
+     * @since 1.6.13
+     */
+    public static final class Statistics {
+
+        private final long hitCount;
+        private final long missCount;
+        private final long evictionCount;
+        private final int size;
+        private final int maximumSize;
+
+        /**
+         * Creates a new statistics snapshot.
+         *
+         * @param hitCount The number of lookups that found a query plan
+         * @param missCount The number of lookups that didn't find a query plan
+         * @param evictionCount The number of query plans that were evicted due to the size bound
+         * @param size The number of cached query plans
+         * @param maximumSize The maximum number of cached query plans
+         */
+        public Statistics(long hitCount, long missCount, long evictionCount, int size, int maximumSize) {
+            this.hitCount = hitCount;
+            this.missCount = missCount;
+            this.evictionCount = evictionCount;
+            this.size = size;
+            this.maximumSize = maximumSize;
+        }
+
+        /**
+         * Returns the number of lookups that found a query plan.
+         *
+         * @return The hit count
+         */
+        public long getHitCount() {
+            return hitCount;
+        }
+
+        /**
+         * Returns the number of lookups that didn't find a query plan.
+         *
+         * @return The miss count
+         */
+        public long getMissCount() {
+            return missCount;
+        }
+
+        /**
+         * Returns the number of query plans that were evicted due to the size bound.
+         *
+         * @return The eviction count
+         */
+        public long getEvictionCount() {
+            return evictionCount;
+        }
+
+        /**
+         * Returns the number of cached query plans.
+         *
+         * @return The size
+         */
+        public int getSize() {
+            return size;
+        }
+
+        /**
+         * Returns the maximum number of cached query plans.
+         *
+         * @return The maximum size
+         */
+        public int getMaximumSize() {
+            return maximumSize;
+        }
+
+        /**
+         * Returns the ratio of lookups that found a query plan, or 1 if there were no lookups yet.
+         *
+         * @return The hit ratio
+         */
+        public double getHitRatio() {
+            long requestCount = hitCount + missCount;
+            return requestCount == 0 ? 1.0 : (double) hitCount / requestCount;
+        }
+
+        @Override
+        public String toString() {
+            return "Statistics{" +
+                    "hitCount=" + hitCount +
+                    ", missCount=" + missCount +
+                    ", evictionCount=" + evictionCount +
+                    ", size=" + size +
+                    ", maximumSize=" + maximumSize +
+                    '}';
+        }
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2014 - 2024 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.spi;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+import java.util.List;
+
+/**
+ * An optional extension of {@link ExtendedQuerySupport} for JPA providers that cache the query plans of queries with SQL replacement
+ * in a {@link QueryPlanCache}. Without this extension, no query plan cache is created by default and preparing query plans does nothing.
+ *
+ * @author Christian Beikov
+ * @since 1.6.13
+ */
+public interface QueryPlanCachingExtendedQuerySupport extends ExtendedQuerySupport {
+
+    /**
+     * Creates the default cache for the query plans of queries with SQL replacement.
+     * The cache is retrieved by the extended query support through the {@link QueryPlanCache} service of the passed service providers.
+     *
+     * @param maximumSize The maximum number of query plans to cache
+     * @return The query plan cache
+     */
+    public QueryPlanCache<?, ?> createQueryPlanCache(int maximumSize);
+
+    /**
+     * Creates and caches the query plan of the Query with the given overriding SQL query without executing it.
+     * Does nothing if the query plan is already cached.
+     *
+     * @param serviceProvider The service provider to access {@linkplain EntityManager} and others
+     * @param participatingQueries The list of participating queries from which to combine parameters
+     * @param query The main query
+     * @param sqlOverride The actual SQL query to execute instead of the query's original SQL
+     * @param queryPlanCacheEnabled Designates whether query plans can be cached and reused
+     */
+    public void prepareQueryPlan(ServiceProvider serviceProvider, List<Query> participatingQueries, Query query, String sqlOverride, boolean queryPlanCacheEnabled);
+}
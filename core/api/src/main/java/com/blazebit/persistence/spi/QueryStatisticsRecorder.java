@@ -0,0 +1,58 @@
+/*
+ * Copyright 2014 - 2024 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.spi;
+
+/**
+ * The recording side of the {@link com.blazebit.persistence.QueryStatisticsRegistry} which is used by the query builders and the JPA provider integrations.
+ * It can be retrieved via {@link ServiceProvider#getService(Class)} and is null if query statistics are disabled.
+ *
+ * Implementations must be thread safe and cheap, as the methods are invoked synchronously on the thread that executes a query.
+ *
+ * @author Christian Beikov
+ * @since 1.6.13
+ */
+public interface QueryStatisticsRecorder {
+
+    /**
+     * Records the execution of a query.
+     *
+     * @param query The JPQL query string
+     * @param durationNanos The execution duration in nanoseconds
+     * @param rowCount The number of returned or modified rows
+     */
+    public void recordExecution(String query, long durationNanos, long rowCount);
+
+    /**
+     * Records the durations of the sub-queries of a paginated query execution.
+     *
+     * @param query The JPQL query string of the paginated query
+     * @param countQueryNanos The count query duration in nanoseconds or 0 if not executed
+     * @param idQueryNanos The id query duration in nanoseconds or 0 if not executed
+     * @param objectQueryNanos The object query duration in nanoseconds
+     */
+    public void recordPaginatedExecution(String query, long countQueryNanos, long idQueryNanos, long objectQueryNanos);
+
+    /**
+     * Records a lookup in the query plan cache for a query that requires SQL replacement.
+     * The recorder obtained from the {@link ServiceProvider} of a query attributes the lookup to the JPQL query string of the query,
+     * so that the lookups are aggregated together with the executions of the query.
+     *
+     * @param query The JPQL query string
+     * @param hit Whether the query plan was found in the cache
+     */
+    public void recordQueryPlanCacheLookup(String query, boolean hit);
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright 2014 - 2024 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.blazebit.persistence.spi;
+
+/**
+ * An optional extension of {@link DbmsDialect} for DBMS that can estimate the row count of a table based on table statistics.
+ *
+ * Dialects that do not implement this interface are assumed to have no such statistics.
+ *
+ * @author Christian Beikov
+ * @since 1.6.13
+ */
+public interface RowCountEstimatingDbmsDialect extends DbmsDialect {
+
+    /**
+     * Returns a native SQL query that returns the row count of the given table as estimated by the table statistics of the dbms,
+     * or null if the dbms has no such statistics. The query returns a single numeric value which is null or negative
+     * if no statistics are available for the table.
+     *
+     * @param tableName The possibly schema qualified table name
+     * @return The SQL query for the estimated row count or null
+     */
+    public String getEstimatedRowCountSql(String tableName);
+}
@@ -82,6 +82,7 @@ import com.blazebit.persistence.parser.EntityMetamodel;
 import com.blazebit.persistence.parser.PathTargetResolvingExpressionVisitor;
 import com.blazebit.persistence.parser.expression.ArrayExpression;
 import com.blazebit.persistence.parser.expression.Expression;
+import com.blazebit.persistence.parser.expression.ExpressionClauseBuilder;
 import com.blazebit.persistence.parser.expression.ExpressionCopyContext;
 import com.blazebit.persistence.parser.expression.ExpressionCopyContextForQuery;
 import com.blazebit.persistence.parser.expression.ExpressionCopyContextMap;
@@ -109,6 +110,9 @@ import com.blazebit.persistence.spi.ExtendedManagedType;
 import com.blazebit.persistence.spi.ExtendedQuerySupport;
 import com.blazebit.persistence.spi.JpqlMacro;
 import com.blazebit.persistence.spi.LateralStyle;
+import com.blazebit.persistence.spi.QueryInstrumentationListener;
+import com.blazebit.persistence.spi.QueryPhase;
+import com.blazebit.persistence.spi.QueryStatisticsRecorder;
 import com.blazebit.persistence.spi.ServiceProvider;
 import com.blazebit.persistence.spi.SetOperationType;
 import com.blazebit.persistence.spi.ValuesStrategy;
@@ -185,6 +189,8 @@ public abstract class AbstractCommonQueryBuilder<QueryResultType, BuilderType, S
     // This builder will be passed in when using set operations
     protected FinalSetReturn finalSetOperationBuilder;
     protected boolean setOperationEnded;
+    // Set when a prepared query was created for this builder which reads the state concurrently
+    protected boolean prepared;
 
     protected final AliasManager aliasManager;
     protected final ExpressionFactory expressionFactory;
@@ -437,10 +443,16 @@ public abstract class AbstractCommonQueryBuilder<QueryResultType, BuilderType, S
             return (T) mainQuery.subqueryExpressionFactory;
         } else if (ExpressionFactory.class.equals(serviceClass)) {
             return (T) mainQuery.expressionFactory;
+        } else if (ExpressionClauseBuilder.class.equals(serviceClass)) {
+            return (T) new ExpressionClauseBuilderImpl(this);
         } else if (JoinOnBuilder.class.equals(serviceClass)) {
             // TODO: We should think of a better way to expose a where builder to clients as an on builder
             // TODO: Setting the expression via this does not clear the cache
             return (T) whereManager.startOnBuilder(this);
+        } else if (QueryStatisticsRecorder.class.equals(serviceClass)) {
+            // The JPA provider integrations only know the SQL, so we attribute their records to the JPQL of this builder
+            QueryStatisticsRecorder statisticsRecorder = getStatisticsRecorder();
+            return statisticsRecorder == null ? null : (T) new BuilderQueryStatisticsRecorder(statisticsRecorder);
         }
         
         return cbf.getService(serviceClass);
@@ -469,6 +481,7 @@ public abstract class AbstractCommonQueryBuilder<QueryResultType, BuilderType, S
 
     @SuppressWarnings("unchecked")
     public BuilderType setCacheable(boolean cacheable) {
+        verifyNotPrepared();
         this.mainQuery.getMutableQueryConfiguration().setCacheable(cacheable);
         return (BuilderType) this;
     }
@@ -1193,12 +1206,14 @@ public abstract class AbstractCommonQueryBuilder<QueryResultType, BuilderType, S
 
     @SuppressWarnings("unchecked")
     public BuilderType setFirstResult(int firstResult) {
+        verifyNotPrepared();
         this.firstResult = firstResult;
         return (BuilderType) this;
     }
 
     @SuppressWarnings("unchecked")
     public BuilderType setMaxResults(int maxResults) {
+        verifyNotPrepared();
         this.maxResults = maxResults;
         return (BuilderType) this;
     }
@@ -1221,18 +1236,21 @@ public abstract class AbstractCommonQueryBuilder<QueryResultType, BuilderType, S
 
     @SuppressWarnings("unchecked")
     public BuilderType setParameter(String name, Object value) {
+        verifyNotPrepared();
         parameterManager.satisfyParameter(name, value);
         return (BuilderType) this;
     }
 
     @SuppressWarnings("unchecked")
     public BuilderType setParameter(String name, Calendar value, TemporalType temporalType) {
+        verifyNotPrepared();
         parameterManager.satisfyParameter(name, value, temporalType);
         return (BuilderType) this;
     }
 
     @SuppressWarnings("unchecked")
     public BuilderType setParameter(String name, Date value, TemporalType temporalType) {
+        verifyNotPrepared();
         parameterManager.satisfyParameter(name, value, temporalType);
         return (BuilderType) this;
     }
@@ -1259,6 +1277,7 @@ public abstract class AbstractCommonQueryBuilder<QueryResultType, BuilderType, S
 
     @SuppressWarnings("unchecked")
     public BuilderType setParameterType(String name, Class<?> type) {
+        verifyNotPrepared();
         parameterManager.setParameterType(name, type);
         return (BuilderType) this;
     }
@@ -1311,9 +1330,13 @@ public abstract class AbstractCommonQueryBuilder<QueryResultType, BuilderType, S
         return select(expression, null);
     }
 
-    @SuppressWarnings("unchecked")
     public BuilderType select(String expression, String selectAlias) {
         Expression expr = expressionFactory.createSimpleExpression(expression, false);
+        return selectExpression(expr, selectAlias);
+    }
+
+    @SuppressWarnings("unchecked")
+    BuilderType selectExpression(Expression expr, String selectAlias) {
         if (selectAlias != null && selectAlias.isEmpty()) {
             throw new IllegalArgumentException("selectAlias");
         }
@@ -2635,6 +2658,8 @@ public abstract class AbstractCommonQueryBuilder<QueryResultType, BuilderType, S
         if (implicitJoinsApplied) {
             return null;
         }
+        QueryInstrumentationListener instrumentationListener = getInstrumentationListener();
+        long start = instrumentationListener == null ? 0L : System.nanoTime();
 
         // The first thing we need to do, is reorder values clauses without joins to the end of the from clause roots
         // This is an ugly integration detail, but to me, this seems to be the only way to support the values clause in all situations
@@ -2713,6 +2738,9 @@ public abstract class AbstractCommonQueryBuilder<QueryResultType, BuilderType, S
         joinVisitor.setJoinWithObjectLeafAllowed(true);
         // No need to implicit join again if no mutation occurs
         implicitJoinsApplied = true;
+        if (instrumentationListener != null) {
+            instrumentationListener.onPhaseCompleted(QueryPhase.JOIN_RESOLUTION, null, System.nanoTime() - start);
+        }
         return joinVisitor;
     }
 
@@ -2800,6 +2828,8 @@ public abstract class AbstractCommonQueryBuilder<QueryResultType, BuilderType, S
         }
 
         // After all transformations are done, we can finally check if aggregations are used
+        QueryInstrumentationListener instrumentationListener = getInstrumentationListener();
+        long start = instrumentationListener == null ? 0L : System.nanoTime();
         hasGroupBy = groupByManager.hasCollectedGroupByClauses();
         hasGroupBy = hasGroupBy || Boolean.TRUE.equals(selectManager.acceptVisitor(AggregateDetectionVisitor.INSTANCE, true));
         hasGroupBy = hasGroupBy || Boolean.TRUE.equals(joinManager.acceptVisitor(AggregateDetectionVisitor.INSTANCE, true));
@@ -2808,6 +2838,9 @@ public abstract class AbstractCommonQueryBuilder<QueryResultType, BuilderType, S
         hasGroupBy = hasGroupBy || Boolean.TRUE.equals(havingManager.acceptVisitor(AggregateDetectionVisitor.INSTANCE));
 
         buildImplicitGroupByClauses(joinVisitor);
+        if (instrumentationListener != null) {
+            instrumentationListener.onPhaseCompleted(QueryPhase.IMPLICIT_GROUP_BY, null, System.nanoTime() - start);
+        }
 
         for (int i = 0; i < size; i++) {
             ExpressionTransformerGroup<?> transformerGroup = transformerGroups.get(i);
@@ -2859,19 +2892,7 @@ public abstract class AbstractCommonQueryBuilder<QueryResultType, BuilderType, S
         Set<JoinNode> keyRestrictedLeftJoins = getKeyRestrictedLeftJoins();
         final boolean needsSqlReplacement = needsSqlReplacement(keyRestrictedLeftJoins);
         if (!needsSqlReplacement) {
-            TypedQuery<QueryResultType> query = (TypedQuery<QueryResultType>) em.createQuery(baseQueryString, selectManager.getExpectedQueryResultType());
-            if (firstResult != 0) {
-                query.setFirstResult(firstResult);
-            }
-            if (maxResults != Integer.MAX_VALUE) {
-                query.setMaxResults(maxResults);
-            }
-            if (isCacheable()) {
-                mainQuery.jpaProvider.setCacheable(query);
-            }
-
-            parameterManager.parameterizeQuery(query);
-            return applyObjectBuilder(query);
+            return createTypedQuery(em, baseQueryString);
         }
 
         TypedQuery<QueryResultType> baseQuery = (TypedQuery<QueryResultType>) em.createQuery(baseQueryString, selectManager.getExpectedQueryResultType());
@@ -2920,7 +2941,31 @@ public abstract class AbstractCommonQueryBuilder<QueryResultType, BuilderType, S
         }
 
         parameterManager.parameterizeQuery(query);
-        return applyObjectBuilder(query);
+        return applyObjectBuilder(getEntityManager(), query);
+    }
+
+    /**
+     * Creates a query for the given query string that doesn't need SQL replacements.
+     * This only reads the state of the query builder, so it is safe to call it concurrently for a prepared query builder.
+     *
+     * @param entityManager The entity manager to use for the query
+     * @param queryString The query string
+     * @return The query
+     */
+    protected final TypedQuery<QueryResultType> createTypedQuery(EntityManager entityManager, String queryString) {
+        TypedQuery<QueryResultType> query = (TypedQuery<QueryResultType>) entityManager.createQuery(queryString, selectManager.getExpectedQueryResultType());
+        if (firstResult != 0) {
+            query.setFirstResult(firstResult);
+        }
+        if (maxResults != Integer.MAX_VALUE) {
+            query.setMaxResults(maxResults);
+        }
+        if (isCacheable()) {
+            mainQuery.jpaProvider.setCacheable(query);
+        }
+
+        parameterManager.parameterizeQuery(query);
+        return applyObjectBuilder(entityManager, query);
     }
 
     protected boolean needsSqlReplacement(Set<JoinNode> keyRestrictedLeftJoins) {
@@ -3586,7 +3631,12 @@ public abstract class AbstractCommonQueryBuilder<QueryResultType, BuilderType, S
             return buildLateralBaseQueryString(lateralSb, lateralJoinNode);
         }
         if (cachedQueryString == null) {
+            QueryInstrumentationListener instrumentationListener = getInstrumentationListener();
+            long start = instrumentationListener == null ? 0L : System.nanoTime();
             cachedQueryString = buildBaseQueryString(false);
+            if (instrumentationListener != null) {
+                instrumentationListener.onPhaseCompleted(QueryPhase.QUERY_GENERATION, cachedQueryString, System.nanoTime() - start);
+            }
         }
 
         return cachedQueryString;
@@ -3600,6 +3650,64 @@ public abstract class AbstractCommonQueryBuilder<QueryResultType, BuilderType, S
         return cachedExternalQueryString;
     }
 
+    /**
+     * Returns the listener to which the query phases of this query builder should be reported.
+     * Only main queries are reported, as the phases of subqueries are part of the phases of the main query.
+     *
+     * @return the listener or null if the phases should not be reported
+     */
+    protected final QueryInstrumentationListener getInstrumentationListener() {
+        return isMainQuery ? cbf.getQueryInstrumentationListener() : null;
+    }
+
+    protected final QueryStatisticsRecorder getStatisticsRecorder() {
+        return isMainQuery ? cbf.getQueryStatisticsRecorder() : null;
+    }
+
+    protected final void onExecuted(QueryInstrumentationListener instrumentationListener, QueryStatisticsRecorder statisticsRecorder, String queryString, long start, long rowCount) {
+        long duration = System.nanoTime() - start;
+        if (instrumentationListener != null) {
+            instrumentationListener.onPhaseCompleted(QueryPhase.EXECUTION, queryString, duration);
+        }
+        if (statisticsRecorder != null) {
+            statisticsRecorder.recordExecution(queryString, duration, rowCount);
+        }
+    }
+
+    /**
+     * A recorder that attributes the query plan cache lookups of the JPA provider integrations to the external JPQL query string of this builder,
+     * which is the same key under which the executions are recorded.
+     */
+    private final class BuilderQueryStatisticsRecorder implements QueryStatisticsRecorder {
+
+        private final QueryStatisticsRecorder delegate;
+
+        private BuilderQueryStatisticsRecorder(QueryStatisticsRecorder delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void recordExecution(String query, long durationNanos, long rowCount) {
+            delegate.recordExecution(query, durationNanos, rowCount);
+        }
+
+        @Override
+        public void recordPaginatedExecution(String query, long countQueryNanos, long idQueryNanos, long objectQueryNanos) {
+            delegate.recordPaginatedExecution(query, countQueryNanos, idQueryNanos, objectQueryNanos);
+        }
+
+        @Override
+        public void recordQueryPlanCacheLookup(String query, boolean hit) {
+            delegate.recordQueryPlanCacheLookup(getExternalQueryString(), hit);
+        }
+    }
+
+    protected final void verifyNotPrepared() {
+        if (prepared) {
+            throw new IllegalStateException("Modifications to a query after preparing it are not allowed!");
+        }
+    }
+
     protected Set<JoinNode> getKeyRestrictedLeftJoins() {
         if (needsCheck) {
             throw new IllegalStateException("Can't access key restricted left joins when query builder wasn't checked yet!");
@@ -3614,6 +3722,7 @@ public abstract class AbstractCommonQueryBuilder<QueryResultType, BuilderType, S
         if (setOperationEnded) {
             throw new IllegalStateException("Modifications to a query after connecting with a set operation is not allowed!");
         }
+        verifyNotPrepared();
         needsCheck = true;
         cachedQueryString = null;
         cachedExternalQueryString = null;
@@ -4012,10 +4121,10 @@ public abstract class AbstractCommonQueryBuilder<QueryResultType, BuilderType, S
     }
 
     @SuppressWarnings("unchecked")
-    protected final TypedQuery<QueryResultType> applyObjectBuilder(TypedQuery<?> query) {
-        ObjectBuilder<QueryResultType> selectObjectBuilder = selectManager.getSelectObjectBuilder();
+    protected final TypedQuery<QueryResultType> applyObjectBuilder(EntityManager entityManager, TypedQuery<?> query) {
+        ObjectBuilder<QueryResultType> selectObjectBuilder = selectManager.getSelectObjectBuilder(entityManager);
         if (selectObjectBuilder != null) {
-            return new ObjectBuilderTypedQuery<>(query, query instanceof AbstractCustomQuery<?> ? null : parameterManager.getCriteriaNameMapping(), selectObjectBuilder);
+            return new ObjectBuilderTypedQuery<>(query, query instanceof AbstractCustomQuery<?> ? null : parameterManager.getCriteriaNameMapping(), selectObjectBuilder, getInstrumentationListener());
         } else if (parameterManager.getCriteriaNameMapping() != null) {
             return new TypedQueryWrapper<>((TypedQuery<QueryResultType>) query, parameterManager.getCriteriaNameMapping());
         } else {
@@ -56,6 +56,7 @@ import com.blazebit.persistence.parser.util.TypeUtils;
 import com.blazebit.persistence.spi.AttributeAccessor;
 import com.blazebit.persistence.spi.JpaMetamodelAccessor;
 
+import javax.persistence.EntityManager;
 import javax.persistence.Parameter;
 import javax.persistence.Query;
 import javax.persistence.TypedQuery;
@@ -151,11 +152,24 @@ public abstract class AbstractFullQueryBuilder<T, X extends FullQueryBuilder<T,
 
     @Override
     public <Y> CriteriaBuilderImpl<Y> copyCriteriaBuilder(Class<Y> resultClass, boolean copyOrderBy) {
+        return copyCriteriaBuilder(getEntityManager(), resultClass, copyOrderBy);
+    }
+
+    /**
+     * Like {@link #copyCriteriaBuilder(Class, boolean)}, but the copy uses the given entity manager.
+     *
+     * @param entityManager The entity manager for the copy
+     * @param resultClass The result class of the copy
+     * @param copyOrderBy Whether to copy the order by clause
+     * @param <Y> The result type of the copy
+     * @return The copy
+     */
+    public <Y> CriteriaBuilderImpl<Y> copyCriteriaBuilder(EntityManager entityManager, Class<Y> resultClass, boolean copyOrderBy) {
         if (createdPaginatedBuilder) {
             throw new IllegalStateException("Calling copy() on a CriteriaBuilder that was transformed to a PaginatedCriteriaBuilder is not allowed.");
         }
         prepareAndCheck(null);
-        MainQuery mainQuery = cbf.createMainQuery(getEntityManager());
+        MainQuery mainQuery = cbf.createMainQuery(entityManager);
         mainQuery.copyConfiguration(this.mainQuery.getQueryConfiguration());
         CriteriaBuilderImpl<Y> newBuilder = new CriteriaBuilderImpl<Y>(mainQuery, true, resultClass, null);
         newBuilder.fromClassExplicitlySet = true;
@@ -43,6 +43,8 @@ import com.blazebit.persistence.spi.ExtendedAttribute;
 import com.blazebit.persistence.spi.ExtendedManagedType;
 import com.blazebit.persistence.spi.JoinTable;
 import com.blazebit.persistence.spi.JpaMetamodelAccessor;
+import com.blazebit.persistence.spi.QueryInstrumentationListener;
+import com.blazebit.persistence.spi.QueryStatisticsRecorder;
 
 import javax.persistence.Query;
 import javax.persistence.Tuple;
@@ -252,7 +254,16 @@ public abstract class AbstractModificationCriteriaBuilder<T, X extends BaseModif
     }
 
     public int executeUpdate() {
-        return getQuery().executeUpdate();
+        Query query = getQuery();
+        QueryInstrumentationListener instrumentationListener = getInstrumentationListener();
+        QueryStatisticsRecorder statisticsRecorder = getStatisticsRecorder();
+        if (instrumentationListener == null && statisticsRecorder == null) {
+            return query.executeUpdate();
+        }
+        long start = System.nanoTime();
+        int updateCount = query.executeUpdate();
+        onExecuted(instrumentationListener, statisticsRecorder, getExternalQueryString(), start, updateCount);
+        return updateCount;
     }
     
     @Override
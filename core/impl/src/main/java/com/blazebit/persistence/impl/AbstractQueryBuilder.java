@@ -24,6 +24,8 @@ import javax.persistence.TypedQuery;
 import com.blazebit.persistence.FullQueryBuilder;
 import com.blazebit.persistence.Queryable;
 import com.blazebit.persistence.spi.DbmsStatementType;
+import com.blazebit.persistence.spi.QueryInstrumentationListener;
+import com.blazebit.persistence.spi.QueryStatisticsRecorder;
 
 /**
  *
@@ -55,12 +57,30 @@ public abstract class AbstractQueryBuilder<T, X extends Queryable<T, X>, Z, W, F
 
     @Override
     public List<T> getResultList() {
-        return getQuery().getResultList();
+        TypedQuery<T> query = getQuery();
+        QueryInstrumentationListener instrumentationListener = getInstrumentationListener();
+        QueryStatisticsRecorder statisticsRecorder = getStatisticsRecorder();
+        if (instrumentationListener == null && statisticsRecorder == null) {
+            return query.getResultList();
+        }
+        long start = System.nanoTime();
+        List<T> resultList = query.getResultList();
+        onExecuted(instrumentationListener, statisticsRecorder, getExternalQueryString(), start, resultList.size());
+        return resultList;
     }
 
     @Override
     public T getSingleResult() {
-        return getQuery().getSingleResult();
+        TypedQuery<T> query = getQuery();
+        QueryInstrumentationListener instrumentationListener = getInstrumentationListener();
+        QueryStatisticsRecorder statisticsRecorder = getStatisticsRecorder();
+        if (instrumentationListener == null && statisticsRecorder == null) {
+            return query.getSingleResult();
+        }
+        long start = System.nanoTime();
+        T result = query.getSingleResult();
+        onExecuted(instrumentationListener, statisticsRecorder, getExternalQueryString(), start, 1L);
+        return result;
     }
 
     @Override
@@ -448,7 +448,7 @@ public abstract class BaseFinalSetOperationBuilderImpl<T, X extends BaseFinalSet
 
         parameterManager.parameterizeQuery(query);
 
-        return applyObjectBuilder(query);
+        return applyObjectBuilder(getEntityManager(), query);
     }
 
     @Override
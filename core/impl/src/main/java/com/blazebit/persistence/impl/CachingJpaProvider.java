@@ -17,6 +17,7 @@
 package com.blazebit.persistence.impl;
 
 import com.blazebit.persistence.JoinType;
+import com.blazebit.persistence.spi.ArrayParameterJpaProvider;
 import com.blazebit.persistence.spi.ExtendedAttribute;
 import com.blazebit.persistence.spi.ExtendedManagedType;
 import com.blazebit.persistence.spi.JoinTable;
@@ -35,7 +36,7 @@ import java.util.Map;
  * @author Christian Beikov
  * @since 1.2.0
  */
-public final class CachingJpaProvider implements JpaProvider {
+public final class CachingJpaProvider implements ArrayParameterJpaProvider {
 
     private final JpaProvider jpaProvider;
     private final EntityMetamodelImpl entityMetamodel;
@@ -414,6 +415,19 @@ public final class CachingJpaProvider implements JpaProvider {
         jpaProvider.setSingularParameter(query, name, value);
     }
 
+    @Override
+    public boolean supportsArrayParameter(Class<?> elementType) {
+        return jpaProvider instanceof ArrayParameterJpaProvider && ((ArrayParameterJpaProvider) jpaProvider).supportsArrayParameter(elementType);
+    }
+
+    @Override
+    public void setArrayParameter(Query query, String name, Class<?> elementType, Object[] values) {
+        if (!(jpaProvider instanceof ArrayParameterJpaProvider)) {
+            throw new UnsupportedOperationException("The JPA provider does not support array parameters!");
+        }
+        ((ArrayParameterJpaProvider) jpaProvider).setArrayParameter(query, name, elementType, values);
+    }
+
     @Override
     public List<String> getIdentifierOrUniqueKeyEmbeddedPropertyNames(EntityType<?> owner, String attributeName) {
         // TODO: cache this via extended metamodel
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2014 - 2024 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.impl;
+
+import com.blazebit.persistence.spi.QueryInstrumentationListener;
+import com.blazebit.persistence.spi.QueryPhase;
+
+import java.util.List;
+
+/**
+ * Dispatches query phase timings to multiple listeners.
+ *
+ * @author Christian Beikov
+ * @since 1.6.13
+ */
+final class CompositeQueryInstrumentationListener implements QueryInstrumentationListener {
+
+    private final QueryInstrumentationListener[] listeners;
+
+    private CompositeQueryInstrumentationListener(QueryInstrumentationListener[] listeners) {
+        this.listeners = listeners;
+    }
+
+    public static QueryInstrumentationListener of(List<QueryInstrumentationListener> listeners) {
+        switch (listeners.size()) {
+            case 0:
+                return null;
+            case 1:
+                return listeners.get(0);
+            default:
+                return new CompositeQueryInstrumentationListener(listeners.toArray(new QueryInstrumentationListener[listeners.size()]));
+        }
+    }
+
+    @Override
+    public void onPhaseCompleted(QueryPhase phase, String query, long durationNanos) {
+        for (int i = 0; i < listeners.length; i++) {
+            listeners[i].onPhaseCompleted(phase, query, durationNanos);
+        }
+    }
+}
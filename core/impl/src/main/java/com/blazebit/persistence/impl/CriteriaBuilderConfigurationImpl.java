@@ -29,6 +29,7 @@ import com.blazebit.persistence.impl.dialect.MySQLDbmsDialect;
 import com.blazebit.persistence.impl.dialect.OracleDbmsDialect;
 import com.blazebit.persistence.impl.dialect.PostgreSQLDbmsDialect;
 import com.blazebit.persistence.impl.function.alias.AliasFunction;
+import com.blazebit.persistence.impl.function.arrayany.ArrayAnyFunction;
 import com.blazebit.persistence.impl.function.base64.Base64Function;
 import com.blazebit.persistence.impl.function.base64.PostgreSQLBase64Function;
 import com.blazebit.persistence.impl.function.cast.CastFunction;
@@ -542,6 +543,7 @@ import com.blazebit.persistence.spi.JpqlFunctionKind;
 import com.blazebit.persistence.spi.JpqlMacro;
 import com.blazebit.persistence.spi.LateralStyle;
 import com.blazebit.persistence.spi.PackageOpener;
+import com.blazebit.persistence.spi.QueryInstrumentationListener;
 import com.blazebit.persistence.spi.SetOperationType;
 import java.math.BigDecimal;
 import java.math.BigInteger;
@@ -574,6 +576,7 @@ public class CriteriaBuilderConfigurationImpl implements CriteriaBuilderConfigur
     private final Map<String, Class<?>> treatTypes = new HashMap<String, Class<?>>();
     private final Map<String, JpqlMacro> macros = new HashMap<String, JpqlMacro>();
     private final List<EntityManagerFactoryIntegrator> entityManagerIntegrators = new ArrayList<EntityManagerFactoryIntegrator>();
+    private final List<QueryInstrumentationListener> queryInstrumentationListeners = new ArrayList<QueryInstrumentationListener>();
     private PackageOpener packageOpener;
     private Properties properties = new Properties();
     private ExtendedQuerySupport extendedQuerySupport;
@@ -623,6 +626,8 @@ public class CriteriaBuilderConfigurationImpl implements CriteriaBuilderConfigur
 
         loadRepeatFunction();
 
+        loadArrayAnyFunction();
+
         loadAnyEveryOrAndAggFunctions();
 
         loadStringJsonAggFunction();
@@ -1722,6 +1727,16 @@ public class CriteriaBuilderConfigurationImpl implements CriteriaBuilderConfigur
         registerFunction(jpqlFunctionGroup);
     }
 
+    private void loadArrayAnyFunction() {
+        JpqlFunctionGroup jpqlFunctionGroup;
+        // array_any
+
+        jpqlFunctionGroup = new JpqlFunctionGroup(ArrayAnyFunction.FUNCTION_NAME, false);
+        jpqlFunctionGroup.add("h2", new ArrayAnyFunction());
+        jpqlFunctionGroup.add("postgresql", new ArrayAnyFunction());
+        registerFunction(jpqlFunctionGroup);
+    }
+
     private void loadAnyEveryOrAndAggFunctions() {
         JpqlFunctionGroup jpqlFunctionGroup;
         // every
@@ -2314,6 +2329,17 @@ public class CriteriaBuilderConfigurationImpl implements CriteriaBuilderConfigur
         return entityManagerIntegrators;
     }
 
+    @Override
+    public CriteriaBuilderConfiguration registerQueryInstrumentationListener(QueryInstrumentationListener queryInstrumentationListener) {
+        queryInstrumentationListeners.add(queryInstrumentationListener);
+        return this;
+    }
+
+    @Override
+    public List<QueryInstrumentationListener> getQueryInstrumentationListeners() {
+        return queryInstrumentationListeners;
+    }
+
     @Override
     public CriteriaBuilderFactory createCriteriaBuilderFactory(EntityManagerFactory emf) {
         return new CriteriaBuilderFactoryImpl(this, emf);
@@ -18,11 +18,17 @@ package com.blazebit.persistence.impl;
 
 import com.blazebit.persistence.CriteriaBuilder;
 import com.blazebit.persistence.CriteriaBuilderFactory;
+import com.blazebit.persistence.ConfigurationProperties;
 import com.blazebit.persistence.DeleteCriteriaBuilder;
 import com.blazebit.persistence.InsertCriteriaBuilder;
 import com.blazebit.persistence.LeafOngoingFinalSetOperationCriteriaBuilder;
+import com.blazebit.persistence.PaginationCountCache;
+import com.blazebit.persistence.QueryStatisticsRegistry;
+import com.blazebit.persistence.Queryable;
 import com.blazebit.persistence.StartOngoingSetOperationCriteriaBuilder;
 import com.blazebit.persistence.UpdateCriteriaBuilder;
+import com.blazebit.persistence.impl.query.CustomSQLTypedQuery;
+import com.blazebit.persistence.impl.query.QueryWrapper;
 import com.blazebit.persistence.parser.FunctionKind;
 import com.blazebit.persistence.parser.expression.ExpressionCache;
 import com.blazebit.persistence.parser.expression.ExpressionFactory;
@@ -40,10 +46,16 @@ import com.blazebit.persistence.spi.JpqlFunction;
 import com.blazebit.persistence.spi.JpqlFunctionGroup;
 import com.blazebit.persistence.spi.JpqlFunctionKind;
 import com.blazebit.persistence.spi.PackageOpener;
+import com.blazebit.persistence.spi.QueryInstrumentationListener;
+import com.blazebit.persistence.spi.QueryPlanCache;
+import com.blazebit.persistence.spi.QueryPlanCachingExtendedQuerySupport;
+import com.blazebit.persistence.spi.QueryStatisticsRecorder;
 
 import javax.persistence.EntityManager;
 import javax.persistence.EntityManagerFactory;
+import javax.persistence.Query;
 import javax.persistence.metamodel.Metamodel;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -56,6 +68,8 @@ import java.util.Map;
  */
 public class CriteriaBuilderFactoryImpl implements CriteriaBuilderFactory {
 
+    private static final int DEFAULT_QUERY_PLAN_CACHE_MAXIMUM_SIZE = 2048;
+
     private final PackageOpener packageOpener;
     private final EntityManagerFactory entityManagerFactory;
     private final EntityMetamodelImpl metamodel;
@@ -64,6 +78,10 @@ public class CriteriaBuilderFactoryImpl implements CriteriaBuilderFactory {
     private final Map<String, FunctionKind> functions;
     private final Map<Class<?>, String> namedTypes;
     private final ExpressionCache expressionCache;
+    private final QueryInstrumentationListener queryInstrumentationListener;
+    private final QueryPlanCache<?, ?> queryPlanCache;
+    private final PaginationCountCacheImpl paginationCountCache;
+    private final QueryStatisticsRegistryImpl queryStatisticsRegistry;
     private final ExpressionFactory expressionFactory;
     private final ExpressionFactory subqueryExpressionFactory;
     private final QueryConfiguration queryConfiguration;
@@ -117,23 +135,81 @@ public class CriteriaBuilderFactoryImpl implements CriteriaBuilderFactory {
         this.namedTypes = resolveNamedTypes(config.getNamedTypes());
 
         ExpressionFactory originalExpressionFactory = new ExpressionFactoryImpl(functions, metamodel.getEntityTypes(), metamodel.getEnumTypes(), metamodel.getEnumTypesForLiterals(), !compatibleMode, optimize);
-        this.expressionCache = createCache(queryConfiguration.getExpressionCacheClass());
+        ExpressionFactory originalSubqueryExpressionFactory = new SubqueryExpressionFactory(functions, metamodel.getEntityTypes(), metamodel.getEnumTypes(), metamodel.getEnumTypesForLiterals(), !compatibleMode, optimize, originalExpressionFactory);
+        this.expressionCache = createCache(queryConfiguration.getExpressionCacheClass(), config.getProperty(ConfigurationProperties.EXPRESSION_CACHE_MAXIMUM_SIZE));
+        this.queryInstrumentationListener = CompositeQueryInstrumentationListener.of(config.getQueryInstrumentationListeners());
+        this.queryPlanCache = createQueryPlanCache(config.getProperty(ConfigurationProperties.QUERY_PLAN_CACHE_CLASS), config.getProperty(ConfigurationProperties.QUERY_PLAN_CACHE_MAXIMUM_SIZE));
+        this.queryStatisticsRegistry = createQueryStatisticsRegistry(config.getProperty(ConfigurationProperties.QUERY_STATISTICS_ENABLED), config.getProperty(ConfigurationProperties.QUERY_STATISTICS_MAXIMUM_QUERIES));
+        this.paginationCountCache = createPaginationCountCache(config.getProperty(ConfigurationProperties.PAGINATION_COUNT_CACHE_TTL), config.getProperty(ConfigurationProperties.PAGINATION_COUNT_CACHE_MAXIMUM_SIZE));
+        // Only wrap the expression factories when instrumentation is needed to avoid the overhead otherwise
+        if (queryInstrumentationListener != null) {
+            originalExpressionFactory = new InstrumentingExpressionFactory(originalExpressionFactory, queryInstrumentationListener);
+            originalSubqueryExpressionFactory = new InstrumentingExpressionFactory(originalSubqueryExpressionFactory, queryInstrumentationListener);
+        }
         ExpressionFactory cachingExpressionFactory = new SimpleCachingExpressionFactory(originalExpressionFactory, expressionCache);
-        ExpressionFactory cachingSubqueryExpressionFactory = new SimpleCachingExpressionFactory(new SubqueryExpressionFactory(functions, metamodel.getEntityTypes(), metamodel.getEnumTypes(), metamodel.getEnumTypesForLiterals(), !compatibleMode, optimize, originalExpressionFactory));
+        ExpressionFactory cachingSubqueryExpressionFactory = new SimpleCachingExpressionFactory(originalSubqueryExpressionFactory);
         this.macroConfiguration = MacroConfiguration.of(JpqlMacroAdapter.createMacros(config.getMacros(), cachingExpressionFactory));
         JpqlMacroStorage macroStorage = new JpqlMacroStorage(null, macroConfiguration);
         this.expressionFactory = new JpqlMacroAwareExpressionFactory(cachingExpressionFactory, macroStorage);
         this.subqueryExpressionFactory = new JpqlMacroAwareExpressionFactory(cachingSubqueryExpressionFactory, macroStorage);
     }
 
-    private ExpressionCache createCache(String className) {
+    private ExpressionCache createCache(String className, String maximumSize) {
         try {
-            return (ExpressionCache) Class.forName(className).newInstance();
+            Class<?> cacheClass = Class.forName(className);
+            if (maximumSize != null && !maximumSize.isEmpty()) {
+                return (ExpressionCache) cacheClass.getConstructor(int.class).newInstance(Integer.parseInt(maximumSize));
+            }
+            return (ExpressionCache) cacheClass.newInstance();
         } catch (Exception ex) {
             throw new IllegalArgumentException("Could not instantiate expression cache: " + className, ex);
         }
     }
 
+    private QueryPlanCache<?, ?> createQueryPlanCache(String className, String maximumSize) {
+        int size = DEFAULT_QUERY_PLAN_CACHE_MAXIMUM_SIZE;
+        if (maximumSize != null && !maximumSize.isEmpty()) {
+            size = Integer.parseInt(maximumSize);
+        }
+        if (className == null || className.isEmpty()) {
+            if (extendedQuerySupport instanceof QueryPlanCachingExtendedQuerySupport) {
+                return ((QueryPlanCachingExtendedQuerySupport) extendedQuerySupport).createQueryPlanCache(size);
+            }
+            return null;
+        }
+        try {
+            Class<?> cacheClass = Class.forName(className);
+            if (maximumSize != null && !maximumSize.isEmpty()) {
+                return (QueryPlanCache<?, ?>) cacheClass.getConstructor(int.class).newInstance(size);
+            }
+            return (QueryPlanCache<?, ?>) cacheClass.newInstance();
+        } catch (Exception ex) {
+            throw new IllegalArgumentException("Could not instantiate query plan cache: " + className, ex);
+        }
+    }
+
+    private static QueryStatisticsRegistryImpl createQueryStatisticsRegistry(String enabled, String maximumQueries) {
+        if (!Boolean.parseBoolean(enabled)) {
+            return null;
+        }
+        if (maximumQueries != null && !maximumQueries.isEmpty()) {
+            return new QueryStatisticsRegistryImpl(Integer.parseInt(maximumQueries));
+        }
+        return new QueryStatisticsRegistryImpl(QueryStatisticsRegistryImpl.DEFAULT_MAXIMUM_QUERIES);
+    }
+
+    private static PaginationCountCacheImpl createPaginationCountCache(String ttl, String maximumSize) {
+        long ttlMillis = PaginationCountCacheImpl.DEFAULT_TTL;
+        int size = PaginationCountCacheImpl.DEFAULT_MAXIMUM_SIZE;
+        if (ttl != null && !ttl.isEmpty()) {
+            ttlMillis = Long.parseLong(ttl);
+        }
+        if (maximumSize != null && !maximumSize.isEmpty()) {
+            size = Integer.parseInt(maximumSize);
+        }
+        return new PaginationCountCacheImpl(ttlMillis, size);
+    }
+
     private static Map<String, FunctionKind> resolveFunctions(Map<String, JpqlFunctionGroup> functions, Map<String, JpqlFunction> configuredFunctions) {
         Map<String, FunctionKind> map = new HashMap<>();
         for (Map.Entry<String, JpqlFunctionGroup> entry : functions.entrySet()) {
@@ -224,6 +300,18 @@ public class CriteriaBuilderFactoryImpl implements CriteriaBuilderFactory {
         return expressionCache;
     }
 
+    public QueryStatisticsRecorder getQueryStatisticsRecorder() {
+        return queryStatisticsRegistry;
+    }
+
+    public PaginationCountCacheImpl getPaginationCountCache() {
+        return paginationCountCache;
+    }
+
+    public QueryInstrumentationListener getQueryInstrumentationListener() {
+        return queryInstrumentationListener;
+    }
+
     public ExpressionFactory getExpressionFactory() {
         return expressionFactory;
     }
@@ -347,6 +435,27 @@ public class CriteriaBuilderFactoryImpl implements CriteriaBuilderFactory {
         return cb;
     }
 
+    @Override
+    public void prepareQueryPlans(Collection<? extends Queryable<?, ?>> queryBuilders) {
+        for (Queryable<?, ?> queryBuilder : queryBuilders) {
+            prepareQueryPlan(queryBuilder.getQuery());
+        }
+    }
+
+    private void prepareQueryPlan(Query query) {
+        if (query instanceof PaginatedTypedQueryImpl<?>) {
+            PaginatedTypedQueryImpl<?> paginatedQuery = (PaginatedTypedQueryImpl<?>) query;
+            prepareQueryPlan(paginatedQuery.getCountQuery());
+            prepareQueryPlan(paginatedQuery.getIdQuery());
+            prepareQueryPlan(paginatedQuery.getObjectQuery());
+        } else if (query instanceof QueryWrapper) {
+            prepareQueryPlan(((QueryWrapper) query).getDelegate());
+        } else if (query instanceof CustomSQLTypedQuery<?>) {
+            ((CustomSQLTypedQuery<?>) query).prepareQueryPlan();
+        }
+        // Other queries were already compiled by the JPA provider when they were created
+    }
+
     @Override
     @SuppressWarnings("unchecked")
     public <T> T getService(Class<T> serviceClass) {
@@ -366,6 +475,14 @@ public class CriteriaBuilderFactoryImpl implements CriteriaBuilderFactory {
             return (T) jpaProvider;
         } else if (ExpressionCache.class.equals(serviceClass)) {
             return (T) expressionCache;
+        } else if (QueryInstrumentationListener.class.equals(serviceClass)) {
+            return (T) queryInstrumentationListener;
+        } else if (QueryPlanCache.class.equals(serviceClass)) {
+            return (T) queryPlanCache;
+        } else if (QueryStatisticsRegistry.class.equals(serviceClass) || QueryStatisticsRecorder.class.equals(serviceClass)) {
+            return (T) queryStatisticsRegistry;
+        } else if (PaginationCountCache.class.equals(serviceClass)) {
+            return (T) paginationCountCache;
         } else if (Metamodel.class.isAssignableFrom(serviceClass)) {
             return (T) metamodel;
         } else if (EntityManagerFactory.class.equals(serviceClass)) {
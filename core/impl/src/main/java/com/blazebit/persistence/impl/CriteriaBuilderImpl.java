@@ -20,6 +20,7 @@ import com.blazebit.persistence.CriteriaBuilder;
 import com.blazebit.persistence.LeafOngoingFinalSetOperationCriteriaBuilder;
 import com.blazebit.persistence.LeafOngoingSetOperationCriteriaBuilder;
 import com.blazebit.persistence.ObjectBuilder;
+import com.blazebit.persistence.PreparedCriteriaQuery;
 import com.blazebit.persistence.SelectObjectBuilder;
 import com.blazebit.persistence.StartOngoingSetOperationCriteriaBuilder;
 import com.blazebit.persistence.spi.SetOperationType;
@@ -101,6 +102,18 @@ public class CriteriaBuilderImpl<T> extends AbstractFullQueryBuilder<T, Criteria
         return cachedExternalQueryRootCountQueryString;
     }
 
+    @Override
+    public PreparedCriteriaQuery<T> prepare() {
+        String queryString = getQueryString();
+        if (needsSqlReplacement(getKeyRestrictedLeftJoins())) {
+            throw new IllegalStateException("Can't prepare a query that requires SQL level processing like CTEs, VALUES clauses or entity functions!");
+        }
+        String baseQueryString = getBaseQueryString(null, null);
+        prepared = true;
+        selectManager.shareObjectBuilder();
+        return new PreparedCriteriaQueryImpl<>(this, baseQueryString, queryString);
+    }
+
     @Override
     public <Y> CriteriaBuilder<Y> copy(Class<Y> resultClass) {
         return (CriteriaBuilder<Y>) super.copy(resultClass);
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2014 - 2024 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.impl;
+
+import com.blazebit.persistence.parser.expression.Expression;
+import com.blazebit.persistence.parser.expression.ExpressionClauseBuilder;
+import com.blazebit.persistence.parser.expression.ExpressionOptimizer;
+import com.blazebit.persistence.parser.predicate.Predicate;
+
+/**
+ * Sets expression trees on the clauses of a query builder like the string based methods do after parsing.
+ *
+ * @author Christian Beikov
+ * @since 1.6.13
+ */
+class ExpressionClauseBuilderImpl implements ExpressionClauseBuilder {
+
+    private static final ExpressionOptimizer OPTIMIZER = new ExpressionOptimizer();
+
+    private final AbstractCommonQueryBuilder<?, ?, ?, ?, ?> builder;
+
+    public ExpressionClauseBuilderImpl(AbstractCommonQueryBuilder<?, ?, ?, ?, ?> builder) {
+        this.builder = builder;
+    }
+
+    @Override
+    public void setWhereExpression(Predicate predicate) {
+        builder.prepareForModification(ClauseType.WHERE);
+        builder.whereManager.restrictSetExpression(optimize(predicate));
+    }
+
+    @Override
+    public void setHavingExpression(Predicate predicate) {
+        builder.prepareForModification(ClauseType.HAVING);
+        if (builder.groupByManager.isEmpty()) {
+            throw new IllegalStateException("Having without group by");
+        }
+        builder.havingManager.restrictSetExpression(optimize(predicate));
+    }
+
+    @Override
+    public void select(Expression expression, String selectAlias) {
+        builder.selectExpression(optimize(expression), selectAlias);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T extends Expression> T optimize(T expression) {
+        if (builder.mainQuery.getQueryConfiguration().isExpressionOptimizationEnabled()) {
+            return (T) expression.accept(OPTIMIZER);
+        }
+        return expression;
+    }
+}
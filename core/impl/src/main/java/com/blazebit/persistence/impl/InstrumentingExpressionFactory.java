@@ -0,0 +1,107 @@
+/*
+ * Copyright 2014 - 2024 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.impl;
+
+import com.blazebit.persistence.parser.expression.AbstractExpressionFactoryMacroAdapter;
+import com.blazebit.persistence.parser.expression.Expression;
+import com.blazebit.persistence.parser.expression.ExpressionFactory;
+import com.blazebit.persistence.parser.expression.MacroConfiguration;
+import com.blazebit.persistence.parser.predicate.Predicate;
+import com.blazebit.persistence.spi.QueryInstrumentationListener;
+import com.blazebit.persistence.spi.QueryPhase;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Reports the time spent for parsing expressions to a {@link QueryInstrumentationListener}.
+ * This factory is wrapped by the caching expression factory, so only cache misses are reported.
+ *
+ * @author Christian Beikov
+ * @since 1.6.13
+ */
+final class InstrumentingExpressionFactory extends AbstractExpressionFactoryMacroAdapter {
+
+    private final ExpressionFactory delegate;
+    private final QueryInstrumentationListener listener;
+
+    public InstrumentingExpressionFactory(ExpressionFactory delegate, QueryInstrumentationListener listener) {
+        this.delegate = delegate;
+        this.listener = listener;
+    }
+
+    @Override
+    public <T extends ExpressionFactory> T unwrap(Class<T> clazz) {
+        if (InstrumentingExpressionFactory.class.isAssignableFrom(clazz)) {
+            return (T) this;
+        }
+        return delegate.unwrap(clazz);
+    }
+
+    @Override
+    public MacroConfiguration getDefaultMacroConfiguration() {
+        return delegate.getDefaultMacroConfiguration();
+    }
+
+    @Override
+    public Expression createPathExpression(String expression, MacroConfiguration macroConfiguration, Set<String> usedMacros) {
+        long start = System.nanoTime();
+        Expression result = delegate.createPathExpression(expression, macroConfiguration, usedMacros);
+        listener.onPhaseCompleted(QueryPhase.EXPRESSION_PARSING, expression, System.nanoTime() - start);
+        return result;
+    }
+
+    @Override
+    public Expression createSimpleExpression(String expression, boolean allowOuter, boolean allowQuantifiedPredicates, boolean allowObjectExpression, MacroConfiguration macroConfiguration, Set<String> usedMacros) {
+        long start = System.nanoTime();
+        Expression result = delegate.createSimpleExpression(expression, allowOuter, allowQuantifiedPredicates, allowObjectExpression, macroConfiguration, usedMacros);
+        listener.onPhaseCompleted(QueryPhase.EXPRESSION_PARSING, expression, System.nanoTime() - start);
+        return result;
+    }
+
+    @Override
+    public List<Expression> createInItemExpressions(String[] parameterOrLiteralExpressions, MacroConfiguration macroConfiguration, Set<String> usedMacros) {
+        long start = System.nanoTime();
+        List<Expression> result = delegate.createInItemExpressions(parameterOrLiteralExpressions, macroConfiguration, usedMacros);
+        listener.onPhaseCompleted(QueryPhase.EXPRESSION_PARSING, null, System.nanoTime() - start);
+        return result;
+    }
+
+    @Override
+    public Expression createInItemExpression(String parameterOrLiteralExpression, MacroConfiguration macroConfiguration, Set<String> usedMacros) {
+        long start = System.nanoTime();
+        Expression result = delegate.createInItemExpression(parameterOrLiteralExpression, macroConfiguration, usedMacros);
+        listener.onPhaseCompleted(QueryPhase.EXPRESSION_PARSING, parameterOrLiteralExpression, System.nanoTime() - start);
+        return result;
+    }
+
+    @Override
+    public Expression createInItemOrPathExpression(String parameterOrLiteralExpression, MacroConfiguration macroConfiguration, Set<String> usedMacros) {
+        long start = System.nanoTime();
+        Expression result = delegate.createInItemOrPathExpression(parameterOrLiteralExpression, macroConfiguration, usedMacros);
+        listener.onPhaseCompleted(QueryPhase.EXPRESSION_PARSING, parameterOrLiteralExpression, System.nanoTime() - start);
+        return result;
+    }
+
+    @Override
+    public Predicate createBooleanExpression(String expression, boolean allowQuantifiedPredicates, MacroConfiguration macroConfiguration, Set<String> usedMacros) {
+        long start = System.nanoTime();
+        Predicate result = delegate.createBooleanExpression(expression, allowQuantifiedPredicates, macroConfiguration, usedMacros);
+        listener.onPhaseCompleted(QueryPhase.EXPRESSION_PARSING, expression, System.nanoTime() - start);
+        return result;
+    }
+}
@@ -21,12 +21,14 @@ import com.blazebit.persistence.ConfigurationProperties;
 import com.blazebit.persistence.CriteriaBuilder;
 import com.blazebit.persistence.FullQueryBuilder;
 import com.blazebit.persistence.HavingOrBuilder;
+import com.blazebit.persistence.JoinType;
 import com.blazebit.persistence.Keyset;
 import com.blazebit.persistence.KeysetPage;
 import com.blazebit.persistence.MultipleSubqueryInitiator;
 import com.blazebit.persistence.ObjectBuilder;
 import com.blazebit.persistence.PagedList;
 import com.blazebit.persistence.PaginatedCriteriaBuilder;
+import com.blazebit.persistence.PreparedPaginatedCriteriaQuery;
 import com.blazebit.persistence.RestrictionBuilder;
 import com.blazebit.persistence.SelectObjectBuilder;
 import com.blazebit.persistence.SimpleCaseWhenStarterBuilder;
@@ -65,9 +67,18 @@ import com.blazebit.persistence.parser.predicate.EqPredicate;
 import com.blazebit.persistence.parser.predicate.InPredicate;
 import com.blazebit.persistence.parser.predicate.Predicate;
 import com.blazebit.persistence.spi.AttributeAccessor;
-
+import com.blazebit.persistence.spi.ExtendedQuerySupport;
+import com.blazebit.persistence.spi.FilterAwareExtendedQuerySupport;
+import com.blazebit.persistence.spi.QueryInstrumentationListener;
+import com.blazebit.persistence.spi.QueryPhase;
+import com.blazebit.persistence.spi.QueryStatisticsRecorder;
+import com.blazebit.persistence.spi.RowCountEstimatingDbmsDialect;
+
+import javax.persistence.EntityManager;
 import javax.persistence.Parameter;
+import javax.persistence.Query;
 import javax.persistence.TypedQuery;
+import javax.persistence.metamodel.EntityType;
 import java.util.AbstractMap;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -75,9 +86,11 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.EnumSet;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.regex.Pattern;
 
 /**
  *
@@ -90,6 +103,8 @@ public class PaginatedCriteriaBuilderImpl<T> extends AbstractFullQueryBuilder<T,
     private static final String ENTITY_PAGE_POSITION_PARAMETER_NAME = "_entityPagePositionParameter";
     private static final String PAGE_POSITION_ID_QUERY_ALIAS_PREFIX = "_page_position_";
     private static final Set<ClauseType> OBJECT_QUERY_CLAUSE_EXCLUSIONS = EnumSet.complementOf(EnumSet.of(ClauseType.ORDER_BY, ClauseType.SELECT));
+    private static final Pattern TABLE_NAME_PATTERN = Pattern.compile("[\\w$#.\"`\\[\\]]+");
+    private static final Pattern WHERE_PATTERN = Pattern.compile("\\swhere\\s", Pattern.CASE_INSENSITIVE);
 
     private boolean keysetExtraction;
     private boolean withExtractAllKeysets = false;
@@ -97,6 +112,10 @@ public class PaginatedCriteriaBuilderImpl<T> extends AbstractFullQueryBuilder<T,
     private boolean withForceIdQuery = false;
     private Boolean withInlineIdQuery;
     private boolean withInlineCountQuery;
+    private boolean withCountCache;
+    private boolean withEstimatedCount;
+    private String estimatedCountQueryString;
+    private String estimatedRowCountSql;
     private long maximumCount = Long.MAX_VALUE;
     private int highestOffset = 0;
     private final KeysetPage keysetPage;
@@ -170,13 +189,15 @@ public class PaginatedCriteriaBuilderImpl<T> extends AbstractFullQueryBuilder<T,
         builder.withExtractAllKeysets(withExtractAllKeysets);
         builder.withCountQuery(withCountQuery);
         builder.withForceIdQuery(withForceIdQuery);
+        builder.withCountCache(withCountCache);
+        builder.withEstimatedCount(withEstimatedCount);
         builder.withHighestKeysetOffset(highestOffset);
         return builder;
     }
 
     @Override
-    public <Y> CriteriaBuilderImpl<Y> copyCriteriaBuilder(Class<Y> resultClass, boolean copyOrderBy) {
-        CriteriaBuilderImpl<Y> criteriaBuilder = super.copyCriteriaBuilder(resultClass, copyOrderBy);
+    public <Y> CriteriaBuilderImpl<Y> copyCriteriaBuilder(EntityManager entityManager, Class<Y> resultClass, boolean copyOrderBy) {
+        CriteriaBuilderImpl<Y> criteriaBuilder = super.copyCriteriaBuilder(entityManager, resultClass, copyOrderBy);
         criteriaBuilder.setFirstResult(0);
         criteriaBuilder.setMaxResults(Integer.MAX_VALUE);
 
@@ -266,6 +287,7 @@ public class PaginatedCriteriaBuilderImpl<T> extends AbstractFullQueryBuilder<T,
 
     @Override
     public PaginatedCriteriaBuilder<T> withKeysetExtraction(boolean keysetExtraction) {
+        verifyNotPrepared();
         this.keysetExtraction = keysetExtraction;
         if (!keysetExtraction) {
             this.withExtractAllKeysets = false;
@@ -280,6 +302,7 @@ public class PaginatedCriteriaBuilderImpl<T> extends AbstractFullQueryBuilder<T,
 
     @Override
     public PaginatedCriteriaBuilder<T> withExtractAllKeysets(boolean withExtractAllKeysets) {
+        verifyNotPrepared();
         this.withExtractAllKeysets = withExtractAllKeysets;
         if (withExtractAllKeysets) {
             this.keysetExtraction = true;
@@ -294,6 +317,7 @@ public class PaginatedCriteriaBuilderImpl<T> extends AbstractFullQueryBuilder<T,
 
     @Override
     public PaginatedCriteriaBuilder<T> withCountQuery(boolean withCountQuery) {
+        verifyNotPrepared();
         this.withCountQuery = withCountQuery;
         return this;
     }
@@ -305,6 +329,7 @@ public class PaginatedCriteriaBuilderImpl<T> extends AbstractFullQueryBuilder<T,
 
     @Override
     public PaginatedCriteriaBuilder<T> withBoundedCount(long maximumCount) {
+        verifyNotPrepared();
         if (this.maximumCount != maximumCount) {
             this.maximumCount = maximumCount;
             prepareForModification(ClauseType.SELECT);
@@ -319,6 +344,7 @@ public class PaginatedCriteriaBuilderImpl<T> extends AbstractFullQueryBuilder<T,
 
     @Override
     public PaginatedCriteriaBuilder<T> withForceIdQuery(boolean withForceIdQuery) {
+        verifyNotPrepared();
         this.withForceIdQuery = withForceIdQuery;
         return this;
     }
@@ -330,6 +356,7 @@ public class PaginatedCriteriaBuilderImpl<T> extends AbstractFullQueryBuilder<T,
 
     @Override
     public PaginatedCriteriaBuilder<T> withHighestKeysetOffset(int offset) {
+        verifyNotPrepared();
         this.highestOffset = offset;
         return this;
     }
@@ -341,6 +368,7 @@ public class PaginatedCriteriaBuilderImpl<T> extends AbstractFullQueryBuilder<T,
 
     @Override
     public PaginatedCriteriaBuilder<T> withInlineIdQuery(boolean withInlineIdQuery) {
+        verifyNotPrepared();
         if (withInlineIdQuery) {
             if (!mainQuery.jpaProvider.supportsSubqueryInFunction()) {
                 throw new IllegalStateException("Can't inline the id query because the JPA provider does not support subqueries in functions");
@@ -384,6 +412,7 @@ public class PaginatedCriteriaBuilderImpl<T> extends AbstractFullQueryBuilder<T,
 
     @Override
     public PaginatedCriteriaBuilder<T> withInlineCountQuery(boolean withInlineCountQuery) {
+        verifyNotPrepared();
         if (withInlineCountQuery) {
             if (entityId != null) {
                 throw new IllegalStateException("Can't inline the count query when paginating to a page by entity id!");
@@ -398,6 +427,38 @@ public class PaginatedCriteriaBuilderImpl<T> extends AbstractFullQueryBuilder<T,
         return this;
     }
 
+    @Override
+    public boolean isWithCountCache() {
+        return withCountCache;
+    }
+
+    @Override
+    public PaginatedCriteriaBuilder<T> withCountCache(boolean withCountCache) {
+        verifyNotPrepared();
+        if (withCountCache) {
+            // An inlined count is part of the id or object query result and can't be reused
+            withInlineCountQuery(false);
+        }
+        this.withCountCache = withCountCache;
+        return this;
+    }
+
+    @Override
+    public boolean isWithEstimatedCount() {
+        return withEstimatedCount;
+    }
+
+    @Override
+    public PaginatedCriteriaBuilder<T> withEstimatedCount(boolean withEstimatedCount) {
+        verifyNotPrepared();
+        if (withEstimatedCount) {
+            // An inlined count is part of the id or object query result and can't be replaced by the estimate
+            withInlineCountQuery(false);
+        }
+        this.withEstimatedCount = withEstimatedCount;
+        return this;
+    }
+
     @Override
     public PaginatedCriteriaBuilder<T> setProperty(String propertyName, String propertyValue) {
         super.setProperty(propertyName, propertyValue);
@@ -456,9 +517,73 @@ public class PaginatedCriteriaBuilderImpl<T> extends AbstractFullQueryBuilder<T,
         return createPageIdQuery(keysetPage, firstResult, maxResults, getIdentifierExpressionsToUse());
     }
 
-    private <X> TypedQuery<X> getCountQuery(String countQueryString, Class<X> resultType, boolean normalQueryMode, Set<JoinNode> keyRestrictedLeftJoins, List<JoinNode> entityFunctions, JoinNode dualNode) {
+    @Override
+    public PreparedPaginatedCriteriaQuery<T> prepare() {
+        prepareAndCheck(null);
+        if (entityId != null) {
+            throw new IllegalStateException("Can't prepare a query that navigates to the page of an entity!");
+        } else if (maximumCount != Long.MAX_VALUE) {
+            throw new IllegalStateException("Can't prepare a query with a bounded count!");
+        } else if (forceFirstResult) {
+            throw new IllegalStateException("Can't prepare a query with an explicit keyset!");
+        } else if (mainQuery.cteManager.hasCtes() || joinManager.hasEntityFunctions() || !getKeyRestrictedLeftJoins().isEmpty()) {
+            throw new IllegalStateException("Can't prepare a query that requires SQL level processing like CTEs, VALUES clauses or entity functions!");
+        }
+        String queryString = getExternalQueryString();
+        prepared = true;
+        selectManager.shareObjectBuilder();
+        return new PreparedPaginatedCriteriaQueryImpl<>(this, queryString);
+    }
+
+    /**
+     * Creates a copy of this query builder for the given page that is used by a prepared query to create the queries of a keyset mode and page size.
+     * The object builder is shared, as the copy only retains the select items, so stateful object builders are instantiated for every query.
+     */
+    PaginatedCriteriaBuilderImpl<T> copyForPreparedQuery(KeysetPage keysetPage, int firstRow, int pageSize, boolean keysetExtraction) {
+        CriteriaBuilderImpl<T> criteriaBuilder = super.copyCriteriaBuilder(getEntityManager(), resultType, true);
+        criteriaBuilder.selectManager.setSharedObjectBuilder(selectManager.getObjectBuilder());
+        PaginatedCriteriaBuilderImpl<T> builder;
+        if (identifierExpressions == null) {
+            builder = (PaginatedCriteriaBuilderImpl<T>) criteriaBuilder.page(keysetPage, firstRow, pageSize);
+        } else {
+            String[] otherIdentifierExpressions = new String[identifierExpressions.length - 1];
+            for (int i = 1; i < identifierExpressions.length; i++) {
+                otherIdentifierExpressions[i - 1] = identifierExpressions[i].getExpressionString();
+            }
+            builder = (PaginatedCriteriaBuilderImpl<T>) criteriaBuilder.pageBy(keysetPage, firstRow, pageSize, identifierExpressions[0].getExpressionString(), otherIdentifierExpressions);
+        }
+        builder.keysetExtraction = keysetExtraction;
+        builder.withExtractAllKeysets = withExtractAllKeysets;
+        builder.withCountQuery = withCountQuery;
+        builder.withForceIdQuery = withForceIdQuery;
+        builder.withInlineIdQuery = withInlineIdQuery;
+        builder.withInlineCountQuery = withInlineCountQuery;
+        builder.withCountCache = withCountCache;
+        builder.withEstimatedCount = withEstimatedCount;
+        builder.highestOffset = highestOffset;
+        return builder;
+    }
+
+    /**
+     * Returns whether the first result is rendered into the query string of the inline id query rather than being bound to the queries.
+     * This is the case for pages without a keyset.
+     */
+    boolean isFirstResultRendered() {
+        return isWithInlineIdQuery() && (hasCollections || withForceIdQuery);
+    }
+
+    /**
+     * Creates the queries for the given page whose keyset mode and page size must match the ones of this query builder.
+     * After the first invocation, this only reads the state of the query builder, so it is safe to call it concurrently.
+     */
+    PaginatedTypedQueryImpl<T> createPreparedQuery(EntityManager entityManager, KeysetPage keysetPage, int firstRow) {
+        prepareAndCheck(null);
+        return getQuery(entityManager, keysetPage, firstRow);
+    }
+
+    private <X> TypedQuery<X> getCountQuery(EntityManager entityManager, String countQueryString, Class<X> resultType, boolean normalQueryMode, Set<JoinNode> keyRestrictedLeftJoins, List<JoinNode> entityFunctions, JoinNode dualNode) {
         if (normalQueryMode && isEmpty(keyRestrictedLeftJoins, COUNT_QUERY_CLAUSE_EXCLUSIONS)) {
-            TypedQuery<X> countQuery = em.createQuery(countQueryString, resultType);
+            TypedQuery<X> countQuery = entityManager.createQuery(countQueryString, resultType);
             if (isCacheable()) {
                 mainQuery.jpaProvider.setCacheable(countQuery);
             }
@@ -466,7 +591,7 @@ public class PaginatedCriteriaBuilderImpl<T> extends AbstractFullQueryBuilder<T,
             return parameterManager.getCriteriaNameMapping() == null ? countQuery : new TypedQueryWrapper<>(countQuery, parameterManager.getCriteriaNameMapping());
         }
 
-        TypedQuery<X> baseQuery = em.createQuery(countQueryString, resultType);
+        TypedQuery<X> baseQuery = entityManager.createQuery(countQueryString, resultType);
         Set<String> parameterListNames = parameterManager.getParameterListNames(baseQuery);
         List<String> keyRestrictedLeftJoinAliases = getKeyRestrictedLeftJoinAliases(baseQuery, keyRestrictedLeftJoins, COUNT_QUERY_CLAUSE_EXCLUSIONS);
         List<EntityFunctionNode> entityFunctionNodes = new ArrayList<>();
@@ -519,6 +644,10 @@ public class PaginatedCriteriaBuilderImpl<T> extends AbstractFullQueryBuilder<T,
     @Override
     public PaginatedTypedQueryImpl<T> getQuery() {
         prepareAndCheck(null);
+        return getQuery(em, keysetPage, firstResult);
+    }
+
+    private PaginatedTypedQueryImpl<T> getQuery(EntityManager entityManager, KeysetPage keysetPage, int firstResult) {
         // We can only use the query directly if we have no ctes, entity functions or hibernate bugs
         Set<JoinNode> keyRestrictedLeftJoins = getKeyRestrictedLeftJoins();
         boolean normalQueryMode = !isMainQuery || (!mainQuery.cteManager.hasCtes() && !joinManager.hasEntityFunctions() && keyRestrictedLeftJoins.isEmpty());
@@ -534,9 +663,9 @@ public class PaginatedCriteriaBuilderImpl<T> extends AbstractFullQueryBuilder<T,
         if (maximumCount == Long.MAX_VALUE) {
             if (entityId == null) {
                 // No reference entity id, so just do a simple count query
-                countQuery = getCountQuery(countQueryString, Long.class, normalQueryMode, keyRestrictedLeftJoins, entityFunctions, null);
+                countQuery = getCountQuery(entityManager, countQueryString, Long.class, normalQueryMode, keyRestrictedLeftJoins, entityFunctions, null);
             } else {
-                countQuery = getCountQuery(countQueryString, Object[].class, normalQueryMode, keyRestrictedLeftJoins, entityFunctions, null);
+                countQuery = getCountQuery(entityManager, countQueryString, Object[].class, normalQueryMode, keyRestrictedLeftJoins, entityFunctions, null);
             }
         } else {
             List<JoinNode> countEntityFunctions = new ArrayList<>();
@@ -544,9 +673,9 @@ public class PaginatedCriteriaBuilderImpl<T> extends AbstractFullQueryBuilder<T,
             countEntityFunctions.add(valuesNode);
             if (entityId == null) {
                 // No reference entity id, so just do a simple count query
-                countQuery = getCountQuery(countQueryString, Long.class, false, Collections.<JoinNode>emptySet(), countEntityFunctions, valuesNode);
+                countQuery = getCountQuery(entityManager, countQueryString, Long.class, false, Collections.<JoinNode>emptySet(), countEntityFunctions, valuesNode);
             } else {
-                countQuery = getCountQuery(countQueryString, Object[].class, false, Collections.<JoinNode>emptySet(), countEntityFunctions, valuesNode);
+                countQuery = getCountQuery(entityManager, countQueryString, Object[].class, false, Collections.<JoinNode>emptySet(), countEntityFunctions, valuesNode);
             }
         }
 
@@ -562,13 +691,13 @@ public class PaginatedCriteriaBuilderImpl<T> extends AbstractFullQueryBuilder<T,
             } else {
                 entityFunctions = joinManager.getEntityFunctions(ID_QUERY_GROUP_BY_CLAUSE_EXCLUSIONS, true, alwaysIncludedNodes);
             }
-            idQuery = getIdQuery(idQueryString, normalQueryMode, keyRestrictedLeftJoins, entityFunctions);
+            idQuery = getIdQuery(entityManager, idQueryString, normalQueryMode, keyRestrictedLeftJoins, entityFunctions);
             if (normalQueryMode) {
                 entityFunctions = Collections.emptyList();
             } else {
                 entityFunctions = joinManager.getEntityFunctions(OBJECT_QUERY_CLAUSE_EXCLUSIONS, false, alwaysIncludedNodes);
             }
-            objectQuery = getObjectQueryById(normalQueryMode, keyRestrictedLeftJoins, entityFunctions);
+            objectQuery = getObjectQueryById(entityManager, normalQueryMode, keyRestrictedLeftJoins, entityFunctions);
             objectBuilder = null;
             inlinedIdQuery = false;
         } else {
@@ -577,7 +706,7 @@ public class PaginatedCriteriaBuilderImpl<T> extends AbstractFullQueryBuilder<T,
             } else {
                 entityFunctions = joinManager.getEntityFunctions(hasGroupBy ? NO_CLAUSE_EXCLUSION : OBJECT_QUERY_WITHOUT_GROUP_BY_EXCLUSIONS, false, alwaysIncludedNodes);
             }
-            Map.Entry<TypedQuery<T>, ObjectBuilder<T>> entry = getObjectQuery(normalQueryMode, keyRestrictedLeftJoins, entityFunctions);
+            Map.Entry<TypedQuery<T>, ObjectBuilder<T>> entry = getObjectQuery(entityManager, normalQueryMode, keyRestrictedLeftJoins, entityFunctions);
             objectQuery = entry.getKey();
             objectBuilder = entry.getValue();
             inlinedIdQuery = isWithInlineIdQuery() && (hasCollections || withForceIdQuery);
@@ -605,12 +734,115 @@ public class PaginatedCriteriaBuilderImpl<T> extends AbstractFullQueryBuilder<T,
                 inlinedIdQuery,
                 inlinedCountQuery
         );
+        if (withCountCache && !inlinedCountQuery) {
+            query.setCountCache(cbf.getPaginationCountCache(), getExternalPageCountQueryString(), getFilterDiscriminator(entityManager), getQueryEntityTypes(), mainQuery.jpaProvider, mainQuery.metamodel);
+        }
+        if (withEstimatedCount && !inlinedCountQuery && entityId == null && maximumCount == Long.MAX_VALUE && normalQueryMode && isUnfiltered()) {
+            query.setEstimatedCountQuery(createEstimatedCountQuery(entityManager, countQueryString));
+        }
         return query;
     }
 
+    private Object getFilterDiscriminator(EntityManager entityManager) {
+        // Without filter support, the cache can't distinguish tenants or session filters
+        ExtendedQuerySupport extendedQuerySupport = cbf.getExtendedQuerySupport();
+        if (extendedQuerySupport instanceof FilterAwareExtendedQuerySupport) {
+            return ((FilterAwareExtendedQuerySupport) extendedQuerySupport).getFilterDiscriminator(entityManager);
+        }
+        return null;
+    }
+
+    private boolean isUnfiltered() {
+        if (whereManager.hasPredicates() || havingManager.hasPredicates() || hasGroupBy || joinManager.getRoots().size() != 1) {
+            return false;
+        }
+        final JoinNode rootNode = joinManager.getRoots().get(0);
+        EntityType<?> entityType = rootNode.getEntityType();
+        if (entityType == null || rootNode.getTreatType() != null || mainQuery.jpaProvider.getDiscriminatorColumnCheck(entityType) != null) {
+            return false;
+        }
+        // Only left joins retain all rows of the root, so the row count of the root table is the total count
+        return !joinManager.acceptVisitor(new AbortableResultJoinNodeVisitor<Boolean>() {
+            @Override
+            public Boolean getStopValue() {
+                return Boolean.TRUE;
+            }
+
+            @Override
+            public Boolean visit(JoinNode node) {
+                return node != rootNode && node.getJoinType() != JoinType.LEFT;
+            }
+        });
+    }
+
+    private Query createEstimatedCountQuery(EntityManager entityManager, String countQueryString) {
+        // Session filters restrict the rows but aren't part of the rendered SQL
+        ExtendedQuerySupport extendedQuerySupport = cbf.getExtendedQuerySupport();
+        if (!(extendedQuerySupport instanceof FilterAwareExtendedQuerySupport) || ((FilterAwareExtendedQuerySupport) extendedQuerySupport).hasEnabledFilters(entityManager)) {
+            return null;
+        }
+        // Avoid rendering the count query SQL again if the builder wasn't changed
+        if (!countQueryString.equals(estimatedCountQueryString)) {
+            estimatedCountQueryString = countQueryString;
+            estimatedRowCountSql = getEstimatedRowCountSql(entityManager, countQueryString);
+        }
+        if (estimatedRowCountSql == null) {
+            return null;
+        }
+        return entityManager.createNativeQuery(estimatedRowCountSql);
+    }
+
+    private String getEstimatedRowCountSql(EntityManager entityManager, String countQueryString) {
+        ExtendedQuerySupport extendedQuerySupport = cbf.getExtendedQuerySupport();
+        if (!extendedQuerySupport.supportsAdvancedSql() || !(mainQuery.dbmsDialect instanceof RowCountEstimatingDbmsDialect)) {
+            return null;
+        }
+        Query query = entityManager.createQuery(countQueryString);
+        String sql = extendedQuerySupport.getSql(entityManager, query);
+        ExtendedQuerySupport.SqlFromInfo sqlFromInfo = extendedQuerySupport.getSqlFromInfo(entityManager, query, joinManager.getRoots().get(0).getAlias(), 0);
+        // Restrictions in the SQL come from the mapping e.g. a Hibernate @Where
+        if (WHERE_PATTERN.matcher(sql).find(sqlFromInfo.getFromEndIndex())) {
+            return null;
+        }
+        String fromElement = sql.substring(sqlFromInfo.getFromStartIndex(), sqlFromInfo.getFromEndIndex()).trim();
+        int whitespaceIndex = fromElement.indexOf(' ');
+        String tableName = whitespaceIndex == -1 ? fromElement : fromElement.substring(0, whitespaceIndex);
+        // Table per class hierarchies are rendered as subquery for which no statistics exist
+        if (!TABLE_NAME_PATTERN.matcher(tableName).matches()) {
+            return null;
+        }
+        return ((RowCountEstimatingDbmsDialect) mainQuery.dbmsDialect).getEstimatedRowCountSql(tableName);
+    }
+
+    private Set<Class<?>> getQueryEntityTypes() {
+        final Set<Class<?>> entityTypes = new HashSet<>();
+        joinManager.acceptVisitor(new JoinNodeVisitor() {
+            @Override
+            public void visit(JoinNode node) {
+                if (node.getEntityType() != null) {
+                    entityTypes.add(node.getEntityType().getJavaType());
+                }
+            }
+        });
+        return entityTypes;
+    }
+
     @Override
     public PagedList<T> getResultList() {
-        return getQuery().getResultList();
+        PaginatedTypedQueryImpl<T> query = getQuery();
+        QueryInstrumentationListener instrumentationListener = getInstrumentationListener();
+        QueryStatisticsRecorder statisticsRecorder = getStatisticsRecorder();
+        if (instrumentationListener == null && statisticsRecorder == null) {
+            return query.getResultList();
+        }
+        String queryString = getExternalQueryString();
+        if (statisticsRecorder != null) {
+            query.setStatisticsRecorder(statisticsRecorder, queryString);
+        }
+        long start = System.nanoTime();
+        PagedList<T> resultList = query.getResultList();
+        onExecuted(instrumentationListener, statisticsRecorder, queryString, start, resultList.size());
+        return resultList;
     }
 
     @Override
@@ -627,7 +859,7 @@ public class PaginatedCriteriaBuilderImpl<T> extends AbstractFullQueryBuilder<T,
         boolean normalQueryMode = !isMainQuery || (!mainQuery.cteManager.hasCtes() && !joinManager.hasEntityFunctions() && keyRestrictedLeftJoins.isEmpty());
         String countQueryString = getPageCountQueryStringWithoutCheck();
         List<JoinNode> entityFunctions = joinManager.getEntityFunctions(COUNT_QUERY_GROUP_BY_CLAUSE_EXCLUSIONS, true, alwaysIncludedNodes);
-        return getCountQuery(countQueryString, Long.class, normalQueryMode, keyRestrictedLeftJoins, entityFunctions, null);
+        return getCountQuery(em, countQueryString, Long.class, normalQueryMode, keyRestrictedLeftJoins, entityFunctions, null);
     }
 
     @Override
@@ -638,7 +870,12 @@ public class PaginatedCriteriaBuilderImpl<T> extends AbstractFullQueryBuilder<T,
 
     private String getPageCountQueryStringWithoutCheck() {
         if (cachedCountQueryString == null) {
+            QueryInstrumentationListener instrumentationListener = getInstrumentationListener();
+            long start = instrumentationListener == null ? 0L : System.nanoTime();
             cachedCountQueryString = buildPageCountQueryString(false, false, maximumCount);
+            if (instrumentationListener != null) {
+                instrumentationListener.onPhaseCompleted(QueryPhase.QUERY_GENERATION, cachedCountQueryString, System.nanoTime() - start);
+            }
         }
 
         return cachedCountQueryString;
@@ -660,7 +897,12 @@ public class PaginatedCriteriaBuilderImpl<T> extends AbstractFullQueryBuilder<T,
 
     private String getPageIdQueryStringWithoutCheck() {
         if (cachedIdQueryString == null && !isWithInlineIdQuery() && (hasCollections || withForceIdQuery)) {
+            QueryInstrumentationListener instrumentationListener = getInstrumentationListener();
+            long start = instrumentationListener == null ? 0L : System.nanoTime();
             cachedIdQueryString = buildPageIdQueryString(false);
+            if (instrumentationListener != null) {
+                instrumentationListener.onPhaseCompleted(QueryPhase.QUERY_GENERATION, cachedIdQueryString, System.nanoTime() - start);
+            }
         }
 
         return cachedIdQueryString;
@@ -683,11 +925,16 @@ public class PaginatedCriteriaBuilderImpl<T> extends AbstractFullQueryBuilder<T,
     @Override
     protected String getBaseQueryString(StringBuilder lateralSb, JoinNode lateralJoinNode) {
         if (cachedQueryString == null) {
+            QueryInstrumentationListener instrumentationListener = getInstrumentationListener();
+            long start = instrumentationListener == null ? 0L : System.nanoTime();
             if (!isWithInlineIdQuery() && (hasCollections || withForceIdQuery)) {
                 cachedQueryString = buildBaseQueryString(false);
             } else {
                 cachedQueryString = buildObjectQueryString(false);
             }
+            if (instrumentationListener != null) {
+                instrumentationListener.onPhaseCompleted(QueryPhase.QUERY_GENERATION, cachedQueryString, System.nanoTime() - start);
+            }
         }
 
         return cachedQueryString;
@@ -899,7 +1146,7 @@ public class PaginatedCriteriaBuilderImpl<T> extends AbstractFullQueryBuilder<T,
     }
 
     @SuppressWarnings("unchecked")
-    private Map.Entry<TypedQuery<T>, ObjectBuilder<T>> getObjectQuery(boolean normalQueryMode, Set<JoinNode> keyRestrictedLeftJoins, List<JoinNode> entityFunctions) {
+    private Map.Entry<TypedQuery<T>, ObjectBuilder<T>> getObjectQuery(EntityManager entityManager, boolean normalQueryMode, Set<JoinNode> keyRestrictedLeftJoins, List<JoinNode> entityFunctions) {
         String queryString = getBaseQueryString(null, null);
         Class<?> expectedResultType;
 
@@ -921,7 +1168,7 @@ public class PaginatedCriteriaBuilderImpl<T> extends AbstractFullQueryBuilder<T,
         TypedQuery<T> query;
 
         if (normalQueryMode && isEmpty(keyRestrictedLeftJoins, clauseExclusions)) {
-            query = (TypedQuery<T>) em.createQuery(queryString, expectedResultType);
+            query = (TypedQuery<T>) entityManager.createQuery(queryString, expectedResultType);
             if (isCacheable()) {
                 mainQuery.jpaProvider.setCacheable(query);
             }
@@ -933,7 +1180,7 @@ public class PaginatedCriteriaBuilderImpl<T> extends AbstractFullQueryBuilder<T,
                 parameterManager.parameterizeQuery(query);
             }
         } else {
-            TypedQuery<T> baseQuery = (TypedQuery<T>) em.createQuery(queryString, expectedResultType);
+            TypedQuery<T> baseQuery = (TypedQuery<T>) entityManager.createQuery(queryString, expectedResultType);
             Set<String> parameterListNames = parameterManager.getParameterListNames(baseQuery);
 
             List<String> keyRestrictedLeftJoinAliases = getKeyRestrictedLeftJoinAliases(baseQuery, keyRestrictedLeftJoins, clauseExclusions);
@@ -984,7 +1231,7 @@ public class PaginatedCriteriaBuilderImpl<T> extends AbstractFullQueryBuilder<T,
         }
 
         ObjectBuilder<T> objectBuilder = null;
-        ObjectBuilder<T> transformerObjectBuilder = selectManager.getSelectObjectBuilder();
+        ObjectBuilder<T> transformerObjectBuilder = selectManager.getSelectObjectBuilder(entityManager);
         boolean inlinedCountQuery = firstResult < maximumCount && withCountQuery && withInlineCountQuery;
 
         if (keysetExtraction) {
@@ -1000,7 +1247,7 @@ public class PaginatedCriteriaBuilderImpl<T> extends AbstractFullQueryBuilder<T,
         }
 
         if (transformerObjectBuilder != null) {
-            query = new ObjectBuilderTypedQuery<>(query, query instanceof AbstractCustomQuery<?> ? null : parameterManager.getCriteriaNameMapping(), transformerObjectBuilder);
+            query = new ObjectBuilderTypedQuery<>(query, query instanceof AbstractCustomQuery<?> ? null : parameterManager.getCriteriaNameMapping(), transformerObjectBuilder, getInstrumentationListener());
         } else if (parameterManager.getCriteriaNameMapping() != null) {
             if (!(query instanceof CustomSQLTypedQuery<?>)) {
                 query = new TypedQueryWrapper<>(query, parameterManager.getCriteriaNameMapping());
@@ -1010,9 +1257,9 @@ public class PaginatedCriteriaBuilderImpl<T> extends AbstractFullQueryBuilder<T,
         return new AbstractMap.SimpleEntry<TypedQuery<T>, ObjectBuilder<T>>(query, objectBuilder);
     }
 
-    private TypedQuery<Object[]> getIdQuery(String idQueryString, boolean normalQueryMode, Set<JoinNode> keyRestrictedLeftJoins, List<JoinNode> entityFunctions) {
+    private TypedQuery<Object[]> getIdQuery(EntityManager entityManager, String idQueryString, boolean normalQueryMode, Set<JoinNode> keyRestrictedLeftJoins, List<JoinNode> entityFunctions) {
         if (normalQueryMode && isEmpty(keyRestrictedLeftJoins, ID_QUERY_CLAUSE_EXCLUSIONS)) {
-            TypedQuery<Object[]> idQuery = em.createQuery(idQueryString, Object[].class);
+            TypedQuery<Object[]> idQuery = entityManager.createQuery(idQueryString, Object[].class);
             if (isCacheable()) {
                 mainQuery.jpaProvider.setCacheable(idQuery);
             }
@@ -1025,7 +1272,7 @@ public class PaginatedCriteriaBuilderImpl<T> extends AbstractFullQueryBuilder<T,
             return parameterManager.getCriteriaNameMapping() == null ? idQuery : new TypedQueryWrapper<>(idQuery, parameterManager.getCriteriaNameMapping());
         }
 
-        TypedQuery<Object[]> baseQuery = em.createQuery(idQueryString, Object[].class);
+        TypedQuery<Object[]> baseQuery = entityManager.createQuery(idQueryString, Object[].class);
         Set<String> parameterListNames = parameterManager.getParameterListNames(baseQuery);
 
         List<String> keyRestrictedLeftJoinAliases = getKeyRestrictedLeftJoinAliases(baseQuery, keyRestrictedLeftJoins, ID_QUERY_CLAUSE_EXCLUSIONS);
@@ -1056,19 +1303,19 @@ public class PaginatedCriteriaBuilderImpl<T> extends AbstractFullQueryBuilder<T,
     }
 
     @SuppressWarnings("unchecked")
-    private TypedQuery<T> getObjectQueryById(boolean normalQueryMode, Set<JoinNode> keyRestrictedLeftJoins, List<JoinNode> entityFunctions) {
+    private TypedQuery<T> getObjectQueryById(EntityManager entityManager, boolean normalQueryMode, Set<JoinNode> keyRestrictedLeftJoins, List<JoinNode> entityFunctions) {
         ResolvedExpression[] identifierExpressionsToUse = getIdentifierExpressionsToUse();
         String skippedParameterPrefix = identifierExpressionsToUse.length == 1 ? ID_PARAM_NAME : ID_PARAM_NAME + "_";
         if (normalQueryMode && isEmpty(keyRestrictedLeftJoins, OBJECT_QUERY_CLAUSE_EXCLUSIONS)) {
-            TypedQuery<T> query = (TypedQuery<T>) em.createQuery(getBaseQueryString(null, null), selectManager.getExpectedQueryResultType());
+            TypedQuery<T> query = (TypedQuery<T>) entityManager.createQuery(getBaseQueryString(null, null), selectManager.getExpectedQueryResultType());
             if (isCacheable()) {
                 mainQuery.jpaProvider.setCacheable(query);
             }
             parameterManager.parameterizeQuery(query, skippedParameterPrefix);
-            return applyObjectBuilder(query);
+            return applyObjectBuilder(entityManager, query);
         }
 
-        TypedQuery<T> baseQuery = (TypedQuery<T>) em.createQuery(getBaseQueryString(null, null), selectManager.getExpectedQueryResultType());
+        TypedQuery<T> baseQuery = (TypedQuery<T>) entityManager.createQuery(getBaseQueryString(null, null), selectManager.getExpectedQueryResultType());
         Set<String> parameterListNames = parameterManager.getParameterListNames(baseQuery, ID_PARAM_NAME);
 
         if (identifierExpressionsToUse.length == 1) {
@@ -1102,7 +1349,7 @@ public class PaginatedCriteriaBuilderImpl<T> extends AbstractFullQueryBuilder<T,
 
         parameterManager.parameterizeQuery(query, skippedParameterPrefix);
 
-        return applyObjectBuilder(query);
+        return applyObjectBuilder(entityManager, query);
     }
 
     @Override
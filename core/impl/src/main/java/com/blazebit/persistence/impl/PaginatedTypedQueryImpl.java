@@ -27,6 +27,9 @@ import com.blazebit.persistence.impl.keyset.KeysetMode;
 import com.blazebit.persistence.DefaultKeysetPage;
 import com.blazebit.persistence.impl.keyset.KeysetPaginationHelper;
 import com.blazebit.persistence.impl.util.SetView;
+import com.blazebit.persistence.parser.EntityMetamodel;
+import com.blazebit.persistence.spi.JpaProvider;
+import com.blazebit.persistence.spi.QueryStatisticsRecorder;
 
 import javax.persistence.FlushModeType;
 import javax.persistence.LockModeType;
@@ -50,6 +53,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
 
 /**
  * @author Christian Beikov
@@ -57,6 +61,8 @@ import java.util.Set;
  */
 public class PaginatedTypedQueryImpl<X> implements PaginatedTypedQuery<X> {
 
+    private static final Object NOT_CACHEABLE = new Object();
+
     private final boolean withExtractAllKeysets;
     private final boolean withCount;
     private final boolean boundedCount;
@@ -81,6 +87,19 @@ public class PaginatedTypedQueryImpl<X> implements PaginatedTypedQuery<X> {
     private final boolean forceFirstResult;
     private final boolean inlinedIdQuery;
     private final boolean inlinedCountQuery;
+    private PaginationCountCacheImpl countCache;
+    private String countCacheQueryString;
+    private Object countCacheFilterDiscriminator;
+    private Set<Class<?>> countCacheEntityTypes;
+    private JpaProvider countCacheJpaProvider;
+    private EntityMetamodel countCacheMetamodel;
+    private Query estimatedCountQuery;
+    private boolean totalSizeEstimated;
+    private QueryStatisticsRecorder statisticsRecorder;
+    private String statisticsQueryString;
+    private long countQueryNanos;
+    private long idQueryNanos;
+    private long objectQueryNanos;
 
     public PaginatedTypedQueryImpl(boolean withExtractAllKeysets, boolean withCount, boolean boundedCount, int highestOffset, TypedQuery<?> countQuery, TypedQuery<?> idQuery, TypedQuery<X> objectQuery, ObjectBuilder<X> objectBuilder, Collection<ParameterManager.ParameterImpl<?>> parameters, Map<ParameterExpression<?>, String> criteriaNameMapping,
                                    Object entityId, int firstResult, int pageSize, int identifierCount, boolean needsNewIdList, int[] keysetToSelectIndexMapping, KeysetMode keysetMode, KeysetPage keysetPage, boolean forceFirstResult, boolean inlinedIdQuery, boolean inlinedCountQuery) {
@@ -163,6 +182,36 @@ public class PaginatedTypedQueryImpl<X> implements PaginatedTypedQuery<X> {
         this.keysetSuffix = suffix;
     }
 
+    TypedQuery<?> getCountQuery() {
+        return countQuery;
+    }
+
+    void setCountCache(PaginationCountCacheImpl countCache, String countCacheQueryString, Object countCacheFilterDiscriminator, Set<Class<?>> countCacheEntityTypes, JpaProvider jpaProvider, EntityMetamodel metamodel) {
+        this.countCache = countCache;
+        this.countCacheQueryString = countCacheQueryString;
+        this.countCacheFilterDiscriminator = countCacheFilterDiscriminator;
+        this.countCacheEntityTypes = countCacheEntityTypes;
+        this.countCacheJpaProvider = jpaProvider;
+        this.countCacheMetamodel = metamodel;
+    }
+
+    void setEstimatedCountQuery(Query estimatedCountQuery) {
+        this.estimatedCountQuery = estimatedCountQuery;
+    }
+
+    void setStatisticsRecorder(QueryStatisticsRecorder statisticsRecorder, String statisticsQueryString) {
+        this.statisticsRecorder = statisticsRecorder;
+        this.statisticsQueryString = statisticsQueryString;
+    }
+
+    TypedQuery<?> getIdQuery() {
+        return idQuery;
+    }
+
+    TypedQuery<X> getObjectQuery() {
+        return objectQuery;
+    }
+
     private String getParameterName(Parameter<?> parameter) {
         if (criteriaNameMapping != null && parameter.getName() == null && parameter instanceof ParameterExpression<?>) {
             return criteriaNameMapping.get(parameter);
@@ -176,27 +225,132 @@ public class PaginatedTypedQueryImpl<X> implements PaginatedTypedQuery<X> {
 
     @Override
     public long getTotalCount() {
-        return ((Number) countQuery.getSingleResult()).longValue();
+        return ((Number) getCountQueryResult()).longValue();
+    }
+
+    private Object getCountQueryResult() {
+        if (statisticsRecorder == null) {
+            return computeCountQueryResult();
+        }
+        long start = System.nanoTime();
+        Object result = computeCountQueryResult();
+        countQueryNanos += System.nanoTime() - start;
+        return result;
+    }
+
+    private Object computeCountQueryResult() {
+        totalSizeEstimated = false;
+        if (estimatedCountQuery != null) {
+            Object estimate = estimatedCountQuery.getSingleResult();
+            // The estimate is null or negative if the dbms has no statistics for the table
+            if (estimate instanceof Number && ((Number) estimate).longValue() >= 0L) {
+                totalSizeEstimated = true;
+                return ((Number) estimate).longValue();
+            }
+        }
+        if (countCache == null) {
+            return countQuery.getSingleResult();
+        }
+        Object[] parameterValues = getCountQueryParameterValues();
+        if (parameterValues == null) {
+            return countQuery.getSingleResult();
+        }
+        Object result = countCache.get(countCacheQueryString, countCacheFilterDiscriminator, parameterValues);
+        if (result == null) {
+            long generation = countCache.getGeneration(countCacheEntityTypes);
+            result = countQuery.getSingleResult();
+            countCache.put(countCacheQueryString, countCacheFilterDiscriminator, parameterValues, countCacheEntityTypes, generation, result);
+        }
+        return result;
+    }
+
+    private Object[] getCountQueryParameterValues() {
+        Map<String, Object> values = new TreeMap<>();
+        for (Parameter<?> parameter : countQuery.getParameters()) {
+            Object value;
+            try {
+                value = getCacheableValue(countQuery.getParameterValue(parameter));
+            } catch (IllegalStateException ex) {
+                // An unbound parameter will fail the count query anyway, so we don't cache anything
+                return null;
+            }
+            if (value == NOT_CACHEABLE) {
+                return null;
+            }
+            values.put(getParameterName(parameter), value);
+        }
+        Object[] parameterValues = new Object[values.size() * 2];
+        int i = 0;
+        for (Map.Entry<String, Object> entry : values.entrySet()) {
+            parameterValues[i++] = entry.getKey();
+            parameterValues[i++] = entry.getValue();
+        }
+        return parameterValues;
+    }
+
+    private Object getCacheableValue(Object value) {
+        if (value instanceof Collection<?>) {
+            Collection<?> collection = (Collection<?>) value;
+            List<Object> values = new ArrayList<>(collection.size());
+            for (Object element : collection) {
+                Object elementValue = getCacheableValue(element);
+                if (elementValue == NOT_CACHEABLE) {
+                    return NOT_CACHEABLE;
+                }
+                values.add(elementValue);
+            }
+            return values;
+        }
+        if (value == null || !isEntity(value.getClass())) {
+            return value;
+        }
+        // Only retain the identifier of entities so that the cache doesn't keep entity instances alive
+        Object id = countCacheJpaProvider.getIdentifier(value);
+        return id == null ? NOT_CACHEABLE : id;
+    }
+
+    private boolean isEntity(Class<?> javaType) {
+        // Walk up the hierarchy to also match proxies of entities
+        for (Class<?> c = javaType; c != null && c != Object.class; c = c.getSuperclass()) {
+            if (countCacheMetamodel.getEntity(c) != null) {
+                return true;
+            }
+        }
+        return false;
     }
 
     @Override
     public List<X> getPageResultList() {
         int queryFirstResult = firstResult;
         int firstRow = firstResult;
+        totalSizeEstimated = false;
         return getResultList(queryFirstResult, firstRow, -1L);
     }
 
     @Override
-    @SuppressWarnings("unchecked")
     public PagedList<X> getResultList() {
+        if (statisticsRecorder == null) {
+            return getPagedResultList();
+        }
+        countQueryNanos = 0L;
+        idQueryNanos = 0L;
+        objectQueryNanos = 0L;
+        PagedList<X> resultList = getPagedResultList();
+        statisticsRecorder.recordPaginatedExecution(statisticsQueryString, countQueryNanos, idQueryNanos, objectQueryNanos);
+        return resultList;
+    }
+
+    @SuppressWarnings("unchecked")
+    private PagedList<X> getPagedResultList() {
         int queryFirstResult = firstResult;
         int firstRow = firstResult;
         long totalSize = -1L;
+        totalSizeEstimated = false;
         if (withCount && !inlinedCountQuery) {
             if (entityId == null) {
-                totalSize = ((Number) countQuery.getSingleResult()).longValue();
+                totalSize = ((Number) getCountQueryResult()).longValue();
             } else {
-                Object[] result = (Object[]) countQuery.getSingleResult();
+                Object[] result = (Object[]) getCountQueryResult();
                 totalSize = ((Number) result[0]).longValue();
 
                 if (result[1] == null) {
@@ -211,13 +365,34 @@ public class PaginatedTypedQueryImpl<X> implements PaginatedTypedQuery<X> {
             }
         }
 
-        if (totalSize == 0L) {
+        // An estimate might be outdated, so we still have to query the page
+        if (totalSize == 0L && !totalSizeEstimated) {
             return new PagedArrayList<X>(null, totalSize, queryFirstResult, pageSize);
         }
 
         return getResultList(queryFirstResult, firstRow, totalSize);
     }
 
+    private List<?> getIdQueryResultList() {
+        if (statisticsRecorder == null) {
+            return idQuery.getResultList();
+        }
+        long start = System.nanoTime();
+        List<?> ids = idQuery.getResultList();
+        idQueryNanos += System.nanoTime() - start;
+        return ids;
+    }
+
+    private List<X> getObjectQueryResultList() {
+        if (statisticsRecorder == null) {
+            return objectQuery.getResultList();
+        }
+        long start = System.nanoTime();
+        List<X> result = objectQuery.getResultList();
+        objectQueryNanos += System.nanoTime() - start;
+        return result;
+    }
+
     private PagedList<X> getResultList(int queryFirstResult, int firstRow, long totalSize) {
         if (idQuery != null) {
             idQuery.setMaxResults(pageSize);
@@ -228,7 +403,7 @@ public class PaginatedTypedQueryImpl<X> implements PaginatedTypedQuery<X> {
                 idQuery.setFirstResult(0);
             }
 
-            List<?> ids = idQuery.getResultList();
+            List<?> ids = getIdQueryResultList();
 
             if (ids.isEmpty()) {
                 KeysetPage newKeysetPage = null;
@@ -249,7 +424,7 @@ public class PaginatedTypedQueryImpl<X> implements PaginatedTypedQuery<X> {
                         size = Math.max(size, firstRow);
                     }
                 }
-                return new PagedArrayList<X>(newKeysetPage, size, queryFirstResult, pageSize);
+                return new PagedArrayList<X>(newKeysetPage, size, totalSizeEstimated, queryFirstResult, pageSize);
             }
 
             Serializable[] lowest = null;
@@ -385,9 +560,9 @@ public class PaginatedTypedQueryImpl<X> implements PaginatedTypedQuery<X> {
             }
 
             totalSize = Math.max(totalSize, firstRow + ids.size());
-            List<X> queryResultList = objectQuery.getResultList();
+            List<X> queryResultList = getObjectQueryResultList();
 
-            PagedList<X> pagedResultList = new PagedArrayList<X>(queryResultList, newKeyset, totalSize, queryFirstResult, pageSize);
+            PagedList<X> pagedResultList = new PagedArrayList<X>(queryResultList, newKeyset, totalSize, totalSizeEstimated, queryFirstResult, pageSize);
             return pagedResultList;
         } else {
             if (!inlinedIdQuery) {
@@ -400,7 +575,7 @@ public class PaginatedTypedQueryImpl<X> implements PaginatedTypedQuery<X> {
                 }
             }
 
-            List<X> result = objectQuery.getResultList();
+            List<X> result = getObjectQueryResultList();
 
             if (result.isEmpty()) {
                 KeysetPage newKeysetPage = null;
@@ -424,7 +599,7 @@ public class PaginatedTypedQueryImpl<X> implements PaginatedTypedQuery<X> {
                     }
                 }
 
-                return new PagedArrayList<X>(newKeysetPage, totalSize, queryFirstResult, pageSize);
+                return new PagedArrayList<X>(newKeysetPage, totalSize, totalSizeEstimated, queryFirstResult, pageSize);
             }
 
             if (keysetMode == KeysetMode.PREVIOUS) {
@@ -465,7 +640,7 @@ public class PaginatedTypedQueryImpl<X> implements PaginatedTypedQuery<X> {
 
             totalSize = Math.max(totalSize, firstRow + result.size());
 
-            PagedList<X> pagedResultList = new PagedArrayList<X>(result, newKeyset, totalSize, queryFirstResult, pageSize);
+            PagedList<X> pagedResultList = new PagedArrayList<X>(result, newKeyset, totalSize, totalSizeEstimated, queryFirstResult, pageSize);
             return pagedResultList;
         }
     }
@@ -0,0 +1,241 @@
+/*
+ * Copyright 2014 - 2024 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.impl;
+
+import com.blazebit.persistence.PaginationCountCache;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@link PaginationCountCache} that holds count query results for a configurable time to live.
+ *
+ * The cache holds at most the configured maximum number of entries. When the cache is full, the least recently used entry is evicted.
+ * Entries are keyed by the count query string, the bound parameter values and the filter discriminator of the entity manager,
+ * which identifies the tenant and the enabled session filters if the JPA provider supports that.
+ *
+ * To avoid caching a count that was computed before a concurrent invalidation, callers read the generation of the entity types
+ * via {@link #getGeneration(Set)} before running the count query and pass it to {@link #put(String, Object, Object[], Set, long, Object)},
+ * which discards the result if one of the entity types was invalidated in the meantime.
+ *
+ * @author Christian Beikov
+ * @since 1.6.13
+ */
+public class PaginationCountCacheImpl implements PaginationCountCache {
+
+    public static final long DEFAULT_TTL = 60000L;
+    public static final int DEFAULT_MAXIMUM_SIZE = 1024;
+
+    private final Map<Key, Entry> entries;
+    private final Map<Class<?>, Long> invalidationCounts = new HashMap<>();
+    private long invalidateAllCount;
+    private final long ttlNanos;
+    private final Clock clock;
+
+    public PaginationCountCacheImpl(long ttlMillis, int maximumSize) {
+        this(ttlMillis, maximumSize, Clock.SYSTEM);
+    }
+
+    PaginationCountCacheImpl(long ttlMillis, final int maximumSize, Clock clock) {
+        if (ttlMillis <= 0L) {
+            throw new IllegalArgumentException("The pagination count cache TTL must be positive but was: " + ttlMillis);
+        }
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("The pagination count cache maximum size must be positive but was: " + maximumSize);
+        }
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        this.clock = clock;
+        this.entries = new LinkedHashMap<Key, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                return size() > maximumSize;
+            }
+        };
+    }
+
+    public Object get(String queryString, Object filterDiscriminator, Object[] parameterValues) {
+        Key key = new Key(queryString, filterDiscriminator, parameterValues);
+        long now = clock.nanoTime();
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (entry.isExpired(now)) {
+                entries.remove(key);
+                return null;
+            }
+            return entry.result;
+        }
+    }
+
+    /**
+     * Returns the generation of the given entity types which changes whenever one of the entity types is invalidated.
+     *
+     * @param entityTypes The entity types on which a count query depends
+     * @return The current generation
+     */
+    public long getGeneration(Set<Class<?>> entityTypes) {
+        synchronized (entries) {
+            return computeGeneration(entityTypes);
+        }
+    }
+
+    public void put(String queryString, Object filterDiscriminator, Object[] parameterValues, Set<Class<?>> entityTypes, long generation, Object result) {
+        Key key = new Key(queryString, filterDiscriminator, parameterValues);
+        Entry entry = new Entry(result, clock.nanoTime() + ttlNanos, entityTypes);
+        synchronized (entries) {
+            // The result might be stale if an invalidation happened after the generation was read
+            if (generation == computeGeneration(entityTypes)) {
+                entries.put(key, entry);
+            }
+        }
+    }
+
+    private long computeGeneration(Set<Class<?>> entityTypes) {
+        // Invalidation counts only ever grow, so the sum over all matching entity types changes with every relevant invalidation
+        long generation = invalidateAllCount;
+        for (Map.Entry<Class<?>, Long> entry : invalidationCounts.entrySet()) {
+            if (matches(entityTypes, entry.getKey())) {
+                generation += entry.getValue();
+            }
+        }
+        return generation;
+    }
+
+    private static boolean matches(Set<Class<?>> entityTypes, Class<?> entityClass) {
+        for (Class<?> entityType : entityTypes) {
+            if (entityType.isAssignableFrom(entityClass) || entityClass.isAssignableFrom(entityType)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void invalidate(Class<?> entityClass) {
+        synchronized (entries) {
+            Long count = invalidationCounts.get(entityClass);
+            invalidationCounts.put(entityClass, count == null ? 1L : count + 1L);
+            Iterator<Entry> iterator = entries.values().iterator();
+            while (iterator.hasNext()) {
+                if (matches(iterator.next().entityTypes, entityClass)) {
+                    iterator.remove();
+                }
+            }
+        }
+    }
+
+    @Override
+    public void invalidateAll() {
+        synchronized (entries) {
+            invalidateAllCount++;
+            entries.clear();
+        }
+    }
+
+    @Override
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * The time source of the cache.
+     *
+     * @author Christian Beikov
+     * @since 1.6.13
+     */
+    interface Clock {
+
+        public static final Clock SYSTEM = new Clock() {
+            @Override
+            public long nanoTime() {
+                return System.nanoTime();
+            }
+        };
+
+        public long nanoTime();
+    }
+
+    /**
+     * @author Christian Beikov
+     * @since 1.6.13
+     */
+    private static final class Key {
+
+        private final String queryString;
+        private final Object filterDiscriminator;
+        private final Object[] parameterValues;
+        private final int hash;
+
+        public Key(String queryString, Object filterDiscriminator, Object[] parameterValues) {
+            this.queryString = queryString;
+            this.filterDiscriminator = filterDiscriminator;
+            this.parameterValues = parameterValues;
+            int hash = queryString.hashCode();
+            hash = 31 * hash + (filterDiscriminator == null ? 0 : filterDiscriminator.hashCode());
+            this.hash = 31 * hash + Arrays.deepHashCode(parameterValues);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return queryString.equals(key.queryString)
+                    && (filterDiscriminator == null ? key.filterDiscriminator == null : filterDiscriminator.equals(key.filterDiscriminator))
+                    && Arrays.deepEquals(parameterValues, key.parameterValues);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    /**
+     * @author Christian Beikov
+     * @since 1.6.13
+     */
+    private static final class Entry {
+
+        private final Object result;
+        private final long expiresAt;
+        private final Set<Class<?>> entityTypes;
+
+        public Entry(Object result, long expiresAt, Set<Class<?>> entityTypes) {
+            this.result = result;
+            this.expiresAt = expiresAt;
+            this.entityTypes = entityTypes;
+        }
+
+        public boolean isExpired(long now) {
+            return now - expiresAt >= 0;
+        }
+    }
+}
@@ -164,6 +164,10 @@ public class ParameterManager {
 
             parameterMapping.put(oldParameterName, newParameterName);
             addParameterMapping(newParameterName, paramValue, param.isImplicit());
+            // Allow binding copies of builders for criteria queries through the criteria parameter objects
+            if (param.getCriteriaParameter() != null) {
+                registerCriteriaParameter(newParameterName, param.getCriteriaParameter());
+            }
         }
 
         for (Map.Entry<String, String> entry : parameterManager.valuesParameters.entrySet()) {
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2014 - 2024 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.impl;
+
+import com.blazebit.persistence.PreparedCriteriaQuery;
+
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+
+/**
+ * A prepared query that creates queries from the state of a criteria builder which can't be modified anymore.
+ *
+ * @param <T> The query result type
+ * @author Christian Beikov
+ * @since 1.6.13
+ */
+public class PreparedCriteriaQueryImpl<T> implements PreparedCriteriaQuery<T> {
+
+    private final CriteriaBuilderImpl<T> criteriaBuilder;
+    private final String baseQueryString;
+    private final String queryString;
+
+    public PreparedCriteriaQueryImpl(CriteriaBuilderImpl<T> criteriaBuilder, String baseQueryString, String queryString) {
+        this.criteriaBuilder = criteriaBuilder;
+        this.baseQueryString = baseQueryString;
+        this.queryString = queryString;
+    }
+
+    @Override
+    public String getQueryString() {
+        return queryString;
+    }
+
+    @Override
+    public TypedQuery<T> createQuery(EntityManager entityManager) {
+        return criteriaBuilder.createTypedQuery(entityManager, baseQueryString);
+    }
+}
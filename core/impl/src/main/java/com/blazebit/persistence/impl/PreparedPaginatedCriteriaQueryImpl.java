@@ -0,0 +1,130 @@
+/*
+ * Copyright 2014 - 2024 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.impl;
+
+import com.blazebit.persistence.KeysetPage;
+import com.blazebit.persistence.PaginatedTypedQuery;
+import com.blazebit.persistence.PreparedPaginatedCriteriaQuery;
+import com.blazebit.persistence.impl.keyset.KeysetManager;
+import com.blazebit.persistence.impl.keyset.KeysetMode;
+import com.blazebit.persistence.impl.keyset.KeysetPaginationHelper;
+
+import javax.persistence.EntityManager;
+import java.io.Serializable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A prepared query that creates paginated queries from copies of a paginated criteria builder which can't be modified anymore.
+ * The rendered query strings depend on the keyset mode, the nullness of the keyset elements and the page size,
+ * so a copy is created and rendered once for every such combination. The keyset values and the first result are bound for every query.
+ * An inline id query renders the first result of pages without a keyset into the query string, so in that case the first result is part of the combination.
+ *
+ * The number of cached copies is limited to {@link #MAXIMUM_VARIANTS}. When the limit is reached, new combinations are rendered for every query.
+ *
+ * @param <T> The query result type
+ * @author Christian Beikov
+ * @since 1.6.13
+ */
+public class PreparedPaginatedCriteriaQueryImpl<T> implements PreparedPaginatedCriteriaQuery<T> {
+
+    public static final int MAXIMUM_VARIANTS = 64;
+
+    private final PaginatedCriteriaBuilderImpl<T> paginatedCriteriaBuilder;
+    private final String queryString;
+    private final boolean firstResultRendered;
+    private final ConcurrentMap<String, PaginatedCriteriaBuilderImpl<T>> variants = new ConcurrentHashMap<>();
+
+    public PreparedPaginatedCriteriaQueryImpl(PaginatedCriteriaBuilderImpl<T> paginatedCriteriaBuilder, String queryString) {
+        this.paginatedCriteriaBuilder = paginatedCriteriaBuilder;
+        this.queryString = queryString;
+        this.firstResultRendered = paginatedCriteriaBuilder.isFirstResultRendered();
+    }
+
+    @Override
+    public String getQueryString() {
+        return queryString;
+    }
+
+    @Override
+    public PaginatedTypedQuery<T> createQuery(EntityManager entityManager, int firstResult, int maxResults) {
+        return createQuery(entityManager, null, firstResult, maxResults, paginatedCriteriaBuilder.isKeysetExtraction());
+    }
+
+    @Override
+    public PaginatedTypedQuery<T> createQuery(EntityManager entityManager, KeysetPage keysetPage, int firstResult, int maxResults) {
+        return createQuery(entityManager, keysetPage, firstResult, maxResults, true);
+    }
+
+    private PaginatedTypedQuery<T> createQuery(EntityManager entityManager, KeysetPage keysetPage, int firstResult, int maxResults, boolean keysetExtraction) {
+        if (firstResult < 0) {
+            throw new IllegalArgumentException("firstRow may not be negative");
+        }
+        if (maxResults <= 0) {
+            throw new IllegalArgumentException("pageSize may not be zero or negative");
+        }
+        KeysetMode keysetMode = KeysetPaginationHelper.getKeysetMode(keysetPage, null, firstResult, maxResults);
+        Serializable[] key;
+        if (keysetMode == KeysetMode.NONE) {
+            key = null;
+        } else if (keysetMode == KeysetMode.NEXT) {
+            key = keysetPage.getHighest().getTuple();
+        } else {
+            key = keysetPage.getLowest().getTuple();
+        }
+
+        String variantKey = getVariantKey(keysetExtraction, keysetMode, firstResult, maxResults, key);
+        PaginatedCriteriaBuilderImpl<T> variant = variants.get(variantKey);
+        if (variant == null) {
+            variant = paginatedCriteriaBuilder.copyForPreparedQuery(keysetPage, firstResult, maxResults, keysetExtraction);
+            // Creating the first query renders the query strings, so the copy is only read afterwards
+            PaginatedTypedQueryImpl<T> query = variant.createPreparedQuery(entityManager, keysetPage, firstResult);
+            variant.prepared = true;
+            if (variants.size() < MAXIMUM_VARIANTS) {
+                variants.putIfAbsent(variantKey, variant);
+            }
+            return query;
+        }
+
+        PaginatedTypedQueryImpl<T> query = variant.createPreparedQuery(entityManager, keysetPage, firstResult);
+        // The copy is bound with the keyset values of the page for which it was created
+        if (key != null) {
+            for (int i = 0; i < key.length; i++) {
+                String parameterName = KeysetManager.getKeysetParameterName(i);
+                if (key[i] != null && variant.containsParameter(parameterName)) {
+                    query.setParameter(parameterName, key[i]);
+                }
+            }
+        }
+        return query;
+    }
+
+    private String getVariantKey(boolean keysetExtraction, KeysetMode keysetMode, int firstResult, int maxResults, Serializable[] key) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(keysetExtraction).append(':').append(keysetMode).append(':').append(maxResults).append(':');
+        if (key == null) {
+            if (firstResultRendered) {
+                sb.append(firstResult);
+            }
+        } else {
+            for (int i = 0; i < key.length; i++) {
+                sb.append(key[i] == null ? '0' : '1');
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,191 @@
+/*
+ * Copyright 2014 - 2024 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.impl;
+
+import com.blazebit.persistence.QueryStatistics;
+import com.blazebit.persistence.QueryStatisticsRegistry;
+import com.blazebit.persistence.spi.QueryStatisticsRecorder;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A {@link QueryStatisticsRegistry} that records the statistics of a query string into striped counters.
+ * Every thread records into the stripe determined by its thread id, so that concurrent executions of the same query shape
+ * rarely contend on the same counters. A snapshot sums up the counters of all stripes.
+ *
+ * @author Christian Beikov
+ * @since 1.6.13
+ */
+public class QueryStatisticsRegistryImpl implements QueryStatisticsRegistry, QueryStatisticsRecorder {
+
+    public static final int DEFAULT_MAXIMUM_QUERIES = 256;
+
+    private static final int EXECUTION_COUNT = 0;
+    private static final int ROW_COUNT = 1;
+    private static final int TOTAL_NANOS = 2;
+    private static final int COUNT_QUERY_NANOS = 3;
+    private static final int ID_QUERY_NANOS = 4;
+    private static final int OBJECT_QUERY_NANOS = 5;
+    private static final int QUERY_PLAN_CACHE_HITS = 6;
+    private static final int QUERY_PLAN_CACHE_MISSES = 7;
+    private static final int BUCKETS = 8;
+    private static final int SLOT_COUNT = BUCKETS + QueryStatistics.BUCKET_COUNT;
+    private static final int STRIPE_MASK = stripeCount() - 1;
+
+    private final int maximumQueries;
+    private final AtomicInteger queryCount = new AtomicInteger();
+    private final ConcurrentMap<String, Counters> counters = new ConcurrentHashMap<>();
+
+    public QueryStatisticsRegistryImpl(int maximumQueries) {
+        if (maximumQueries < 0) {
+            throw new IllegalArgumentException("Invalid negative maximum queries: " + maximumQueries);
+        }
+        this.maximumQueries = maximumQueries;
+    }
+
+    private static int stripeCount() {
+        int processors = Math.min(Runtime.getRuntime().availableProcessors(), 16);
+        return Integer.highestOneBit(Math.max(1, processors - 1)) << 1;
+    }
+
+    @Override
+    public void recordExecution(String query, long durationNanos, long rowCount) {
+        Counters queryCounters = getCounters(query);
+        if (queryCounters != null) {
+            long duration = Math.max(0L, durationNanos);
+            int offset = stripeOffset();
+            queryCounters.slots.incrementAndGet(offset + EXECUTION_COUNT);
+            queryCounters.slots.addAndGet(offset + ROW_COUNT, rowCount);
+            queryCounters.slots.addAndGet(offset + TOTAL_NANOS, duration);
+            queryCounters.slots.incrementAndGet(offset + BUCKETS + Math.min(QueryStatistics.BUCKET_COUNT - 1, Long.SIZE - Long.numberOfLeadingZeros(duration)));
+            long max;
+            while ((max = queryCounters.maxNanos.get()) < duration) {
+                if (queryCounters.maxNanos.compareAndSet(max, duration)) {
+                    break;
+                }
+            }
+        }
+    }
+
+    @Override
+    public void recordPaginatedExecution(String query, long countQueryNanos, long idQueryNanos, long objectQueryNanos) {
+        Counters queryCounters = getCounters(query);
+        if (queryCounters != null) {
+            int offset = stripeOffset();
+            queryCounters.slots.addAndGet(offset + COUNT_QUERY_NANOS, countQueryNanos);
+            queryCounters.slots.addAndGet(offset + ID_QUERY_NANOS, idQueryNanos);
+            queryCounters.slots.addAndGet(offset + OBJECT_QUERY_NANOS, objectQueryNanos);
+        }
+    }
+
+    @Override
+    public void recordQueryPlanCacheLookup(String query, boolean hit) {
+        Counters queryCounters = getCounters(query);
+        if (queryCounters != null) {
+            queryCounters.slots.incrementAndGet(stripeOffset() + (hit ? QUERY_PLAN_CACHE_HITS : QUERY_PLAN_CACHE_MISSES));
+        }
+    }
+
+    private static int stripeOffset() {
+        return ((int) Thread.currentThread().getId() & STRIPE_MASK) * SLOT_COUNT;
+    }
+
+    private Counters getCounters(String query) {
+        if (query == null) {
+            return null;
+        }
+        Counters queryCounters = counters.get(query);
+        if (queryCounters == null) {
+            if (queryCount.get() >= maximumQueries) {
+                return null;
+            }
+            queryCounters = new Counters();
+            Counters oldCounters = counters.putIfAbsent(query, queryCounters);
+            if (oldCounters == null) {
+                queryCount.incrementAndGet();
+            } else {
+                queryCounters = oldCounters;
+            }
+        }
+        return queryCounters;
+    }
+
+    @Override
+    public Map<String, QueryStatistics> getQueryStatistics() {
+        Map<String, QueryStatistics> statistics = new HashMap<>(counters.size());
+        for (Map.Entry<String, Counters> entry : counters.entrySet()) {
+            statistics.put(entry.getKey(), entry.getValue().snapshot(entry.getKey()));
+        }
+        return Collections.unmodifiableMap(statistics);
+    }
+
+    @Override
+    public QueryStatistics getQueryStatistics(String query) {
+        Counters queryCounters = counters.get(query);
+        return queryCounters == null ? null : queryCounters.snapshot(query);
+    }
+
+    @Override
+    public void reset() {
+        counters.clear();
+        queryCount.set(0);
+    }
+
+    /**
+     * The striped counters of a query string.
+     *
+     * @author Christian Beikov
+     * @since 1.6.13
+     */
+    private static final class Counters {
+
+        private final AtomicLongArray slots = new AtomicLongArray((STRIPE_MASK + 1) * SLOT_COUNT);
+        private final AtomicLong maxNanos = new AtomicLong();
+
+        public QueryStatistics snapshot(String query) {
+            long[] sums = new long[SLOT_COUNT];
+            for (int stripe = 0; stripe <= STRIPE_MASK; stripe++) {
+                int offset = stripe * SLOT_COUNT;
+                for (int i = 0; i < SLOT_COUNT; i++) {
+                    sums[i] += slots.get(offset + i);
+                }
+            }
+            long[] bucketCounts = new long[QueryStatistics.BUCKET_COUNT];
+            System.arraycopy(sums, BUCKETS, bucketCounts, 0, bucketCounts.length);
+            return new QueryStatistics(
+                    query,
+                    sums[EXECUTION_COUNT],
+                    sums[ROW_COUNT],
+                    sums[TOTAL_NANOS],
+                    maxNanos.get(),
+                    bucketCounts,
+                    sums[COUNT_QUERY_NANOS],
+                    sums[ID_QUERY_NANOS],
+                    sums[OBJECT_QUERY_NANOS],
+                    sums[QUERY_PLAN_CACHE_HITS],
+                    sums[QUERY_PLAN_CACHE_MISSES]
+            );
+        }
+    }
+}
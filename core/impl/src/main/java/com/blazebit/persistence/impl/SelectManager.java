@@ -22,8 +22,10 @@ import com.blazebit.persistence.MultipleSubqueryInitiator;
 import com.blazebit.persistence.ObjectBuilder;
 import com.blazebit.persistence.SelectObjectBuilder;
 import com.blazebit.persistence.SimpleCaseWhenStarterBuilder;
+import com.blazebit.persistence.StatefulObjectBuilder;
 import com.blazebit.persistence.SubqueryBuilder;
 import com.blazebit.persistence.SubqueryInitiator;
+import com.blazebit.persistence.WindowedObjectBuilder;
 import com.blazebit.persistence.impl.builder.expression.CaseWhenBuilderImpl;
 import com.blazebit.persistence.impl.builder.expression.ExpressionBuilder;
 import com.blazebit.persistence.impl.builder.expression.ExpressionBuilderEndedListener;
@@ -35,6 +37,7 @@ import com.blazebit.persistence.impl.builder.object.ConstructorObjectBuilder;
 import com.blazebit.persistence.impl.builder.object.DelegatingTupleObjectBuilder;
 import com.blazebit.persistence.impl.builder.object.MultisetTransformingObjectBuilder;
 import com.blazebit.persistence.impl.builder.object.PreProcessingObjectBuilder;
+import com.blazebit.persistence.impl.builder.object.WindowedPreProcessingObjectBuilder;
 import com.blazebit.persistence.impl.builder.object.SelectObjectBuilderImpl;
 import com.blazebit.persistence.impl.builder.object.TupleObjectBuilder;
 import com.blazebit.persistence.impl.function.param.ParamFunction;
@@ -61,6 +64,7 @@ import com.blazebit.persistence.spi.JpaProvider;
 import com.blazebit.persistence.spi.JpqlFunction;
 import com.blazebit.persistence.spi.JpqlFunctionProcessor;
 
+import javax.persistence.EntityManager;
 import javax.persistence.Tuple;
 import javax.persistence.metamodel.EmbeddableType;
 import javax.persistence.metamodel.IdentifiableType;
@@ -92,6 +96,8 @@ public class SelectManager<T> extends AbstractManager<SelectInfo> {
     private boolean hasSizeSelect;
     private SelectObjectBuilderImpl<?> selectObjectBuilder;
     private ObjectBuilder<T> objectBuilder;
+    // Set when the object builder is used by concurrently executed queries of a prepared query
+    private boolean objectBuilderShared;
     private SubqueryBuilderListenerImpl<?> subqueryBuilderListener;
     // needed for tuple/alias matching
     private final Map<String, Integer> selectAliasToPositionMap = new HashMap<String, Integer>();
@@ -135,8 +141,25 @@ public class SelectManager<T> extends AbstractManager<SelectInfo> {
         selectObjectBuilderEndedListener.verifyBuilderEnded();
     }
 
-    ObjectBuilder<T> getSelectObjectBuilder() {
+    ObjectBuilder<T> getObjectBuilder() {
+        return objectBuilder;
+    }
+
+    @SuppressWarnings("unchecked")
+    void setSharedObjectBuilder(ObjectBuilder<?> objectBuilder) {
+        this.objectBuilder = (ObjectBuilder<T>) objectBuilder;
+        this.objectBuilderShared = true;
+    }
+
+    void shareObjectBuilder() {
+        this.objectBuilderShared = true;
+    }
+
+    ObjectBuilder<T> getSelectObjectBuilder(EntityManager entityManager) {
         ObjectBuilder<T> builder = objectBuilder;
+        if (objectBuilderShared && builder instanceof StatefulObjectBuilder<?>) {
+            builder = ((StatefulObjectBuilder<T>) builder).newInstance(entityManager);
+        }
         if (builder == null) {
             if (resultClazz.equals(Tuple.class)) {
                 if (jpqlFunctionProcessors.isEmpty()) {
@@ -146,7 +169,11 @@ public class SelectManager<T> extends AbstractManager<SelectInfo> {
                 }
             }
         } else if (!jpqlFunctionProcessors.isEmpty()) {
-            builder = new PreProcessingObjectBuilder<>(new MultisetTransformingObjectBuilder(jpqlFunctionProcessors, selectInfos), builder);
+            if (builder instanceof WindowedObjectBuilder<?>) {
+                builder = new WindowedPreProcessingObjectBuilder<>(new MultisetTransformingObjectBuilder(jpqlFunctionProcessors, selectInfos), (WindowedObjectBuilder<T>) builder);
+            } else {
+                builder = new PreProcessingObjectBuilder<>(new MultisetTransformingObjectBuilder(jpqlFunctionProcessors, selectInfos), builder);
+            }
         }
         return builder;
     }
@@ -0,0 +1,45 @@
+/*
+ * Copyright 2014 - 2024 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.impl.builder.object;
+
+import com.blazebit.persistence.ObjectBuilder;
+import com.blazebit.persistence.WindowedObjectBuilder;
+
+/**
+ *
+ * @author Christian Beikov
+ * @since 1.6.13
+ */
+public class WindowedPreProcessingObjectBuilder<T> extends PreProcessingObjectBuilder<T> implements WindowedObjectBuilder<T> {
+
+    private final WindowedObjectBuilder<T> objectBuilder;
+
+    public WindowedPreProcessingObjectBuilder(ObjectBuilder<Object[]> preProcessor, WindowedObjectBuilder<T> objectBuilder) {
+        super(preProcessor, objectBuilder);
+        this.objectBuilder = objectBuilder;
+    }
+
+    @Override
+    public int getWindowSize() {
+        return objectBuilder.getWindowSize();
+    }
+
+    @Override
+    public boolean isWindowBoundary(T previousElement, T element) {
+        return objectBuilder.isWindowBoundary(previousElement, element);
+    }
+}
@@ -41,4 +41,10 @@ public class CockroachSQLDbmsDialect extends PostgreSQLDbmsDialect {
             appendEmulatedOrderByElementWithNulls(sqlSb, element, aliases);
         }
     }
+
+    @Override
+    public String getEstimatedRowCountSql(String tableName) {
+        // CockroachDB does not maintain the reltuples of pg_class
+        return null;
+    }
 }
@@ -302,4 +302,11 @@ public class DB2DbmsDialect extends DefaultDbmsDialect {
         return endIndex;
     }
 
+    @Override
+    public String getEstimatedRowCountSql(String tableName) {
+        // The card is -1 if the table statistics were never collected
+        String[] parts = splitTableName(tableName);
+        return "select card from syscat.tables where tabname = upper(" + toStringLiteral(parts[1]) + ")"
+                + " and tabschema = " + (parts[0] == null ? "current schema" : "upper(" + toStringLiteral(parts[0]) + ")");
+    }
 }
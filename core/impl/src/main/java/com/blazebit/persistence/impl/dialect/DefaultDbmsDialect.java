@@ -27,13 +27,14 @@ import java.sql.Timestamp;
 import java.util.*;
 
 import com.blazebit.persistence.impl.util.SqlUtils;
-import com.blazebit.persistence.spi.DbmsDialect;
 import com.blazebit.persistence.spi.DbmsLimitHandler;
 import com.blazebit.persistence.spi.DbmsModificationState;
 import com.blazebit.persistence.spi.DbmsStatementType;
 import com.blazebit.persistence.spi.DeleteJoinStyle;
 import com.blazebit.persistence.spi.LateralStyle;
 import com.blazebit.persistence.spi.OrderByElement;
+import com.blazebit.persistence.spi.ParameterLimitedDbmsDialect;
+import com.blazebit.persistence.spi.RowCountEstimatingDbmsDialect;
 import com.blazebit.persistence.spi.SetOperationType;
 import com.blazebit.persistence.spi.UpdateJoinStyle;
 import com.blazebit.persistence.spi.ValuesStrategy;
@@ -44,7 +45,7 @@ import com.blazebit.persistence.spi.ValuesStrategy;
  * @author Moritz Becker
  * @since 1.2.0
  */
-public class DefaultDbmsDialect implements DbmsDialect {
+public class DefaultDbmsDialect implements ParameterLimitedDbmsDialect, RowCountEstimatingDbmsDialect {
 
     private final Map<Class<?>, String> sqlTypes;
 
@@ -525,6 +526,51 @@ public class DefaultDbmsDialect implements DbmsDialect {
         return ValuesStrategy.VALUES;
     }
 
+    @Override
+    public int getMaximumParameterCount() {
+        return Integer.MAX_VALUE;
+    }
+
+    @Override
+    public String getEstimatedRowCountSql(String tableName) {
+        return null;
+    }
+
+    /**
+     * Splits a possibly schema qualified table name into the unquoted schema name, which might be null, and the unquoted table name.
+     *
+     * @param tableName The possibly schema qualified table name
+     * @return The schema name and the table name
+     */
+    protected static String[] splitTableName(String tableName) {
+        int dotIndex = tableName.lastIndexOf('.');
+        if (dotIndex == -1) {
+            return new String[]{ null, unquoteIdentifier(tableName) };
+        }
+        return new String[]{ unquoteIdentifier(tableName.substring(0, dotIndex)), unquoteIdentifier(tableName.substring(dotIndex + 1)) };
+    }
+
+    private static String unquoteIdentifier(String identifier) {
+        if (identifier.length() > 1) {
+            char start = identifier.charAt(0);
+            char end = identifier.charAt(identifier.length() - 1);
+            if (start == '"' && end == '"' || start == '`' && end == '`' || start == '[' && end == ']') {
+                return identifier.substring(1, identifier.length() - 1);
+            }
+        }
+        return identifier;
+    }
+
+    /**
+     * Renders the given value as SQL string literal.
+     *
+     * @param value The value
+     * @return The SQL string literal
+     */
+    protected static String toStringLiteral(String value) {
+        return "'" + value.replace("'", "''") + "'";
+    }
+
     @Override
     public boolean needsUniqueSelectItemNamesAlsoWhenTableColumnAliasing() {
         return false;
@@ -153,4 +153,11 @@ public class H2DbmsDialect extends DefaultDbmsDialect {
     public boolean supportsArbitraryLengthMultiset() {
         return true;
     }
+
+    @Override
+    public String getEstimatedRowCountSql(String tableName) {
+        String[] parts = splitTableName(tableName);
+        return "select row_count_estimate from information_schema.tables where upper(table_name) = upper(" + toStringLiteral(parts[1]) + ")"
+                + " and table_schema = " + (parts[0] == null ? "schema()" : "upper(" + toStringLiteral(parts[0]) + ")");
+    }
 }
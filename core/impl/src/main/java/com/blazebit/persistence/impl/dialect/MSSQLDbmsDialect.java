@@ -94,6 +94,11 @@ public class MSSQLDbmsDialect extends DefaultDbmsDialect {
         return true;
     }
 
+    @Override
+    public int getMaximumParameterCount() {
+        return 2100;
+    }
+
     @Override
     protected String getOperator(SetOperationType type) {
         if (type == null) {
@@ -229,4 +234,9 @@ public class MSSQLDbmsDialect extends DefaultDbmsDialect {
     public boolean supportsLimitWithoutOrderBy() {
         return false;
     }
+
+    @Override
+    public String getEstimatedRowCountSql(String tableName) {
+        return "select sum(p.rows) from sys.partitions p where p.object_id = object_id(" + toStringLiteral(tableName) + ") and p.index_id in (0, 1)";
+    }
 }
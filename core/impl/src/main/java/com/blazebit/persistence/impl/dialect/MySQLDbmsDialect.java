@@ -105,6 +105,11 @@ public class MySQLDbmsDialect extends DefaultDbmsDialect {
         return true;
     }
 
+    @Override
+    public int getMaximumParameterCount() {
+        return 65535;
+    }
+
     @Override
     public String getDummyTable() {
         return "dual";
@@ -198,4 +203,10 @@ public class MySQLDbmsDialect extends DefaultDbmsDialect {
         return false;
     }
 
+    @Override
+    public String getEstimatedRowCountSql(String tableName) {
+        String[] parts = splitTableName(tableName);
+        return "select table_rows from information_schema.tables where table_name = " + toStringLiteral(parts[1])
+                + " and table_schema = " + (parts[0] == null ? "database()" : toStringLiteral(parts[0]));
+    }
 }
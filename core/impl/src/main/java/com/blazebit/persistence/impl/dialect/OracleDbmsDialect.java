@@ -271,6 +271,11 @@ public class OracleDbmsDialect extends DefaultDbmsDialect {
         return true;
     }
 
+    @Override
+    public int getMaximumParameterCount() {
+        return 65535;
+    }
+
     @Override
     public int getPrepareFlags() {
         return PreparedStatement.NO_GENERATED_KEYS;
@@ -304,4 +309,11 @@ public class OracleDbmsDialect extends DefaultDbmsDialect {
         }
     }
 
+    @Override
+    public String getEstimatedRowCountSql(String tableName) {
+        // The num_rows are null if the table statistics were never gathered
+        String[] parts = splitTableName(tableName);
+        return "select num_rows from all_tables where table_name = upper(" + toStringLiteral(parts[1]) + ")"
+                + " and owner = " + (parts[0] == null ? "sys_context('USERENV', 'CURRENT_SCHEMA')" : "upper(" + toStringLiteral(parts[0]) + ")");
+    }
 }
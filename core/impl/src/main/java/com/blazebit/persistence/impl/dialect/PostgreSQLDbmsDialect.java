@@ -298,4 +298,16 @@ public class PostgreSQLDbmsDialect extends DefaultDbmsDialect {
     public boolean supportsArbitraryLengthMultiset() {
         return true;
     }
+
+    @Override
+    public int getMaximumParameterCount() {
+        // Older JDBC drivers only support a signed 16 bit number of bind parameters
+        return Short.MAX_VALUE;
+    }
+
+    @Override
+    public String getEstimatedRowCountSql(String tableName) {
+        // The reltuples are -1 if the table was never vacuumed or analyzed
+        return "select cast(reltuples as bigint) from pg_class where oid = to_regclass(" + toStringLiteral(tableName) + ")";
+    }
 }
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2014 - 2024 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.impl.function.arrayany;
+
+import com.blazebit.persistence.spi.FunctionRenderContext;
+import com.blazebit.persistence.spi.JpqlFunction;
+
+/**
+ * Renders the quantified comparison with the elements of an array parameter for e.g. <code>alias.id = ARRAY_ANY(:param)</code>.
+ *
+ * @author Christian Beikov
+ * @since 1.6.13
+ */
+public class ArrayAnyFunction implements JpqlFunction {
+
+    public static final String FUNCTION_NAME = "array_any";
+
+    @Override
+    public boolean hasArguments() {
+        return true;
+    }
+
+    @Override
+    public boolean hasParenthesesIfNoArguments() {
+        return true;
+    }
+
+    @Override
+    public Class<?> getReturnType(Class<?> firstArgumentType) {
+        return null;
+    }
+
+    @Override
+    public void render(FunctionRenderContext context) {
+        if (context.getArgumentsSize() != 1) {
+            throw new RuntimeException("The " + FUNCTION_NAME + " function needs exactly one argument <array>! args=" + context);
+        }
+        context.addChunk("any(");
+        context.addArgument(0);
+        context.addChunk(")");
+    }
+}
@@ -397,6 +397,10 @@ public class KeysetManager extends AbstractKeysetBuilderEndedListener {
         queryGenerator.setClauseType(null);
     }
 
+    public static String getKeysetParameterName(int position) {
+        return new StringBuilder(KEY_SET_PARAMETER_NAME).append('_').append(position).toString();
+    }
+
     private void applyKeysetParameter(StringBuilder sb, int position, Serializable keyElement, int positionalOffset) {
         if (positionalOffset > -1) {
             sb.append('?');
@@ -405,7 +409,7 @@ public class KeysetManager extends AbstractKeysetBuilderEndedListener {
             parameterManager.addParameterMapping(parameterName, keyElement, ClauseType.WHERE, queryBuilder);
         } else {
             sb.append(":");
-            String parameterName = new StringBuilder(KEY_SET_PARAMETER_NAME).append('_').append(position).toString();
+            String parameterName = getKeysetParameterName(position);
             sb.append(parameterName);
             parameterManager.addParameterMapping(parameterName, keyElement, ClauseType.WHERE, queryBuilder);
         }
@@ -17,6 +17,7 @@
 package com.blazebit.persistence.impl.plan;
 
 import com.blazebit.persistence.spi.ExtendedQuerySupport;
+import com.blazebit.persistence.spi.QueryPlanCachingExtendedQuerySupport;
 import com.blazebit.persistence.spi.ServiceProvider;
 
 import javax.persistence.Query;
@@ -64,6 +65,13 @@ public class CustomSelectQueryPlan<T> implements SelectQueryPlan<T> {
         return (T) extendedQuerySupport.getSingleResult(serviceProvider, participatingQueries, delegate, sql, queryPlanCacheEnabled);
     }
 
+    public void prepare() {
+        if (extendedQuerySupport instanceof QueryPlanCachingExtendedQuerySupport) {
+            extendedQuerySupport.applyFirstResultMaxResults(baseQuery, firstResult, maxResults);
+            ((QueryPlanCachingExtendedQuerySupport) extendedQuerySupport).prepareQueryPlan(serviceProvider, participatingQueries, delegate, sql, queryPlanCacheEnabled);
+        }
+    }
+
     @Override
     public Stream<T> getResultStream() {
         extendedQuerySupport.applyFirstResultMaxResults(baseQuery, firstResult, maxResults);
@@ -124,6 +124,10 @@ public abstract class AbstractCustomQuery<T> implements Query, CteQueryWrapper {
     }
 
     protected void bindParameters() {
+        bindParameters(true);
+    }
+
+    protected void bindParameters(boolean failOnMissingParameters) {
         Set<String> missingParameters = null;
         for (Query q : querySpecification.getParticipatingQueries()) {
             for (Parameter<?> p : q.getParameters()) {
@@ -155,10 +159,10 @@ public abstract class AbstractCustomQuery<T> implements Query, CteQueryWrapper {
                 q = ((TypedQueryWrapper<?>) q).getDelegate();
             }
             if (q instanceof AbstractCustomQuery<?>) {
-                ((AbstractCustomQuery<?>) q).bindParameters();
+                ((AbstractCustomQuery<?>) q).bindParameters(failOnMissingParameters);
             }
         }
-        if (missingParameters != null && !missingParameters.isEmpty()) {
+        if (failOnMissingParameters && missingParameters != null && !missingParameters.isEmpty()) {
             // Re-Check since a transformer could spread values
             Iterator<String> iterator = missingParameters.iterator();
             while (iterator.hasNext()) {
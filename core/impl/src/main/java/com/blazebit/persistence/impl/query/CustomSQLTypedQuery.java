@@ -18,6 +18,8 @@ package com.blazebit.persistence.impl.query;
 
 import com.blazebit.persistence.impl.ParameterValueTransformer;
 import com.blazebit.persistence.impl.ValuesParameterBinder;
+import com.blazebit.persistence.impl.plan.CustomSelectQueryPlan;
+import com.blazebit.persistence.impl.plan.SelectQueryPlan;
 
 import javax.persistence.FlushModeType;
 import javax.persistence.LockModeType;
@@ -60,6 +62,15 @@ public class CustomSQLTypedQuery<X> extends AbstractCustomQuery<X> implements Ty
         return querySpecification.createSelectPlan(firstResult, maxResults).getSingleResult();
     }
 
+    public void prepareQueryPlan() {
+        // Parameter values are not needed for the query plan, but bind what is available since collection values influence the SQL
+        bindParameters(false);
+        SelectQueryPlan<X> queryPlan = querySpecification.createSelectPlan(firstResult, maxResults);
+        if (queryPlan instanceof CustomSelectQueryPlan<?>) {
+            ((CustomSelectQueryPlan<X>) queryPlan).prepare();
+        }
+    }
+
     @Override
     public int executeUpdate() {
         throw new IllegalArgumentException("Can not call executeUpdate on a select query!");
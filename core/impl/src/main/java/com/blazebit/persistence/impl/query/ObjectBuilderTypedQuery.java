@@ -17,12 +17,20 @@
 package com.blazebit.persistence.impl.query;
 
 import com.blazebit.persistence.ObjectBuilder;
+import com.blazebit.persistence.WindowedObjectBuilder;
+import com.blazebit.persistence.spi.QueryInstrumentationListener;
+import com.blazebit.persistence.spi.QueryPhase;
 
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.function.Function;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import javax.persistence.NoResultException;
 import javax.persistence.NonUniqueResultException;
@@ -37,11 +45,13 @@ import javax.persistence.criteria.ParameterExpression;
 public class ObjectBuilderTypedQuery<X> extends TypedQueryWrapper<X> {
 
     private final ObjectBuilder<X> builder;
+    private final QueryInstrumentationListener instrumentationListener;
 
     @SuppressWarnings("unchecked")
-    public ObjectBuilderTypedQuery(TypedQuery<?> delegate, Map<ParameterExpression<?>, String> criteriaNameMapping, ObjectBuilder<X> builder) {
+    public ObjectBuilderTypedQuery(TypedQuery<?> delegate, Map<ParameterExpression<?>, String> criteriaNameMapping, ObjectBuilder<X> builder, QueryInstrumentationListener instrumentationListener) {
         super((TypedQuery<X>) delegate, criteriaNameMapping);
         this.builder = builder;
+        this.instrumentationListener = instrumentationListener;
     }
 
     @Override
@@ -61,6 +71,7 @@ public class ObjectBuilderTypedQuery<X> extends TypedQueryWrapper<X> {
     @Override
     public List<X> getResultList() {
         List<X> list = super.getResultList();
+        long start = instrumentationListener == null ? 0L : System.nanoTime();
         int size = list.size();
         List<X> newList = new ArrayList<X>(size);
 
@@ -73,12 +84,30 @@ public class ObjectBuilderTypedQuery<X> extends TypedQueryWrapper<X> {
                 newList.add(builder.build(new Object[] { tuple }));
             }
         }
-        
-        return builder.buildList(newList);
+
+        List<X> resultList = builder.buildList(newList);
+        if (instrumentationListener != null) {
+            instrumentationListener.onPhaseCompleted(QueryPhase.TUPLE_TRANSFORMATION, null, System.nanoTime() - start);
+        }
+        return resultList;
     }
 
+    @SuppressWarnings("unchecked")
     public Stream<X> getResultStream() {
+        if (builder instanceof WindowedObjectBuilder<?> && ((WindowedObjectBuilder<X>) builder).getWindowSize() < 1) {
+            // Without windowing, all elements must be passed to buildList at once
+            return getResultList().stream();
+        }
         final Stream<X> resultStream = super.getResultStream();
+        if (builder instanceof WindowedObjectBuilder<?>) {
+            WindowingIterator<X> iterator = new WindowingIterator<>(resultStream.iterator(), (WindowedObjectBuilder<X>) builder, instrumentationListener);
+            return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED), false).onClose(new Runnable() {
+                @Override
+                public void run() {
+                    resultStream.close();
+                }
+            });
+        }
         return resultStream.map(new Function<X, X>() {
             @Override
             public X apply(X tuple) {
@@ -102,4 +131,103 @@ public class ObjectBuilderTypedQuery<X> extends TypedQueryWrapper<X> {
         });
     }
 
+    /**
+     * Builds the elements of the underlying result in windows that end between two elements of different objects.
+     *
+     * @author Christian Beikov
+     * @since 1.6.13
+     */
+    private static class WindowingIterator<X> implements Iterator<X> {
+
+        private final Iterator<X> tupleIterator;
+        private final WindowedObjectBuilder<X> builder;
+        private final int windowSize;
+        private final QueryInstrumentationListener instrumentationListener;
+        private Iterator<X> windowIterator;
+        private X nextElement;
+        private boolean hasNextElement;
+        private boolean done;
+        private long transformationNanos;
+
+        public WindowingIterator(Iterator<X> tupleIterator, WindowedObjectBuilder<X> builder, QueryInstrumentationListener instrumentationListener) {
+            this.tupleIterator = tupleIterator;
+            this.builder = builder;
+            this.windowSize = builder.getWindowSize();
+            this.instrumentationListener = instrumentationListener;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (windowIterator == null || !windowIterator.hasNext()) {
+                if (done) {
+                    return false;
+                }
+                if (!hasNextElement && !tupleIterator.hasNext()) {
+                    windowIterator = null;
+                    done = true;
+                    if (instrumentationListener != null) {
+                        // The transformation time of all windows is reported once the stream is exhausted
+                        instrumentationListener.onPhaseCompleted(QueryPhase.TUPLE_TRANSFORMATION, null, transformationNanos);
+                    }
+                    return false;
+                }
+                windowIterator = nextWindow().iterator();
+            }
+            return true;
+        }
+
+        @Override
+        public X next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return windowIterator.next();
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+
+        private List<X> nextWindow() {
+            List<X> window = new ArrayList<>(windowSize);
+            long windowNanos = 0L;
+            X previousElement = null;
+            if (hasNextElement) {
+                previousElement = nextElement;
+                window.add(previousElement);
+                nextElement = null;
+                hasNextElement = false;
+            }
+            while (tupleIterator.hasNext()) {
+                Object tuple = tupleIterator.next();
+                long start = instrumentationListener == null ? 0L : System.nanoTime();
+                X element = build(tuple);
+                if (instrumentationListener != null) {
+                    windowNanos += System.nanoTime() - start;
+                }
+                if (window.size() >= windowSize && builder.isWindowBoundary(previousElement, element)) {
+                    nextElement = element;
+                    hasNextElement = true;
+                    break;
+                }
+                window.add(element);
+                previousElement = element;
+            }
+            long start = instrumentationListener == null ? 0L : System.nanoTime();
+            List<X> result = builder.buildList(window);
+            if (instrumentationListener != null) {
+                transformationNanos += windowNanos + System.nanoTime() - start;
+            }
+            return result;
+        }
+
+        private X build(Object tuple) {
+            if (tuple instanceof Object[]) {
+                return builder.build((Object[]) tuple);
+            } else {
+                return builder.build(new Object[]{ tuple });
+            }
+        }
+    }
 }
@@ -0,0 +1,161 @@
+/*
+ * Copyright 2014 - 2024 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.impl;
+
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * @author Christian Beikov
+ * @since 1.6.13
+ */
+public class PaginationCountCacheImplTest {
+
+    private static final String QUERY = "SELECT COUNT(*) FROM Document d WHERE d.name = :name";
+    private static final Set<Class<?>> ENTITY_TYPES = Collections.<Class<?>>singleton(Object.class);
+
+    private final TestClock clock = new TestClock();
+
+    @Test
+    public void testEntryExpires() {
+        PaginationCountCacheImpl cache = new PaginationCountCacheImpl(2000L, 10, clock);
+        cache.put(QUERY, null, parameters("doc1"), ENTITY_TYPES, 0L, 1L);
+
+        clock.advance(1999L);
+        assertEquals(1L, cache.get(QUERY, null, parameters("doc1")));
+
+        clock.advance(1L);
+        assertNull(cache.get(QUERY, null, parameters("doc1")));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEntryIsEvicted() {
+        PaginationCountCacheImpl cache = new PaginationCountCacheImpl(2000L, 2, clock);
+        cache.put(QUERY, null, parameters("doc1"), ENTITY_TYPES, 0L, 1L);
+        cache.put(QUERY, null, parameters("doc2"), ENTITY_TYPES, 0L, 2L);
+        // Accessing the first entry makes the second one the least recently used
+        assertEquals(1L, cache.get(QUERY, null, parameters("doc1")));
+
+        cache.put(QUERY, null, parameters("doc3"), ENTITY_TYPES, 0L, 3L);
+
+        assertEquals(2, cache.size());
+        assertEquals(1L, cache.get(QUERY, null, parameters("doc1")));
+        assertNull(cache.get(QUERY, null, parameters("doc2")));
+        assertEquals(3L, cache.get(QUERY, null, parameters("doc3")));
+    }
+
+    @Test
+    public void testFilterDiscriminatorIsPartOfTheKey() {
+        PaginationCountCacheImpl cache = new PaginationCountCacheImpl(2000L, 10, clock);
+        cache.put(QUERY, "tenant1", parameters("doc1"), ENTITY_TYPES, 0L, 1L);
+
+        assertNull(cache.get(QUERY, null, parameters("doc1")));
+        assertNull(cache.get(QUERY, "tenant2", parameters("doc1")));
+        assertEquals(1L, cache.get(QUERY, "tenant1", parameters("doc1")));
+    }
+
+    @Test
+    public void testResultComputedBeforeInvalidationIsDiscarded() throws Exception {
+        final PaginationCountCacheImpl cache = new PaginationCountCacheImpl(2000L, 10, clock);
+        final Set<Class<?>> entityTypes = Collections.<Class<?>>singleton(Integer.class);
+        final CountDownLatch countQueryStarted = new CountDownLatch(1);
+        final CountDownLatch invalidated = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            // Simulate a count query that runs while a concurrent transaction invalidates the entity type
+            Future<?> future = executor.submit(new Callable<Object>() {
+                @Override
+                public Object call() throws Exception {
+                    long generation = cache.getGeneration(entityTypes);
+                    countQueryStarted.countDown();
+                    invalidated.await();
+                    cache.put(QUERY, null, parameters("doc1"), entityTypes, generation, 1L);
+                    return null;
+                }
+            });
+            countQueryStarted.await();
+            cache.invalidate(Integer.class);
+            invalidated.countDown();
+            future.get(10, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdown();
+        }
+
+        assertNull(cache.get(QUERY, null, parameters("doc1")));
+        assertEquals(0, cache.size());
+
+        // A count that is computed after the invalidation is cached again
+        long generation = cache.getGeneration(entityTypes);
+        cache.put(QUERY, null, parameters("doc1"), entityTypes, generation, 2L);
+        assertEquals(2L, cache.get(QUERY, null, parameters("doc1")));
+    }
+
+    @Test
+    public void testInvalidationOfUnrelatedEntityTypeKeepsResult() {
+        PaginationCountCacheImpl cache = new PaginationCountCacheImpl(2000L, 10, clock);
+        Set<Class<?>> entityTypes = Collections.<Class<?>>singleton(Integer.class);
+        long generation = cache.getGeneration(entityTypes);
+
+        cache.invalidate(String.class);
+        cache.put(QUERY, null, parameters("doc1"), entityTypes, generation, 1L);
+        assertEquals(1L, cache.get(QUERY, null, parameters("doc1")));
+
+        generation = cache.getGeneration(entityTypes);
+        cache.invalidate(Number.class);
+        cache.put(QUERY, null, parameters("doc2"), entityTypes, generation, 2L);
+        assertNull(cache.get(QUERY, null, parameters("doc2")));
+
+        generation = cache.getGeneration(entityTypes);
+        cache.invalidateAll();
+        cache.put(QUERY, null, parameters("doc3"), entityTypes, generation, 3L);
+        assertNull(cache.get(QUERY, null, parameters("doc3")));
+    }
+
+    private static Object[] parameters(String name) {
+        return new Object[]{ "name", name };
+    }
+
+    /**
+     * @author Christian Beikov
+     * @since 1.6.13
+     */
+    private static final class TestClock implements PaginationCountCacheImpl.Clock {
+
+        private long nanoTime;
+
+        @Override
+        public long nanoTime() {
+            return nanoTime;
+        }
+
+        public void advance(long millis) {
+            nanoTime += TimeUnit.MILLISECONDS.toNanos(millis);
+        }
+    }
+}
@@ -44,7 +44,12 @@ public final class CharSequenceUtils {
             }
             return idx;
         } else {
-            return lastIndexOf(charSequence.toString(), c, fromIndex, endIndex);
+            for (int i = Math.min(endIndex, charSequence.length() - 1); i >= fromIndex; i--) {
+                if (charSequence.charAt(i) == c) {
+                    return i;
+                }
+            }
+            return -1;
         }
     }
 
@@ -70,7 +75,14 @@ public final class CharSequenceUtils {
             }
             return idx;
         } else {
-            return indexOf(charSequence.toString(), c, fromIndex, endIndex);
+            // Scan the sequence directly to avoid copying it
+            int end = Math.min(endIndex, charSequence.length() - 1);
+            for (int i = Math.max(fromIndex, 0); i <= end; i++) {
+                if (charSequence.charAt(i) == c) {
+                    return i;
+                }
+            }
+            return -1;
         }
     }
 
@@ -92,8 +104,28 @@ public final class CharSequenceUtils {
             }
             return idx;
         } else {
-            return indexOf(charSequence.toString(), target, fromIndex, endIndex);
+            int targetLength = target.length();
+            int end = Math.min(endIndex, charSequence.length() - targetLength);
+            for (int i = Math.max(fromIndex, 0); i <= end; i++) {
+                if (regionMatches(charSequence, i, i + targetLength, target)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+
+    public static boolean regionMatches(CharSequence charSequence, int start, int end, String target) {
+        int length = target.length();
+        if (end - start != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (charSequence.charAt(start + i) != target.charAt(i)) {
+                return false;
+            }
         }
+        return true;
     }
 
 }
@@ -17,9 +17,7 @@
 package com.blazebit.persistence.parser;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 /**
  * This is a specialized parser for the JSON structure that will be produced by the JSON functions in Blaze-Persistence.
@@ -33,109 +31,178 @@ public final class JsonParser {
     private JsonParser() {
     }
 
+    /**
+     * Parses the given JSON array of objects in a single pass into a list of tuples.
+     * String values without escape sequences, numbers, booleans as well as nested arrays and objects are
+     * returned as {@link CharSequence} views on the given input without copying.
+     * The tuples are collected into a list rather than passed to a callback, because MULTISET results are processed
+     * through a <code>JpqlFunctionProcessor</code> which has to return the whole value.
+     *
+     * @param json The JSON array of objects
+     * @param fields The field names of the objects in the order they should appear in the tuple
+     * @return The parsed tuples
+     */
     public static List<Object[]> parseStringOnly(CharSequence json, String... fields) {
         List<Object[]> list = new ArrayList<>();
-        StringBuilder sb = new StringBuilder();
-        if (json != null && json.length() != 0) {
-            Map<String, Integer> fieldMap = new HashMap<>(fields.length);
-            for (int i = 0; i < fields.length; i++) {
-                fieldMap.put(fields[i], i);
+        if (json == null || json.length() == 0) {
+            return list;
+        }
+        StringBuilder sb = null;
+        int start = CharSequenceUtils.indexOf(json, '[') + 1;
+        int end = CharSequenceUtils.lastIndexOf(json, ']');
+        for (int i = start; i < end; i++) {
+            char c = json.charAt(i);
+            if (c != '{') {
+                continue;
             }
-
-            int start = CharSequenceUtils.indexOf(json, '[') + 1;
-            int end = CharSequenceUtils.lastIndexOf(json, ']');
-            for (int i = start; i < end; i++) {
-                Object[] object = new Object[fields.length];
-                boolean quoteMode = false;
-                int fieldIndex = -1;
-                boolean escapes = false;
-                i = CharSequenceUtils.indexOf(json, '{', i) + 1;
-                for (; i < end; i++) {
-                    char c = json.charAt(i);
-                    if (!quoteMode) {
+            Object[] object = new Object[fields.length];
+            int fieldIndex = -1;
+            int nextFieldIndex = 0;
+            OBJECT_LOOP: for (i++; i < end; i++) {
+                c = json.charAt(i);
+                switch (c) {
+                    case '}':
+                        break OBJECT_LOOP;
+                    case ':':
+                    case ',':
+                    case ' ':
+                    case '\t':
+                    case '\n':
+                    case '\r':
+                        break;
+                    case '"':
+                        int valueStart = i + 1;
+                        i = valueStart;
+                        while ((c = json.charAt(i)) != '"' && c != '\\') {
+                            i++;
+                        }
+                        Object value;
                         if (c == '"') {
-                            quoteMode = true;
-                        } else if (c == '}') {
-                            break;
-                        } else if (c != ':' && c != ',' && !Character.isWhitespace(c)) {
-                            // non-string value
-                            switch (c) {
-                                case 'n':
-                                    object[fieldIndex] = null;
-                                    i += 3;
-                                    fieldIndex = -1;
-                                    escapes = false;
-                                    break;
-                                case '[':
-                                    // Nested object handling
-                                    int nestedEnd = findEnd(json, i);
-                                    object[fieldIndex] = new SubSequence(json, i, nestedEnd);
-                                    fieldIndex = -1;
-                                    i = nestedEnd - 1;
-                                    break;
-                                default:
-                                    throw new IllegalArgumentException("Non-String value unsupported! Found at: " + i);
+                            if (fieldIndex == -1) {
+                                fieldIndex = fieldIndex(fields, json, valueStart, i, nextFieldIndex);
+                                nextFieldIndex = fieldIndex + 1;
+                                break;
                             }
-                        }
-                    } else {
-                        if (c == '\\') {
-                            escapes = true;
-                            c = json.charAt(++i);
-                            switch (c) {
-                                case 'b':
-                                    c = '\b';
-                                    break;
-                                case 'f':
-                                    c = '\f';
-                                    break;
-                                case 'r':
-                                    c = '\r';
-                                    break;
-                                case 'n':
-                                    c = '\n';
-                                    break;
-                                case 't':
-                                    c = '\t';
-                                    break;
-                                case 'u':
-                                    c = (char) Integer.parseInt(json.subSequence(i + 1, i + 5).toString(), 16);
-                                    i += 4;
-                                    break;
-                                case '"':
-                                case '\\':
-                                case '/':
-                                    break;
-                                default:
-                                    throw new IllegalStateException("Unexpected escape sequence at position: " + i);
+                            value = new SubSequence(json, valueStart, i);
+                        } else {
+                            if (sb == null) {
+                                sb = new StringBuilder(i - valueStart + 16);
+                            } else {
+                                sb.setLength(0);
                             }
-                            sb.append(c);
-                        } else if (c == '"') {
+                            sb.append(json, valueStart, i);
+                            i = unescape(json, i, sb);
                             if (fieldIndex == -1) {
-                                fieldIndex = fieldMap.get(sb.toString());
-                            } else {
-                                if (escapes) {
-                                    object[fieldIndex] = sb.toString();
-                                } else {
-                                    object[fieldIndex] = new SubSequence(json, i - sb.length(), i);
-                                }
-                                fieldIndex = -1;
-                                escapes = false;
+                                fieldIndex = fieldIndex(fields, sb, 0, sb.length(), nextFieldIndex);
+                                nextFieldIndex = fieldIndex + 1;
+                                break;
                             }
-                            sb.setLength(0);
-                            quoteMode = false;
-                        } else {
-                            sb.append(c);
+                            value = sb.toString();
                         }
-                    }
+                        object[fieldIndex] = value;
+                        fieldIndex = -1;
+                        break;
+                    case '[':
+                    case '{':
+                        // Nested object handling
+                        int nestedEnd = findEnd(json, i);
+                        object[fieldIndex] = new SubSequence(json, i, nestedEnd);
+                        fieldIndex = -1;
+                        i = nestedEnd - 1;
+                        break;
+                    case 'n':
+                        if (!CharSequenceUtils.regionMatches(json, i, i + 4, "null")) {
+                            throw new IllegalArgumentException("Unexpected value at position: " + i);
+                        }
+                        object[fieldIndex] = null;
+                        fieldIndex = -1;
+                        i += 3;
+                        break;
+                    default:
+                        // Numbers and booleans are passed on as is
+                        int tokenEnd = findTokenEnd(json, i, end);
+                        object[fieldIndex] = new SubSequence(json, i, tokenEnd);
+                        fieldIndex = -1;
+                        i = tokenEnd - 1;
+                        break;
                 }
-                list.add(object);
             }
+            list.add(object);
         }
         return list;
     }
 
+    private static int unescape(CharSequence json, int i, StringBuilder sb) {
+        for (;; i++) {
+            char c = json.charAt(i);
+            if (c == '"') {
+                return i;
+            } else if (c == '\\') {
+                c = json.charAt(++i);
+                switch (c) {
+                    case 'b':
+                        c = '\b';
+                        break;
+                    case 'f':
+                        c = '\f';
+                        break;
+                    case 'r':
+                        c = '\r';
+                        break;
+                    case 'n':
+                        c = '\n';
+                        break;
+                    case 't':
+                        c = '\t';
+                        break;
+                    case 'u':
+                        c = (char) Integer.parseInt(json.subSequence(i + 1, i + 5).toString(), 16);
+                        i += 4;
+                        break;
+                    case '"':
+                    case '\\':
+                    case '/':
+                        break;
+                    default:
+                        throw new IllegalStateException("Unexpected escape sequence at position: " + i);
+                }
+            }
+            sb.append(c);
+        }
+    }
+
+    private static int fieldIndex(String[] fields, CharSequence json, int start, int end, int expectedIndex) {
+        // Fields usually appear in the order in which they are requested
+        if (expectedIndex < fields.length && CharSequenceUtils.regionMatches(json, start, end, fields[expectedIndex])) {
+            return expectedIndex;
+        }
+        for (int i = 0; i < fields.length; i++) {
+            if (CharSequenceUtils.regionMatches(json, start, end, fields[i])) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Unexpected field '" + json.subSequence(start, end) + "' at position: " + start);
+    }
+
+    private static int findTokenEnd(CharSequence json, int i, int end) {
+        for (i++; i < end; i++) {
+            switch (json.charAt(i)) {
+                case ',':
+                case '}':
+                case ' ':
+                case '\t':
+                case '\n':
+                case '\r':
+                    return i;
+                default:
+                    break;
+            }
+        }
+        return i;
+    }
+
     private static int findEnd(CharSequence json, int i) {
-        int arrayLevel = 1;
+        int level = 1;
         int end = json.length();
         boolean quoteMode = false;
         i++;
@@ -147,11 +214,13 @@ public final class JsonParser {
                         quoteMode = true;
                         break;
                     case '[':
-                        arrayLevel++;
+                    case '{':
+                        level++;
                         break;
                     case ']':
-                        arrayLevel--;
-                        if (arrayLevel == 0) {
+                    case '}':
+                        level--;
+                        if (level == 0) {
                             return i + 1;
                         }
                         break;
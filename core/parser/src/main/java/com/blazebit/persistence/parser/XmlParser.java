@@ -17,9 +17,7 @@
 package com.blazebit.persistence.parser;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 /**
  * This is a specialized parser for the XML structure that will be produced by the XML functions in Blaze-Persistence.
@@ -33,78 +31,107 @@ public final class XmlParser {
     private XmlParser() {
     }
 
+    /**
+     * Parses the given XML elements in a single pass into a list of tuples.
+     * Values without escape sequences are returned as {@link CharSequence} views on the given input without copying.
+     * The tuples are collected into a list rather than passed to a callback, because MULTISET results are processed
+     * through a <code>JpqlFunctionProcessor</code> which has to return the whole value.
+     *
+     * @param xml The XML elements
+     * @param fields The tag names of the element children in the order they should appear in the tuple
+     * @return The parsed tuples
+     */
     public static List<Object[]> parse(CharSequence xml, String... fields) {
         List<Object[]> list = new ArrayList<>();
-        StringBuilder sb = new StringBuilder();
-        if (xml != null && xml.length() != 0) {
-            Map<String, Integer> fieldMap = new HashMap<>(fields.length);
-            for (int i = 0; i < fields.length; i++) {
-                fieldMap.put(fields[i], i);
+        if (xml == null || xml.length() == 0) {
+            return list;
+        }
+        StringBuilder sb = null;
+        int length = xml.length();
+        int i = 0;
+        while (i < length && (i = CharSequenceUtils.indexOf(xml, "<e>", i)) != -1) {
+            Object[] object = new Object[fields.length];
+            int nextFieldIndex = 0;
+            i += 3;
+            while (true) {
+                i = CharSequenceUtils.indexOf(xml, '<', i);
+                int endIndex = CharSequenceUtils.indexOf(xml, '>', i);
+                if (xml.charAt(i + 1) == '/') {
+                    i = endIndex + 1;
+                    break;
+                }
+                int fieldIndex = fieldIndex(fields, xml, i + 1, endIndex, nextFieldIndex);
+                nextFieldIndex = fieldIndex + 1;
+                int valueStart = endIndex + 1;
+                char c;
+                i = valueStart;
+                while ((c = xml.charAt(i)) != '<' && c != '&') {
+                    i++;
+                }
+                if (c == '<') {
+                    object[fieldIndex] = new SubSequence(xml, valueStart, i);
+                } else {
+                    if (sb == null) {
+                        sb = new StringBuilder(i - valueStart + 16);
+                    } else {
+                        sb.setLength(0);
+                    }
+                    sb.append(xml, valueStart, i);
+                    i = unescape(xml, i, sb);
+                    object[fieldIndex] = sb.toString();
+                }
+                endIndex = CharSequenceUtils.indexOf(xml, '>', i);
+                if (xml.charAt(i + 1) != '/' || !CharSequenceUtils.regionMatches(xml, i + 2, endIndex, fields[fieldIndex])) {
+                    throw new IllegalStateException("Unexpected tag at position: " + i);
+                }
+                i = endIndex + 1;
             }
+            list.add(object);
+        }
+        return list;
+    }
 
-            for (int i = 0; i < xml.length(); i++) {
-                Object[] object = new Object[fields.length];
-                boolean key = true;
-                boolean escape = false;
-                int fieldIndex = -1;
-                i = CharSequenceUtils.indexOf(xml, "<e>", i) + 3;
-                LOOP: for (; i < xml.length(); i++) {
-                    char c = xml.charAt(i);
-                    switch (c) {
-                        case '<':
-                            int endIndex = CharSequenceUtils.indexOf(xml, '>', i);
-                            if (key) {
-                                if (xml.charAt(i + 1) == '/') {
-                                    i = endIndex;
-                                    break LOOP;
-                                }
-                                String tag = xml.subSequence(i + 1, endIndex).toString();
-                                fieldIndex = fieldMap.get(tag);
-                                i = endIndex;
-                                key = false;
-                            } else {
-                                String tag = xml.subSequence(i + 2, endIndex).toString();
-                                if (xml.charAt(i + 1) != '/' || !tag.equals(fields[fieldIndex])) {
-                                    throw new IllegalStateException("Unexpected tag at position: " + i);
-                                }
-                                if (escape) {
-                                    object[fieldIndex] = sb.toString();
-                                } else {
-                                    object[fieldIndex] = new SubSequence(xml, i - sb.length(), i);
-                                }
-                                key = true;
-                                fieldIndex = -1;
-                                i = endIndex;
-                            }
-                            sb.setLength(0);
+    private static int unescape(CharSequence xml, int i, StringBuilder sb) {
+        for (;; i++) {
+            char c = xml.charAt(i);
+            switch (c) {
+                case '<':
+                    return i;
+                case '&':
+                    switch (xml.charAt(i + 1)) {
+                        case 'a':
+                            sb.append('&');
+                            i += 4;
                             break;
-                        case '&':
-                            escape = true;
-                            switch (xml.charAt(i + 1)) {
-                                case 'a':
-                                    sb.append('&');
-                                    i += 4;
-                                    break;
-                                case 'l':
-                                    sb.append('<');
-                                    i += 3;
-                                    break;
-                                case 'g':
-                                    sb.append('>');
-                                    i += 3;
-                                    break;
-                                default:
-                                    throw new IllegalStateException("Unexpected escape sequence at position: " + i);
-                            }
+                        case 'l':
+                            sb.append('<');
+                            i += 3;
                             break;
-                        default:
-                            sb.append(c);
+                        case 'g':
+                            sb.append('>');
+                            i += 3;
                             break;
+                        default:
+                            throw new IllegalStateException("Unexpected escape sequence at position: " + i);
                     }
-                }
-                list.add(object);
+                    break;
+                default:
+                    sb.append(c);
+                    break;
             }
         }
-        return list;
+    }
+
+    private static int fieldIndex(String[] fields, CharSequence xml, int start, int end, int expectedIndex) {
+        // Fields usually appear in the order in which they are requested
+        if (expectedIndex < fields.length && CharSequenceUtils.regionMatches(xml, start, end, fields[expectedIndex])) {
+            return expectedIndex;
+        }
+        for (int i = 0; i < fields.length; i++) {
+            if (CharSequenceUtils.regionMatches(xml, start, end, fields[i])) {
+                return i;
+            }
+        }
+        throw new IllegalStateException("Unexpected tag at position: " + (start - 1));
     }
 }
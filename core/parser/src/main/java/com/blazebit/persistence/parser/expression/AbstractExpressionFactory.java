@@ -197,6 +197,10 @@ public abstract class AbstractExpressionFactory extends AbstractExpressionFactor
 
     protected abstract RuleInvoker getSimpleExpressionRuleInvoker();
 
+    protected final int getMinEnumSegmentCount() {
+        return minEnumSegmentCount;
+    }
+
     @Override
     public Expression createPathExpression(String expression, MacroConfiguration macroConfiguration, Set<String> usedMacros) {
         Expression expr = createExpression(PATH_RULE_INVOKER, expression, false, false, false, macroConfiguration, usedMacros);
@@ -0,0 +1,282 @@
+/*
+ * Copyright 2014 - 2024 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.parser.expression;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * An expression cache that holds at most a configurable amount of entries per cache name.
+ *
+ * New entries enter a probation segment and are promoted to a protected segment when they are hit again.
+ * The eviction victim is the least recently used entry of the probation segment, but a new entry is only admitted if it was requested
+ * at least as often as the victim, which protects hot expressions from being flushed by one-off expressions.
+ * Access frequencies are estimated with a {@link FrequencySketch}. Reads never block, if the eviction lock is contended,
+ * the access is simply not recorded.
+ *
+ * @author Christian Beikov
+ * @since 1.6.13
+ */
+public class BoundedExpressionCache<T> implements ExpressionCache<T> {
+
+    public static final int DEFAULT_MAXIMUM_SIZE = 2048;
+
+    private final int maximumSize;
+    private final ConcurrentMap<String, BoundedCache<T>> cacheManager;
+
+    public BoundedExpressionCache() {
+        this(DEFAULT_MAXIMUM_SIZE);
+    }
+
+    public BoundedExpressionCache(int maximumSize) {
+        if (maximumSize < 1) {
+            throw new IllegalArgumentException("Invalid maximum size for expression cache: " + maximumSize);
+        }
+        this.maximumSize = maximumSize;
+        this.cacheManager = new ConcurrentHashMap<>();
+    }
+
+    public int getMaximumSize() {
+        return maximumSize;
+    }
+
+    @Override
+    public T get(String cacheName, Key key) {
+        return getCache(cacheName).get(key);
+    }
+
+    @Override
+    public T putIfAbsent(String cacheName, Key key, T value) {
+        return getCache(cacheName).putIfAbsent(key, value);
+    }
+
+    private BoundedCache<T> getCache(String cacheName) {
+        BoundedCache<T> cache = cacheManager.get(cacheName);
+
+        if (cache == null) {
+            cache = new BoundedCache<>(maximumSize);
+            BoundedCache<T> oldCache = cacheManager.putIfAbsent(cacheName, cache);
+
+            if (oldCache != null) {
+                cache = oldCache;
+            }
+        }
+
+        return cache;
+    }
+
+    /**
+     * Returns the statistics of the cache with the given name or <code>null</code> if no such cache exists.
+     *
+     * @param cacheName The cache name
+     * @return The statistics
+     */
+    public Statistics getStatistics(String cacheName) {
+        final BoundedCache<T> cache = cacheManager.get(cacheName);
+        return cache == null ? null : cache.getStatistics();
+    }
+
+    /**
+     * Returns the statistics of all caches by cache name.
+     *
+     * @return The statistics
+     */
+    public Map<String, Statistics> getStatistics() {
+        Map<String, Statistics> statistics = new HashMap<>(cacheManager.size());
+        for (Map.Entry<String, BoundedCache<T>> entry : cacheManager.entrySet()) {
+            statistics.put(entry.getKey(), entry.getValue().getStatistics());
+        }
+        return statistics;
+    }
+
+    /**
+     * Removes all entries from all caches and resets the statistics.
+     */
+    public void clear() {
+        cacheManager.clear();
+    }
+
+    /**
+     * A snapshot of the statistics of a single cache.
+     *
+     * @author Christian Beikov
+     * @since 1.6.13
+     */
+    public static final class Statistics {
+
+        private final long hitCount;
+        private final long missCount;
+        private final long evictionCount;
+        private final int size;
+        private final int maximumSize;
+
+        public Statistics(long hitCount, long missCount, long evictionCount, int size, int maximumSize) {
+            this.hitCount = hitCount;
+            this.missCount = missCount;
+            this.evictionCount = evictionCount;
+            this.size = size;
+            this.maximumSize = maximumSize;
+        }
+
+        public long getHitCount() {
+            return hitCount;
+        }
+
+        public long getMissCount() {
+            return missCount;
+        }
+
+        /**
+         * Returns the amount of entries that were removed from the cache or not admitted into the cache due to the size bound.
+         *
+         * @return The eviction count
+         */
+        public long getEvictionCount() {
+            return evictionCount;
+        }
+
+        public int getSize() {
+            return size;
+        }
+
+        public int getMaximumSize() {
+            return maximumSize;
+        }
+
+        public double getHitRatio() {
+            long requestCount = hitCount + missCount;
+            return requestCount == 0 ? 1.0 : (double) hitCount / requestCount;
+        }
+
+        @Override
+        public String toString() {
+            return "Statistics{" +
+                    "hitCount=" + hitCount +
+                    ", missCount=" + missCount +
+                    ", evictionCount=" + evictionCount +
+                    ", size=" + size +
+                    ", maximumSize=" + maximumSize +
+                    '}';
+        }
+    }
+
+    /**
+     *
+     * @author Christian Beikov
+     * @since 1.6.13
+     */
+    private static final class BoundedCache<T> {
+
+        private final int maximumSize;
+        private final int protectedMaximumSize;
+        private final ConcurrentMap<Key, T> entries;
+        // Guarded by lock
+        private final LinkedHashMap<Key, Boolean> probationSegment;
+        // Guarded by lock
+        private final LinkedHashMap<Key, Boolean> protectedSegment;
+        // Guarded by lock
+        private final FrequencySketch sketch;
+        private final ReentrantLock lock;
+        private final AtomicLong hitCount = new AtomicLong();
+        private final AtomicLong missCount = new AtomicLong();
+        private final AtomicLong evictionCount = new AtomicLong();
+
+        public BoundedCache(int maximumSize) {
+            this.maximumSize = maximumSize;
+            this.protectedMaximumSize = (int) (maximumSize * 0.8);
+            this.entries = new ConcurrentHashMap<>();
+            this.probationSegment = new LinkedHashMap<>();
+            this.protectedSegment = new LinkedHashMap<>(16, 0.75f, true);
+            this.sketch = new FrequencySketch(maximumSize);
+            this.lock = new ReentrantLock();
+        }
+
+        public T get(Key key) {
+            T value = entries.get(key);
+            if (value == null) {
+                missCount.incrementAndGet();
+            } else {
+                hitCount.incrementAndGet();
+            }
+            if (lock.tryLock()) {
+                try {
+                    sketch.increment(key);
+                    if (value != null) {
+                        onHit(key);
+                    }
+                } finally {
+                    lock.unlock();
+                }
+            }
+            return value;
+        }
+
+        private void onHit(Key key) {
+            if (protectedSegment.get(key) == null && probationSegment.remove(key) != null) {
+                // A hit on a probation entry promotes it to the protected segment
+                protectedSegment.put(key, Boolean.TRUE);
+                if (protectedSegment.size() > protectedMaximumSize) {
+                    Iterator<Key> iterator = protectedSegment.keySet().iterator();
+                    Key demoted = iterator.next();
+                    iterator.remove();
+                    probationSegment.put(demoted, Boolean.TRUE);
+                }
+            }
+        }
+
+        public T putIfAbsent(Key key, T value) {
+            lock.lock();
+            try {
+                T oldValue = entries.get(key);
+                if (oldValue != null) {
+                    return oldValue;
+                }
+                if (entries.size() >= maximumSize) {
+                    Iterator<Key> iterator;
+                    if (probationSegment.isEmpty()) {
+                        iterator = protectedSegment.keySet().iterator();
+                    } else {
+                        iterator = probationSegment.keySet().iterator();
+                    }
+                    Key victim = iterator.next();
+                    evictionCount.incrementAndGet();
+                    if (sketch.frequency(key) < sketch.frequency(victim)) {
+                        // The candidate is less popular than the victim, so don't admit it
+                        return value;
+                    }
+                    iterator.remove();
+                    entries.remove(victim);
+                }
+                entries.put(key, value);
+                probationSegment.put(key, Boolean.TRUE);
+                return value;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        public Statistics getStatistics() {
+            return new Statistics(hitCount.get(), missCount.get(), evictionCount.get(), entries.size(), maximumSize);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2014 - 2024 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.parser.expression;
+
+import com.blazebit.persistence.parser.predicate.Predicate;
+
+/**
+ * A service of a query builder that accepts already constructed expression trees for clauses,
+ * so that integrations which build expressions programmatically don't have to render and re-parse JPQL fragments.
+ * The expressions must be structured like the ones produced by an {@link ExpressionFactory} and must not be shared between builders.
+ *
+ * @author Christian Beikov
+ * @since 1.6.13
+ */
+public interface ExpressionClauseBuilder {
+
+    /**
+     * Replaces the WHERE clause with the given predicate.
+     *
+     * @param predicate The predicate
+     */
+    public void setWhereExpression(Predicate predicate);
+
+    /**
+     * Replaces the HAVING clause with the given predicate.
+     *
+     * @param predicate The predicate
+     */
+    public void setHavingExpression(Predicate predicate);
+
+    /**
+     * Adds the given expression to the SELECT clause.
+     *
+     * @param expression The expression
+     * @param selectAlias The select alias or <code>null</code>
+     */
+    public void select(Expression expression, String selectAlias);
+}
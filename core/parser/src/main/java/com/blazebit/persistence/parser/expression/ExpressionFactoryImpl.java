@@ -18,10 +18,12 @@ package com.blazebit.persistence.parser.expression;
 
 import com.blazebit.persistence.parser.FunctionKind;
 import com.blazebit.persistence.parser.JPQLNextParser;
+import com.blazebit.persistence.parser.predicate.Predicate;
 import org.antlr.v4.runtime.ParserRuleContext;
 
 import java.util.Collections;
 import java.util.Map;
+import java.util.Set;
 
 /**
  *
@@ -52,6 +54,53 @@ public final class ExpressionFactoryImpl extends AbstractExpressionFactory {
         return SIMPLE_EXPRESSION_RULE_INVOKER;
     }
 
+    // Simple paths, parameters and comparisons of a path with a parameter are parsed by the hand-written parser, everything else by ANTLR
+
+    @Override
+    public Expression createPathExpression(String expression, MacroConfiguration macroConfiguration, Set<String> usedMacros) {
+        Expression expr = SimpleExpressionParser.parsePath(expression, getMinEnumSegmentCount());
+        if (expr == null) {
+            return super.createPathExpression(expression, macroConfiguration, usedMacros);
+        }
+        return expr;
+    }
+
+    @Override
+    public Expression createSimpleExpression(String expression, boolean allowOuter, boolean allowQuantifiedPredicates, boolean allowObjectExpression, MacroConfiguration macroConfiguration, Set<String> usedMacros) {
+        Expression expr = SimpleExpressionParser.parsePathOrParameter(expression, getMinEnumSegmentCount());
+        if (expr == null) {
+            return super.createSimpleExpression(expression, allowOuter, allowQuantifiedPredicates, allowObjectExpression, macroConfiguration, usedMacros);
+        }
+        return expr;
+    }
+
+    @Override
+    public Predicate createBooleanExpression(String expression, boolean allowQuantifiedPredicates, MacroConfiguration macroConfiguration, Set<String> usedMacros) {
+        Predicate predicate = SimpleExpressionParser.parseComparisonPredicate(expression, getMinEnumSegmentCount());
+        if (predicate == null) {
+            return super.createBooleanExpression(expression, allowQuantifiedPredicates, macroConfiguration, usedMacros);
+        }
+        return predicate;
+    }
+
+    @Override
+    public Expression createInItemExpression(String expression, MacroConfiguration macroConfiguration, Set<String> usedMacros) {
+        Expression expr = SimpleExpressionParser.parseParameter(expression);
+        if (expr == null) {
+            return super.createInItemExpression(expression, macroConfiguration, usedMacros);
+        }
+        return expr;
+    }
+
+    @Override
+    public Expression createInItemOrPathExpression(String expression, MacroConfiguration macroConfiguration, Set<String> usedMacros) {
+        Expression expr = SimpleExpressionParser.parsePathOrParameter(expression, getMinEnumSegmentCount());
+        if (expr == null) {
+            return super.createInItemOrPathExpression(expression, macroConfiguration, usedMacros);
+        }
+        return expr;
+    }
+
     @Override
     public <T extends ExpressionFactory> T unwrap(Class<T> clazz) {
         if (clazz.isAssignableFrom(ExpressionFactoryImpl.class)) {
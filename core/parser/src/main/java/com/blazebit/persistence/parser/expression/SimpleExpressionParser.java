@@ -0,0 +1,311 @@
+/*
+ * Copyright 2014 - 2024 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.parser.expression;
+
+import com.blazebit.persistence.parser.JPQLNextLexer;
+import com.blazebit.persistence.parser.predicate.EqPredicate;
+import com.blazebit.persistence.parser.predicate.GePredicate;
+import com.blazebit.persistence.parser.predicate.GtPredicate;
+import com.blazebit.persistence.parser.predicate.LePredicate;
+import com.blazebit.persistence.parser.predicate.LtPredicate;
+import com.blazebit.persistence.parser.predicate.Predicate;
+import com.blazebit.persistence.parser.predicate.PredicateQuantifier;
+import org.antlr.v4.runtime.Vocabulary;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * A hand-written parser for the most common simple expressions i.e. dotted paths, parameters and
+ * comparisons of a path with a parameter. The parser produces the same expression trees as the ANTLR based parser
+ * but returns <code>null</code> for anything it doesn't understand, so that the caller can fall back to the ANTLR based parser.
+ *
+ * @author Christian Beikov
+ * @since 1.6.13
+ */
+final class SimpleExpressionParser {
+
+    // Every token name of the lexer is treated as reserved so that identifiers which could be keywords are handled by the ANTLR based parser
+    private static final Set<String> RESERVED_WORDS;
+
+    static {
+        Vocabulary vocabulary = JPQLNextLexer.VOCABULARY;
+        Set<String> reservedWords = new HashSet<>();
+        for (int i = 0; i <= vocabulary.getMaxTokenType(); i++) {
+            String symbolicName = vocabulary.getSymbolicName(i);
+            if (symbolicName != null) {
+                reservedWords.add(symbolicName);
+            }
+        }
+        RESERVED_WORDS = reservedWords;
+    }
+
+    private final String input;
+    private final int minEnumSegmentCount;
+    private int position;
+
+    private SimpleExpressionParser(String input, int minEnumSegmentCount) {
+        this.input = input;
+        this.minEnumSegmentCount = minEnumSegmentCount;
+    }
+
+    /**
+     * Parses a path expression.
+     *
+     * @param input The expression string
+     * @param minEnumSegmentCount The minimum number of segments of an enum literal
+     * @return The path expression or <code>null</code> if the input is not a simple path
+     */
+    public static PathExpression parsePath(String input, int minEnumSegmentCount) {
+        if (input == null || input.isEmpty()) {
+            return null;
+        }
+        SimpleExpressionParser parser = new SimpleExpressionParser(input, minEnumSegmentCount);
+        PathExpression path = parser.path();
+        return path != null && parser.isAtEnd() ? path : null;
+    }
+
+    /**
+     * Parses a parameter expression.
+     *
+     * @param input The expression string
+     * @return The parameter expression or <code>null</code> if the input is not a parameter
+     */
+    public static ParameterExpression parseParameter(String input) {
+        if (input == null || input.isEmpty()) {
+            return null;
+        }
+        SimpleExpressionParser parser = new SimpleExpressionParser(input, Integer.MAX_VALUE);
+        ParameterExpression parameter = parser.parameter();
+        return parameter != null && parser.isAtEnd() ? parameter : null;
+    }
+
+    /**
+     * Parses a path or a parameter expression.
+     *
+     * @param input The expression string
+     * @param minEnumSegmentCount The minimum number of segments of an enum literal
+     * @return The path or parameter expression or <code>null</code> if the input is neither a simple path nor a parameter
+     */
+    public static Expression parsePathOrParameter(String input, int minEnumSegmentCount) {
+        if (input == null || input.isEmpty()) {
+            return null;
+        }
+        SimpleExpressionParser parser = new SimpleExpressionParser(input, minEnumSegmentCount);
+        Expression expression = parser.pathOrParameter();
+        return expression != null && parser.isAtEnd() ? expression : null;
+    }
+
+    /**
+     * Parses a comparison predicate of a path with a parameter.
+     *
+     * @param input The predicate string
+     * @param minEnumSegmentCount The minimum number of segments of an enum literal
+     * @return The comparison predicate or <code>null</code> if the input is not a comparison of a path with a parameter
+     */
+    public static Predicate parseComparisonPredicate(String input, int minEnumSegmentCount) {
+        if (input == null || input.isEmpty()) {
+            return null;
+        }
+        SimpleExpressionParser parser = new SimpleExpressionParser(input, minEnumSegmentCount);
+        PathExpression left = parser.path();
+        if (left == null) {
+            return null;
+        }
+        parser.skipWhitespace();
+        int operatorStart = parser.position;
+        int operatorLength = parser.comparisonOperator();
+        if (operatorLength == 0) {
+            return null;
+        }
+        parser.skipWhitespace();
+        ParameterExpression right = parser.parameter();
+        if (right == null || !parser.isAtEnd()) {
+            return null;
+        }
+        switch (input.charAt(operatorStart)) {
+            case '=':
+                return new EqPredicate(left, right, PredicateQuantifier.ONE, false);
+            case '!':
+                return new EqPredicate(left, right, PredicateQuantifier.ONE, true);
+            case '<':
+                if (operatorLength == 1) {
+                    return new LtPredicate(left, right, PredicateQuantifier.ONE, false);
+                } else if (input.charAt(operatorStart + 1) == '=') {
+                    return new LePredicate(left, right, PredicateQuantifier.ONE, false);
+                } else {
+                    return new EqPredicate(left, right, PredicateQuantifier.ONE, true);
+                }
+            case '>':
+                if (operatorLength == 1) {
+                    return new GtPredicate(left, right, PredicateQuantifier.ONE, false);
+                } else {
+                    return new GePredicate(left, right, PredicateQuantifier.ONE, false);
+                }
+            default:
+                return null;
+        }
+    }
+
+    private Expression pathOrParameter() {
+        skipWhitespace();
+        if (position < input.length()) {
+            char c = input.charAt(position);
+            if (c == ':' || c == '?') {
+                return parameter();
+            }
+        }
+        return path();
+    }
+
+    private PathExpression path() {
+        skipWhitespace();
+        String identifier = identifier();
+        if (identifier == null) {
+            return null;
+        }
+        ArrayList<PathElementExpression> pathElementExpressions = new ArrayList<>(2);
+        pathElementExpressions.add(new PropertyExpression(identifier));
+        while (true) {
+            skipWhitespace();
+            if (position == input.length() || input.charAt(position) != '.') {
+                break;
+            }
+            position++;
+            skipWhitespace();
+            identifier = identifier();
+            if (identifier == null) {
+                return null;
+            }
+            pathElementExpressions.add(new PropertyExpression(identifier));
+        }
+        // The path might refer to an enum literal
+        if (pathElementExpressions.size() >= minEnumSegmentCount) {
+            return null;
+        }
+        return new PathExpression(pathElementExpressions);
+    }
+
+    private ParameterExpression parameter() {
+        skipWhitespace();
+        if (position == input.length()) {
+            return null;
+        }
+        char c = input.charAt(position);
+        if (c == ':') {
+            position++;
+            String name = identifier();
+            return name == null ? null : new ParameterExpression(name);
+        } else if (c == '?') {
+            int start = ++position;
+            if (position == input.length()) {
+                return null;
+            }
+            if (input.charAt(position) == '0') {
+                position++;
+            } else {
+                while (position < input.length() && isDigit(input.charAt(position))) {
+                    position++;
+                }
+                if (position == start) {
+                    return null;
+                }
+            }
+            // Numeric literals with suffixes or fractions are handled by the ANTLR based parser
+            if (position < input.length() && (isIdentifierPart(input.charAt(position)) || input.charAt(position) == '.')) {
+                return null;
+            }
+            return new ParameterExpression(input.substring(start, position));
+        }
+        return null;
+    }
+
+    private int comparisonOperator() {
+        if (position == input.length()) {
+            return 0;
+        }
+        char c = input.charAt(position);
+        char next = position + 1 < input.length() ? input.charAt(position + 1) : '\0';
+        int length;
+        switch (c) {
+            case '=':
+                length = 1;
+                break;
+            case '!':
+                length = next == '=' ? 2 : 0;
+                break;
+            case '<':
+                length = next == '=' || next == '>' ? 2 : 1;
+                break;
+            case '>':
+                length = next == '=' ? 2 : 1;
+                break;
+            default:
+                length = 0;
+                break;
+        }
+        position += length;
+        return length;
+    }
+
+    private String identifier() {
+        int start = position;
+        if (position == input.length() || !isIdentifierStart(input.charAt(position))) {
+            return null;
+        }
+        position++;
+        while (position < input.length() && isIdentifierPart(input.charAt(position))) {
+            position++;
+        }
+        String identifier = input.substring(start, position);
+        if (RESERVED_WORDS.contains(identifier.toUpperCase(Locale.ROOT))) {
+            return null;
+        }
+        return identifier;
+    }
+
+    private boolean isAtEnd() {
+        skipWhitespace();
+        return position == input.length();
+    }
+
+    private void skipWhitespace() {
+        while (position < input.length()) {
+            char c = input.charAt(position);
+            if (c == ' ' || c == '\t' || c == '\f' || c == '\r' || c == '\n') {
+                position++;
+            } else {
+                break;
+            }
+        }
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    // Same character classes as the IDENTIFIER rule of the lexer
+    private static boolean isIdentifierStart(char c) {
+        return c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || c == '_' || c == '$' || c >= '\u0080' && c <= '\ufffe';
+    }
+
+    private static boolean isIdentifierPart(char c) {
+        return isIdentifierStart(c) || isDigit(c);
+    }
+}
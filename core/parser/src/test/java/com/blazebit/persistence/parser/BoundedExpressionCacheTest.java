@@ -0,0 +1,105 @@
+/*
+ * Copyright 2014 - 2024 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.parser;
+
+import com.blazebit.persistence.parser.expression.BoundedExpressionCache;
+import com.blazebit.persistence.parser.expression.Expression;
+import com.blazebit.persistence.parser.expression.ExpressionCache;
+import com.blazebit.persistence.parser.expression.ExpressionFactory;
+import com.blazebit.persistence.parser.expression.ExpressionFactoryImpl;
+import com.blazebit.persistence.parser.expression.SimpleCachingExpressionFactory;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.HashMap;
+
+/**
+ *
+ * @author Christian Beikov
+ * @since 1.6.13
+ */
+public class BoundedExpressionCacheTest {
+
+    private static final String CACHE_NAME = "test";
+
+    @Test
+    public void testSizeIsBounded() {
+        BoundedExpressionCache<String> cache = new BoundedExpressionCache<>(10);
+        for (int i = 0; i < 100; i++) {
+            cache.putIfAbsent(CACHE_NAME, key("a" + i), "a" + i);
+        }
+
+        BoundedExpressionCache.Statistics statistics = cache.getStatistics(CACHE_NAME);
+        Assert.assertEquals(10, statistics.getSize());
+        Assert.assertEquals(90, statistics.getEvictionCount());
+    }
+
+    @Test
+    public void testFrequentlyUsedEntriesSurvive() {
+        BoundedExpressionCache<String> cache = new BoundedExpressionCache<>(10);
+        cache.putIfAbsent(CACHE_NAME, key("hot"), "hot");
+        for (int i = 0; i < 100; i++) {
+            Assert.assertEquals("hot", cache.get(CACHE_NAME, key("hot")));
+        }
+        for (int i = 0; i < 1000; i++) {
+            if (cache.get(CACHE_NAME, key("cold" + i)) == null) {
+                cache.putIfAbsent(CACHE_NAME, key("cold" + i), "cold" + i);
+            }
+        }
+
+        Assert.assertEquals("hot", cache.get(CACHE_NAME, key("hot")));
+    }
+
+    @Test
+    public void testStatistics() {
+        BoundedExpressionCache<String> cache = new BoundedExpressionCache<>(10);
+        Assert.assertNull(cache.get(CACHE_NAME, key("a")));
+        Assert.assertEquals("a", cache.putIfAbsent(CACHE_NAME, key("a"), "a"));
+        Assert.assertEquals("a", cache.putIfAbsent(CACHE_NAME, key("a"), "b"));
+        Assert.assertEquals("a", cache.get(CACHE_NAME, key("a")));
+
+        BoundedExpressionCache.Statistics statistics = cache.getStatistics().get(CACHE_NAME);
+        Assert.assertEquals(1, statistics.getHitCount());
+        Assert.assertEquals(1, statistics.getMissCount());
+        Assert.assertEquals(0, statistics.getEvictionCount());
+        Assert.assertEquals(1, statistics.getSize());
+        Assert.assertEquals(0.5, statistics.getHitRatio(), 0.001);
+
+        cache.clear();
+        Assert.assertNull(cache.getStatistics(CACHE_NAME));
+    }
+
+    @Test
+    public void testWithExpressionFactory() {
+        BoundedExpressionCache<Object> cache = new BoundedExpressionCache<>(1);
+        ExpressionFactory ef = new SimpleCachingExpressionFactory(new ExpressionFactoryImpl(new HashMap<String, FunctionKind>(), true, true), cache);
+
+        Expression expr1 = ef.createSimpleExpression("a.b", false, false, false, null, null);
+        Expression expr2 = ef.createSimpleExpression("a.c", false, false, false, null, null);
+        Expression expr3 = ef.createSimpleExpression("a.b", false, false, false, null, null);
+
+        Assert.assertEquals(expr1, expr3);
+        Assert.assertNotEquals(expr1, expr2);
+        for (BoundedExpressionCache.Statistics statistics : cache.getStatistics().values()) {
+            Assert.assertEquals(1, statistics.getSize());
+        }
+    }
+
+    private static ExpressionCache.Key key(String expression) {
+        return new ExpressionCache.Key(expression, false, false, false);
+    }
+}
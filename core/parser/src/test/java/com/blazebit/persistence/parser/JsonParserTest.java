@@ -19,6 +19,8 @@ package com.blazebit.persistence.parser;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.util.List;
+
 import static org.junit.Assert.assertArrayEquals;
 
 /**
@@ -55,6 +57,34 @@ public class JsonParserTest {
         assertEquals(new Object[]{ "1", "test" }, JsonParser.parseStringOnly("[{\"age\": \"1\", \"name\": \"test\"}, {\"age\": \"1\", \"name\": \"test\"}]", "age", "name").get(1));
     }
 
+    @Test
+    public void testNonStringValues() {
+        assertEquals(new Object[]{ "test", "1", "-1.5e3", "true", null }, JsonParser.parseStringOnly("[{\"name\": \"test\", \"age\": 1, \"amount\": -1.5e3, \"active\": true, \"other\": null}]", "name", "age", "amount", "active", "other").get(0));
+        assertEquals(new Object[]{ "1", "false" }, JsonParser.parseStringOnly("[{\"age\":1,\"active\":false},{\"age\":2,\"active\":true}]", "age", "active").get(0));
+        assertEquals(new Object[]{ "2", "true" }, JsonParser.parseStringOnly("[{\"age\":1,\"active\":false},{\"age\":2,\"active\":true}]", "age", "active").get(1));
+    }
+
+    @Test
+    public void testNested() {
+        assertEquals(new Object[]{ "[{\"f0\":\"a]}\"}]", "{\"f0\":1}", "x" }, JsonParser.parseStringOnly("[{\"f0\":[{\"f0\":\"a]}\"}],\"f1\":{\"f0\":1},\"f2\":\"x\"}]", "f0", "f1", "f2").get(0));
+    }
+
+    @Test
+    public void testUnescapedValuesAreNotCopied() {
+        List<Object[]> tuples = JsonParser.parseStringOnly("[ {\"f0\": \"a\\\"b\", \"f1\": 1} , {\"f1\": 2, \"f0\": \"c\"} ]", "f0", "f1");
+        Assert.assertEquals(2, tuples.size());
+        assertEquals(new Object[]{ "a\"b", "1" }, tuples.get(0));
+        assertEquals(new Object[]{ "c", "2" }, tuples.get(1));
+        Assert.assertTrue(tuples.get(1)[0] instanceof SubSequence);
+    }
+
+    @Test
+    public void testEmpty() {
+        Assert.assertTrue(JsonParser.parseStringOnly("[]", "f0").isEmpty());
+        Assert.assertTrue(JsonParser.parseStringOnly("[ ]", "f0").isEmpty());
+        Assert.assertTrue(JsonParser.parseStringOnly(null, "f0").isEmpty());
+    }
+
     private static void assertEquals(Object[] array1, Object[] array2) {
         Assert.assertEquals(array1.length, array2.length);
         for (int i = 0; i < array1.length; i++) {
@@ -0,0 +1,151 @@
+/*
+ * Copyright 2014 - 2024 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.parser;
+
+import com.blazebit.persistence.parser.expression.EnumLiteral;
+import com.blazebit.persistence.parser.expression.ExpressionFactory;
+import com.blazebit.persistence.parser.expression.ExpressionFactoryImpl;
+import com.blazebit.persistence.parser.expression.ParameterExpression;
+import com.blazebit.persistence.parser.expression.PathExpression;
+import com.blazebit.persistence.parser.expression.SyntaxErrorException;
+import com.blazebit.persistence.parser.predicate.EqPredicate;
+import com.blazebit.persistence.parser.predicate.GePredicate;
+import com.blazebit.persistence.parser.predicate.LtPredicate;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Checks that the hand-written parser of {@link ExpressionFactoryImpl} produces the same expressions as the ANTLR based parser.
+ *
+ * @author Christian Beikov
+ * @since 1.6.13
+ */
+public class SimpleExpressionParserTest extends AbstractParserTest {
+
+    private ExpressionFactory fastPath() {
+        return new ExpressionFactoryImpl(functions, entityTypes, enumTypes, enumTypes, true, false);
+    }
+
+    private void assertSimpleExpression(String expression) {
+        assertEquals(ef().createSimpleExpression(expression, false), fastPath().createSimpleExpression(expression, false));
+    }
+
+    private void assertPathExpression(String expression) {
+        assertEquals(ef().createPathExpression(expression), fastPath().createPathExpression(expression));
+    }
+
+    private void assertBooleanExpression(String expression) {
+        assertEquals(ef().createBooleanExpression(expression, false), fastPath().createBooleanExpression(expression, false));
+    }
+
+    @Test
+    public void testPaths() {
+        assertSimpleExpression("d");
+        assertSimpleExpression("d.name");
+        assertSimpleExpression(" d . owner.name ");
+        assertSimpleExpression("$d.na_me1");
+        assertPathExpression("d.owner.name");
+        assertEquals(path("d", "owner", "name"), fastPath().createPathExpression("d.owner.name"));
+    }
+
+    @Test
+    public void testParameters() {
+        assertSimpleExpression(":param");
+        assertSimpleExpression("?1");
+        assertSimpleExpression("?10");
+        assertEquals(new ParameterExpression("param"), fastPath().createInItemExpression(":param"));
+        assertEquals(new ParameterExpression("param"), fastPath().createInItemOrPathExpression(":param"));
+        assertEquals(path("d", "name"), fastPath().createInItemOrPathExpression("d.name"));
+    }
+
+    @Test
+    public void testComparisons() {
+        assertBooleanExpression("d.name = :name");
+        assertBooleanExpression("d.name<>:name");
+        assertBooleanExpression("d.name != :name");
+        assertBooleanExpression("d.age < ?1");
+        assertBooleanExpression("d.age <= :age");
+        assertBooleanExpression("d.age > :age");
+        assertBooleanExpression("d.age >= :age");
+        assertEquals(new EqPredicate(path("d", "name"), new ParameterExpression("name"), true), fastPath().createBooleanExpression("d.name <> :name", false));
+        assertEquals(new GePredicate(path("d", "age"), new ParameterExpression("age")), fastPath().createBooleanExpression("d.age >= :age", false));
+        assertEquals(new LtPredicate(path("d", "age"), new ParameterExpression("1")), fastPath().createBooleanExpression("d.age < ?1", false));
+    }
+
+    @Test
+    public void testFallbacks() {
+        // Keywords, functions, literals and compound predicates are handled by the ANTLR based parser
+        assertSimpleExpression("d.value");
+        assertSimpleExpression("KEY(d.map)");
+        assertSimpleExpression("UPPER(d.name)");
+        assertSimpleExpression("d.age + 1");
+        assertSimpleExpression("d.list[1]");
+        assertSimpleExpression("NULL");
+        assertSimpleExpression("CURRENT_DATE");
+        assertSimpleExpression(":value");
+        assertBooleanExpression("d.name = 'abc'");
+        assertBooleanExpression("d.name = d.owner.name");
+        assertBooleanExpression("d.name = :name AND d.age > :age");
+        assertBooleanExpression("d.name IS NULL");
+    }
+
+    @Test
+    public void testEnumLiteral() {
+        enumTypes.put(TestEnum.class.getName(), (Class<Enum<?>>) (Class<?>) TestEnum.class);
+        String enumLiteral = TestEnum.class.getName() + ".ABC";
+        assertTrue(fastPath().createSimpleExpression(enumLiteral, false) instanceof EnumLiteral);
+        assertSimpleExpression(enumLiteral);
+        assertBooleanExpression("d.status = " + enumLiteral);
+        // Paths that are shorter than enum literals still use the hand-written parser
+        assertTrue(fastPath().createSimpleExpression("d.status", false) instanceof PathExpression);
+    }
+
+    @Test
+    public void testInvalidExpressions() {
+        assertInvalidSimpleExpression("d.");
+        assertInvalidSimpleExpression("?1L");
+        assertInvalidSimpleExpression("?01");
+        assertInvalidSimpleExpression("d.name :name");
+        assertInvalidBooleanExpression("d.age < = :age");
+        assertInvalidBooleanExpression("d.age = :age :name");
+    }
+
+    private void assertInvalidSimpleExpression(String expression) {
+        try {
+            fastPath().createSimpleExpression(expression, false);
+            fail("Expected syntax error for: " + expression);
+        } catch (SyntaxErrorException ex) {
+            // Expected
+        }
+    }
+
+    private void assertInvalidBooleanExpression(String expression) {
+        try {
+            fastPath().createBooleanExpression(expression, false);
+            fail("Expected syntax error for: " + expression);
+        } catch (SyntaxErrorException ex) {
+            // Expected
+        }
+    }
+
+    static enum TestEnum {
+        ABC
+    }
+}
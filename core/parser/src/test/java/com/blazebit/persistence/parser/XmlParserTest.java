@@ -19,6 +19,8 @@ package com.blazebit.persistence.parser;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.util.List;
+
 /**
  *
  * @author Christian Beikov
@@ -53,6 +55,14 @@ public class XmlParserTest {
         assertEquals(new Object[]{ "1", "test" }, XmlParser.parse("<e><age>1</age><name>test</name></e><e><age>1</age><name>test</name></e>", "age", "name").get(1));
     }
 
+    @Test
+    public void testNonStringInput() {
+        List<Object[]> tuples = XmlParser.parse(new StringBuilder("<e><f1>1</f1><f0>a&amp;b</f0></e><e><f0>c</f0></e>"), "f0", "f1");
+        Assert.assertEquals(2, tuples.size());
+        assertEquals(new Object[]{ "a&b", "1" }, tuples.get(0));
+        assertEquals(new Object[]{ "c", null }, tuples.get(1));
+    }
+
     private static void assertEquals(Object[] array1, Object[] array2) {
         Assert.assertEquals(array1.length, array2.length);
         for (int i = 0; i < array1.length; i++) {
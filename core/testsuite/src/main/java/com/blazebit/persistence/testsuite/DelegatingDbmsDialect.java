@@ -23,6 +23,8 @@ import com.blazebit.persistence.spi.DbmsStatementType;
 import com.blazebit.persistence.spi.DeleteJoinStyle;
 import com.blazebit.persistence.spi.LateralStyle;
 import com.blazebit.persistence.spi.OrderByElement;
+import com.blazebit.persistence.spi.ParameterLimitedDbmsDialect;
+import com.blazebit.persistence.spi.RowCountEstimatingDbmsDialect;
 import com.blazebit.persistence.spi.SetOperationType;
 import com.blazebit.persistence.spi.UpdateJoinStyle;
 import com.blazebit.persistence.spi.ValuesStrategy;
@@ -39,7 +41,7 @@ import java.util.Map;
  * @author Moritz Becker
  * @since 1.2.0
  */
-public class DelegatingDbmsDialect implements DbmsDialect {
+public class DelegatingDbmsDialect implements ParameterLimitedDbmsDialect, RowCountEstimatingDbmsDialect {
 
     private final DbmsDialect delegate;
 
@@ -257,6 +259,22 @@ public class DelegatingDbmsDialect implements DbmsDialect {
         return delegate.getValuesStrategy();
     }
 
+    @Override
+    public int getMaximumParameterCount() {
+        if (delegate instanceof ParameterLimitedDbmsDialect) {
+            return ((ParameterLimitedDbmsDialect) delegate).getMaximumParameterCount();
+        }
+        return Integer.MAX_VALUE;
+    }
+
+    @Override
+    public String getEstimatedRowCountSql(String tableName) {
+        if (delegate instanceof RowCountEstimatingDbmsDialect) {
+            return ((RowCountEstimatingDbmsDialect) delegate).getEstimatedRowCountSql(tableName);
+        }
+        return null;
+    }
+
     @Override
     public boolean needsUniqueSelectItemNamesAlsoWhenTableColumnAliasing() {
         return delegate.needsUniqueSelectItemNamesAlsoWhenTableColumnAliasing();
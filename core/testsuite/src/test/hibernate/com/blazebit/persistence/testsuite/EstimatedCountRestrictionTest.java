@@ -0,0 +1,130 @@
+/*
+ * Copyright 2014 - 2024 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.blazebit.persistence.testsuite;
+
+import com.blazebit.persistence.PagedArrayList;
+import com.blazebit.persistence.PagedList;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoDB2;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoMSSQL;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoMySQL;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoOracle;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoPostgreSQL;
+import com.blazebit.persistence.testsuite.tx.TxVoidWork;
+import org.hibernate.Session;
+import org.hibernate.annotations.Filter;
+import org.hibernate.annotations.FilterDef;
+import org.hibernate.annotations.Where;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EntityManager;
+import javax.persistence.Id;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Christian Beikov
+ * @since 1.6.13
+ */
+// Statistics in other DBMS are only available after analyzing the tables
+@Category({ NoPostgreSQL.class, NoMySQL.class, NoOracle.class, NoMSSQL.class, NoDB2.class })
+public class EstimatedCountRestrictionTest extends AbstractCoreTest {
+
+    @Override
+    protected Class<?>[] getEntityClasses() {
+        return new Class<?>[]{ SoftDeleteEntity.class, FilteredEntity.class };
+    }
+
+    @Override
+    public void setUpOnce() {
+        cleanDatabase();
+        transactional(new TxVoidWork() {
+            @Override
+            public void work(EntityManager em) {
+                for (long i = 1; i <= 3; i++) {
+                    SoftDeleteEntity softDeleteEntity = new SoftDeleteEntity();
+                    softDeleteEntity.id = i;
+                    softDeleteEntity.deleted = i == 1;
+                    em.persist(softDeleteEntity);
+                    FilteredEntity filteredEntity = new FilteredEntity();
+                    filteredEntity.id = i;
+                    filteredEntity.deleted = i == 1;
+                    em.persist(filteredEntity);
+                }
+            }
+        });
+    }
+
+    @Test
+    public void testWhereMappingUsesExactCount() {
+        PagedList<SoftDeleteEntity> page = cbf.create(em, SoftDeleteEntity.class, "e")
+                .orderByAsc("e.id")
+                .page(0, 1)
+                .withEstimatedCount(true)
+                .getResultList();
+
+        assertFalse(((PagedArrayList<SoftDeleteEntity>) page).isTotalSizeEstimated());
+        assertEquals(2, page.getTotalSize());
+    }
+
+    @Test
+    public void testEnabledFilterUsesExactCount() {
+        PagedList<FilteredEntity> page = cbf.create(em, FilteredEntity.class, "e")
+                .orderByAsc("e.id")
+                .page(0, 1)
+                .withEstimatedCount(true)
+                .getResultList();
+        assertTrue(((PagedArrayList<FilteredEntity>) page).isTotalSizeEstimated());
+
+        em.unwrap(Session.class).enableFilter("notDeleted");
+        try {
+            page = cbf.create(em, FilteredEntity.class, "e")
+                    .orderByAsc("e.id")
+                    .page(0, 1)
+                    .withEstimatedCount(true)
+                    .getResultList();
+            assertFalse(((PagedArrayList<FilteredEntity>) page).isTotalSizeEstimated());
+            assertEquals(2, page.getTotalSize());
+        } finally {
+            em.unwrap(Session.class).disableFilter("notDeleted");
+        }
+    }
+
+    @Entity(name = "SoftDeleteEntity")
+    @Where(clause = "deleted = false")
+    public static class SoftDeleteEntity {
+        @Id
+        Long id;
+        @Column(nullable = false)
+        boolean deleted;
+    }
+
+    @Entity(name = "FilteredEntity")
+    @FilterDef(name = "notDeleted", defaultCondition = "deleted = false")
+    @Filter(name = "notDeleted")
+    public static class FilteredEntity {
+        @Id
+        Long id;
+        @Column(nullable = false)
+        boolean deleted;
+    }
+}
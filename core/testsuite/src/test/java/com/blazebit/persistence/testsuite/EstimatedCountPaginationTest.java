@@ -0,0 +1,137 @@
+/*
+ * Copyright 2014 - 2024 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.testsuite;
+
+import com.blazebit.persistence.PagedArrayList;
+import com.blazebit.persistence.PagedList;
+import com.blazebit.persistence.PaginatedCriteriaBuilder;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoDB2;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoDatanucleus;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoEclipselink;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoMSSQL;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoMySQL;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoOpenJPA;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoOracle;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoPostgreSQL;
+import com.blazebit.persistence.testsuite.entity.Document;
+import com.blazebit.persistence.testsuite.entity.Person;
+import com.blazebit.persistence.testsuite.tx.TxVoidWork;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import javax.persistence.EntityManager;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ *
+ * @author Christian Beikov
+ * @since 1.6.13
+ */
+public class EstimatedCountPaginationTest extends AbstractCoreTest {
+
+    @Override
+    public void setUpOnce() {
+        cleanDatabase();
+        transactional(new TxVoidWork() {
+            @Override
+            public void work(EntityManager em) {
+                Person o1 = new Person("Karl1");
+                Person o2 = new Person("Karl2");
+                em.persist(o1);
+                em.persist(o2);
+                em.persist(new Document("doc1", o1));
+                em.persist(new Document("doc2", o1));
+                em.persist(new Document("doc3", o2));
+            }
+        });
+    }
+
+    // Statistics in other DBMS are only available after analyzing the tables
+    @Test
+    @Category({ NoPostgreSQL.class, NoMySQL.class, NoOracle.class, NoMSSQL.class, NoDB2.class, NoDatanucleus.class, NoEclipselink.class, NoOpenJPA.class })
+    public void testUnfilteredQueryUsesEstimate() {
+        PaginatedCriteriaBuilder<String> criteria = cbf.create(em, String.class)
+                .from(Document.class, "d")
+                .select("d.name")
+                .orderByAsc("d.id")
+                .page(0, 1)
+                .withEstimatedCount(true);
+
+        PagedList<String> page = criteria.getResultList();
+        assertTrue(((PagedArrayList<String>) page).isTotalSizeEstimated());
+        assertEquals(3, page.getTotalSize());
+        assertEquals(1, page.size());
+    }
+
+    @Test
+    public void testFilteredQueryUsesExactCount() {
+        PaginatedCriteriaBuilder<String> criteria = cbf.create(em, String.class)
+                .from(Document.class, "d")
+                .select("d.name")
+                .where("d.owner.name").eq("Karl1")
+                .orderByAsc("d.id")
+                .page(0, 1)
+                .withEstimatedCount(true);
+
+        PagedList<String> page = criteria.getResultList();
+        assertFalse(((PagedArrayList<String>) page).isTotalSizeEstimated());
+        assertEquals(2, page.getTotalSize());
+    }
+
+    @Test
+    public void testInnerJoinUsesExactCount() {
+        PaginatedCriteriaBuilder<String> criteria = cbf.create(em, String.class)
+                .from(Person.class, "p")
+                .innerJoin("p.ownedDocuments", "doc")
+                .select("p.name")
+                .orderByAsc("p.id")
+                .page(0, 1)
+                .withEstimatedCount(true);
+
+        PagedList<String> page = criteria.getResultList();
+        assertFalse(((PagedArrayList<String>) page).isTotalSizeEstimated());
+        assertEquals(2, page.getTotalSize());
+    }
+
+    @Test
+    public void testEstimatedCountDisablesInlineCountQuery() {
+        PaginatedCriteriaBuilder<String> criteria = cbf.create(em, String.class)
+                .from(Document.class, "d")
+                .select("d.name")
+                .orderByAsc("d.id")
+                .page(0, 1)
+                .withEstimatedCount(true);
+
+        assertFalse(criteria.isWithInlineCountQuery());
+    }
+
+    @Test
+    public void testExactCountByDefault() {
+        PagedList<String> page = cbf.create(em, String.class)
+                .from(Document.class, "d")
+                .select("d.name")
+                .orderByAsc("d.id")
+                .page(0, 1)
+                .getResultList();
+
+        assertFalse(((PagedArrayList<String>) page).isTotalSizeEstimated());
+        assertEquals(3, page.getTotalSize());
+    }
+}
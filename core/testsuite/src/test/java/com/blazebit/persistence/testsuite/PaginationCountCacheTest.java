@@ -0,0 +1,176 @@
+/*
+ * Copyright 2014 - 2024 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.testsuite;
+
+import com.blazebit.persistence.PagedList;
+import com.blazebit.persistence.PaginatedCriteriaBuilder;
+import com.blazebit.persistence.PaginationCountCache;
+import com.blazebit.persistence.testsuite.entity.Document;
+import com.blazebit.persistence.testsuite.entity.Person;
+import com.blazebit.persistence.testsuite.tx.TxVoidWork;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.persistence.EntityManager;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ *
+ * @author Christian Beikov
+ * @since 1.6.13
+ */
+public class PaginationCountCacheTest extends AbstractCoreTest {
+
+    private PaginationCountCache paginationCountCache;
+
+    @Override
+    public void setUpOnce() {
+        cleanDatabase();
+        transactional(new TxVoidWork() {
+            @Override
+            public void work(EntityManager em) {
+                Person o1 = new Person("Karl1");
+                Person o2 = new Person("Karl2");
+                em.persist(o1);
+                em.persist(o2);
+                em.persist(new Document("doc1", o1));
+                em.persist(new Document("doc2", o1));
+                em.persist(new Document("doc3", o2));
+            }
+        });
+    }
+
+    @Before
+    public void clearCache() {
+        paginationCountCache = cbf.getService(PaginationCountCache.class);
+        paginationCountCache.invalidateAll();
+    }
+
+    @Test
+    public void testCountIsReusedAcrossPages() {
+        PagedList<String> page1 = createCriteria("Karl1", 0).getResultList();
+        assertEquals(2, page1.getTotalSize());
+        assertEquals(1, paginationCountCache.size());
+
+        insertDocument("doc4", "Karl1");
+        try {
+            // The cached count is used although a new document was inserted
+            PagedList<String> page2 = createCriteria("Karl1", 1).getResultList();
+            assertEquals(2, page2.getTotalSize());
+            assertEquals(1, page2.size());
+            assertEquals(1, paginationCountCache.size());
+
+            paginationCountCache.invalidate(Document.class);
+            assertEquals(0, paginationCountCache.size());
+            assertEquals(3, createCriteria("Karl1", 1).getResultList().getTotalSize());
+        } finally {
+            deleteDocument("doc4");
+        }
+    }
+
+    @Test
+    public void testParameterValuesArePartOfTheKey() {
+        assertEquals(2, createCriteria("Karl1", 0).getResultList().getTotalSize());
+        assertEquals(1, createCriteria("Karl2", 0).getResultList().getTotalSize());
+        assertEquals(2, paginationCountCache.size());
+        assertEquals(2, createCriteria("Karl1", 0).getQuery().getTotalCount());
+        assertEquals(2, paginationCountCache.size());
+    }
+
+    @Test
+    public void testInvalidateBySupertypeOfJoinedEntity() {
+        createCriteria("Karl1", 0).getResultList();
+        paginationCountCache.invalidate(String.class);
+        assertEquals(1, paginationCountCache.size());
+        paginationCountCache.invalidate(Object.class);
+        assertEquals(0, paginationCountCache.size());
+    }
+
+    @Test
+    public void testEntityParameterValuesAreKeyedById() {
+        Person owner = cbf.create(em, Person.class).where("name").eq("Karl1").getSingleResult();
+        assertEquals(2, createCriteriaByOwner(owner).getResultList().getTotalSize());
+        em.clear();
+        // A different instance of the same entity must hit the cached count
+        Person reference = em.getReference(Person.class, owner.getId());
+        assertEquals(2, createCriteriaByOwner(reference).getResultList().getTotalSize());
+        assertEquals(1, paginationCountCache.size());
+    }
+
+    @Test
+    public void testCountCacheDisablesInlineCountQuery() {
+        PaginatedCriteriaBuilder<String> criteria = createCriteria("Karl1", 0);
+        assertFalse(criteria.isWithInlineCountQuery());
+    }
+
+    @Test
+    public void testCacheDisabledByDefault() {
+        PaginatedCriteriaBuilder<String> criteria = cbf.create(em, String.class)
+                .from(Document.class, "d")
+                .select("d.name")
+                .orderByAsc("d.id")
+                .page(0, 1);
+
+        assertEquals(3, criteria.getResultList().getTotalSize());
+        assertEquals(0, paginationCountCache.size());
+    }
+
+    private PaginatedCriteriaBuilder<String> createCriteria(String ownerName, int firstResult) {
+        return cbf.create(em, String.class)
+                .from(Document.class, "d")
+                .select("d.name")
+                .where("d.owner.name").eq(ownerName)
+                .orderByAsc("d.id")
+                .page(firstResult, 1)
+                .withCountCache(true);
+    }
+
+    private PaginatedCriteriaBuilder<String> createCriteriaByOwner(Person owner) {
+        return cbf.create(em, String.class)
+                .from(Document.class, "d")
+                .select("d.name")
+                .where("d.owner").eq(owner)
+                .orderByAsc("d.id")
+                .page(0, 1)
+                .withCountCache(true);
+    }
+
+    private void insertDocument(final String name, final String ownerName) {
+        transactional(new TxVoidWork() {
+            @Override
+            public void work(EntityManager em) {
+                Person owner = em.createQuery("SELECT p FROM Person p WHERE p.name = :name", Person.class)
+                        .setParameter("name", ownerName)
+                        .getSingleResult();
+                em.persist(new Document(name, owner));
+            }
+        });
+    }
+
+    private void deleteDocument(final String name) {
+        transactional(new TxVoidWork() {
+            @Override
+            public void work(EntityManager em) {
+                em.remove(em.createQuery("SELECT d FROM Document d WHERE d.name = :name", Document.class)
+                        .setParameter("name", name)
+                        .getSingleResult());
+            }
+        });
+    }
+}
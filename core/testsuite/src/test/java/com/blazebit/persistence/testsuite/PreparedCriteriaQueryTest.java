@@ -0,0 +1,249 @@
+/*
+ * Copyright 2014 - 2024 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.testsuite;
+
+import com.blazebit.persistence.CriteriaBuilder;
+import com.blazebit.persistence.PagedList;
+import com.blazebit.persistence.PaginatedCriteriaBuilder;
+import com.blazebit.persistence.PreparedCriteriaQuery;
+import com.blazebit.persistence.PreparedPaginatedCriteriaQuery;
+import com.blazebit.persistence.SelectBuilder;
+import com.blazebit.persistence.StatefulObjectBuilder;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoDatanucleus;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoEclipselink;
+import com.blazebit.persistence.testsuite.entity.Document;
+import com.blazebit.persistence.testsuite.entity.Person;
+import com.blazebit.persistence.testsuite.tx.TxVoidWork;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Tuple;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ *
+ * @author Christian Beikov
+ * @since 1.6.13
+ */
+public class PreparedCriteriaQueryTest extends AbstractCoreTest {
+
+    @Override
+    public void setUpOnce() {
+        cleanDatabase();
+        transactional(new TxVoidWork() {
+            @Override
+            public void work(EntityManager em) {
+                Person o1 = new Person("Karl1");
+                Person o2 = new Person("Karl2");
+                em.persist(o1);
+                em.persist(o2);
+                em.persist(new Document("doc1", o1));
+                em.persist(new Document("doc2", o1));
+                em.persist(new Document("doc3", o2));
+            }
+        });
+    }
+
+    @Test
+    public void testPreparedQueryWithDifferentEntityManagers() {
+        final PreparedCriteriaQuery<String> preparedQuery = cbf.create(em, String.class)
+                .from(Document.class, "d")
+                .select("d.name")
+                .where("d.owner.name").eqExpression(":ownerName")
+                .orderByAsc("d.id")
+                .prepare();
+
+        assertEquals("SELECT d.name FROM Document d JOIN d.owner owner_1 WHERE owner_1.name = :ownerName ORDER BY d.id ASC", preparedQuery.getQueryString());
+        assertEquals(Arrays.asList("doc1", "doc2"), preparedQuery.createQuery(em).setParameter("ownerName", "Karl1").getResultList());
+        transactional(new TxVoidWork() {
+            @Override
+            public void work(EntityManager em) {
+                assertEquals(Arrays.asList("doc3"), preparedQuery.createQuery(em).setParameter("ownerName", "Karl2").getResultList());
+            }
+        });
+    }
+
+    @Test
+    public void testPreparedQueryBindsParameterValuesOfBuilder() {
+        PreparedCriteriaQuery<Tuple> preparedQuery = cbf.create(em, Tuple.class)
+                .from(Document.class, "d")
+                .select("d.name", "docName")
+                .where("d.owner.name").eq("Karl1")
+                .orderByAsc("d.id")
+                .setMaxResults(1)
+                .prepare();
+
+        List<Tuple> result = preparedQuery.createQuery(em).getResultList();
+        assertEquals(1, result.size());
+        assertEquals("doc1", result.get(0).get("docName"));
+        // Every query is bound with the values of the builder
+        assertEquals(1, preparedQuery.createQuery(em).getResultList().size());
+    }
+
+    @Test
+    public void testPreparedQueryCreatesStatefulObjectBuilderPerQuery() {
+        NameObjectBuilder objectBuilder = new NameObjectBuilder(new ArrayList<EntityManager>());
+        PreparedCriteriaQuery<String> preparedQuery = cbf.create(em, Tuple.class)
+                .from(Document.class, "d")
+                .selectNew(objectBuilder)
+                .orderByAsc("d.id")
+                .prepare();
+
+        assertEquals(Arrays.asList("doc1", "doc2", "doc3"), preparedQuery.createQuery(em).getResultList());
+        assertEquals(Arrays.asList("doc1", "doc2", "doc3"), preparedQuery.createQuery(em).getResultList());
+        assertEquals(Arrays.asList(em, em), objectBuilder.entityManagers);
+        assertEquals(0, objectBuilder.builtObjects);
+    }
+
+    @Test
+    public void testModificationAfterPrepareFails() {
+        CriteriaBuilder<String> criteria = cbf.create(em, String.class)
+                .from(Document.class, "d")
+                .select("d.name")
+                .where("d.name").eqExpression(":name");
+        criteria.prepare();
+
+        try {
+            criteria.where("d.id").gt(1L);
+            fail("Expected an exception");
+        } catch (IllegalStateException expected) {
+            // Expected
+        }
+        try {
+            criteria.setParameter("name", "doc1");
+            fail("Expected an exception");
+        } catch (IllegalStateException expected) {
+            // Expected
+        }
+    }
+
+    @Test
+    public void testPreparedPaginatedQuery() {
+        PreparedPaginatedCriteriaQuery<String> preparedQuery = cbf.create(em, String.class)
+                .from(Document.class, "d")
+                .select("d.name")
+                .orderByAsc("d.id")
+                .page(0, 1)
+                .prepare();
+
+        PagedList<String> page1 = preparedQuery.createQuery(em, 0, 2).getResultList();
+        assertEquals(Arrays.asList("doc1", "doc2"), page1);
+        assertEquals(3, page1.getTotalSize());
+        PagedList<String> page2 = preparedQuery.createQuery(em, 2, 2).getResultList();
+        assertEquals(Arrays.asList("doc3"), page2);
+        assertEquals(2, page2.getFirstResult());
+        assertEquals(3, page2.getTotalSize());
+    }
+
+    // Eclipselink and Datanucleus do not support the inline id query
+    @Test
+    @Category({ NoEclipselink.class, NoDatanucleus.class })
+    public void testPreparedPaginatedQueryWithInlineIdQuery() {
+        PreparedPaginatedCriteriaQuery<String> preparedQuery = cbf.create(em, String.class)
+                .from(Document.class, "d")
+                .leftJoin("d.partners", "p")
+                .select("d.name")
+                .orderByAsc("d.id")
+                .page(0, 1)
+                .withInlineIdQuery(true)
+                .prepare();
+
+        PagedList<String> page1 = preparedQuery.createQuery(em, 0, 2).getResultList();
+        assertEquals(Arrays.asList("doc1", "doc2"), page1);
+        // The first result is rendered into the inline id query, so the query for the first page must not be reused
+        PagedList<String> page2 = preparedQuery.createQuery(em, 2, 2).getResultList();
+        assertEquals(Arrays.asList("doc3"), page2);
+        assertEquals(3, page2.getTotalSize());
+        assertEquals(Arrays.asList("doc1", "doc2"), preparedQuery.createQuery(em, 0, 2).getResultList());
+    }
+
+    @Test
+    public void testPreparedKeysetPaginatedQuery() {
+        PreparedPaginatedCriteriaQuery<String> preparedQuery = cbf.create(em, String.class)
+                .from(Document.class, "d")
+                .select("d.name")
+                .orderByAsc("d.name")
+                .orderByAsc("d.id")
+                .page(0, 1)
+                .prepare();
+
+        PagedList<String> page1 = preparedQuery.createQuery(em, null, 0, 1).getResultList();
+        assertEquals(Arrays.asList("doc1"), page1);
+        PagedList<String> page2 = preparedQuery.createQuery(em, page1.getKeysetPage(), 1, 1).getResultList();
+        assertEquals(Arrays.asList("doc2"), page2);
+        // The query for the next page is reused with the keyset values of the second page
+        PagedList<String> page3 = preparedQuery.createQuery(em, page2.getKeysetPage(), 2, 1).getResultList();
+        assertEquals(Arrays.asList("doc3"), page3);
+        PagedList<String> previousPage = preparedQuery.createQuery(em, page3.getKeysetPage(), 1, 1).getResultList();
+        assertEquals(Arrays.asList("doc2"), previousPage);
+    }
+
+    @Test
+    public void testPreparingPaginatedQueryWithBoundedCountFails() {
+        PaginatedCriteriaBuilder<String> criteria = cbf.create(em, String.class)
+                .from(Document.class, "d")
+                .select("d.name")
+                .orderByAsc("d.id")
+                .page(0, 1)
+                .withBoundedCount(10);
+
+        try {
+            criteria.prepare();
+            fail("Expected an exception");
+        } catch (IllegalStateException expected) {
+            // Expected
+        }
+    }
+
+    private static class NameObjectBuilder implements StatefulObjectBuilder<String> {
+
+        private final List<EntityManager> entityManagers;
+        private int builtObjects;
+
+        public NameObjectBuilder(List<EntityManager> entityManagers) {
+            this.entityManagers = entityManagers;
+        }
+
+        @Override
+        public StatefulObjectBuilder<String> newInstance(EntityManager entityManager) {
+            entityManagers.add(entityManager);
+            return new NameObjectBuilder(entityManagers);
+        }
+
+        @Override
+        public <X extends SelectBuilder<X>> void applySelects(X selectBuilder) {
+            selectBuilder.select("d.name");
+        }
+
+        @Override
+        public String build(Object[] tuple) {
+            builtObjects++;
+            return (String) tuple[0];
+        }
+
+        @Override
+        public List<String> buildList(List<String> list) {
+            return list;
+        }
+    }
+}
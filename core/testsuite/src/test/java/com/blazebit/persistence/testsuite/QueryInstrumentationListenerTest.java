@@ -0,0 +1,137 @@
+/*
+ * Copyright 2014 - 2024 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.testsuite;
+
+import com.blazebit.persistence.CriteriaBuilder;
+import com.blazebit.persistence.spi.CriteriaBuilderConfiguration;
+import com.blazebit.persistence.spi.HistogramQueryInstrumentationListener;
+import com.blazebit.persistence.spi.QueryInstrumentationListener;
+import com.blazebit.persistence.spi.QueryPhase;
+import com.blazebit.persistence.testsuite.entity.Document;
+import com.blazebit.persistence.testsuite.entity.Person;
+import com.blazebit.persistence.testsuite.tx.TxVoidWork;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Tuple;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ *
+ * @author Christian Beikov
+ * @since 1.6.13
+ */
+public class QueryInstrumentationListenerTest extends AbstractCoreTest {
+
+    private static final HistogramQueryInstrumentationListener LISTENER = new HistogramQueryInstrumentationListener();
+
+    @Override
+    protected void configure(CriteriaBuilderConfiguration config) {
+        super.configure(config);
+        config.registerQueryInstrumentationListener(LISTENER);
+    }
+
+    @Override
+    public void setUpOnce() {
+        cleanDatabase();
+        transactional(new TxVoidWork() {
+            @Override
+            public void work(EntityManager em) {
+                Person o1 = new Person("Karl1");
+                Document doc1 = new Document("doc1", o1);
+                Document doc2 = new Document("doc2", o1);
+
+                em.persist(o1);
+                em.persist(doc1);
+                em.persist(doc2);
+            }
+        });
+    }
+
+    @Before
+    public void resetListener() {
+        LISTENER.reset();
+    }
+
+    @Test
+    public void testServiceIsRegisteredListener() {
+        assertSame(LISTENER, cbf.getService(QueryInstrumentationListener.class));
+    }
+
+    @Test
+    public void testPhasesAreReported() {
+        CriteriaBuilder<Tuple> criteria = cbf.create(em, Tuple.class)
+                .from(Document.class, "instrumentedDocument")
+                .select("instrumentedDocument.owner.name")
+                .select("COUNT(instrumentedDocument.id)");
+
+        List<Tuple> result = criteria.getResultList();
+        assertEquals(1, result.size());
+        assertEquals(2L, ((Number) result.get(0).get(1)).longValue());
+
+        assertTrue(LISTENER.getHistogram(QueryPhase.EXPRESSION_PARSING).getCount() > 0);
+        assertTrue(LISTENER.getQueryHistograms(QueryPhase.EXPRESSION_PARSING).containsKey("instrumentedDocument.owner.name"));
+        assertEquals(1, LISTENER.getHistogram(QueryPhase.JOIN_RESOLUTION).getCount());
+        assertEquals(1, LISTENER.getHistogram(QueryPhase.IMPLICIT_GROUP_BY).getCount());
+        assertEquals(1, LISTENER.getHistogram(QueryPhase.QUERY_GENERATION).getCount());
+        assertEquals(1, LISTENER.getHistogram(QueryPhase.EXECUTION).getCount());
+        assertEquals(1, LISTENER.getHistogram(QueryPhase.TUPLE_TRANSFORMATION).getCount());
+        assertTrue(LISTENER.getQueryHistograms(QueryPhase.EXECUTION).containsKey(criteria.getQueryString()));
+    }
+
+    @Test
+    public void testSubqueryPhasesAreNotReportedSeparately() {
+        cbf.create(em, String.class)
+                .from(Document.class, "d")
+                .select("d.name")
+                .where("d.owner.id").in()
+                    .from(Person.class, "p")
+                    .select("p.id")
+                    .where("p.name").eq("Karl1")
+                .end()
+                .getResultList();
+
+        assertEquals(1, LISTENER.getHistogram(QueryPhase.JOIN_RESOLUTION).getCount());
+        assertEquals(1, LISTENER.getHistogram(QueryPhase.QUERY_GENERATION).getCount());
+        assertEquals(1, LISTENER.getHistogram(QueryPhase.EXECUTION).getCount());
+        assertEquals(0, LISTENER.getHistogram(QueryPhase.TUPLE_TRANSFORMATION).getCount());
+    }
+
+    @Test
+    public void testHistogramPercentiles() {
+        HistogramQueryInstrumentationListener listener = new HistogramQueryInstrumentationListener(1);
+        for (int i = 1; i <= 100; i++) {
+            listener.onPhaseCompleted(QueryPhase.EXECUTION, i % 2 == 0 ? "query1" : "query2", i * 1000L);
+        }
+
+        HistogramQueryInstrumentationListener.Histogram histogram = listener.getHistogram(QueryPhase.EXECUTION);
+        assertEquals(100, histogram.getCount());
+        assertEquals(100_000L, histogram.getMaxNanos());
+        assertEquals(50_500d, histogram.getMeanNanos(), 0.1d);
+        long median = histogram.getPercentileNanos(0.5d);
+        assertTrue(median >= 50_000L && median < 100_000L);
+        assertEquals(100_000L, histogram.getPercentileNanos(1d));
+        // Only the first query is tracked because of the maximum
+        assertEquals(1, listener.getQueryHistograms(QueryPhase.EXECUTION).size());
+        assertEquals(50, listener.getQueryHistograms(QueryPhase.EXECUTION).get("query2").getCount());
+    }
+}
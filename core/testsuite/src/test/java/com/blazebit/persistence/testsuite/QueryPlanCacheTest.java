@@ -0,0 +1,125 @@
+/*
+ * Copyright 2014 - 2024 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.testsuite;
+
+import com.blazebit.persistence.ConfigurationProperties;
+import com.blazebit.persistence.CriteriaBuilder;
+import com.blazebit.persistence.QueryStatistics;
+import com.blazebit.persistence.QueryStatisticsRegistry;
+import com.blazebit.persistence.spi.CriteriaBuilderConfiguration;
+import com.blazebit.persistence.spi.QueryPlanCache;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoDatanucleus;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoEclipselink;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoHibernate60;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoMySQLOld;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoOpenJPA;
+import com.blazebit.persistence.testsuite.entity.RecursiveEntity;
+import com.blazebit.persistence.testsuite.entity.TestCTE;
+import com.blazebit.persistence.testsuite.tx.TxVoidWork;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import javax.persistence.EntityManager;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ *
+ * @author Christian Beikov
+ * @since 1.6.13
+ */
+public class QueryPlanCacheTest extends AbstractCoreTest {
+
+    @Override
+    protected Class<?>[] getEntityClasses() {
+        return new Class<?>[] {
+            RecursiveEntity.class,
+            TestCTE.class
+        };
+    }
+
+    @Override
+    protected void configure(CriteriaBuilderConfiguration config) {
+        super.configure(config);
+        config.setProperty(ConfigurationProperties.QUERY_PLAN_CACHE_MAXIMUM_SIZE, "100");
+        config.setProperty(ConfigurationProperties.QUERY_STATISTICS_ENABLED, "true");
+    }
+
+    @Override
+    public void setUpOnce() {
+        cleanDatabase();
+        transactional(new TxVoidWork() {
+            @Override
+            public void work(EntityManager em) {
+                RecursiveEntity root1 = new RecursiveEntity("root1");
+                RecursiveEntity child1_1 = new RecursiveEntity("child1_1", root1);
+
+                em.persist(root1);
+                em.persist(child1_1);
+            }
+        });
+    }
+
+    private CriteriaBuilder<TestCTE> createCteQuery() {
+        return cbf.create(em, TestCTE.class, "t")
+                .with(TestCTE.class, false)
+                    .from(RecursiveEntity.class, "e")
+                    .bind("id").select("e.id")
+                    .bind("name").select("e.name")
+                    .bind("level").select("0")
+                    .where("e.parent").isNull()
+                .end()
+                .where("t.name").eq("root1");
+    }
+
+    @Test
+    @Category({ NoHibernate60.class, NoDatanucleus.class, NoEclipselink.class, NoOpenJPA.class, NoMySQLOld.class })
+    public void testPreparedQueryPlanIsReused() {
+        QueryPlanCache<?, ?> queryPlanCache = cbf.getService(QueryPlanCache.class);
+        queryPlanCache.clear();
+        QueryStatisticsRegistry queryStatisticsRegistry = cbf.getService(QueryStatisticsRegistry.class);
+        queryStatisticsRegistry.reset();
+
+        cbf.prepareQueryPlans(Collections.singletonList(createCteQuery()));
+        QueryPlanCache.Statistics statistics = queryPlanCache.getStatistics();
+        assertEquals(1, statistics.getSize());
+        assertEquals(0, statistics.getHitCount());
+        assertEquals(100, statistics.getMaximumSize());
+
+        // Preparing again doesn't create a new plan
+        cbf.prepareQueryPlans(Collections.singletonList(createCteQuery()));
+        assertEquals(1, queryPlanCache.getStatistics().getSize());
+        assertEquals(1, queryPlanCache.getStatistics().getHitCount());
+
+        List<TestCTE> result = createCteQuery().getResultList();
+        assertEquals(1, result.size());
+        assertEquals("root1", result.get(0).getName());
+        statistics = queryPlanCache.getStatistics();
+        assertEquals(1, statistics.getSize());
+        assertEquals(2, statistics.getHitCount());
+        assertEquals(1, statistics.getMissCount());
+
+        // The query plan cache lookups are recorded for the same JPQL query string as the executions
+        QueryStatistics queryStatistics = queryStatisticsRegistry.getQueryStatistics(createCteQuery().getQueryString());
+        assertEquals(1, queryStatisticsRegistry.getQueryStatistics().size());
+        assertEquals(1, queryStatistics.getExecutionCount());
+        assertEquals(2, queryStatistics.getQueryPlanCacheHitCount());
+        assertEquals(1, queryStatistics.getQueryPlanCacheMissCount());
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright 2014 - 2024 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.testsuite;
+
+import com.blazebit.persistence.ConfigurationProperties;
+import com.blazebit.persistence.CriteriaBuilder;
+import com.blazebit.persistence.PagedList;
+import com.blazebit.persistence.QueryStatistics;
+import com.blazebit.persistence.QueryStatisticsRegistry;
+import com.blazebit.persistence.spi.CriteriaBuilderConfiguration;
+import com.blazebit.persistence.testsuite.entity.Document;
+import com.blazebit.persistence.testsuite.entity.Person;
+import com.blazebit.persistence.testsuite.tx.TxVoidWork;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.persistence.EntityManager;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ *
+ * @author Christian Beikov
+ * @since 1.6.13
+ */
+public class QueryStatisticsTest extends AbstractCoreTest {
+
+    private QueryStatisticsRegistry queryStatisticsRegistry;
+
+    @Override
+    protected void configure(CriteriaBuilderConfiguration config) {
+        super.configure(config);
+        config.setProperty(ConfigurationProperties.QUERY_STATISTICS_ENABLED, "true");
+    }
+
+    @Override
+    public void setUpOnce() {
+        cleanDatabase();
+        transactional(new TxVoidWork() {
+            @Override
+            public void work(EntityManager em) {
+                Person o1 = new Person("Karl1");
+                Person o2 = new Person("Karl2");
+                em.persist(o1);
+                em.persist(o2);
+                em.persist(new Document("doc1", o1));
+                em.persist(new Document("doc2", o1));
+                em.persist(new Document("doc3", o2));
+            }
+        });
+    }
+
+    @Before
+    public void resetStatistics() {
+        queryStatisticsRegistry = cbf.getService(QueryStatisticsRegistry.class);
+        queryStatisticsRegistry.reset();
+    }
+
+    @Test
+    public void testExecutionsAreAggregatedPerQueryString() {
+        CriteriaBuilder<String> criteria = cbf.create(em, String.class)
+                .from(Document.class, "d")
+                .select("d.name")
+                .orderByAsc("d.id");
+
+        criteria.getResultList();
+        criteria.getResultList();
+
+        QueryStatistics statistics = queryStatisticsRegistry.getQueryStatistics(criteria.getQueryString());
+        assertNotNull(statistics);
+        assertEquals(2, statistics.getExecutionCount());
+        assertEquals(6, statistics.getRowCount());
+        assertTrue(statistics.getTotalNanos() > 0L);
+        assertTrue(statistics.getMaxNanos() <= statistics.getTotalNanos());
+        assertTrue(statistics.getPercentileNanos(0.99) >= statistics.getPercentileNanos(0.5));
+        long bucketCountSum = 0L;
+        for (long bucketCount : statistics.getBucketCounts()) {
+            bucketCountSum += bucketCount;
+        }
+        assertEquals(2, bucketCountSum);
+    }
+
+    @Test
+    public void testSingleResultCountsOneRow() {
+        CriteriaBuilder<String> criteria = cbf.create(em, String.class)
+                .from(Document.class, "d")
+                .select("d.name")
+                .where("d.name").eq("doc1");
+
+        criteria.getSingleResult();
+
+        QueryStatistics statistics = queryStatisticsRegistry.getQueryStatistics(criteria.getQueryString());
+        assertEquals(1, statistics.getExecutionCount());
+        assertEquals(1, statistics.getRowCount());
+    }
+
+    @Test
+    public void testPaginatedQueryRecordsSubQueryDurations() {
+        PagedList<String> page = cbf.create(em, String.class)
+                .from(Document.class, "d")
+                .select("d.name")
+                .orderByAsc("d.id")
+                .page(0, 2)
+                .withInlineCountQuery(false)
+                .getResultList();
+        assertEquals(3, page.getTotalSize());
+
+        Map<String, QueryStatistics> queryStatistics = queryStatisticsRegistry.getQueryStatistics();
+        assertEquals(1, queryStatistics.size());
+        QueryStatistics statistics = queryStatistics.values().iterator().next();
+        assertEquals(1, statistics.getExecutionCount());
+        assertEquals(2, statistics.getRowCount());
+        assertTrue(statistics.getCountQueryNanos() > 0L);
+        assertTrue(statistics.getObjectQueryNanos() > 0L);
+    }
+
+    @Test
+    public void testReset() {
+        CriteriaBuilder<String> criteria = cbf.create(em, String.class)
+                .from(Document.class, "d")
+                .select("d.name");
+
+        criteria.getResultList();
+        assertNotNull(queryStatisticsRegistry.getQueryStatistics(criteria.getQueryString()));
+
+        queryStatisticsRegistry.reset();
+        assertNull(queryStatisticsRegistry.getQueryStatistics(criteria.getQueryString()));
+        assertTrue(queryStatisticsRegistry.getQueryStatistics().isEmpty());
+    }
+}
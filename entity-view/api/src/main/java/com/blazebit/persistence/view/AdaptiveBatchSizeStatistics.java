@@ -0,0 +1,67 @@
+/*
+ * Copyright 2014 - 2024 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.view;
+
+import java.util.Map;
+
+/**
+ * Exposes the batch sizes that were chosen for batch correlated attributes when the adaptive batch sizing is enabled
+ * via {@link ConfigurationProperties#ADAPTIVE_BATCH_SIZE}. The statistics can be retrieved via {@link EntityViewManager#getService(Class)}.
+ *
+ * @author Christian Beikov
+ * @since 1.6.13
+ */
+public interface AdaptiveBatchSizeStatistics {
+
+    /**
+     * Returns the batch size that is currently chosen for the correlated attribute of the given entity view class
+     * or <code>-1</code> if there are no statistics for the attribute yet.
+     *
+     * @param entityViewClass The entity view class that is the root of the query
+     * @param attributePath The path of the correlated attribute relative to the entity view class
+     * @return The chosen batch size
+     */
+    public int getBatchSize(Class<?> entityViewClass, String attributePath);
+
+    /**
+     * Returns the observed average number of correlated rows per correlation key for the correlated attribute of the
+     * given entity view class or <code>-1</code> if there are no statistics for the attribute yet.
+     *
+     * @param entityViewClass The entity view class that is the root of the query
+     * @param attributePath The path of the correlated attribute relative to the entity view class
+     * @return The average number of correlated rows per key
+     */
+    public double getAverageRowsPerKey(Class<?> entityViewClass, String attributePath);
+
+    /**
+     * Returns the estimated query time in nanoseconds per correlation key, excluding the fixed cost per query, for the correlated attribute of the
+     * given entity view class or <code>-1</code> if there are no statistics for the attribute yet.
+     *
+     * @param entityViewClass The entity view class that is the root of the query
+     * @param attributePath The path of the correlated attribute relative to the entity view class
+     * @return The average query time per key in nanoseconds
+     */
+    public double getAverageNanosPerKey(Class<?> entityViewClass, String attributePath);
+
+    /**
+     * Returns the currently chosen batch sizes of all correlated attributes for which statistics exist.
+     * The keys have the form <code>entityViewClassName#attributePath</code>.
+     *
+     * @return The chosen batch sizes
+     */
+    public Map<String, Integer> getBatchSizes();
+}
@@ -42,6 +42,36 @@ public final class ConfigurationProperties {
      * @since 1.2.0
      */
     public static final String TEMPLATE_EAGER_LOADING = "com.blazebit.persistence.view.eager_loading";
+    /**
+     * The path to a file into which the keys of the view templates that are built at runtime are recorded.
+     * If the file exists when the entity view manager is created, the recorded view templates are built in the background,
+     * so that the first queries after a restart don't have to wait for the view templates to be built.
+     * The recorded keys are written to the file when the entity view manager is closed or via {@link TemplateWarmUp#writeRecording()}.
+     * By default, no recording and warm-up is done.
+     *
+     * @since 1.6.13
+     */
+    public static final String TEMPLATE_WARM_UP_FILE = "com.blazebit.persistence.view.template_warm_up.file";
+    /**
+     * The {@link java.util.concurrent.Executor} on which the view templates recorded in {@link #TEMPLATE_WARM_UP_FILE} are built.
+     * The value may be an executor instance that is put into the properties or the fully qualified class name of an executor with a no-arg constructor.
+     * By default, a dedicated daemon thread is used.
+     *
+     * @since 1.6.13
+     */
+    public static final String TEMPLATE_WARM_UP_EXECUTOR = "com.blazebit.persistence.view.template_warm_up.executor";
+    /**
+     * The path to a metamodel snapshot file, or a class path resource prefixed with <code>classpath:</code>,
+     * which allows to skip the expression and managed type validation during boot.
+     * When the snapshot is missing or its fingerprint doesn't match the entity view classes, the JPA metamodel and the configuration,
+     * the entity view metamodel is validated as usual. The entity view manager only reads the snapshot,
+     * it is generated during the build via {@link MetamodelSnapshot#write(java.io.File)} and shipped with the application.
+     * By default, no snapshot is used.
+     *
+     * @since 1.6.13
+     * @see MetamodelSnapshot
+     */
+    public static final String METAMODEL_SNAPSHOT_FILE = "com.blazebit.persistence.view.metamodel_snapshot.file";
     /**
      * A boolean flag to make it possible to disable unsafe proxy generation.
      * By default the unsafe proxies are allowed to be able to make use of the features.
@@ -111,6 +141,17 @@ public final class ConfigurationProperties {
      * @since 1.2.0
      */
     public static final String UPDATER_EAGER_LOADING = "com.blazebit.persistence.view.updater.eager_loading";
+    /**
+     * The {@link java.util.concurrent.Executor} on which the eager loading configured via {@link #TEMPLATE_EAGER_LOADING}, {@link #PROXY_EAGER_LOADING}
+     * and {@link #UPDATER_EAGER_LOADING} is run in parallel. Entity view types are initialized after the subviews they use,
+     * and the creation of the entity view manager waits until the eager loading is done.
+     * The value may be an executor instance that is put into the properties, e.g. a {@link java.util.concurrent.ForkJoinPool},
+     * or the fully qualified class name of an executor with a no-arg constructor.
+     * By default, the eager loading is done sequentially on the thread that creates the entity view manager.
+     *
+     * @since 1.6.13
+     */
+    public static final String EAGER_LOADING_EXECUTOR = "com.blazebit.persistence.view.eager_loading.executor";
     /**
      * An override for the flush mode of updatable entity views.
      * By default, the property is not set. This has the effect, that the flush modes configured for the respective updatable entity views are used.
@@ -257,6 +298,92 @@ public final class ConfigurationProperties {
      */
     public static final String CREATE_EMPTY_FLAT_VIEWS = "com.blazebit.persistence.view.create_empty_flat_views";
 
+    /**
+     * The minimum number of result tuples from which on the tuple transformation for entity views is split across a {@link java.util.concurrent.ForkJoinPool}.
+     * Transformations that depend on each other, like the ones for correlated collections fetched via batched <code>SELECT</code>, are still executed sequentially
+     * and the order of the results is retained. By default, the parallel transformation is disabled.
+     * Valid values for this property are positive integers.
+     * The value can be set via {@linkplain com.blazebit.persistence.view.EntityViewSetting#setProperty}.
+     *
+     * @since 1.6.13
+     */
+    public static final String PARALLEL_TRANSFORMATION_THRESHOLD = "com.blazebit.persistence.view.parallel_transformation_threshold";
+
+    /**
+     * The {@link java.util.concurrent.ForkJoinPool} on which the parallel tuple transformation enabled via {@link #PARALLEL_TRANSFORMATION_THRESHOLD} is executed.
+     * The lifecycle of the pool is managed by the application.
+     * By default, the common pool is used, or on Java 7 a shared pool.
+     * The value can be set via {@linkplain com.blazebit.persistence.view.EntityViewSetting#setProperty}.
+     *
+     * @since 1.6.13
+     */
+    public static final String PARALLEL_TRANSFORMATION_POOL = "com.blazebit.persistence.view.parallel_transformation_pool";
+
+    /**
+     * The minimum number of result tuples that are transformed together when streaming entity view results via {@link com.blazebit.persistence.Queryable#getResultStream()}.
+     * Entity views with join fetched collections or batched correlations are built for windows of tuples. A window only ends after all tuples of a root view,
+     * so the query must be ordered such that the tuples of a root are consecutive e.g. by ordering by the root id.
+     * By default, windowing is disabled and the whole result is transformed at once before the first element is returned.
+     * Valid values for this property are positive integers.
+     * The value can be set via {@linkplain com.blazebit.persistence.view.EntityViewSetting#setProperty}.
+     *
+     * @since 1.6.13
+     */
+    public static final String STREAMING_WINDOW_SIZE = "com.blazebit.persistence.view.streaming_window_size";
+
+    /**
+     * A {@link java.util.concurrent.Executor} on which the <code>SELECT</code> fetched correlations of an entity view are loaded concurrently.
+     * Every concurrent correlation load uses a separate {@link javax.persistence.EntityManager} created from the {@link javax.persistence.EntityManagerFactory}
+     * of the main query, so uncommitted changes of the current transaction are not visible to these loads.
+     * Correlations that load entities always use the entity manager of the main query, so that the entities are managed.
+     * Correlations of nested correlated views are still loaded sequentially.
+     * By default, no executor is configured and correlations are loaded sequentially.
+     * The value can be set via {@linkplain com.blazebit.persistence.view.EntityViewSetting#setProperty}.
+     *
+     * @since 1.6.13
+     */
+    public static final String CORRELATION_EXECUTOR = "com.blazebit.persistence.view.correlation_executor";
+
+    /**
+     * A boolean flag to enable the adaptive batch sizing for batch correlated attributes.
+     * When enabled, the average number of correlated rows per correlation key and the query time per key are recorded per attribute
+     * and the batch size for subsequent queries is chosen within {@link #ADAPTIVE_BATCH_SIZE_MIN} and {@link #ADAPTIVE_BATCH_SIZE_MAX}.
+     * Correlations that return many rows per key or that are slow use smaller batches, whereas sparse correlations use bigger batches.
+     * The configured batch size of an attribute is used until statistics are available.
+     * The chosen batch sizes can be inspected through the {@link AdaptiveBatchSizeStatistics} service.
+     * By default, the adaptive batch sizing is disabled.
+     * The value can be set via {@linkplain com.blazebit.persistence.view.EntityViewSetting#setProperty}.
+     *
+     * @since 1.6.13
+     */
+    public static final String ADAPTIVE_BATCH_SIZE = "com.blazebit.persistence.view.adaptive_batch_size";
+
+    /**
+     * An integer value that defines the minimum batch size chosen by the adaptive batch sizing. By default the value is 1.
+     * The value can be set via {@linkplain com.blazebit.persistence.view.EntityViewSetting#setProperty}.
+     *
+     * @since 1.6.13
+     */
+    public static final String ADAPTIVE_BATCH_SIZE_MIN = "com.blazebit.persistence.view.adaptive_batch_size_min";
+
+    /**
+     * An integer value that defines the maximum batch size chosen by the adaptive batch sizing. By default the value is 128.
+     * The adaptive batch sizing aims for queries that return at most this amount of rows.
+     * The value can be set via {@linkplain com.blazebit.persistence.view.EntityViewSetting#setProperty}.
+     *
+     * @since 1.6.13
+     */
+    public static final String ADAPTIVE_BATCH_SIZE_MAX = "com.blazebit.persistence.view.adaptive_batch_size_max";
+
+    /**
+     * An integer value that defines the target query time in milliseconds of a batch correlation query for the adaptive batch sizing.
+     * By default the value is 100.
+     * The value can be set via {@linkplain com.blazebit.persistence.view.EntityViewSetting#setProperty}.
+     *
+     * @since 1.6.13
+     */
+    public static final String ADAPTIVE_BATCH_SIZE_TARGET_LATENCY = "com.blazebit.persistence.view.adaptive_batch_size_target_latency";
+
     private ConfigurationProperties() {
     }
 }
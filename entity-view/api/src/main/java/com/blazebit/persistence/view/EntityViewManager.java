@@ -353,6 +353,19 @@ public interface EntityViewManager extends ServiceProvider {
      */
     public void saveFull(EntityManager entityManager, Object view);
 
+    /**
+     * Saves the entities which the given entity views map to.
+     * Issues partial updates if enabled for the respective view types.
+     * The entities of views that share the same view type and dirty state are loaded in bulk and the views are flushed to the loaded entities,
+     * which allows the JPA provider to batch the resulting update statements. Optimistic locking is still applied for every view.
+     * Collection changes are flushed with the same strategy as by {@link #save(EntityManager, Object)}.
+     *
+     * @param entityManager The entity manager to use for the save
+     * @param views The views to use for saving
+     * @since 1.6.13
+     */
+    public void saveAll(EntityManager entityManager, Iterable<?> views);
+
     /**
      * Saves the entity view state onto the given entity.
      * Issues a partial update if enabled for the given view.
@@ -0,0 +1,57 @@
+/*
+ * Copyright 2014 - 2024 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.view;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * A snapshot of a successfully validated entity view metamodel that allows to skip the expression and managed type validation on subsequent boots.
+ * The snapshot is identified by a fingerprint of the entity view classes, the JPA metamodel and the configuration,
+ * so that any change to them invalidates the snapshot.
+ * The snapshot is produced during the build and is only read during boot. It is enabled via {@link ConfigurationProperties#METAMODEL_SNAPSHOT_FILE}
+ * and can be retrieved via {@link EntityViewManager#getService(Class)}.
+ *
+ * @author Christian Beikov
+ * @since 1.6.13
+ */
+public interface MetamodelSnapshot {
+
+    /**
+     * Returns the fingerprint of the entity view classes, the JPA metamodel and the configuration
+     * or <code>null</code> if some of the classes could not be read, in which case the snapshot is never used.
+     *
+     * @return The fingerprint of the entity view metamodel
+     */
+    public String getFingerprint();
+
+    /**
+     * Returns whether the snapshot file matched the fingerprint so that the validation of the entity view metamodel was skipped.
+     *
+     * @return Whether the validation was skipped
+     */
+    public boolean isValidationSkipped();
+
+    /**
+     * Writes the fingerprint of the validated entity view metamodel to the given file.
+     * This is meant to be invoked as part of the build after booting the entity view manager, the entity view manager never writes the snapshot by itself.
+     *
+     * @param file The file to write the snapshot to
+     * @throws IOException If writing the file fails
+     */
+    public void write(File file) throws IOException;
+}
@@ -200,6 +200,11 @@ public class SerializableEntityViewManager implements EntityViewManager, Seriali
         getEvm().saveFull(entityManager, view);
     }
 
+    @Override
+    public void saveAll(EntityManager entityManager, Iterable<?> views) {
+        getEvm().saveAll(entityManager, views);
+    }
+
     @Override
     public void saveTo(EntityManager entityManager, Object view, Object entity) {
         getEvm().saveTo(entityManager, view, entity);
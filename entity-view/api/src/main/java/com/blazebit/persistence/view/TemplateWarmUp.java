@@ -0,0 +1,91 @@
+/*
+ * Copyright 2014 - 2024 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.view;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records the view templates that are built at runtime and warms them up in the background after a restart.
+ * The warm-up is enabled via {@link ConfigurationProperties#TEMPLATE_WARM_UP_FILE} and can be retrieved
+ * via {@link EntityViewManager#getService(Class)}.
+ *
+ * @author Christian Beikov
+ * @since 1.6.13
+ */
+public interface TemplateWarmUp {
+
+    /**
+     * Returns whether the warm-up of the recorded view templates is done.
+     *
+     * @return Whether the warm-up is done
+     */
+    public boolean isReady();
+
+    /**
+     * Waits until the warm-up of the recorded view templates is done or the timeout elapses.
+     *
+     * @param timeout The maximum time to wait
+     * @param unit The time unit of the timeout
+     * @return Whether the warm-up is done
+     * @throws InterruptedException If the current thread was interrupted while waiting
+     */
+    public boolean awaitReady(long timeout, TimeUnit unit) throws InterruptedException;
+
+    /**
+     * Returns the number of view templates that were read from the warm-up file.
+     *
+     * @return The number of view templates to warm up
+     */
+    public int getWarmUpCount();
+
+    /**
+     * Returns the number of view templates that were warmed up successfully so far.
+     *
+     * @return The number of warmed up view templates
+     */
+    public int getWarmedUpCount();
+
+    /**
+     * Returns the number of view templates that could not be warmed up e.g. because the view changed.
+     *
+     * @return The number of failed view templates
+     */
+    public int getFailedCount();
+
+    /**
+     * Returns the number of warmed up view templates that were used by queries so far.
+     * A recorded view template that is warmed up is only used if its key still matches the key of the view template of a query.
+     *
+     * @return The number of used warmed up view templates
+     */
+    public int getHitCount();
+
+    /**
+     * Returns the number of distinct view templates that were built or used by queries so far.
+     *
+     * @return The number of recorded view templates
+     */
+    public int getRecordedCount();
+
+    /**
+     * Writes the recorded view templates and the warmed up view templates that weren't used yet to the warm-up file.
+     *
+     * @throws IOException If writing the file fails
+     */
+    public void writeRecording() throws IOException;
+}
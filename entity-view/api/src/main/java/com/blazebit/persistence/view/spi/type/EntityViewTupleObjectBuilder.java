@@ -0,0 +1,105 @@
+/*
+ * Copyright 2014 - 2024 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.view.spi.type;
+
+import com.blazebit.persistence.ObjectBuilder;
+import com.blazebit.persistence.SelectBuilder;
+
+import java.util.List;
+
+/**
+ * Base class for the object builders that the annotation processor generates as nested class into static implementations.
+ * The generated subclass implements {@link #build(Object[])} by invoking the tuple constructor of the static implementation directly,
+ * so that every entity view type has its own monomorphic construction call site.
+ * Selects, the null handling and type conversion of the tuple and the finalization of the object are provided by the runtime through the {@link Delegate}.
+ *
+ * @param <T> The entity view implementation type
+ * @author Christian Beikov
+ * @since 1.6.13
+ */
+public abstract class EntityViewTupleObjectBuilder<T> implements ObjectBuilder<T> {
+
+    /**
+     * The simple name of the nested class in a static implementation class that extends this class.
+     */
+    public static final String CLASS_NAME = "TupleObjectBuilder";
+
+    private final Delegate<T> delegate;
+
+    /**
+     * Creates a new object builder for the given runtime delegate.
+     *
+     * @param delegate The runtime delegate
+     */
+    protected EntityViewTupleObjectBuilder(Delegate<T> delegate) {
+        this.delegate = delegate;
+    }
+
+    /**
+     * Prepares the tuple for the construction of an object.
+     *
+     * @param tuple The tuple
+     * @return false if the tuple represents <code>null</code>, true otherwise
+     */
+    protected final boolean prepareTuple(Object[] tuple) {
+        return delegate.prepareTuple(tuple);
+    }
+
+    /**
+     * Finalizes the freshly constructed object.
+     *
+     * @param instance The object
+     */
+    protected final void finalizeInstance(T instance) {
+        delegate.finalizeInstance(instance);
+    }
+
+    @Override
+    public <X extends SelectBuilder<X>> void applySelects(X selectBuilder) {
+        delegate.applySelects(selectBuilder);
+    }
+
+    @Override
+    public List<T> buildList(List<T> list) {
+        return delegate.buildList(list);
+    }
+
+    /**
+     * The runtime object builder to which a generated object builder delegates everything but the object construction.
+     *
+     * @param <T> The entity view implementation type
+     * @author Christian Beikov
+     * @since 1.6.13
+     */
+    public interface Delegate<T> extends ObjectBuilder<T> {
+
+        /**
+         * Applies type conversions to the tuple and determines whether the tuple represents <code>null</code>.
+         *
+         * @param tuple The tuple
+         * @return false if the tuple represents <code>null</code>, true otherwise
+         */
+        public boolean prepareTuple(Object[] tuple);
+
+        /**
+         * Finalizes the freshly constructed object.
+         *
+         * @param instance The object
+         */
+        public void finalizeInstance(T instance);
+    }
+}
@@ -0,0 +1,187 @@
+/*
+ * Copyright 2014 - 2024 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.view.impl;
+
+import com.blazebit.persistence.view.AdaptiveBatchSizeStatistics;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Records the average number of correlated rows per correlation key of batch correlated attributes and fits the query time
+ * as a fixed cost per query plus a cost per correlation key, using exponentially weighted moving averages.
+ * The batch size for subsequent queries is chosen such that a batch query returns about as many rows as the maximum batch size
+ * and takes about as long as the target latency. Since the fixed cost is not attributed to the keys, partial batches with only a few keys
+ * don't make the batch size shrink. Batch sizes below the maximum are rounded down to a power of two
+ * to limit the amount of distinct query shapes, so that statement caches still hit.
+ *
+ * @author Christian Beikov
+ * @since 1.6.13
+ */
+public class AdaptiveBatchSizeStatisticsImpl implements AdaptiveBatchSizeStatistics {
+
+    private static final double SMOOTHING_FACTOR = 0.2;
+    private static final double MINIMUM_KEYS_VARIANCE = 0.01;
+
+    private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+    public int getBatchSize(Class<?> entityViewClass, String attributePath, int defaultBatchSize, int minimumBatchSize, int maximumBatchSize) {
+        Entry entry = entries.get(getKey(entityViewClass, attributePath));
+        int batchSize = entry == null ? defaultBatchSize : entry.batchSize;
+        return Math.max(minimumBatchSize, Math.min(maximumBatchSize, batchSize));
+    }
+
+    public void record(Class<?> entityViewClass, String attributePath, int keys, int rows, long nanos, int minimumBatchSize, int maximumBatchSize, long targetNanos) {
+        if (keys < 1) {
+            return;
+        }
+        String key = getKey(entityViewClass, attributePath);
+        double rowsPerKey = (double) rows / keys;
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            entry = entries.putIfAbsent(key, new Entry(rowsPerKey, keys, nanos, minimumBatchSize, maximumBatchSize, targetNanos));
+            if (entry == null) {
+                return;
+            }
+        }
+        entry.record(rowsPerKey, keys, nanos, minimumBatchSize, maximumBatchSize, targetNanos);
+    }
+
+    @Override
+    public int getBatchSize(Class<?> entityViewClass, String attributePath) {
+        Entry entry = entries.get(getKey(entityViewClass, attributePath));
+        return entry == null ? -1 : entry.batchSize;
+    }
+
+    @Override
+    public double getAverageRowsPerKey(Class<?> entityViewClass, String attributePath) {
+        Entry entry = entries.get(getKey(entityViewClass, attributePath));
+        return entry == null ? -1 : entry.rowsPerKey;
+    }
+
+    @Override
+    public double getAverageNanosPerKey(Class<?> entityViewClass, String attributePath) {
+        Entry entry = entries.get(getKey(entityViewClass, attributePath));
+        return entry == null ? -1 : entry.nanosPerKey;
+    }
+
+    @Override
+    public Map<String, Integer> getBatchSizes() {
+        Map<String, Integer> batchSizes = new HashMap<>(entries.size());
+        for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+            batchSizes.put(entry.getKey(), entry.getValue().batchSize);
+        }
+        return batchSizes;
+    }
+
+    private static String getKey(Class<?> entityViewClass, String attributePath) {
+        return entityViewClass.getName() + "#" + attributePath;
+    }
+
+    static int computeBatchSize(double rowsPerKey, double nanosPerKey, int minimumBatchSize, int maximumBatchSize, long targetNanos) {
+        return computeBatchSize(rowsPerKey, 0, nanosPerKey, minimumBatchSize, maximumBatchSize, targetNanos);
+    }
+
+    static int computeBatchSize(double rowsPerKey, double fixedNanos, double nanosPerKey, int minimumBatchSize, int maximumBatchSize, long targetNanos) {
+        double batchSize = maximumBatchSize;
+        if (rowsPerKey > 1) {
+            batchSize = maximumBatchSize / rowsPerKey;
+        }
+        // When the fixed cost alone exceeds the target latency, smaller batches can't meet the target but only cause more queries
+        if (nanosPerKey > 0 && fixedNanos < targetNanos) {
+            batchSize = Math.min(batchSize, (targetNanos - fixedNanos) / nanosPerKey);
+        }
+        return quantize(batchSize, minimumBatchSize, maximumBatchSize);
+    }
+
+    /**
+     * Rounds the given batch size down to one of the few batch sizes that are used by the adaptive batch sizing,
+     * which are the maximum and minimum batch size and the powers of two in between.
+     *
+     * @param batchSize The batch size to round
+     * @param minimumBatchSize The minimum batch size
+     * @param maximumBatchSize The maximum batch size
+     * @return The rounded batch size
+     */
+    static int quantize(double batchSize, int minimumBatchSize, int maximumBatchSize) {
+        if (batchSize >= maximumBatchSize) {
+            return maximumBatchSize;
+        }
+        return Math.max(minimumBatchSize, Integer.highestOneBit(Math.max(1, (int) batchSize)));
+    }
+
+    /**
+     * @author Christian Beikov
+     * @since 1.6.13
+     */
+    private static final class Entry {
+        private volatile double rowsPerKey;
+        private volatile double nanosPerKey;
+        private volatile int batchSize;
+        // Moving averages of the keys, the query time and their products, used for a least squares fit of the query time
+        private double keys;
+        private double nanos;
+        private double keysSquared;
+        private double keysNanos;
+        private double fixedNanos;
+
+        Entry(double rowsPerKey, int keys, long nanos, int minimumBatchSize, int maximumBatchSize, long targetNanos) {
+            this.rowsPerKey = rowsPerKey;
+            this.keys = keys;
+            this.nanos = nanos;
+            this.keysSquared = (double) keys * keys;
+            this.keysNanos = (double) keys * nanos;
+            fit();
+            this.batchSize = computeBatchSize(rowsPerKey, fixedNanos, nanosPerKey, minimumBatchSize, maximumBatchSize, targetNanos);
+        }
+
+        synchronized void record(double rowsPerKey, int keys, long nanos, int minimumBatchSize, int maximumBatchSize, long targetNanos) {
+            this.rowsPerKey += SMOOTHING_FACTOR * (rowsPerKey - this.rowsPerKey);
+            this.keys += SMOOTHING_FACTOR * (keys - this.keys);
+            this.nanos += SMOOTHING_FACTOR * (nanos - this.nanos);
+            this.keysSquared += SMOOTHING_FACTOR * ((double) keys * keys - this.keysSquared);
+            this.keysNanos += SMOOTHING_FACTOR * ((double) keys * nanos - this.keysNanos);
+            fit();
+            this.batchSize = computeBatchSize(this.rowsPerKey, fixedNanos, nanosPerKey, minimumBatchSize, maximumBatchSize, targetNanos);
+        }
+
+        private void fit() {
+            double variance = keysSquared - keys * keys;
+            if (variance > MINIMUM_KEYS_VARIANCE) {
+                double slope = (keysNanos - keys * nanos) / variance;
+                double intercept = nanos - slope * keys;
+                if (slope >= 0 && intercept >= 0) {
+                    this.nanosPerKey = slope;
+                    this.fixedNanos = intercept;
+                } else if (slope < 0) {
+                    // The query time doesn't grow with the keys
+                    this.nanosPerKey = 0;
+                    this.fixedNanos = nanos;
+                } else {
+                    this.nanosPerKey = nanos / keys;
+                    this.fixedNanos = 0;
+                }
+            } else {
+                // Without different batch sizes the fixed cost can't be told apart, so the query time is attributed to the keys
+                this.nanosPerKey = nanos / keys;
+                this.fixedNanos = 0;
+            }
+        }
+    }
+}
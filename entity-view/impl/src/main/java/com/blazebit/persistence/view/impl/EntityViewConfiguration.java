@@ -30,6 +30,7 @@ import com.blazebit.persistence.view.metamodel.ViewType;
 import com.blazebit.persistence.view.spi.EmbeddingViewJpqlMacro;
 import com.blazebit.persistence.view.spi.ViewJpqlMacro;
 
+import javax.persistence.EntityManager;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
@@ -37,6 +38,9 @@ import java.util.Map;
 import java.util.NavigableSet;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
 
 /**
  * @author Christian Beikov
@@ -45,7 +49,10 @@ import java.util.TreeSet;
 public final class EntityViewConfiguration {
 
     private static final NavigableSet<String> EMPTY_SET = new TreeSet<>();
+    private static final int DEFAULT_ADAPTIVE_BATCH_SIZE_MAX = 128;
+    private static final int DEFAULT_ADAPTIVE_BATCH_SIZE_TARGET_LATENCY = 100;
     private final FullQueryBuilder<?, ?> criteriaBuilder;
+    private final EntityManager entityManager;
     private final ExpressionFactory expressionFactory;
     private final ViewJpqlMacro viewJpqlMacro;
     private final EmbeddingViewJpqlMacro embeddingViewJpqlMacro;
@@ -53,18 +60,36 @@ public final class EntityViewConfiguration {
     private final NavigableSet<String> fetches;
     private final Map<String, Integer> batchSizeConfiguration;
     private final Map<String, BatchCorrelationMode> expectBatchCorrelationValuesConfiguration;
+    private final int parallelTransformationThreshold;
+    private final ForkJoinPool parallelTransformationPool;
+    private final int streamingWindowSize;
+    private final Executor correlationExecutor;
+    private final AdaptiveBatchSizeStatisticsImpl adaptiveBatchSizeStatistics;
+    private final int adaptiveBatchSizeMin;
+    private final int adaptiveBatchSizeMax;
+    private final long adaptiveBatchSizeTargetLatencyNanos;
 
     public EntityViewConfiguration(FullQueryBuilder<?, ?> criteriaBuilder, ExpressionFactory expressionFactory, ViewJpqlMacro viewJpqlMacro, EmbeddingViewJpqlMacro embeddingViewJpqlMacro, Map<String, Object> optionalParameters, Map<String, Object> properties, Collection<String> fetches, String attributePath) {
-        this(criteriaBuilder, expressionFactory, viewJpqlMacro, embeddingViewJpqlMacro, optionalParameters, properties, getFetches(fetches, attributePath));
+        this(criteriaBuilder, expressionFactory, viewJpqlMacro, embeddingViewJpqlMacro, optionalParameters, properties, getFetches(fetches, attributePath), (AdaptiveBatchSizeStatisticsImpl) null);
     }
 
-    public EntityViewConfiguration(FullQueryBuilder<?, ?> criteriaBuilder, ExpressionFactory expressionFactory, ViewJpqlMacro viewJpqlMacro, EmbeddingViewJpqlMacro embeddingViewJpqlMacro, Map<String, Object> optionalParameters, Map<String, Object> properties, Collection<String> fetches, ManagedViewTypeImplementor<?> managedViewType) {
-        this(criteriaBuilder, expressionFactory, viewJpqlMacro, embeddingViewJpqlMacro, optionalParameters, properties, getFetches(fetches, managedViewType));
+    public EntityViewConfiguration(FullQueryBuilder<?, ?> criteriaBuilder, ExpressionFactory expressionFactory, ViewJpqlMacro viewJpqlMacro, EmbeddingViewJpqlMacro embeddingViewJpqlMacro, Map<String, Object> optionalParameters, Map<String, Object> properties, Collection<String> fetches, ManagedViewTypeImplementor<?> managedViewType,
+                                   AdaptiveBatchSizeStatisticsImpl adaptiveBatchSizeStatistics) {
+        this(criteriaBuilder, expressionFactory, viewJpqlMacro, embeddingViewJpqlMacro, optionalParameters, properties, getFetches(fetches, managedViewType), adaptiveBatchSizeStatistics);
     }
 
-    private EntityViewConfiguration(FullQueryBuilder<?, ?> criteriaBuilder, ExpressionFactory expressionFactory, ViewJpqlMacro viewJpqlMacro, EmbeddingViewJpqlMacro embeddingViewJpqlMacro, Map<String, Object> optionalParameters, Map<String, Object> properties, NavigableSet<String> fetches) {
+    private EntityViewConfiguration(FullQueryBuilder<?, ?> criteriaBuilder, ExpressionFactory expressionFactory, ViewJpqlMacro viewJpqlMacro, EmbeddingViewJpqlMacro embeddingViewJpqlMacro, Map<String, Object> optionalParameters, Map<String, Object> properties, NavigableSet<String> fetches,
+                                    AdaptiveBatchSizeStatisticsImpl adaptiveBatchSizeStatistics) {
         Map<String, Integer> batchSizeConfiguration = new HashMap<String, Integer>(properties.size());
         Map<String, BatchCorrelationMode> expectBatchCorrelationValuesConfiguration = new HashMap<>(properties.size());
+        int parallelTransformationThreshold = -1;
+        ForkJoinPool parallelTransformationPool = null;
+        int streamingWindowSize = -1;
+        Executor correlationExecutor = null;
+        boolean adaptiveBatchSize = false;
+        int adaptiveBatchSizeMin = 1;
+        int adaptiveBatchSizeMax = DEFAULT_ADAPTIVE_BATCH_SIZE_MAX;
+        int adaptiveBatchSizeTargetLatency = DEFAULT_ADAPTIVE_BATCH_SIZE_TARGET_LATENCY;
 
         for (Map.Entry<String, Object> entry : properties.entrySet()) {
             String key = entry.getKey();
@@ -98,10 +123,36 @@ public final class EntityViewConfiguration {
                     key = key.substring(ConfigurationProperties.EXPECT_BATCH_MODE.length() + 1);
                     expectBatchCorrelationValuesConfiguration.put(key, value);
                 }
+            } else if (key.equals(ConfigurationProperties.PARALLEL_TRANSFORMATION_THRESHOLD)) {
+                parallelTransformationThreshold = getParallelTransformationThreshold(entry.getValue());
+            } else if (key.equals(ConfigurationProperties.PARALLEL_TRANSFORMATION_POOL)) {
+                if (!(entry.getValue() instanceof ForkJoinPool)) {
+                    throw new IllegalArgumentException("Invalid parallel transformation pool configuration: " + entry.getValue());
+                }
+                parallelTransformationPool = (ForkJoinPool) entry.getValue();
+            } else if (key.equals(ConfigurationProperties.STREAMING_WINDOW_SIZE)) {
+                streamingWindowSize = getStreamingWindowSize(entry.getValue());
+            } else if (key.equals(ConfigurationProperties.CORRELATION_EXECUTOR)) {
+                if (!(entry.getValue() instanceof Executor)) {
+                    throw new IllegalArgumentException("Invalid correlation executor configuration: " + entry.getValue());
+                }
+                correlationExecutor = (Executor) entry.getValue();
+            } else if (key.equals(ConfigurationProperties.ADAPTIVE_BATCH_SIZE)) {
+                adaptiveBatchSize = Boolean.valueOf(String.valueOf(entry.getValue()));
+            } else if (key.equals(ConfigurationProperties.ADAPTIVE_BATCH_SIZE_MIN)) {
+                adaptiveBatchSizeMin = getBatchSize(key, entry.getValue());
+            } else if (key.equals(ConfigurationProperties.ADAPTIVE_BATCH_SIZE_MAX)) {
+                adaptiveBatchSizeMax = getBatchSize(key, entry.getValue());
+            } else if (key.equals(ConfigurationProperties.ADAPTIVE_BATCH_SIZE_TARGET_LATENCY)) {
+                adaptiveBatchSizeTargetLatency = getAdaptiveBatchSizeTargetLatency(entry.getValue());
             }
         }
+        if (adaptiveBatchSizeMin > adaptiveBatchSizeMax) {
+            throw new IllegalArgumentException("Invalid adaptive batch size configuration. The minimum " + adaptiveBatchSizeMin + " is bigger than the maximum " + adaptiveBatchSizeMax);
+        }
 
         this.criteriaBuilder = criteriaBuilder;
+        this.entityManager = null;
         this.expressionFactory = expressionFactory;
         this.viewJpqlMacro = viewJpqlMacro;
         this.embeddingViewJpqlMacro = embeddingViewJpqlMacro;
@@ -109,12 +160,41 @@ public final class EntityViewConfiguration {
         this.fetches = fetches;
         this.batchSizeConfiguration = Collections.unmodifiableMap(batchSizeConfiguration);
         this.expectBatchCorrelationValuesConfiguration = Collections.unmodifiableMap(expectBatchCorrelationValuesConfiguration);
+        this.parallelTransformationThreshold = parallelTransformationThreshold;
+        this.parallelTransformationPool = parallelTransformationPool;
+        this.streamingWindowSize = streamingWindowSize;
+        this.correlationExecutor = correlationExecutor;
+        this.adaptiveBatchSizeStatistics = adaptiveBatchSize ? adaptiveBatchSizeStatistics : null;
+        this.adaptiveBatchSizeMin = adaptiveBatchSizeMin;
+        this.adaptiveBatchSizeMax = adaptiveBatchSizeMax;
+        this.adaptiveBatchSizeTargetLatencyNanos = TimeUnit.MILLISECONDS.toNanos(adaptiveBatchSizeTargetLatency);
         this.criteriaBuilder.registerMacro("view", viewJpqlMacro);
         this.criteriaBuilder.registerMacro("embedding_view", embeddingViewJpqlMacro);
     }
 
+    private EntityViewConfiguration(EntityViewConfiguration original, EntityManager entityManager) {
+        this.criteriaBuilder = original.criteriaBuilder;
+        this.entityManager = entityManager;
+        this.expressionFactory = original.expressionFactory;
+        this.viewJpqlMacro = original.viewJpqlMacro;
+        this.embeddingViewJpqlMacro = original.embeddingViewJpqlMacro;
+        this.optionalParameters = original.optionalParameters;
+        this.fetches = original.fetches;
+        this.batchSizeConfiguration = original.batchSizeConfiguration;
+        this.expectBatchCorrelationValuesConfiguration = original.expectBatchCorrelationValuesConfiguration;
+        this.parallelTransformationThreshold = original.parallelTransformationThreshold;
+        this.parallelTransformationPool = original.parallelTransformationPool;
+        this.streamingWindowSize = original.streamingWindowSize;
+        this.correlationExecutor = original.correlationExecutor;
+        this.adaptiveBatchSizeStatistics = original.adaptiveBatchSizeStatistics;
+        this.adaptiveBatchSizeMin = original.adaptiveBatchSizeMin;
+        this.adaptiveBatchSizeMax = original.adaptiveBatchSizeMax;
+        this.adaptiveBatchSizeTargetLatencyNanos = original.adaptiveBatchSizeTargetLatencyNanos;
+    }
+
     private EntityViewConfiguration(EntityViewConfiguration original, FullQueryBuilder<?, ?> criteriaBuilder, NavigableSet<String> fetches, EmbeddingViewJpqlMacro embeddingViewJpqlMacro) {
         this.criteriaBuilder = criteriaBuilder;
+        this.entityManager = original.entityManager;
         this.expressionFactory = original.expressionFactory;
         this.viewJpqlMacro = original.viewJpqlMacro;
         this.embeddingViewJpqlMacro = embeddingViewJpqlMacro;
@@ -122,6 +202,15 @@ public final class EntityViewConfiguration {
         this.fetches = fetches;
         this.batchSizeConfiguration = original.batchSizeConfiguration;
         this.expectBatchCorrelationValuesConfiguration = original.expectBatchCorrelationValuesConfiguration;
+        this.parallelTransformationThreshold = original.parallelTransformationThreshold;
+        this.parallelTransformationPool = original.parallelTransformationPool;
+        this.streamingWindowSize = original.streamingWindowSize;
+        // Correlations of subviews are loaded sequentially, as waiting for nested loads on the executor could exhaust bounded executors
+        this.correlationExecutor = null;
+        this.adaptiveBatchSizeStatistics = original.adaptiveBatchSizeStatistics;
+        this.adaptiveBatchSizeMin = original.adaptiveBatchSizeMin;
+        this.adaptiveBatchSizeMax = original.adaptiveBatchSizeMax;
+        this.adaptiveBatchSizeTargetLatencyNanos = original.adaptiveBatchSizeTargetLatencyNanos;
     }
 
     private static NavigableSet<String> getFetches(Collection<String> fetches, String attributePath) {
@@ -222,10 +311,28 @@ public final class EntityViewConfiguration {
         return new EntityViewConfiguration(this, criteriaBuilder, getFetches(fetches, attributePath), embeddingViewJpqlMacro);
     }
 
+    /**
+     * Returns a configuration that runs further queries, like the ones for correlations, with the given entity manager instead of the one of the criteria builder.
+     * This is used for the queries of a prepared criteria builder, which may be executed with a different entity manager than the one of the builder.
+     *
+     * @param entityManager The entity manager to use for further queries
+     * @return The configuration for the entity manager
+     */
+    public EntityViewConfiguration forEntityManager(EntityManager entityManager) {
+        if (entityManager == null || entityManager == getEntityManager()) {
+            return this;
+        }
+        return new EntityViewConfiguration(this, entityManager);
+    }
+
     public FullQueryBuilder<?, ?> getCriteriaBuilder() {
         return criteriaBuilder;
     }
 
+    public EntityManager getEntityManager() {
+        return entityManager == null ? criteriaBuilder.getEntityManager() : entityManager;
+    }
+
     public ExpressionFactory getExpressionFactory() {
         return expressionFactory;
     }
@@ -291,6 +398,83 @@ public final class EntityViewConfiguration {
         return val;
     }
 
+    public int getParallelTransformationThreshold() {
+        return parallelTransformationThreshold;
+    }
+
+    public ForkJoinPool getParallelTransformationPool() {
+        return parallelTransformationPool;
+    }
+
+    private static int getParallelTransformationThreshold(Object value) {
+        Integer val = null;
+        if (value instanceof Integer) {
+            val = (Integer) value;
+        } else if (value instanceof String) {
+            val = Integer.parseInt(value.toString());
+        }
+
+        if (val == null || val < 1) {
+            throw new IllegalArgumentException("Invalid parallel transformation threshold configuration: " + value);
+        }
+
+        return val;
+    }
+
+    public int getStreamingWindowSize() {
+        return streamingWindowSize;
+    }
+
+    private static int getStreamingWindowSize(Object value) {
+        Integer val = null;
+        if (value instanceof Integer) {
+            val = (Integer) value;
+        } else if (value instanceof String) {
+            val = Integer.parseInt(value.toString());
+        }
+
+        if (val == null || val < 1) {
+            throw new IllegalArgumentException("Invalid streaming window size configuration: " + value);
+        }
+
+        return val;
+    }
+
+    public Executor getCorrelationExecutor() {
+        return correlationExecutor;
+    }
+
+    public AdaptiveBatchSizeStatisticsImpl getAdaptiveBatchSizeStatistics() {
+        return adaptiveBatchSizeStatistics;
+    }
+
+    public int getAdaptiveBatchSizeMin() {
+        return adaptiveBatchSizeMin;
+    }
+
+    public int getAdaptiveBatchSizeMax() {
+        return adaptiveBatchSizeMax;
+    }
+
+    public long getAdaptiveBatchSizeTargetLatencyNanos() {
+        return adaptiveBatchSizeTargetLatencyNanos;
+    }
+
+    private static int getAdaptiveBatchSizeTargetLatency(Object value) {
+        Integer val = null;
+        if (value instanceof Integer) {
+            val = (Integer) value;
+        } else if (value instanceof String) {
+            val = Integer.parseInt(value.toString());
+        }
+
+        if (val == null || val < 1) {
+            throw new IllegalArgumentException("Invalid adaptive batch size target latency configuration: " + value);
+        }
+
+        return val;
+    }
+
     public BatchCorrelationMode getExpectBatchCorrelationValues() {
         return getExpectBatchCorrelationValues("");
     }
@@ -29,11 +29,13 @@ import com.blazebit.persistence.parser.expression.ExpressionFactory;
 import com.blazebit.persistence.parser.expression.MacroConfiguration;
 import com.blazebit.persistence.parser.expression.MacroFunction;
 import com.blazebit.persistence.parser.util.JpaMetamodelUtils;
+import com.blazebit.persistence.spi.ConfigurationSource;
 import com.blazebit.persistence.spi.DbmsDialect;
 import com.blazebit.persistence.spi.JpaProvider;
 import com.blazebit.persistence.spi.JpqlFunction;
 import com.blazebit.persistence.spi.JpqlMacro;
 import com.blazebit.persistence.spi.PackageOpener;
+import com.blazebit.persistence.view.AdaptiveBatchSizeStatistics;
 import com.blazebit.persistence.view.AttributeFilterProvider;
 import com.blazebit.persistence.view.ConfigurationProperties;
 import com.blazebit.persistence.view.ConvertOperationBuilder;
@@ -42,6 +44,7 @@ import com.blazebit.persistence.view.EntityViewBuilder;
 import com.blazebit.persistence.view.EntityViewManager;
 import com.blazebit.persistence.view.EntityViewSetting;
 import com.blazebit.persistence.view.FlushOperationBuilder;
+import com.blazebit.persistence.view.MetamodelSnapshot;
 import com.blazebit.persistence.view.PostCommitListener;
 import com.blazebit.persistence.view.PostPersistEntityListener;
 import com.blazebit.persistence.view.PostPersistListener;
@@ -56,6 +59,7 @@ import com.blazebit.persistence.view.SerializableEntityViewManager;
 import com.blazebit.persistence.view.StaticBuilder;
 import com.blazebit.persistence.view.StaticMetamodel;
 import com.blazebit.persistence.view.StaticRelation;
+import com.blazebit.persistence.view.TemplateWarmUp;
 import com.blazebit.persistence.view.ViewFilterProvider;
 import com.blazebit.persistence.view.ViewTransition;
 import com.blazebit.persistence.view.change.SingularChangeModel;
@@ -146,22 +150,30 @@ import javax.persistence.EntityManager;
 import javax.persistence.metamodel.EntityType;
 import javax.persistence.metamodel.ManagedType;
 import javax.persistence.metamodel.Metamodel;
+import java.io.File;
+import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.lang.reflect.TypeVariable;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 /**
  *
@@ -170,6 +182,7 @@ import java.util.concurrent.ConcurrentMap;
  */
 public class EntityViewManagerImpl implements EntityViewManager {
 
+    private static final Logger LOG = Logger.getLogger(EntityViewManagerImpl.class.getName());
     private static final String META_MODEL_CLASS_NAME_SUFFIX = "_";
     private static final String RELATION_CLASS_NAME_SUFFIX = "Relation";
     private static final String MULTI_RELATION_CLASS_NAME_SUFFIX = "MultiRelation";
@@ -197,6 +210,9 @@ public class EntityViewManagerImpl implements EntityViewManager {
     private final Map<String, Object> optionalParameters;
     private final boolean supportsTransientReference;
     private final ConcurrentMap<ViewTypeObjectBuilderTemplate.Key, ViewTypeObjectBuilderTemplate<?>> objectBuilderCache;
+    private final MetamodelSnapshotImpl metamodelSnapshot;
+    private final TemplateWarmUpImpl templateWarmUp;
+    private final AdaptiveBatchSizeStatisticsImpl adaptiveBatchSizeStatistics;
     private final ConcurrentMap<ManagedViewType<?>, EntityViewUpdaterImpl> entityViewUpdaterCache;
     private final ConcurrentMap<ContextAwareUpdaterKey, EntityViewUpdaterImpl> contextAwareEntityViewUpdaterCache;
     private final ConcurrentMap<ViewMapper.Key<?, ?>, ViewMapper<?, ?>> entityViewMappers;
@@ -250,6 +266,30 @@ public class EntityViewManagerImpl implements EntityViewManager {
             registeredFunctions.put(entry.getKey().toLowerCase(), entry.getValue());
         }
 
+        String metamodelSnapshotFile = config.getProperty(ConfigurationProperties.METAMODEL_SNAPSHOT_FILE);
+        if (metamodelSnapshotFile == null || metamodelSnapshotFile.isEmpty()) {
+            this.metamodelSnapshot = null;
+        } else {
+            ConfigurationSource criteriaBuilderConfiguration = cbf.getService(ConfigurationSource.class);
+            String fingerprint = MetamodelSnapshotImpl.computeFingerprint(
+                    config.getBootContext().getViewMappingMap().keySet(),
+                    entityMetamodel,
+                    registeredFunctions.keySet(),
+                    config.getBasicUserTypes(),
+                    config.getProperties(),
+                    criteriaBuilderConfiguration == null ? Collections.emptyMap() : criteriaBuilderConfiguration.getProperties(),
+                    dbmsDialect,
+                    jpaProvider,
+                    expressionFactory
+            );
+            this.metamodelSnapshot = new MetamodelSnapshotImpl(metamodelSnapshotFile, fingerprint);
+            // The snapshot was written during the build after a successful validation of the same entity views, JPA metamodel and configuration
+            if (metamodelSnapshot.isValidationSkipped()) {
+                validateManagedTypes = false;
+                validateExpressions = false;
+            }
+        }
+
         MetamodelBuildingContext context = new MetamodelBuildingContextImpl(
                 config.getProperties(),
                 new DefaultBasicUserTypeRegistry(config.getUserTypeRegistry(), cbf),
@@ -290,6 +330,9 @@ public class EntityViewManagerImpl implements EntityViewManager {
         this.metamodel = viewMetamodel;
         this.supportsTransientReference = jpaProvider.supportsTransientEntityAsParameter();
         this.objectBuilderCache = new ConcurrentHashMap<>();
+        String templateWarmUpFile = config.getProperty(ConfigurationProperties.TEMPLATE_WARM_UP_FILE);
+        this.templateWarmUp = templateWarmUpFile == null || templateWarmUpFile.isEmpty() ? null : new TemplateWarmUpImpl(new File(templateWarmUpFile));
+        this.adaptiveBatchSizeStatistics = new AdaptiveBatchSizeStatisticsImpl();
         this.entityViewUpdaterCache = new ConcurrentHashMap<>();
         this.contextAwareEntityViewUpdaterCache = new ConcurrentHashMap<>();
         this.entityViewMappers = new ConcurrentHashMap<>();
@@ -433,30 +476,68 @@ public class EntityViewManagerImpl implements EntityViewManager {
 
         this.listeners = listeners;
 
-        if (Boolean.valueOf(String.valueOf(config.getProperty(ConfigurationProperties.TEMPLATE_EAGER_LOADING)))) {
-            for (ViewTypeImpl<?> view : metamodel.views()) {
-                // TODO: Might be a good idea to let the view root be overridden or specified via the annotation
-                String probableViewRoot = StringUtils.firstToLower(view.getEntityClass().getSimpleName());
-                MacroConfigurationExpressionFactory macroAwareExpressionFactory = context.createMacroAwareExpressionFactory(probableViewRoot);
-                ViewJpqlMacro viewJpqlMacro = (ViewJpqlMacro) macroAwareExpressionFactory.getDefaultMacroConfiguration().get("VIEW").getState()[0];
-                EmbeddingViewJpqlMacro embeddingViewJpqlMacro = (EmbeddingViewJpqlMacro) macroAwareExpressionFactory.getDefaultMacroConfiguration().get("EMBEDDING_VIEW").getState()[0];
-                getTemplate(macroAwareExpressionFactory, view, null, null, viewJpqlMacro, null, embeddingViewJpqlMacro);
-
-                for (MappingConstructor<?> constructor : view.getConstructors()) {
-                    getTemplate(macroAwareExpressionFactory, view, (MappingConstructorImpl) constructor, null, viewJpqlMacro, null, embeddingViewJpqlMacro);
+        boolean templateEagerLoading = Boolean.valueOf(String.valueOf(config.getProperty(ConfigurationProperties.TEMPLATE_EAGER_LOADING)));
+        boolean proxyEagerLoading = Boolean.valueOf(String.valueOf(config.getProperty(ConfigurationProperties.PROXY_EAGER_LOADING)));
+        boolean updaterEagerLoading = Boolean.valueOf(String.valueOf(config.getProperty(ConfigurationProperties.UPDATER_EAGER_LOADING)));
+        Executor eagerLoadingExecutor = getExecutor(config.getProperties().get(ConfigurationProperties.EAGER_LOADING_EXECUTOR), "eager loading");
+        if (eagerLoadingExecutor != null && (templateEagerLoading || proxyEagerLoading || updaterEagerLoading)) {
+            new ParallelViewTypeInitializer(this, context, templateEagerLoading, proxyEagerLoading, updaterEagerLoading)
+                    .initialize(metamodel.views(), eagerLoadingExecutor);
+        } else {
+            if (templateEagerLoading) {
+                for (ViewTypeImpl<?> view : metamodel.views()) {
+                    loadTemplates(context, view);
+                }
+            } else if (proxyEagerLoading) {
+                // Loading template will always involve also loading the proxies, so we use else if
+                for (ViewType<?> view : metamodel.getViews()) {
+                    proxyFactory.getProxy(this, (ManagedViewTypeImplementor<Object>) view);
                 }
             }
-        } else if (Boolean.valueOf(String.valueOf(config.getProperty(ConfigurationProperties.PROXY_EAGER_LOADING)))) {
-            // Loading template will always involve also loading the proxies, so we use else if
-            for (ViewType<?> view : metamodel.getViews()) {
-                proxyFactory.getProxy(this, (ManagedViewTypeImplementor<Object>) view);
+
+            if (updaterEagerLoading) {
+                for (ManagedViewType<?> view : metamodel.getViews()) {
+                    getUpdater(null, (ManagedViewTypeImplementor<?>) view, null, null, null);
+                }
             }
         }
 
-        if (Boolean.valueOf(String.valueOf(config.getProperty(ConfigurationProperties.UPDATER_EAGER_LOADING)))) {
-            for (ManagedViewType<?> view : metamodel.getViews()) {
-                getUpdater(null, (ManagedViewTypeImplementor<?>) view, null, null, null);
+        if (templateWarmUp != null) {
+            templateWarmUp.warmUp(this, getExecutor(config.getProperties().get(ConfigurationProperties.TEMPLATE_WARM_UP_EXECUTOR), "template warm-up"));
+        }
+    }
+
+    void loadTemplates(MetamodelBuildingContext context, ManagedViewTypeImplementor<?> view) {
+        // TODO: Might be a good idea to let the view root be overridden or specified via the annotation
+        String probableViewRoot = StringUtils.firstToLower(view.getEntityClass().getSimpleName());
+        MacroConfigurationExpressionFactory macroAwareExpressionFactory = context.createMacroAwareExpressionFactory(probableViewRoot);
+        ViewJpqlMacro viewJpqlMacro = (ViewJpqlMacro) macroAwareExpressionFactory.getDefaultMacroConfiguration().get("VIEW").getState()[0];
+        EmbeddingViewJpqlMacro embeddingViewJpqlMacro = (EmbeddingViewJpqlMacro) macroAwareExpressionFactory.getDefaultMacroConfiguration().get("EMBEDDING_VIEW").getState()[0];
+        getTemplate(macroAwareExpressionFactory, view, null, null, viewJpqlMacro, null, embeddingViewJpqlMacro, 0);
+
+        for (MappingConstructor<?> constructor : view.getConstructors()) {
+            getTemplate(macroAwareExpressionFactory, view, (MappingConstructorImpl) constructor, null, viewJpqlMacro, null, embeddingViewJpqlMacro, 0);
+        }
+    }
+
+    private static Executor getExecutor(Object executor, String purpose) {
+        if (executor == null || executor instanceof Executor) {
+            return (Executor) executor;
+        }
+        String executorClassName = executor.toString();
+        if (executorClassName.isEmpty()) {
+            return null;
+        }
+        try {
+            Class<?> executorClass = Class.forName(executorClassName, true, Thread.currentThread().getContextClassLoader());
+            return (Executor) executorClass.getDeclaredConstructor().newInstance();
+        } catch (InvocationTargetException ex) {
+            if (ex.getTargetException() instanceof RuntimeException) {
+                throw (RuntimeException) ex.getTargetException();
             }
+            throw new IllegalArgumentException("Could not instantiate the " + purpose + " executor: " + executorClassName, ex.getTargetException());
+        } catch (Exception ex) {
+            throw new IllegalArgumentException("Could not instantiate the " + purpose + " executor: " + executorClassName, ex);
         }
     }
 
@@ -760,6 +841,12 @@ public class EntityViewManagerImpl implements EntityViewManager {
             return (T) transactionSupport;
         } else if (CriteriaBuilderFactory.class.isAssignableFrom(serviceClass)) {
             return (T) cbf;
+        } else if (MetamodelSnapshot.class.isAssignableFrom(serviceClass)) {
+            return (T) metamodelSnapshot;
+        } else if (TemplateWarmUp.class.isAssignableFrom(serviceClass)) {
+            return (T) templateWarmUp;
+        } else if (AdaptiveBatchSizeStatistics.class.isAssignableFrom(serviceClass)) {
+            return (T) adaptiveBatchSizeStatistics;
         }
         return cbf.getService(serviceClass);
     }
@@ -774,6 +861,10 @@ public class EntityViewManagerImpl implements EntityViewManager {
         return optionalParameters;
     }
 
+    public AdaptiveBatchSizeStatisticsImpl getAdaptiveBatchSizeStatistics() {
+        return adaptiveBatchSizeStatistics;
+    }
+
     public JpaProvider getJpaProvider() {
         return jpaProvider;
     }
@@ -1075,6 +1166,11 @@ public class EntityViewManagerImpl implements EntityViewManager {
         update(em, view, true);
     }
 
+    @Override
+    public void saveAll(EntityManager em, Iterable<?> views) {
+        saveAll(new DefaultUpdateContext(this, em, false, false, false, null, null, null), views);
+    }
+
     @Override
     public void saveTo(EntityManager em, Object view, Object entity) {
         updateTo(em, view, entity, false);
@@ -1198,6 +1294,34 @@ public class EntityViewManagerImpl implements EntityViewManager {
         }
     }
 
+    public void saveAll(UpdateContext context, Iterable<?> views) {
+        Map<ManagedViewTypeImplementor<?>, List<MutableStateTrackable>> viewTypeGroups = new LinkedHashMap<>();
+        for (Object view : views) {
+            if (!(view instanceof MutableStateTrackable)) {
+                throw new IllegalArgumentException("Can't update non-updatable entity views: " + view);
+            }
+
+            MutableStateTrackable updatableProxy = (MutableStateTrackable) view;
+            ManagedViewTypeImplementor<?> viewType = metamodel.managedViewOrError(updatableProxy.$$_getEntityViewClass());
+            List<MutableStateTrackable> group = viewTypeGroups.get(viewType);
+            if (group == null) {
+                group = new ArrayList<>();
+                viewTypeGroups.put(viewType, group);
+            }
+            group.add(updatableProxy);
+        }
+
+        try {
+            for (Map.Entry<ManagedViewTypeImplementor<?>, List<MutableStateTrackable>> entry : viewTypeGroups.entrySet()) {
+                EntityViewUpdater updater = getUpdater(null, entry.getKey(), null, null, null);
+                updater.executeUpdates(context, entry.getValue());
+            }
+        } catch (Throwable t) {
+            context.getTransactionAccess().markRollbackOnly();
+            ExceptionUtils.doThrow(t);
+        }
+    }
+
     public void updateTo(UpdateContext context, Object view, Object entity) {
         if (!(view instanceof MutableStateTrackable)) {
             throw new IllegalArgumentException("Can't update non-updatable entity views: " + view);
@@ -1346,22 +1470,34 @@ public class EntityViewManagerImpl implements EntityViewManager {
             }
         }
 
-        MacroConfiguration originalMacroConfiguration = ef.getDefaultMacroConfiguration();
-        ExpressionFactory cachingExpressionFactory = ef.unwrap(AbstractCachingExpressionFactory.class);
         JpqlMacro viewRootJpqlMacro = new DefaultViewRootJpqlMacro(entityViewRoot);
         ViewJpqlMacro viewJpqlMacro = configuration.getViewJpqlMacro();
         EmbeddingViewJpqlMacro embeddingViewJpqlMacro = configuration.getEmbeddingViewJpqlMacro();
         viewJpqlMacro.setViewPath(entityViewRoot);
+        MacroConfigurationExpressionFactory macroEf = createMacroAwareExpressionFactory(ef, viewJpqlMacro, viewRootJpqlMacro, embeddingViewJpqlMacro);
+        criteriaBuilder.registerMacro("view_root", viewRootJpqlMacro);
+
+        return getTemplate(macroEf, viewType, mappingConstructor, entityViewRoot, viewJpqlMacro, embeddingViewPath, embeddingViewJpqlMacro, offset)
+            .createObjectBuilder(criteriaBuilder, configuration.getOptionalParameters(), configuration, suffix, false, nullFlatViewIfEmpty);
+    }
+
+    /**
+     * Creates the expression factory for the template of an entity view that is applied to a query with the given expression factory.
+     * The template warm-up uses this with the expression factory of the criteria builder factory, so that the template keys match.
+     */
+    MacroConfigurationExpressionFactory createMacroAwareExpressionFactory(ExpressionFactory ef, ViewJpqlMacro viewJpqlMacro, JpqlMacro viewRootJpqlMacro, EmbeddingViewJpqlMacro embeddingViewJpqlMacro) {
+        MacroConfiguration originalMacroConfiguration = ef.getDefaultMacroConfiguration();
+        ExpressionFactory cachingExpressionFactory = ef.unwrap(AbstractCachingExpressionFactory.class);
         Map<String, MacroFunction> macros = new HashMap<>();
         macros.put("view", new JpqlMacroAdapter(viewJpqlMacro, cachingExpressionFactory));
         macros.put("view_root", new JpqlMacroAdapter(viewRootJpqlMacro, cachingExpressionFactory));
         macros.put("embedding_view", new JpqlMacroAdapter(embeddingViewJpqlMacro, cachingExpressionFactory));
         MacroConfiguration macroConfiguration = originalMacroConfiguration.with(macros);
-        MacroConfigurationExpressionFactory macroEf = new MacroConfigurationExpressionFactory(cachingExpressionFactory, macroConfiguration);
-        criteriaBuilder.registerMacro("view_root", viewRootJpqlMacro);
+        return new MacroConfigurationExpressionFactory(cachingExpressionFactory, macroConfiguration);
+    }
 
-        return getTemplate(macroEf, viewType, mappingConstructor, entityViewRoot, viewJpqlMacro, embeddingViewPath, embeddingViewJpqlMacro, offset)
-            .createObjectBuilder(criteriaBuilder, configuration.getOptionalParameters(), configuration, suffix, false, nullFlatViewIfEmpty);
+    ExpressionFactory getExpressionFactory() {
+        return expressionFactory;
     }
 
     private static Path getPath(FullQueryBuilder<?, ?> queryBuilder, String entityViewRoot) {
@@ -1386,7 +1522,11 @@ public class EntityViewManagerImpl implements EntityViewManager {
 
             if (oldValue != null) {
                 value = oldValue;
+            } else if (templateWarmUp != null) {
+                templateWarmUp.record(key);
             }
+        } else if (templateWarmUp != null) {
+            templateWarmUp.recordHit(key);
         }
 
         return value;
@@ -1464,6 +1604,13 @@ public class EntityViewManagerImpl implements EntityViewManager {
 
     @Override
     public void close() {
+        if (templateWarmUp != null) {
+            try {
+                templateWarmUp.writeRecording();
+            } catch (IOException ex) {
+                LOG.log(Level.WARNING, "Could not write the entity view template warm-up file", ex);
+            }
+        }
         proxyFactory.clear();
     }
 
@@ -115,7 +115,7 @@ public final class EntityViewSettingHelper {
         Path root = criteriaBuilder.getRequiredPath(entityViewRoot);
         entityViewRoot = root.getPath();
         Q queryBuilder = getQueryBuilder(setting, criteriaBuilder, entityViewRoot, managedView, setting.getProperties());
-        EntityViewConfiguration configuration = new EntityViewConfiguration(queryBuilder, ef, new MutableViewJpqlMacro(), new MutableEmbeddingViewJpqlMacro(), optionalParameters, setting.getProperties(), requestedFetches, managedView);
+        EntityViewConfiguration configuration = new EntityViewConfiguration(queryBuilder, ef, new MutableViewJpqlMacro(), new MutableEmbeddingViewJpqlMacro(), optionalParameters, setting.getProperties(), requestedFetches, managedView, evm.getAdaptiveBatchSizeStatistics());
         queryBuilder.selectNew(evm.createObjectBuilder(managedView, mappingConstructor, root.getJavaType(), entityViewRoot, null, criteriaBuilder, configuration, 0, 0, false));
         Set<String> fetches = configuration.getFetches();
         applyAttributeFilters(setting, evm, queryBuilder, entityViewRoot, fetches, managedView);
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2014 - 2024 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.blazebit.persistence.view.impl;
+
+import com.blazebit.persistence.Criteria;
+import com.blazebit.persistence.CriteriaBuilderFactory;
+import com.blazebit.persistence.spi.CriteriaBuilderConfiguration;
+import com.blazebit.persistence.view.ConfigurationProperties;
+import com.blazebit.persistence.view.EntityViewManager;
+import com.blazebit.persistence.view.EntityViews;
+import com.blazebit.persistence.view.MetamodelSnapshot;
+import com.blazebit.persistence.view.spi.EntityViewConfiguration;
+
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Generates a metamodel snapshot during the build by booting the entity view manager for a persistence unit.
+ * The arguments are the persistence unit name, the snapshot file and the entity view class names.
+ * System properties prefixed with <code>com.blazebit.persistence.view.</code> are applied to the entity view configuration,
+ * other system properties prefixed with <code>com.blazebit.persistence.</code> are applied to the criteria builder configuration.
+ * The configuration has to match the one used at runtime, otherwise the fingerprint doesn't match.
+ *
+ * @author Christian Beikov
+ * @since 1.6.13
+ */
+public final class MetamodelSnapshotGenerator {
+
+    private static final String CRITERIA_BUILDER_PROPERTY_PREFIX = "com.blazebit.persistence.";
+    private static final String ENTITY_VIEW_PROPERTY_PREFIX = "com.blazebit.persistence.view.";
+
+    private MetamodelSnapshotGenerator() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 3) {
+            throw new IllegalArgumentException("Usage: MetamodelSnapshotGenerator <persistence-unit> <snapshot-file> <entity-view-class>...");
+        }
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        if (classLoader == null) {
+            classLoader = MetamodelSnapshotGenerator.class.getClassLoader();
+        }
+        EntityManagerFactory emf = Persistence.createEntityManagerFactory(args[0]);
+        try {
+            CriteriaBuilderConfiguration criteriaBuilderConfiguration = Criteria.getDefault();
+            EntityViewConfiguration entityViewConfiguration = EntityViews.createDefaultConfiguration();
+            Properties systemProperties = System.getProperties();
+            for (Map.Entry<Object, Object> entry : systemProperties.entrySet()) {
+                String key = String.valueOf(entry.getKey());
+                if (key.startsWith(ENTITY_VIEW_PROPERTY_PREFIX)) {
+                    entityViewConfiguration.setProperty(key, String.valueOf(entry.getValue()));
+                } else if (key.startsWith(CRITERIA_BUILDER_PROPERTY_PREFIX)) {
+                    criteriaBuilderConfiguration.setProperty(key, String.valueOf(entry.getValue()));
+                }
+            }
+            for (int i = 2; i < args.length; i++) {
+                entityViewConfiguration.addEntityView(classLoader.loadClass(args[i]));
+            }
+            CriteriaBuilderFactory cbf = criteriaBuilderConfiguration.createCriteriaBuilderFactory(emf);
+            write(entityViewConfiguration, cbf, new File(args[1]));
+        } finally {
+            emf.close();
+        }
+    }
+
+    /**
+     * Boots an entity view manager for the given configuration, which validates the entity view metamodel, and writes the snapshot to the given file.
+     *
+     * @param entityViewConfiguration The entity view configuration
+     * @param cbf The criteria builder factory
+     * @param file The snapshot file
+     * @throws IOException If writing the file fails
+     */
+    public static void write(EntityViewConfiguration entityViewConfiguration, CriteriaBuilderFactory cbf, File file) throws IOException {
+        // A snapshot must be configured for the entity view manager to compute the fingerprint
+        entityViewConfiguration.setProperty(ConfigurationProperties.METAMODEL_SNAPSHOT_FILE, file.getAbsolutePath());
+        EntityViewManager evm = entityViewConfiguration.createEntityViewManager(cbf);
+        try {
+            evm.getService(MetamodelSnapshot.class).write(file);
+        } finally {
+            evm.close();
+        }
+    }
+}
@@ -0,0 +1,257 @@
+/*
+ * Copyright 2014 - 2024 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.view.impl;
+
+import com.blazebit.persistence.parser.EntityMetamodel;
+import com.blazebit.persistence.view.ConfigurationProperties;
+import com.blazebit.persistence.view.MetamodelSnapshot;
+import com.blazebit.persistence.view.spi.type.BasicUserType;
+import com.blazebit.reflection.ReflectionUtils;
+
+import javax.persistence.metamodel.Attribute;
+import javax.persistence.metamodel.ManagedType;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Reads the fingerprint of a successfully validated entity view metamodel from a file or class path resource.
+ * The fingerprint is a SHA-256 digest over the class files of the entity view classes and their super types,
+ * the class files and attributes of the JPA managed types, the registered functions and basic user types,
+ * the configuration properties and the implementation classes of the DBMS dialect, the JPA provider and the expression factory.
+ * The snapshot is only read during boot, it is written by the {@link MetamodelSnapshotGenerator} during the build.
+ *
+ * @author Christian Beikov
+ * @since 1.6.13
+ */
+public class MetamodelSnapshotImpl implements MetamodelSnapshot {
+
+    private static final Logger LOG = Logger.getLogger(MetamodelSnapshotImpl.class.getName());
+    private static final Charset CHARSET = Charset.forName("UTF-8");
+    private static final String HEADER = "# Blaze-Persistence entity view metamodel snapshot";
+    private static final String FINGERPRINT_PREFIX = "fingerprint\t";
+    private static final String CLASSPATH_PREFIX = "classpath:";
+    private static final char[] HEX_CHARS = "0123456789abcdef".toCharArray();
+
+    private final String fingerprint;
+    private final boolean validationSkipped;
+
+    public MetamodelSnapshotImpl(String location, String fingerprint) {
+        this.fingerprint = fingerprint;
+        this.validationSkipped = fingerprint != null && fingerprint.equals(readFingerprint(location));
+    }
+
+    public static String computeFingerprint(Collection<Class<?>> entityViewClasses, EntityMetamodel entityMetamodel, Collection<String> functionNames, Map<Class<?>, BasicUserType<?>> basicUserTypes,
+                                            Map<?, ?> entityViewProperties, Map<?, ?> criteriaBuilderProperties, Object... implementations) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            LOG.log(Level.WARNING, "Could not compute the entity view metamodel fingerprint", ex);
+            return null;
+        }
+        String version = MetamodelSnapshotImpl.class.getPackage().getImplementationVersion();
+        update(digest, version == null ? "" : version);
+
+        // Sort everything by name so that the fingerprint doesn't depend on the iteration order
+        Map<String, Class<?>> classes = new TreeMap<>();
+        for (Class<?> entityViewClass : entityViewClasses) {
+            for (Class<?> superType : ReflectionUtils.getSuperTypes(entityViewClass)) {
+                // Skip types of the JDK
+                if (superType.getClassLoader() != null) {
+                    classes.put(superType.getName(), superType);
+                }
+            }
+        }
+        for (Class<?> clazz : classes.values()) {
+            if (!update(digest, clazz)) {
+                return null;
+            }
+        }
+
+        Map<String, ManagedType<?>> managedTypes = new TreeMap<>();
+        for (ManagedType<?> managedType : entityMetamodel.getManagedTypes()) {
+            if (managedType.getJavaType() != null) {
+                managedTypes.put(managedType.getJavaType().getName(), managedType);
+            }
+        }
+        for (ManagedType<?> managedType : managedTypes.values()) {
+            if (!update(digest, managedType.getJavaType())) {
+                return null;
+            }
+            // Mappings can also be defined in XML, so we include the attributes as well
+            TreeSet<String> attributes = new TreeSet<>();
+            for (Attribute<?, ?> attribute : managedType.getAttributes()) {
+                attributes.add(attribute.getName() + ':' + attribute.getJavaType().getName() + ':' + attribute.getPersistentAttributeType());
+            }
+            for (String attribute : attributes) {
+                update(digest, attribute);
+            }
+        }
+
+        for (String functionName : new TreeSet<>(functionNames)) {
+            update(digest, functionName);
+        }
+
+        TreeSet<String> userTypes = new TreeSet<>();
+        for (Map.Entry<Class<?>, BasicUserType<?>> entry : basicUserTypes.entrySet()) {
+            userTypes.add(entry.getKey().getName() + '=' + entry.getValue().getClass().getName());
+        }
+        for (String userType : userTypes) {
+            update(digest, userType);
+        }
+
+        // The location of the snapshot differs between the build and the runtime, so it must not be part of the fingerprint
+        update(digest, entityViewProperties, ConfigurationProperties.METAMODEL_SNAPSHOT_FILE);
+        update(digest, criteriaBuilderProperties, null);
+        for (Object implementation : implementations) {
+            update(digest, implementation == null ? "" : implementation.getClass().getName());
+        }
+
+        byte[] bytes = digest.digest();
+        char[] chars = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            chars[i * 2] = HEX_CHARS[(bytes[i] >> 4) & 0xF];
+            chars[i * 2 + 1] = HEX_CHARS[bytes[i] & 0xF];
+        }
+        return new String(chars);
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        digest.update(value.getBytes(CHARSET));
+        digest.update((byte) 0);
+    }
+
+    private static void update(MessageDigest digest, Map<?, ?> properties, String excludedProperty) {
+        TreeMap<String, String> sortedProperties = new TreeMap<>();
+        for (Map.Entry<?, ?> entry : properties.entrySet()) {
+            String key = String.valueOf(entry.getKey());
+            if (!key.equals(excludedProperty)) {
+                // Object values without a stable string representation will simply never produce a matching fingerprint
+                sortedProperties.put(key, String.valueOf(entry.getValue()));
+            }
+        }
+        for (Map.Entry<String, String> entry : sortedProperties.entrySet()) {
+            update(digest, entry.getKey() + '=' + entry.getValue());
+        }
+        update(digest, "");
+    }
+
+    private static boolean update(MessageDigest digest, Class<?> clazz) {
+        update(digest, clazz.getName());
+        ClassLoader classLoader = clazz.getClassLoader();
+        String resourceName = clazz.getName().replace('.', '/') + ".class";
+        try (InputStream is = classLoader == null ? ClassLoader.getSystemResourceAsStream(resourceName) : classLoader.getResourceAsStream(resourceName)) {
+            if (is == null) {
+                // Classes generated at runtime can't be fingerprinted
+                LOG.fine("Can't use an entity view metamodel snapshot because the class file of " + clazz.getName() + " could not be found");
+                return false;
+            }
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = is.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+            return true;
+        } catch (IOException ex) {
+            LOG.log(Level.FINE, "Can't use an entity view metamodel snapshot because the class file of " + clazz.getName() + " could not be read", ex);
+            return false;
+        }
+    }
+
+    private static String readFingerprint(String location) {
+        InputStream is;
+        try {
+            if (location.startsWith(CLASSPATH_PREFIX)) {
+                String resourceName = location.substring(CLASSPATH_PREFIX.length());
+                ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+                is = classLoader == null ? MetamodelSnapshotImpl.class.getClassLoader().getResourceAsStream(resourceName) : classLoader.getResourceAsStream(resourceName);
+                if (is == null) {
+                    return null;
+                }
+            } else {
+                File file = new File(location);
+                if (!file.exists()) {
+                    return null;
+                }
+                is = new FileInputStream(file);
+            }
+        } catch (IOException ex) {
+            LOG.log(Level.WARNING, "Could not read the entity view metamodel snapshot " + location, ex);
+            return null;
+        }
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(is, CHARSET))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith(FINGERPRINT_PREFIX)) {
+                    return line.substring(FINGERPRINT_PREFIX.length());
+                }
+            }
+        } catch (IOException ex) {
+            LOG.log(Level.WARNING, "Could not read the entity view metamodel snapshot " + location, ex);
+        }
+        return null;
+    }
+
+    @Override
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    @Override
+    public boolean isValidationSkipped() {
+        return validationSkipped;
+    }
+
+    @Override
+    public void write(File file) throws IOException {
+        if (fingerprint == null) {
+            throw new IOException("Can't write the entity view metamodel snapshot because the fingerprint could not be computed");
+        }
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null && !parent.exists() && !parent.mkdirs()) {
+            throw new IOException("Could not create the directory " + parent);
+        }
+        // Write to a temporary file first so that a crash doesn't leave a truncated snapshot behind
+        File tempFile = new File(file.getPath() + ".tmp");
+        try (BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(tempFile), CHARSET))) {
+            writer.write(HEADER);
+            writer.newLine();
+            writer.write(FINGERPRINT_PREFIX);
+            writer.write(fingerprint);
+            writer.newLine();
+        }
+        if (file.exists() && !file.delete() || !tempFile.renameTo(file)) {
+            throw new IOException("Could not replace the entity view metamodel snapshot file " + file);
+        }
+    }
+}
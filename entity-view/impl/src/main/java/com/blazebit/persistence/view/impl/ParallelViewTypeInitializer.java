@@ -0,0 +1,194 @@
+/*
+ * Copyright 2014 - 2024 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.view.impl;
+
+import com.blazebit.persistence.view.impl.metamodel.ManagedViewTypeImplementor;
+import com.blazebit.persistence.view.impl.metamodel.MetamodelBuildingContext;
+import com.blazebit.persistence.view.metamodel.Attribute;
+import com.blazebit.persistence.view.metamodel.ManagedViewType;
+import com.blazebit.persistence.view.metamodel.MapAttribute;
+import com.blazebit.persistence.view.metamodel.MappingConstructor;
+import com.blazebit.persistence.view.metamodel.ParameterAttribute;
+import com.blazebit.persistence.view.metamodel.PluralAttribute;
+import com.blazebit.persistence.view.metamodel.SingularAttribute;
+import com.blazebit.persistence.view.metamodel.Type;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Runs the eager loading of view templates, proxies and updaters on an executor.
+ * The view types are processed in waves so that subviews are initialized before the view types that use them,
+ * which avoids that multiple threads build the same subview objects concurrently.
+ * View types that are part of a dependency cycle are processed together in a final wave.
+ *
+ * @author Christian Beikov
+ * @since 1.6.13
+ */
+public class ParallelViewTypeInitializer {
+
+    private final EntityViewManagerImpl evm;
+    private final MetamodelBuildingContext context;
+    private final boolean templateEagerLoading;
+    private final boolean proxyEagerLoading;
+    private final boolean updaterEagerLoading;
+
+    public ParallelViewTypeInitializer(EntityViewManagerImpl evm, MetamodelBuildingContext context, boolean templateEagerLoading, boolean proxyEagerLoading, boolean updaterEagerLoading) {
+        this.evm = evm;
+        this.context = context;
+        this.templateEagerLoading = templateEagerLoading;
+        this.proxyEagerLoading = proxyEagerLoading;
+        this.updaterEagerLoading = updaterEagerLoading;
+    }
+
+    public void initialize(Collection<? extends ManagedViewTypeImplementor<?>> viewTypes, Executor executor) {
+        for (List<ManagedViewTypeImplementor<?>> wave : computeWaves(viewTypes)) {
+            initializeWave(wave, executor);
+        }
+    }
+
+    private void initializeWave(List<ManagedViewTypeImplementor<?>> wave, Executor executor) {
+        final CountDownLatch latch = new CountDownLatch(wave.size());
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        for (final ManagedViewTypeImplementor<?> viewType : wave) {
+            Runnable task = new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        if (failure.get() == null) {
+                            initialize(viewType);
+                        }
+                    } catch (Throwable t) {
+                        failure.compareAndSet(null, t);
+                    } finally {
+                        latch.countDown();
+                    }
+                }
+            };
+            try {
+                executor.execute(task);
+            } catch (RejectedExecutionException ex) {
+                task.run();
+            }
+        }
+
+        try {
+            latch.await();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the entity view eager loading", ex);
+        }
+
+        Throwable t = failure.get();
+        if (t instanceof RuntimeException) {
+            throw (RuntimeException) t;
+        } else if (t instanceof Error) {
+            throw (Error) t;
+        } else if (t != null) {
+            throw new IllegalStateException("Could not eager load the entity views", t);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void initialize(ManagedViewTypeImplementor<?> viewType) {
+        if (templateEagerLoading) {
+            evm.loadTemplates(context, viewType);
+        } else if (proxyEagerLoading) {
+            // Loading template will always involve also loading the proxies
+            evm.getProxyFactory().getProxy(evm, (ManagedViewTypeImplementor<Object>) viewType);
+        }
+        if (updaterEagerLoading) {
+            evm.getUpdater(null, viewType, null, null, null);
+        }
+    }
+
+    static List<List<ManagedViewTypeImplementor<?>>> computeWaves(Collection<? extends ManagedViewTypeImplementor<?>> viewTypes) {
+        Map<ManagedViewTypeImplementor<?>, Set<ManagedViewType<?>>> dependencies = new LinkedHashMap<>(viewTypes.size());
+        for (ManagedViewTypeImplementor<?> viewType : viewTypes) {
+            dependencies.put(viewType, new HashSet<ManagedViewType<?>>());
+        }
+        for (Map.Entry<ManagedViewTypeImplementor<?>, Set<ManagedViewType<?>>> entry : dependencies.entrySet()) {
+            Set<ManagedViewType<?>> viewTypeDependencies = entry.getValue();
+            collectDependencies(entry.getKey(), viewTypeDependencies);
+            viewTypeDependencies.remove(entry.getKey());
+            viewTypeDependencies.retainAll(dependencies.keySet());
+        }
+
+        List<List<ManagedViewTypeImplementor<?>>> waves = new ArrayList<>();
+        Set<ManagedViewType<?>> initialized = new HashSet<>(viewTypes.size());
+        while (!dependencies.isEmpty()) {
+            List<ManagedViewTypeImplementor<?>> wave = new ArrayList<>();
+            Iterator<Map.Entry<ManagedViewTypeImplementor<?>, Set<ManagedViewType<?>>>> iterator = dependencies.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<ManagedViewTypeImplementor<?>, Set<ManagedViewType<?>>> entry = iterator.next();
+                if (initialized.containsAll(entry.getValue())) {
+                    wave.add(entry.getKey());
+                    iterator.remove();
+                }
+            }
+            if (wave.isEmpty()) {
+                // Only cyclic dependencies remain, so we initialize the rest at once
+                wave.addAll(dependencies.keySet());
+                dependencies.clear();
+            }
+            initialized.addAll(wave);
+            waves.add(wave);
+        }
+        return waves;
+    }
+
+    private static void collectDependencies(ManagedViewType<?> viewType, Set<ManagedViewType<?>> dependencies) {
+        for (ManagedViewType<?> subtype : viewType.getInheritanceSubtypes()) {
+            dependencies.add(subtype);
+        }
+        for (Attribute<?, ?> attribute : viewType.getAttributes()) {
+            collectDependencies(attribute, dependencies);
+        }
+        for (MappingConstructor<?> constructor : viewType.getConstructors()) {
+            for (ParameterAttribute<?, ?> parameterAttribute : constructor.getParameterAttributes()) {
+                collectDependencies(parameterAttribute, dependencies);
+            }
+        }
+    }
+
+    private static void collectDependencies(Attribute<?, ?> attribute, Set<ManagedViewType<?>> dependencies) {
+        if (attribute instanceof SingularAttribute<?, ?>) {
+            addViewType(((SingularAttribute<?, ?>) attribute).getType(), dependencies);
+        } else if (attribute instanceof PluralAttribute<?, ?, ?>) {
+            addViewType(((PluralAttribute<?, ?, ?>) attribute).getElementType(), dependencies);
+            if (attribute instanceof MapAttribute<?, ?, ?>) {
+                addViewType(((MapAttribute<?, ?, ?>) attribute).getKeyType(), dependencies);
+            }
+        }
+    }
+
+    private static void addViewType(Type<?> type, Set<ManagedViewType<?>> dependencies) {
+        if (type instanceof ManagedViewType<?>) {
+            dependencies.add((ManagedViewType<?>) type);
+        }
+    }
+}
@@ -0,0 +1,308 @@
+/*
+ * Copyright 2014 - 2024 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.view.impl;
+
+import com.blazebit.persistence.view.TemplateWarmUp;
+import com.blazebit.persistence.view.impl.macro.DefaultViewRootJpqlMacro;
+import com.blazebit.persistence.view.impl.macro.MutableEmbeddingViewJpqlMacro;
+import com.blazebit.persistence.view.impl.macro.MutableViewJpqlMacro;
+import com.blazebit.persistence.view.impl.metamodel.ManagedViewTypeImplementor;
+import com.blazebit.persistence.view.impl.metamodel.MappingConstructorImpl;
+import com.blazebit.persistence.view.impl.objectbuilder.ViewTypeObjectBuilderTemplate;
+import com.blazebit.persistence.view.spi.EmbeddingViewJpqlMacro;
+import com.blazebit.persistence.view.spi.ViewJpqlMacro;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Records the keys of the view templates that are built at runtime into a file and builds the templates of a previous recording in the background.
+ * Every key is written as tab separated line consisting of the view class name, the constructor name, the entity view root,
+ * the embedding view path, the tuple offset, the path of the VIEW macro and the sorted names of the other macros that are part of the key.
+ * Empty values represent <code>null</code>. A recorded key is only warmed up if the key of the template that is built for it
+ * with the current configuration is the same, as the template would not be used otherwise.
+ *
+ * @author Christian Beikov
+ * @since 1.6.13
+ */
+public class TemplateWarmUpImpl implements TemplateWarmUp {
+
+    private static final Logger LOG = Logger.getLogger(TemplateWarmUpImpl.class.getName());
+    private static final Charset CHARSET = Charset.forName("UTF-8");
+    private static final String HEADER = "# Blaze-Persistence entity view template warm-up v2";
+    private static final int COLUMNS = 7;
+
+    private final File file;
+    private final Set<String> recordedKeys = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+    private final Set<ViewTypeObjectBuilderTemplate.Key> unusedWarmedUpKeys = Collections.newSetFromMap(new ConcurrentHashMap<ViewTypeObjectBuilderTemplate.Key, Boolean>());
+    private final CountDownLatch readyLatch = new CountDownLatch(1);
+    private final AtomicInteger warmedUpCount = new AtomicInteger();
+    private final AtomicInteger failedCount = new AtomicInteger();
+    private final AtomicInteger hitCount = new AtomicInteger();
+    private volatile int warmUpCount;
+
+    public TemplateWarmUpImpl(File file) {
+        this.file = file;
+    }
+
+    public void record(ViewTypeObjectBuilderTemplate.Key key) {
+        // Templates without an entity view root are only built by the eager template loading which doesn't need a warm-up
+        if (key.getEntityViewRoot() == null) {
+            return;
+        }
+        recordedKeys.add(toLine(key));
+    }
+
+    public void recordHit(ViewTypeObjectBuilderTemplate.Key key) {
+        // Only the first use of a warmed up template is counted
+        if (!unusedWarmedUpKeys.isEmpty() && unusedWarmedUpKeys.remove(key)) {
+            hitCount.incrementAndGet();
+            recordedKeys.add(toLine(key));
+        }
+    }
+
+    private static String toLine(ViewTypeObjectBuilderTemplate.Key key) {
+        MappingConstructorImpl<?> constructor = key.getConstructor();
+        StringBuilder sb = new StringBuilder();
+        sb.append(key.getViewType().getJavaType().getName()).append('\t');
+        if (constructor != null) {
+            sb.append(constructor.getName());
+        }
+        sb.append('\t').append(key.getEntityViewRoot()).append('\t');
+        if (key.getEmbeddingViewPath() != null) {
+            sb.append(key.getEmbeddingViewPath());
+        }
+        sb.append('\t').append(key.getOffset()).append('\t');
+        if (key.getViewPath() != null) {
+            sb.append(key.getViewPath());
+        }
+        sb.append('\t');
+        List<String> macroNames = new ArrayList<>(key.getMacroNames());
+        Collections.sort(macroNames);
+        for (int i = 0; i < macroNames.size(); i++) {
+            if (i != 0) {
+                sb.append(',');
+            }
+            sb.append(macroNames.get(i));
+        }
+        return sb.toString();
+    }
+
+    public void warmUp(final EntityViewManagerImpl evm, Executor executor) {
+        final List<String> entries;
+        try {
+            entries = readEntries();
+        } catch (IOException ex) {
+            LOG.log(Level.WARNING, "Could not read the entity view template warm-up file " + file, ex);
+            readyLatch.countDown();
+            return;
+        }
+        warmUpCount = entries.size();
+        if (entries.isEmpty()) {
+            readyLatch.countDown();
+            return;
+        }
+
+        Runnable task = new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    for (String entry : entries) {
+                        try {
+                            warmUp(evm, entry);
+                            warmedUpCount.incrementAndGet();
+                        } catch (RuntimeException ex) {
+                            failedCount.incrementAndGet();
+                            LOG.log(Level.FINE, "Could not warm up the entity view template for " + entry, ex);
+                        }
+                    }
+                } finally {
+                    readyLatch.countDown();
+                }
+            }
+        };
+        if (executor == null) {
+            Thread thread = new Thread(task, "entity-view-template-warm-up");
+            thread.setDaemon(true);
+            thread.start();
+        } else {
+            try {
+                executor.execute(task);
+            } catch (RuntimeException ex) {
+                failedCount.addAndGet(entries.size());
+                readyLatch.countDown();
+                LOG.log(Level.WARNING, "Could not schedule the entity view template warm-up", ex);
+            }
+        }
+    }
+
+    private void warmUp(EntityViewManagerImpl evm, String line) {
+        String[] entry = line.split("\t", -1);
+        ManagedViewTypeImplementor<?> viewType = evm.getMetamodel().managedView(loadClass(entry[0]));
+        if (viewType == null) {
+            throw new IllegalArgumentException("The class " + entry[0] + " is not an entity view");
+        }
+        MappingConstructorImpl<?> constructor = null;
+        if (!entry[1].isEmpty()) {
+            constructor = (MappingConstructorImpl<?>) viewType.getConstructor(entry[1]);
+            if (constructor == null) {
+                throw new IllegalArgumentException("The entity view " + entry[0] + " has no constructor named " + entry[1]);
+            }
+        }
+        String entityViewRoot = entry[2];
+        String embeddingViewPath = entry[3].isEmpty() ? null : entry[3];
+        int offset = Integer.parseInt(entry[4]);
+        String viewPath = entry[5].isEmpty() ? null : entry[5];
+        // Build the expression factory like for a query, so that the template key matches the one of the runtime
+        ViewJpqlMacro viewJpqlMacro = new MutableViewJpqlMacro(viewPath);
+        EmbeddingViewJpqlMacro embeddingViewJpqlMacro = new MutableEmbeddingViewJpqlMacro();
+        embeddingViewJpqlMacro.setEmbeddingViewPath(embeddingViewPath);
+        MacroConfigurationExpressionFactory ef = evm.createMacroAwareExpressionFactory(evm.getExpressionFactory(), viewJpqlMacro, new DefaultViewRootJpqlMacro(entityViewRoot), embeddingViewJpqlMacro);
+        ViewTypeObjectBuilderTemplate.Key key = new ViewTypeObjectBuilderTemplate.Key(ef, viewType, constructor, entityViewRoot, embeddingViewPath, offset);
+        if (!key.isCacheable()) {
+            throw new IllegalArgumentException("The entity view template for " + line + " is not cacheable with the current configuration");
+        }
+        if (!line.equals(toLine(key))) {
+            throw new IllegalArgumentException("The entity view template key " + toLine(key) + " does not match the recorded key " + line);
+        }
+        evm.getTemplate(ef, viewType, constructor, entityViewRoot, viewJpqlMacro, embeddingViewPath, embeddingViewJpqlMacro, offset);
+        unusedWarmedUpKeys.add(key);
+    }
+
+    private static Class<?> loadClass(String className) {
+        try {
+            return Class.forName(className, false, Thread.currentThread().getContextClassLoader());
+        } catch (ClassNotFoundException ex) {
+            try {
+                return Class.forName(className);
+            } catch (ClassNotFoundException e) {
+                throw new IllegalArgumentException("Could not load the entity view class " + className, e);
+            }
+        }
+    }
+
+    private List<String> readEntries() throws IOException {
+        List<String> entries = new ArrayList<>();
+        if (!file.exists()) {
+            return entries;
+        }
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), CHARSET))) {
+            String line = reader.readLine();
+            if (line == null) {
+                return entries;
+            } else if (!HEADER.equals(line)) {
+                // Recordings of a different format are replaced by the next recording
+                LOG.warning("Ignoring the entity view template warm-up file " + file + " as it has an unsupported format");
+                return entries;
+            }
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty() || line.charAt(0) == '#') {
+                    continue;
+                }
+                if (line.split("\t", -1).length == COLUMNS) {
+                    entries.add(line);
+                } else {
+                    LOG.warning("Skipping invalid line in the entity view template warm-up file " + file + ": " + line);
+                }
+            }
+        }
+        return entries;
+    }
+
+    @Override
+    public boolean isReady() {
+        return readyLatch.getCount() == 0L;
+    }
+
+    @Override
+    public boolean awaitReady(long timeout, TimeUnit unit) throws InterruptedException {
+        return readyLatch.await(timeout, unit);
+    }
+
+    @Override
+    public int getWarmUpCount() {
+        return warmUpCount;
+    }
+
+    @Override
+    public int getWarmedUpCount() {
+        return warmedUpCount.get();
+    }
+
+    @Override
+    public int getFailedCount() {
+        return failedCount.get();
+    }
+
+    @Override
+    public int getHitCount() {
+        return hitCount.get();
+    }
+
+    @Override
+    public int getRecordedCount() {
+        return recordedKeys.size();
+    }
+
+    @Override
+    public void writeRecording() throws IOException {
+        List<String> lines = new ArrayList<>(recordedKeys);
+        // Keep the keys of the previous recording that were warmed up but not used yet
+        for (ViewTypeObjectBuilderTemplate.Key key : unusedWarmedUpKeys) {
+            String line = toLine(key);
+            if (!recordedKeys.contains(line)) {
+                lines.add(line);
+            }
+        }
+        Collections.sort(lines);
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null && !parent.exists() && !parent.mkdirs()) {
+            throw new IOException("Could not create the directory " + parent);
+        }
+        // Write to a temporary file first so that a crash doesn't leave a truncated recording behind
+        File tempFile = new File(file.getPath() + ".tmp");
+        try (BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(tempFile), CHARSET))) {
+            writer.write(HEADER);
+            writer.newLine();
+            for (String line : lines) {
+                writer.write(line);
+                writer.newLine();
+            }
+        }
+        if (file.exists() && !file.delete() || !tempFile.renameTo(file)) {
+            throw new IOException("Could not replace the entity view template warm-up file " + file);
+        }
+    }
+}
@@ -24,7 +24,10 @@ import com.blazebit.persistence.view.impl.update.flush.DirtyAttributeFlusher;
 import javax.persistence.EntityManager;
 import javax.persistence.EntityNotFoundException;
 import javax.persistence.metamodel.SingularAttribute;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Set;
 
 /**
  *
@@ -124,10 +127,17 @@ public class FlusherBasedEntityLoader extends AbstractEntityLoader {
         List<Object> list = em.createQuery(getQueryStringMultiple())
             .setParameter("entityIds", ids)
             .getResultList();
-        if (list.size() != ids.size()) {
+        // Collection fetch joins may produce duplicate rows for an entity, so we compare the distinct entity count
+        if (list.size() != ids.size() && distinctCount(list) != ids.size()) {
             throw new EntityNotFoundException("Required entities '" + entityClass.getName() + "' with ids '" + ids + "' couldn't all be found!");
         }
 
         return list;
     }
+
+    private static int distinctCount(List<Object> list) {
+        Set<Object> distinct = Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>(list.size()));
+        distinct.addAll(list);
+        return distinct.size();
+    }
 }
@@ -19,27 +19,49 @@ package com.blazebit.persistence.view.impl.objectbuilder;
 import com.blazebit.persistence.ObjectBuilder;
 import com.blazebit.persistence.ParameterHolder;
 import com.blazebit.persistence.SelectBuilder;
+import com.blazebit.persistence.StatefulObjectBuilder;
+import com.blazebit.persistence.WindowedObjectBuilder;
 import com.blazebit.persistence.view.impl.EntityViewConfiguration;
 import com.blazebit.persistence.view.impl.objectbuilder.transformator.TupleTransformator;
 import com.blazebit.persistence.view.impl.objectbuilder.transformator.TupleTransformatorFactory;
 
+import javax.persistence.EntityManager;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 
 /**
  *
  * @author Christian Beikov
  * @since 1.6.4
  */
-public class ChainingCollectionObjectBuilder<T> implements ObjectBuilder<T> {
+public class ChainingCollectionObjectBuilder<T> implements WindowedObjectBuilder<T>, StatefulObjectBuilder<T> {
 
+    private final TupleTransformatorFactory transformatorFactory;
     private final TupleTransformator transformator;
     private final ObjectBuilder<T> objectBuilder;
+    private final ParameterHolder<?> parameterHolder;
+    private final Map<String, Object> optionalParameters;
+    private final EntityViewConfiguration entityViewConfiguration;
+    private final int[] idPositions;
+    private final int windowSize;
 
-    public ChainingCollectionObjectBuilder(TupleTransformatorFactory transformatorFactory, ObjectBuilder<T> objectBuilder, ParameterHolder<?> parameterHolder, Map<String, Object> optionalParameters, EntityViewConfiguration entityViewConfiguration) {
+    public ChainingCollectionObjectBuilder(TupleTransformatorFactory transformatorFactory, ObjectBuilder<T> objectBuilder, ParameterHolder<?> parameterHolder, Map<String, Object> optionalParameters, EntityViewConfiguration entityViewConfiguration, int[] idPositions) {
+        this.transformatorFactory = transformatorFactory;
         this.transformator = transformatorFactory.create(parameterHolder, optionalParameters, entityViewConfiguration);
         this.objectBuilder = objectBuilder;
+        this.parameterHolder = parameterHolder;
+        this.optionalParameters = optionalParameters;
+        this.entityViewConfiguration = entityViewConfiguration;
+        this.idPositions = idPositions;
+        this.windowSize = entityViewConfiguration == null ? -1 : entityViewConfiguration.getStreamingWindowSize();
+    }
+
+    @Override
+    public StatefulObjectBuilder<T> newInstance(EntityManager entityManager) {
+        // The transformers hold the state of correlations, so only the transformator is created anew
+        return new ChainingCollectionObjectBuilder<>(transformatorFactory, objectBuilder, parameterHolder, optionalParameters, entityViewConfiguration == null ? null : entityViewConfiguration.forEntityManager(entityManager), idPositions);
     }
 
     @Override
@@ -63,4 +85,22 @@ public class ChainingCollectionObjectBuilder<T> implements ObjectBuilder<T> {
         }
         return objectBuilder.buildList(resultList);
     }
+
+    @Override
+    public int getWindowSize() {
+        return windowSize;
+    }
+
+    @Override
+    public boolean isWindowBoundary(T previousElement, T element) {
+        // The elements are the tuples, and tuples with a different root id belong to different objects
+        Object[] previousTuple = (Object[]) previousElement;
+        Object[] tuple = (Object[]) element;
+        for (int i = 0; i < idPositions.length; i++) {
+            if (!Objects.deepEquals(previousTuple[idPositions[i]], tuple[idPositions[i]])) {
+                return true;
+            }
+        }
+        return false;
+    }
 }
@@ -19,10 +19,12 @@ package com.blazebit.persistence.view.impl.objectbuilder;
 import com.blazebit.persistence.ObjectBuilder;
 import com.blazebit.persistence.ParameterHolder;
 import com.blazebit.persistence.SelectBuilder;
+import com.blazebit.persistence.StatefulObjectBuilder;
 import com.blazebit.persistence.view.impl.EntityViewConfiguration;
 import com.blazebit.persistence.view.impl.objectbuilder.transformator.TupleTransformator;
 import com.blazebit.persistence.view.impl.objectbuilder.transformator.TupleTransformatorFactory;
 
+import javax.persistence.EntityManager;
 import java.util.List;
 import java.util.Map;
 
@@ -31,14 +33,27 @@ import java.util.Map;
  * @author Christian Beikov
  * @since 1.0.0
  */
-public class ChainingObjectBuilder<T> implements ObjectBuilder<T> {
+public class ChainingObjectBuilder<T> implements StatefulObjectBuilder<T> {
 
+    private final TupleTransformatorFactory transformatorFactory;
     private final TupleTransformator transformator;
     private final ObjectBuilder<T> objectBuilder;
+    private final ParameterHolder<?> parameterHolder;
+    private final Map<String, Object> optionalParameters;
+    private final EntityViewConfiguration entityViewConfiguration;
 
     public ChainingObjectBuilder(TupleTransformatorFactory transformatorFactory, ObjectBuilder<T> objectBuilder, ParameterHolder<?> parameterHolder, Map<String, Object> optionalParameters, EntityViewConfiguration entityViewConfiguration) {
+        this.transformatorFactory = transformatorFactory;
         this.transformator = transformatorFactory.create(parameterHolder, optionalParameters, entityViewConfiguration);
         this.objectBuilder = objectBuilder;
+        this.parameterHolder = parameterHolder;
+        this.optionalParameters = optionalParameters;
+        this.entityViewConfiguration = entityViewConfiguration;
+    }
+
+    @Override
+    public StatefulObjectBuilder<T> newInstance(EntityManager entityManager) {
+        return new ChainingObjectBuilder<>(transformatorFactory, objectBuilder, parameterHolder, optionalParameters, entityViewConfiguration == null ? null : entityViewConfiguration.forEntityManager(entityManager));
     }
 
     @Override
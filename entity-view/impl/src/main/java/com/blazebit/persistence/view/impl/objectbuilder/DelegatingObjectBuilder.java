@@ -44,6 +44,25 @@ public class DelegatingObjectBuilder<T> implements ObjectBuilder<T> {
         return delegate.build(tuple);
     }
 
+    /**
+     * Builds the object for the given tuple like {@link #build(Object[])}, but must not reuse state across invocations if <code>parallel</code> is true,
+     * as the tuples are then transformed concurrently.
+     *
+     * @param tuple The tuple
+     * @param parallel Whether the tuples are transformed in parallel
+     * @return The built object
+     */
+    public T build(Object[] tuple, boolean parallel) {
+        return build(delegate, tuple, parallel);
+    }
+
+    public static <T> T build(ObjectBuilder<T> objectBuilder, Object[] tuple, boolean parallel) {
+        if (objectBuilder instanceof DelegatingObjectBuilder<?>) {
+            return ((DelegatingObjectBuilder<T>) objectBuilder).build(tuple, parallel);
+        }
+        return objectBuilder.build(tuple);
+    }
+
     @Override
     public List<T> buildList(List<T> list) {
         return delegate.buildList(list);
@@ -50,4 +50,10 @@ public class ParameterViewTypeObjectBuilder<T> extends DelegatingObjectBuilder<T
         parameterMapper.applyMapping(parameterHolder, optionalParameters, tuple);
         return super.build(tuple);
     }
+
+    @Override
+    public T build(Object[] tuple, boolean parallel) {
+        parameterMapper.applyMapping(parameterHolder, optionalParameters, tuple);
+        return super.build(tuple, parallel);
+    }
 }
@@ -44,16 +44,39 @@ public class ReducerViewTypeObjectBuilder<T> extends DelegatingObjectBuilder<T>
 
     @Override
     public T build(Object[] tuple) {
-        newTuple.clear();
-        for (int i = start; i < start + length; i++) {
-            if (tuple[i] != TupleReuse.CONSUMED) {
-                newTuple.add(tuple[i]);
+        return build(tuple, false);
+    }
+
+    @Override
+    public T build(Object[] tuple, boolean parallel) {
+        Object[] reducedTuple;
+        if (parallel) {
+            // The parallel tuple transformation invokes this builder concurrently, so the reusable array can't be used
+            int size = 0;
+            for (int i = start; i < start + length; i++) {
+                if (tuple[i] != TupleReuse.CONSUMED) {
+                    size++;
+                }
+            }
+            reducedTuple = new Object[size];
+            for (int i = start, j = 0; i < start + length; i++) {
+                if (tuple[i] != TupleReuse.CONSUMED) {
+                    reducedTuple[j++] = tuple[i];
+                }
+            }
+        } else {
+            newTuple.clear();
+            for (int i = start; i < start + length; i++) {
+                if (tuple[i] != TupleReuse.CONSUMED) {
+                    newTuple.add(tuple[i]);
+                }
             }
+            // We can return the actual array here because we know that the only possible delegate
+            // is the ViewTypeObjectBuilder which consumes the elements of the array
+            reducedTuple = newTuple.getArray();
         }
 
-        // We can return the actual array here because we know that the only possible delegate
-        // is the ViewTypeObjectBuilder which consumes the elements of the array
-        T result = buildObject(tuple, newTuple.getArray());
+        T result = buildObject(tuple, reducedTuple);
         if (keepTuplePrefix) {
             // Create a new array and put in the prefix parts as well as the result into it
             Object[] tupleWithPrefix = new Object[start + suffix + 1];
@@ -21,9 +21,11 @@ import com.blazebit.persistence.ObjectBuilder;
 import com.blazebit.persistence.ParameterHolder;
 import com.blazebit.persistence.SelectBuilder;
 import com.blazebit.persistence.view.impl.objectbuilder.mapper.TupleElementMapper;
+import com.blazebit.persistence.view.impl.proxy.AbstractReflectionInstantiator;
 import com.blazebit.persistence.view.impl.proxy.ObjectInstantiator;
 import com.blazebit.persistence.view.spi.EmbeddingViewJpqlMacro;
 import com.blazebit.persistence.view.spi.ViewJpqlMacro;
+import com.blazebit.persistence.view.spi.type.EntityViewTupleObjectBuilder;
 
 import java.util.Collections;
 import java.util.List;
@@ -35,7 +37,7 @@ import java.util.NavigableSet;
  * @author Christian Beikov
  * @since 1.0.0
  */
-public class ViewTypeObjectBuilder<T> implements ObjectBuilder<T> {
+public class ViewTypeObjectBuilder<T> implements ObjectBuilder<T>, EntityViewTupleObjectBuilder.Delegate<T> {
 
     final boolean hasId;
     final boolean nullIfEmpty;
@@ -80,6 +82,35 @@ public class ViewTypeObjectBuilder<T> implements ObjectBuilder<T> {
         return objectInstantiator.newInstance(tuple);
     }
 
+    @Override
+    public boolean prepareTuple(Object[] tuple) {
+        if (hasId) {
+            if (tuple[0] == null) {
+                return false;
+            }
+        } else if (nullIfEmpty) {
+            boolean empty = true;
+            for (int i = 0; i < tuple.length; i++) {
+                if (tuple[i] != null) {
+                    empty = false;
+                    break;
+                }
+            }
+            if (empty) {
+                return false;
+            }
+        }
+
+        // A generated object builder is only used for views that are constructed through a TupleConstructorReflectionInstantiator
+        ((AbstractReflectionInstantiator<T>) objectInstantiator).prepareTuple(tuple);
+        return true;
+    }
+
+    @Override
+    public void finalizeInstance(T instance) {
+        ((AbstractReflectionInstantiator<T>) objectInstantiator).finalizeInstance(instance);
+    }
+
     @Override
     public List<T> buildList(List<T> list) {
         return list;
@@ -38,6 +38,8 @@ import com.blazebit.persistence.view.impl.ExpressionUtils;
 import com.blazebit.persistence.view.impl.MacroConfigurationExpressionFactory;
 import com.blazebit.persistence.view.impl.PrefixingQueryGenerator;
 import com.blazebit.persistence.view.impl.ScalarTargetResolvingExpressionVisitor;
+import com.blazebit.persistence.view.impl.macro.MutableEmbeddingViewJpqlMacro;
+import com.blazebit.persistence.view.impl.macro.MutableViewJpqlMacro;
 import com.blazebit.persistence.view.impl.metamodel.AbstractAttribute;
 import com.blazebit.persistence.view.impl.metamodel.AbstractMethodAttribute;
 import com.blazebit.persistence.view.impl.metamodel.AbstractParameterAttribute;
@@ -84,6 +86,7 @@ import com.blazebit.persistence.view.impl.proxy.AbstractReflectionInstantiator;
 import com.blazebit.persistence.view.impl.proxy.AssignmentConstructorReflectionInstantiator;
 import com.blazebit.persistence.view.impl.proxy.ObjectInstantiator;
 import com.blazebit.persistence.view.impl.proxy.ProxyFactory;
+import com.blazebit.persistence.view.impl.proxy.TupleConstructorReflectionInstantiator;
 import com.blazebit.persistence.view.impl.type.IntegerBasicUserType;
 import com.blazebit.persistence.view.metamodel.Attribute;
 import com.blazebit.persistence.view.metamodel.BasicType;
@@ -104,11 +107,13 @@ import com.blazebit.persistence.view.metamodel.ViewType;
 import com.blazebit.persistence.view.spi.EmbeddingViewJpqlMacro;
 import com.blazebit.persistence.view.spi.ViewJpqlMacro;
 import com.blazebit.persistence.view.spi.type.BasicUserTypeStringSupport;
+import com.blazebit.persistence.view.spi.type.EntityViewTupleObjectBuilder;
 import com.blazebit.persistence.view.spi.type.TypeConverter;
 
 import javax.persistence.metamodel.EntityType;
 import javax.persistence.metamodel.IdentifiableType;
 import javax.persistence.metamodel.ManagedType;
+import java.lang.reflect.Constructor;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -136,6 +141,7 @@ public class ViewTypeObjectBuilderTemplate<T> {
     private final ManagedViewTypeImplementor<?> viewType;
     private final ObjectInstantiator<T> objectInstantiator;
     private final ObjectInstantiator<T>[] subtypeInstantiators;
+    private final Constructor<? extends EntityViewTupleObjectBuilder<T>> staticObjectBuilderConstructor;
     private final TupleElementMapper[] mappers;
     private final TupleParameterMapper parameterMapper;
     private final int effectiveTupleSize;
@@ -371,6 +377,12 @@ public class ViewTypeObjectBuilderTemplate<T> {
         this.hasSubviews = features.contains(Feature.SUBVIEWS);
         this.hasSubqueryCorrelation = features.contains(Feature.SUBQUERY_CORRELATION);
         this.subtypeInstantiators = subtypeInstantiators.toArray(new ObjectInstantiator[subtypeInstantiators.size()]);
+        // Inheritance subtypes are only known per tuple, so only plain views can be constructed through the object builder generated into a static implementation
+        if (!hasSubtypes && objectInstantiator instanceof TupleConstructorReflectionInstantiator<?>) {
+            this.staticObjectBuilderConstructor = ((TupleConstructorReflectionInstantiator<T>) objectInstantiator).getStaticObjectBuilderConstructor();
+        } else {
+            this.staticObjectBuilderConstructor = null;
+        }
         this.effectiveTupleSize = attributeCount;
         this.mappers = mappingList.toArray(new TupleElementMapper[mappingList.size()]);
         this.parameterMapper = new TupleParameterMapper(parameterMappingList, tupleOffset);
@@ -748,10 +760,10 @@ public class ViewTypeObjectBuilderTemplate<T> {
                         if (mapAttribute.isKeySubview()) {
                             indexCorrelator = new SubviewCorrelator((ManagedViewTypeImplementor<?>) mapAttribute.getKeyType(), null, evm, subviewAliasPrefix, attributePath);
                         } else {
-                            indexCorrelator = new BasicCorrelator();
+                            indexCorrelator = new BasicCorrelator(BasicCorrelator.isJpaManaged(mapAttribute.getKeyType()));
                         }
                         mapperBuilder.addTupleListTransformerFactory(new CorrelatedMapBatchTupleListTransformerFactory(
-                                new BasicCorrelator(),
+                                new BasicCorrelator(BasicCorrelator.isJpaManaged(attribute.getElementType())),
                                 viewRoot, viewType, correlationResult, factory, attributePath, attribute.getFetches(), correlatesThis, viewRootIndex, embeddingViewIndex, startIndex, batchSize, correlationBasisType, correlationBasisEntity,
                                 createLimiter(mapperBuilder, correlationAlias, attribute),
                                 indexFetches, indexExpression, indexCorrelator, attribute.getContainerAccumulator(),
@@ -762,7 +774,7 @@ public class ViewTypeObjectBuilderTemplate<T> {
                         throw new IllegalArgumentException("Unknown collection type: " + pluralAttribute.getCollectionType());
                 }
                 mapperBuilder.addTupleListTransformerFactory(new CorrelatedCollectionBatchTupleListTransformerFactory(
-                        new BasicCorrelator(),
+                        new BasicCorrelator(BasicCorrelator.isJpaManaged(attribute.getElementType())),
                         viewRoot, viewType, correlationResult, factory, attributePath, attribute.getFetches(), correlatesThis, viewRootIndex, embeddingViewIndex, startIndex, batchSize, correlationBasisType, correlationBasisEntity,
                         createLimiter(mapperBuilder, correlationAlias, attribute),
                         indexFetches, indexExpression, indexCorrelator, attribute.getContainerAccumulator(),
@@ -770,7 +782,7 @@ public class ViewTypeObjectBuilderTemplate<T> {
                 ));
             } else {
                 mapperBuilder.addTupleListTransformerFactory(new CorrelatedSingularBatchTupleListTransformerFactory(
-                        new BasicCorrelator(),
+                        new BasicCorrelator(BasicCorrelator.isJpaManaged(attribute.getElementType())),
                         viewRoot, viewType, correlationResult, factory, attributePath, attribute.getFetches(), correlatesThis, viewRootIndex, embeddingViewIndex, startIndex, batchSize, correlationBasisType, correlationBasisEntity,
                         createLimiter(mapperBuilder, correlationAlias, attribute)));
             }
@@ -1122,7 +1134,7 @@ public class ViewTypeObjectBuilderTemplate<T> {
                         if (mapAttribute.isKeySubview()) {
                             indexCorrelator = new SubviewCorrelator((ManagedViewTypeImplementor<?>) mapAttribute.getKeyType(), null, evm, subviewAliasPrefix, attributePath);
                         } else {
-                            indexCorrelator = new BasicCorrelator();
+                            indexCorrelator = new BasicCorrelator(BasicCorrelator.isJpaManaged(mapAttribute.getKeyType()));
                         }
                         mapperBuilder.addTupleListTransformerFactory(new CorrelatedMapBatchTupleListTransformerFactory(
                                 new SubviewCorrelator(managedViewType, null, evm, subviewAliasPrefix, attributePath),
@@ -1434,6 +1446,14 @@ public class ViewTypeObjectBuilderTemplate<T> {
 
         result = new ViewTypeObjectBuilder<T>(this, parameterHolder, optionalParameters, entityViewConfiguration == null ? null : entityViewConfiguration.getViewJpqlMacro(), entityViewConfiguration == null ? null : entityViewConfiguration.getEmbeddingViewJpqlMacro(), entityViewConfiguration == null ? null : entityViewConfiguration.getFetches(), nullFlatViewIfEmpty);
 
+        if (staticObjectBuilderConstructor != null) {
+            try {
+                result = staticObjectBuilderConstructor.newInstance((ViewTypeObjectBuilder<T>) result);
+            } catch (Exception ex) {
+                throw new IllegalStateException("Could not instantiate the generated object builder " + staticObjectBuilderConstructor.getDeclaringClass().getName(), ex);
+            }
+        }
+
         if (hasSubtypes) {
             result = new InheritanceReducerViewTypeObjectBuilder<>((ViewTypeObjectBuilder<T>) result, tupleOffset, suffix, mappers.length, !isSubview && (tupleOffset > 0 || suffix > 0), subtypeInstantiators);
         } else if (hasOffset || isSubview || hasIndexedCollections || hasSubviews || hasSubqueryCorrelation) {
@@ -1446,7 +1466,7 @@ public class ViewTypeObjectBuilderTemplate<T> {
 
         if (tupleTransformatorFactory.hasTransformers() && !isSubview) {
             if (tupleTransformatorFactory.hasListTransformers()) {
-                result = new ChainingCollectionObjectBuilder<T>(tupleTransformatorFactory, result, parameterHolder, optionalParameters, entityViewConfiguration);
+                result = new ChainingCollectionObjectBuilder<T>(tupleTransformatorFactory, result, parameterHolder, optionalParameters, entityViewConfiguration, idPositions);
             } else {
                 result = new ChainingObjectBuilder<T>(tupleTransformatorFactory, result, parameterHolder, optionalParameters, entityViewConfiguration);
             }
@@ -1515,6 +1535,7 @@ public class ViewTypeObjectBuilderTemplate<T> {
 
         private final ExpressionFactory ef;
         private final Map<String, MacroFunction> macros;
+        private final String viewPath;
         private final ManagedViewTypeImpl<Object> viewType;
         private final MappingConstructorImpl<Object> constructor;
         private final String entityViewRoot;
@@ -1525,6 +1546,7 @@ public class ViewTypeObjectBuilderTemplate<T> {
         public Key(MacroConfigurationExpressionFactory ef, ManagedViewTypeImplementor<?> viewType, MappingConstructorImpl<?> constructor, String entityViewRoot, String embeddingViewPath, int offset) {
             this.ef = ef.getExpressionFactory();
             Map<String, MacroFunction> macros;
+            String viewPath = null;
             if (ef.getDefaultMacroConfiguration() == null) {
                 macros = Collections.emptyMap();
                 this.cacheable = true;
@@ -1532,12 +1554,29 @@ public class ViewTypeObjectBuilderTemplate<T> {
                 boolean cacheable = true;
                 Map<String, MacroFunction> map = ef.getDefaultMacroConfiguration().getMacros();
                 macros = new HashMap<>(Math.max(0, map.size() - 2));
-                // We don't care about the view root and embedding view macro as the relevant state that is interesting for caching is already present in entityViewRoot and embeddingViewPath
+                // We don't care about the view root and embedding view macro state as the relevant state that is interesting for caching is already present in entityViewRoot and embeddingViewPath
                 for (Map.Entry<String, MacroFunction> entry : map.entrySet()) {
                     switch (entry.getKey()) {
+                        case "VIEW":
+                            // The view macro is mutable, so we capture the view path as that is the only state relevant for caching
+                            Object[] viewState = entry.getValue().getState();
+                            if (viewState.length != 0 && viewState[0] instanceof MutableViewJpqlMacro) {
+                                viewPath = ((MutableViewJpqlMacro) viewState[0]).getViewPath();
+                            } else if (!entry.getValue().supportsCaching()) {
+                                cacheable = false;
+                            }
+                            break;
                         case "VIEW_ROOT":
+                            // Correlation specific view root macros are stateful, so we can't cache these templates
+                            if (!entry.getValue().supportsCaching()) {
+                                cacheable = false;
+                            }
                             break;
                         case "EMBEDDING_VIEW":
+                            Object[] embeddingViewState = entry.getValue().getState();
+                            if (embeddingViewState.length == 0 || !(embeddingViewState[0] instanceof MutableEmbeddingViewJpqlMacro)) {
+                                cacheable = false;
+                            }
                             break;
                         default:
                             if (!entry.getValue().supportsCaching()) {
@@ -1551,6 +1590,7 @@ public class ViewTypeObjectBuilderTemplate<T> {
                 this.cacheable = cacheable;
             }
             this.macros = macros;
+            this.viewPath = viewPath;
             this.viewType = (ManagedViewTypeImpl<Object>) viewType;
             this.constructor = (MappingConstructorImpl<Object>) constructor;
             this.entityViewRoot = entityViewRoot;
@@ -1562,6 +1602,34 @@ public class ViewTypeObjectBuilderTemplate<T> {
             return new ViewTypeObjectBuilderTemplate<Object>(viewType, entityViewRoot, "", viewType.getJavaType().getSimpleName(), entityViewRoot, entityViewRoot, new TupleIdDescriptor(), new TupleIdDescriptor(), offset, 0, viewJpqlMacro, embeddingViewJpqlMacro, null, evm, ef, viewType, constructor, proxyFactory);
         }
 
+        public ManagedViewTypeImpl<Object> getViewType() {
+            return viewType;
+        }
+
+        public MappingConstructorImpl<Object> getConstructor() {
+            return constructor;
+        }
+
+        public String getEntityViewRoot() {
+            return entityViewRoot;
+        }
+
+        public String getEmbeddingViewPath() {
+            return embeddingViewPath;
+        }
+
+        public int getOffset() {
+            return offset;
+        }
+
+        public String getViewPath() {
+            return viewPath;
+        }
+
+        public Set<String> getMacroNames() {
+            return macros.keySet();
+        }
+
         public boolean isCacheable() {
             return cacheable;
         }
@@ -1571,6 +1639,7 @@ public class ViewTypeObjectBuilderTemplate<T> {
             int hash = 3;
             hash = 83 * hash + (this.ef != null ? this.ef.hashCode() : 0);
             hash = 83 * hash + (this.macros != null ? this.macros.hashCode() : 0);
+            hash = 83 * hash + (this.viewPath != null ? this.viewPath.hashCode() : 0);
             hash = 83 * hash + (this.viewType != null ? this.viewType.hashCode() : 0);
             hash = 83 * hash + (this.constructor != null ? this.constructor.hashCode() : 0);
             hash = 83 * hash + (this.entityViewRoot != null ? this.entityViewRoot.hashCode() : 0);
@@ -1594,6 +1663,9 @@ public class ViewTypeObjectBuilderTemplate<T> {
             if (this.macros != other.macros && (this.macros == null || !this.macros.equals(other.macros))) {
                 return false;
             }
+            if (this.viewPath != other.viewPath && (this.viewPath == null || !this.viewPath.equals(other.viewPath))) {
+                return false;
+            }
             if (this.viewType != other.viewType && (this.viewType == null || !this.viewType.equals(other.viewType))) {
                 return false;
             }
@@ -60,4 +60,9 @@ public class ConsumingTupleTransformer implements TupleTransformerFactory, Tuple
         }
         return tuple;
     }
+
+    @Override
+    public boolean supportsParallelTransformation() {
+        return true;
+    }
 }
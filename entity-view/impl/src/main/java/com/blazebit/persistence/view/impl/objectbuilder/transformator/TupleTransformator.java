@@ -19,12 +19,22 @@ package com.blazebit.persistence.view.impl.objectbuilder.transformator;
 import com.blazebit.persistence.view.impl.objectbuilder.TupleRest;
 import com.blazebit.persistence.view.impl.objectbuilder.transformer.TupleListTransformer;
 import com.blazebit.persistence.view.impl.objectbuilder.transformer.TupleTransformer;
+import com.blazebit.persistence.view.impl.objectbuilder.transformer.correlation.AbstractCorrelatedBatchTupleListTransformer;
 
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.FlushModeType;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RecursiveAction;
 
 /**
  * @author Christian Beikov
@@ -32,22 +42,65 @@ import java.util.Set;
  */
 public class TupleTransformator {
 
+    private static final int MINIMUM_CHUNK_SIZE = 64;
+
     private final List<TupleTransformatorLevel> transformatorLevels;
+    private final int parallelTransformationThreshold;
+    private final ForkJoinPool parallelTransformationPool;
+    private final Executor correlationExecutor;
+    private final EntityManagerFactory entityManagerFactory;
 
     public TupleTransformator(List<TupleTransformatorLevel> transformatorLevels) {
+        this(transformatorLevels, -1);
+    }
+
+    public TupleTransformator(List<TupleTransformatorLevel> transformatorLevels, int parallelTransformationThreshold) {
+        this(transformatorLevels, parallelTransformationThreshold, null, null, null);
+    }
+
+    public TupleTransformator(List<TupleTransformatorLevel> transformatorLevels, int parallelTransformationThreshold, ForkJoinPool parallelTransformationPool, Executor correlationExecutor, EntityManagerFactory entityManagerFactory) {
         this.transformatorLevels = transformatorLevels;
+        this.parallelTransformationThreshold = parallelTransformationThreshold;
+        this.parallelTransformationPool = parallelTransformationPool;
+        this.correlationExecutor = correlationExecutor;
+        this.entityManagerFactory = entityManagerFactory;
     }
 
     public List<Object[]> transformAll(List<Object[]> tupleList) {
-        UpdatableViewMap updatableViewMap = new UpdatableViewMap();
+        return transformAll(tupleList, false);
+    }
+
+    /**
+     * Transforms the given tuples and runs the transformation in parallel if the tuple list exceeds the parallel transformation threshold.
+     *
+     * @param tupleList The tuples to transform
+     * @param parallelCaller Whether the caller itself is part of a parallel transformation, e.g. when transforming nested MULTISET tuples
+     * @return The transformed tuples
+     */
+    public List<Object[]> transformAll(List<Object[]> tupleList, boolean parallelCaller) {
+        boolean parallel = parallelTransformationThreshold > 0 && tupleList.size() >= parallelTransformationThreshold;
+        // Object builders are shared with the other threads of a parallel caller, so they must not reuse state even if this transformation is sequential
+        UpdatableViewMap updatableViewMap = new UpdatableViewMap(parallel || parallelCaller);
 
         for (int i = 0; i < transformatorLevels.size(); i++) {
             if (transformatorLevels.get(i).tupleTransformers.length != 0) {
-                ListIterator<Object[]> newTupleListIter = tupleList.listIterator();
+                if (parallel) {
+                    transformParallel(i, tupleList, updatableViewMap);
+                } else {
+                    ListIterator<Object[]> newTupleListIter = tupleList.listIterator();
 
-                while (newTupleListIter.hasNext()) {
-                    Object[] tuple = newTupleListIter.next();
-                    newTupleListIter.set(transform(i, tuple, updatableViewMap));
+                    while (newTupleListIter.hasNext()) {
+                        Object[] tuple = newTupleListIter.next();
+                        newTupleListIter.set(transform(i, tuple, updatableViewMap));
+                    }
+                }
+            }
+            if (correlationExecutor != null) {
+                int end = getConcurrentCorrelationLevelsEnd(i);
+                if (end - i > 1) {
+                    loadCorrelationsConcurrently(i, end, tupleList);
+                    i = end - 1;
+                    continue;
                 }
             }
             tupleList = transform(i, tupleList);
@@ -69,6 +122,128 @@ public class TupleTransformator {
         return tupleList;
     }
 
+    private int getConcurrentCorrelationLevelsEnd(int start) {
+        // Batch correlations of consecutive levels are independent if there are no tuple transformers in between,
+        // because they only fill their own tuple element and don't change the tuple list
+        int end = start;
+        while (end < transformatorLevels.size()) {
+            TupleTransformatorLevel level = transformatorLevels.get(end);
+            if (!(level.tupleListTransformer instanceof AbstractCorrelatedBatchTupleListTransformer) || end != start && level.tupleTransformers.length != 0) {
+                break;
+            }
+            // Only the first correlation uses the entity manager of the main query, so the others must not load entities
+            if (end != start && !((AbstractCorrelatedBatchTupleListTransformer) level.tupleListTransformer).supportsSeparateEntityManager()) {
+                break;
+            }
+            end++;
+        }
+        return end;
+    }
+
+    private void loadCorrelationsConcurrently(int start, int end, final List<Object[]> tupleList) {
+        FutureTask<?>[] tasks = new FutureTask<?>[end - start - 1];
+        for (int i = start + 1; i < end; i++) {
+            final AbstractCorrelatedBatchTupleListTransformer transformer = (AbstractCorrelatedBatchTupleListTransformer) transformatorLevels.get(i).tupleListTransformer;
+            FutureTask<Void> task = new FutureTask<>(new Callable<Void>() {
+                @Override
+                public Void call() {
+                    // Every concurrent load uses a separate entity manager that is only used for reading
+                    EntityManager entityManager = entityManagerFactory.createEntityManager();
+                    try {
+                        entityManager.setFlushMode(FlushModeType.COMMIT);
+                        transformer.load(tupleList, entityManager);
+                    } finally {
+                        entityManager.close();
+                    }
+                    return null;
+                }
+            });
+            tasks[i - start - 1] = task;
+            correlationExecutor.execute(task);
+        }
+
+        // The first correlation is loaded on the calling thread with the entity manager of the main query
+        RuntimeException exception = null;
+        try {
+            ((AbstractCorrelatedBatchTupleListTransformer) transformatorLevels.get(start).tupleListTransformer).load(tupleList, null);
+        } catch (RuntimeException ex) {
+            exception = ex;
+        }
+        for (int i = 0; i < tasks.length; i++) {
+            try {
+                tasks[i].get();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                exception = addSuppressed(exception, new IllegalStateException("Interrupted while waiting for correlation loads", ex));
+            } catch (ExecutionException ex) {
+                Throwable cause = ex.getCause();
+                if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                exception = addSuppressed(exception, cause instanceof RuntimeException ? (RuntimeException) cause : new IllegalStateException("Correlation load failed", cause));
+            }
+        }
+        if (exception != null) {
+            throw exception;
+        }
+
+        // Consuming the tuple elements used for view macros must happen after all loads as they are shared
+        for (int i = start; i < end; i++) {
+            ((AbstractCorrelatedBatchTupleListTransformer) transformatorLevels.get(i).tupleListTransformer).consumeTupleMacroViewValues(tupleList);
+        }
+    }
+
+    private static RuntimeException addSuppressed(RuntimeException exception, RuntimeException newException) {
+        if (exception == null) {
+            return newException;
+        }
+        exception.addSuppressed(newException);
+        return exception;
+    }
+
+    public boolean supportsParallelTransformation() {
+        for (int i = 0; i < transformatorLevels.size(); i++) {
+            TupleTransformatorLevel level = transformatorLevels.get(i);
+            // List transformers execute queries, so they must never be invoked concurrently
+            if (level.tupleListTransformer != null || !supportsParallelTransformation(level)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean supportsParallelTransformation(TupleTransformatorLevel level) {
+        TupleTransformer[] tupleTransformers = level.tupleTransformers;
+        for (int i = 0; i < tupleTransformers.length; i++) {
+            if (!tupleTransformers[i].supportsParallelTransformation()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void transformParallel(int level, List<Object[]> tupleList, UpdatableViewMap updatableViewMap) {
+        Object[][] tuples = tupleList.toArray(new Object[tupleList.size()][]);
+        // The first tuple is transformed on the calling thread as transformers might initialize lazily e.g. by running a query
+        tuples[0] = transform(level, tuples[0], updatableViewMap);
+        if (supportsParallelTransformation(transformatorLevels.get(level))) {
+            ForkJoinPool pool = parallelTransformationPool == null ? DefaultPoolHolder.POOL : parallelTransformationPool;
+            int chunkSize = Math.max(MINIMUM_CHUNK_SIZE, tuples.length / (pool.getParallelism() * 4));
+            pool.invoke(new TransformAction(level, tuples, 1, tuples.length, chunkSize, updatableViewMap));
+        } else {
+            for (int i = 1; i < tuples.length; i++) {
+                tuples[i] = transform(level, tuples[i], updatableViewMap);
+            }
+        }
+
+        // Retain the order of the tuples
+        ListIterator<Object[]> tupleListIter = tupleList.listIterator();
+        for (int i = 0; i < tuples.length; i++) {
+            tupleListIter.next();
+            tupleListIter.set(tuples[i]);
+        }
+    }
+
     public Object[] transform(Object[] tuple) {
         if (transformatorLevels.size() != 1) {
             throw new IllegalStateException("Can only do single transformations if there is only a single level");
@@ -93,4 +268,60 @@ public class TupleTransformator {
         }
         return tupleListTransformer.transform(tupleList);
     }
-}
\ No newline at end of file
+
+    /**
+     * @author Christian Beikov
+     * @since 1.6.13
+     */
+    private static class DefaultPoolHolder {
+        static final ForkJoinPool POOL = getCommonPool();
+
+        private static ForkJoinPool getCommonPool() {
+            try {
+                // The common pool is only available as of Java 8
+                return (ForkJoinPool) ForkJoinPool.class.getMethod("commonPool").invoke(null);
+            } catch (Exception ex) {
+                // The worker threads of a pool are daemon threads, so the pool doesn't prevent the JVM from shutting down
+                return new ForkJoinPool();
+            }
+        }
+    }
+
+    /**
+     * @author Christian Beikov
+     * @since 1.6.13
+     */
+    private class TransformAction extends RecursiveAction {
+
+        private final int level;
+        private final Object[][] tuples;
+        private final int start;
+        private final int end;
+        private final int chunkSize;
+        private final UpdatableViewMap updatableViewMap;
+
+        public TransformAction(int level, Object[][] tuples, int start, int end, int chunkSize, UpdatableViewMap updatableViewMap) {
+            this.level = level;
+            this.tuples = tuples;
+            this.start = start;
+            this.end = end;
+            this.chunkSize = chunkSize;
+            this.updatableViewMap = updatableViewMap;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - start <= chunkSize) {
+                for (int i = start; i < end; i++) {
+                    tuples[i] = transform(level, tuples[i], updatableViewMap);
+                }
+            } else {
+                int middle = (start + end) >>> 1;
+                invokeAll(
+                        new TransformAction(level, tuples, start, middle, chunkSize, updatableViewMap),
+                        new TransformAction(level, tuples, middle, end, chunkSize, updatableViewMap)
+                );
+            }
+        }
+    }
+}
@@ -24,10 +24,12 @@ import com.blazebit.persistence.view.impl.objectbuilder.transformer.TupleListTra
 import com.blazebit.persistence.view.impl.objectbuilder.transformer.TupleTransformer;
 import com.blazebit.persistence.view.impl.objectbuilder.transformer.TupleTransformerFactory;
 
+import javax.persistence.EntityManagerFactory;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executor;
 
 /**
  *
@@ -138,6 +140,11 @@ public class TupleTransformatorFactory {
                 return tuple;
             }
         }
+
+        @Override
+        public boolean supportsParallelTransformation() {
+            return delegate.supportsParallelTransformation();
+        }
     }
 
     /**
@@ -277,6 +284,11 @@ public class TupleTransformatorFactory {
             newTransformatorLevels[i] = new TupleTransformatorLevel(tupleTransformers, tupleListTransformer);
         }
         
-        return new TupleTransformator(Arrays.asList(newTransformatorLevels));
+        if (entityViewConfiguration == null) {
+            return new TupleTransformator(Arrays.asList(newTransformatorLevels));
+        }
+        Executor correlationExecutor = entityViewConfiguration.getCorrelationExecutor();
+        EntityManagerFactory entityManagerFactory = correlationExecutor == null ? null : entityViewConfiguration.getEntityManager().getEntityManagerFactory();
+        return new TupleTransformator(Arrays.asList(newTransformatorLevels), entityViewConfiguration.getParallelTransformationThreshold(), entityViewConfiguration.getParallelTransformationPool(), correlationExecutor, entityManagerFactory);
     }
 }
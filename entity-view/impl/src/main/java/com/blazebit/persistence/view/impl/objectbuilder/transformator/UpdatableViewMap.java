@@ -18,6 +18,8 @@ package com.blazebit.persistence.view.impl.objectbuilder.transformator;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * @author Christian Beikov
@@ -25,7 +27,30 @@ import java.util.Map;
  */
 public class UpdatableViewMap {
 
-    private final Map<UpdatableViewKey, Object> objectMap = new HashMap<>();
+    private final Map<UpdatableViewKey, Object> objectMap;
+    private final boolean parallel;
+
+    public UpdatableViewMap() {
+        this(false);
+    }
+
+    public UpdatableViewMap(boolean parallel) {
+        this.parallel = parallel;
+        if (parallel) {
+            this.objectMap = new ConcurrentHashMap<>();
+        } else {
+            this.objectMap = new HashMap<>();
+        }
+    }
+
+    /**
+     * Returns whether the tuples are transformed in parallel, in which case object builders must not reuse state across tuples.
+     *
+     * @return true if the tuples are transformed in parallel, false otherwise
+     */
+    public boolean isParallel() {
+        return parallel;
+    }
 
     public Object get(UpdatableViewKey key) {
         return objectMap.get(key);
@@ -35,6 +60,17 @@ public class UpdatableViewMap {
         objectMap.put(key, object);
     }
 
+    public Object putIfAbsent(UpdatableViewKey key, Object object) {
+        if (objectMap instanceof ConcurrentMap<?, ?>) {
+            return ((ConcurrentMap<UpdatableViewKey, Object>) objectMap).putIfAbsent(key, object);
+        }
+        Object existing = objectMap.get(key);
+        if (existing == null) {
+            objectMap.put(key, object);
+        }
+        return existing;
+    }
+
     /**
      * @author Christian Beikov
      * @since 1.2.0
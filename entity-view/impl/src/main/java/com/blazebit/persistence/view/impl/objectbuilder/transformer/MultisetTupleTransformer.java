@@ -81,7 +81,7 @@ public class MultisetTupleTransformer implements TupleTransformer {
             }
             if (tupleTransformator != null) {
                 // Before building the subviews, apply the tuple transformator on the nested set in isolation
-                tupleTransformator.transformAll(objects);
+                tupleTransformator.transformAll(objects, updatableViewMap.isParallel());
             }
             for (int i = 0; i < objects.size(); i++) {
                 Object indexObject = null;
@@ -102,6 +102,13 @@ public class MultisetTupleTransformer implements TupleTransformer {
         return tuple;
     }
 
+    @Override
+    public boolean supportsParallelTransformation() {
+        return (tupleTransformator == null || tupleTransformator.supportsParallelTransformation())
+                && (subviewTupleTransformer == null || subviewTupleTransformer.supportsParallelTransformation())
+                && (indexSubviewTupleTransformer == null || indexSubviewTupleTransformer.supportsParallelTransformation());
+    }
+
     protected void add(Object collection, Object index, Object value) {
         if (elementConverter != null) {
             value = elementConverter.convertToViewType(value);
@@ -54,4 +54,9 @@ public class NullTupleTransformer implements TupleTransformer {
         return tuple;
     }
 
+    @Override
+    public boolean supportsParallelTransformation() {
+        return true;
+    }
+
 }
@@ -70,7 +70,7 @@ public class SingularMultisetTupleTransformer<C> implements TupleTransformer {
                 }
             }
             // Before building the subviews, apply the tuple transformator on the nested set in isolation
-            tupleTransformator.transformAll(objects);
+            tupleTransformator.transformAll(objects, updatableViewMap.isParallel());
             if (!objects.isEmpty()) {
                 // Build views and add them to collections
                 Object[] transformedTuple = subviewTupleTransformer.transform(objects.get(0), updatableViewMap);
@@ -84,4 +84,9 @@ public class SingularMultisetTupleTransformer<C> implements TupleTransformer {
         return tuple;
     }
 
+    @Override
+    public boolean supportsParallelTransformation() {
+        return tupleTransformator.supportsParallelTransformation() && subviewTupleTransformer.supportsParallelTransformation();
+    }
+
 }
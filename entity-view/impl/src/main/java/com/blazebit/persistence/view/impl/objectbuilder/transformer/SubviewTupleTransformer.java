@@ -17,6 +17,7 @@
 package com.blazebit.persistence.view.impl.objectbuilder.transformer;
 
 import com.blazebit.persistence.ObjectBuilder;
+import com.blazebit.persistence.view.impl.objectbuilder.DelegatingObjectBuilder;
 import com.blazebit.persistence.view.impl.objectbuilder.TupleReuse;
 import com.blazebit.persistence.view.impl.objectbuilder.ViewTypeObjectBuilderTemplate;
 import com.blazebit.persistence.view.impl.objectbuilder.transformator.UpdatableViewMap;
@@ -52,11 +53,16 @@ public class SubviewTupleTransformer implements TupleTransformer {
 
     @Override
     public Object[] transform(Object[] tuple, UpdatableViewMap updatableViewMap) {
-        tuple[template.getTupleOffset()] = objectBuilder.build(tuple);
+        tuple[template.getTupleOffset()] = DelegatingObjectBuilder.build(objectBuilder, tuple, updatableViewMap.isParallel());
         for (int i = consumeStartIndex; i < consumeEndIndex; i++) {
             tuple[i] = TupleReuse.CONSUMED;
         }
         return tuple;
     }
 
+    @Override
+    public boolean supportsParallelTransformation() {
+        return true;
+    }
+
 }
@@ -31,4 +31,12 @@ public interface TupleTransformer {
     public int getConsumeEndIndex();
 
     public Object[] transform(Object[] tuple, UpdatableViewMap updatableViewMap);
+
+    /**
+     * Returns whether {@link #transform(Object[], UpdatableViewMap)} may be invoked concurrently for different tuples.
+     *
+     * @return whether the transformer may be invoked concurrently
+     * @since 1.6.13
+     */
+    public boolean supportsParallelTransformation();
 }
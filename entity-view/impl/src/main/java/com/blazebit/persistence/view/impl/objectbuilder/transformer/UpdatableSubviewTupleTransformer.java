@@ -17,6 +17,7 @@
 package com.blazebit.persistence.view.impl.objectbuilder.transformer;
 
 import com.blazebit.persistence.ObjectBuilder;
+import com.blazebit.persistence.view.impl.objectbuilder.DelegatingObjectBuilder;
 import com.blazebit.persistence.view.impl.objectbuilder.TupleId;
 import com.blazebit.persistence.view.impl.objectbuilder.TupleReuse;
 import com.blazebit.persistence.view.impl.objectbuilder.ViewTypeObjectBuilderTemplate;
@@ -73,9 +74,10 @@ public class UpdatableSubviewTupleTransformer implements TupleTransformer {
             if (o != null) {
                 tuple[template.getTupleOffset()] = o;
             } else {
-                o = objectBuilder.build(tuple);
-                updatableViewMap.put(key, o);
-                tuple[template.getTupleOffset()] = o;
+                o = DelegatingObjectBuilder.build(objectBuilder, tuple, updatableViewMap.isParallel());
+                Object existing = updatableViewMap.putIfAbsent(key, o);
+                // When transforming in parallel, another thread might have built the view for the same id already
+                tuple[template.getTupleOffset()] = existing == null ? o : existing;
             }
         } else {
             // In case the null check object index differs from the tupleOffset like it is the case when using inheritance
@@ -87,4 +89,9 @@ public class UpdatableSubviewTupleTransformer implements TupleTransformer {
         return tuple;
     }
 
+    @Override
+    public boolean supportsParallelTransformation() {
+        return true;
+    }
+
 }
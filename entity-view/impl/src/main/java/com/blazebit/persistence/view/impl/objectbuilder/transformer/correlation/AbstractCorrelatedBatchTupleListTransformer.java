@@ -20,9 +20,17 @@ import com.blazebit.persistence.CTEBuilder;
 import com.blazebit.persistence.CriteriaBuilder;
 import com.blazebit.persistence.FullQueryBuilder;
 import com.blazebit.persistence.ObjectBuilder;
+import com.blazebit.persistence.impl.function.arrayany.ArrayAnyFunction;
+import com.blazebit.persistence.impl.query.AbstractCustomQuery;
+import com.blazebit.persistence.impl.query.QueryWrapper;
 import com.blazebit.persistence.parser.expression.Expression;
 import com.blazebit.persistence.parser.expression.ExpressionFactory;
+import com.blazebit.persistence.parser.util.JpaMetamodelUtils;
+import com.blazebit.persistence.spi.ArrayParameterJpaProvider;
+import com.blazebit.persistence.spi.DbmsDialect;
+import com.blazebit.persistence.spi.ParameterLimitedDbmsDialect;
 import com.blazebit.persistence.view.CorrelationProvider;
+import com.blazebit.persistence.view.impl.AdaptiveBatchSizeStatisticsImpl;
 import com.blazebit.persistence.view.impl.BatchCorrelationMode;
 import com.blazebit.persistence.view.CorrelationProviderFactory;
 import com.blazebit.persistence.view.impl.EntityViewConfiguration;
@@ -36,15 +44,22 @@ import com.blazebit.persistence.view.impl.objectbuilder.Limiter;
 import com.blazebit.persistence.view.impl.objectbuilder.TupleReuse;
 import com.blazebit.persistence.view.metamodel.ManagedViewType;
 import com.blazebit.persistence.view.metamodel.ViewType;
+import com.blazebit.reflection.ReflectionUtils;
 
 import javax.persistence.EntityManager;
 import javax.persistence.Parameter;
 import javax.persistence.Query;
+import javax.persistence.metamodel.Attribute;
+import javax.persistence.metamodel.IdentifiableType;
+import javax.persistence.metamodel.ManagedType;
+import javax.persistence.metamodel.SingularAttribute;
+import javax.persistence.metamodel.Type;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  *
@@ -55,12 +70,15 @@ public abstract class AbstractCorrelatedBatchTupleListTransformer extends Abstra
 
     public static final String CORRELATION_KEY_ALIAS = "correlationKey";
     private static final String CORRELATION_PARAM_PREFIX = "correlationParam_";
+    private static final String HIBERNATE_READ_ONLY_HINT = "org.hibernate.readOnly";
+    private static final String ECLIPSELINK_READ_ONLY_HINT = "eclipselink.read-only";
 
     protected final int batchSize;
     protected final boolean correlatesThis;
     protected final BatchCorrelationMode expectBatchCorrelationMode;
     protected final int valueIndex;
     protected final int keyIndex;
+    protected final Class<?> arrayCorrelationElementType;
 
     protected String correlationParamName;
     protected String correlationSelectExpression;
@@ -68,15 +86,103 @@ public abstract class AbstractCorrelatedBatchTupleListTransformer extends Abstra
     protected CorrelatedSubqueryViewRootJpqlMacro viewRootJpqlMacro;
     protected CorrelatedSubqueryEmbeddingViewJpqlMacro embeddingViewJpqlMacro;
     protected Query query;
+    protected boolean arrayCorrelation;
+    private final AdaptiveBatchSizeStatisticsImpl adaptiveBatchSizeStatistics;
+    private EntityManager entityManager;
 
     public AbstractCorrelatedBatchTupleListTransformer(ExpressionFactory ef, Correlator correlator, ContainerAccumulator<?> containerAccumulator, ManagedViewTypeImplementor<?> viewRootType, ManagedViewTypeImplementor<?> embeddingViewType, Expression correlationResult, CorrelationProviderFactory correlationProviderFactory, String attributePath, String[] fetches, String[] indexFetches,
                                                        Expression indexExpression, Correlator indexCorrelator, boolean correlatesThis, int viewRootIndex, int embeddingViewIndex, int tupleIndex, int defaultBatchSize, Class<?> correlationBasisType, Class<?> correlationBasisEntity, Limiter limiter, EntityViewConfiguration entityViewConfiguration) {
         super(ef, correlator, containerAccumulator, viewRootType, embeddingViewType, correlationResult, correlationProviderFactory, attributePath, fetches, indexFetches, indexExpression, indexCorrelator, viewRootIndex, embeddingViewIndex, tupleIndex, correlationBasisType, correlationBasisEntity, limiter, entityViewConfiguration);
-        this.batchSize = entityViewConfiguration.getBatchSize(attributePath, defaultBatchSize);
+        this.adaptiveBatchSizeStatistics = entityViewConfiguration.getAdaptiveBatchSizeStatistics();
+        int configuredBatchSize = entityViewConfiguration.getBatchSize(attributePath, defaultBatchSize);
+        if (adaptiveBatchSizeStatistics != null) {
+            configuredBatchSize = adaptiveBatchSizeStatistics.getBatchSize(viewRootType.getJavaType(), attributePath, configuredBatchSize, entityViewConfiguration.getAdaptiveBatchSizeMin(), entityViewConfiguration.getAdaptiveBatchSizeMax());
+        }
+        int effectiveBatchSize = getEffectiveBatchSize(configuredBatchSize);
+        if (adaptiveBatchSizeStatistics != null && effectiveBatchSize < configuredBatchSize) {
+            // Keep the batch size limited by the parameter count on one of the few sizes that the adaptive batch sizing uses
+            effectiveBatchSize = Integer.highestOneBit(effectiveBatchSize);
+        }
+        this.batchSize = effectiveBatchSize;
         this.correlatesThis = correlatesThis;
         this.expectBatchCorrelationMode = entityViewConfiguration.getExpectBatchCorrelationValues(attributePath);
         this.valueIndex = correlator.getElementOffset();
         this.keyIndex = valueIndex + 1;
+        this.arrayCorrelationElementType = getArrayCorrelationElementType();
+    }
+
+    private Class<?> getArrayCorrelationElementType() {
+        if (batchSize < 2 || correlationBasisEntity == null || limiter != null || !(jpaProvider instanceof ArrayParameterJpaProvider)) {
+            return null;
+        }
+        FullQueryBuilder<?, ?> queryBuilder = entityViewConfiguration.getCriteriaBuilder();
+        if (!queryBuilder.getCriteriaBuilderFactory().getRegisteredFunctions().containsKey(ArrayAnyFunction.FUNCTION_NAME)) {
+            return null;
+        }
+        ManagedType<?> managedType = queryBuilder.getMetamodel().managedType(correlationBasisEntity);
+        if (!JpaMetamodelUtils.isIdentifiable(managedType)) {
+            return null;
+        }
+        Set<SingularAttribute<?, ?>> idAttributes = JpaMetamodelUtils.getIdAttributes((IdentifiableType<?>) managedType);
+        if (idAttributes.size() != 1) {
+            return null;
+        }
+        SingularAttribute<?, ?> idAttribute = idAttributes.iterator().next();
+        if (idAttribute.getType().getPersistenceType() != Type.PersistenceType.BASIC) {
+            return null;
+        }
+        Class<?> idType = ReflectionUtils.getObjectClassOfPrimitve(idAttribute.getJavaType());
+        if (!((ArrayParameterJpaProvider) jpaProvider).supportsArrayParameter(idType)) {
+            return null;
+        }
+        return idType;
+    }
+
+    private int getEffectiveBatchSize(int batchSize) {
+        if (batchSize < 2) {
+            return batchSize;
+        }
+        FullQueryBuilder<?, ?> queryBuilder = entityViewConfiguration.getCriteriaBuilder();
+        DbmsDialect dbmsDialect = queryBuilder.getService(DbmsDialect.class);
+        if (!(dbmsDialect instanceof ParameterLimitedDbmsDialect)) {
+            return batchSize;
+        }
+        int maximumParameterCount = ((ParameterLimitedDbmsDialect) dbmsDialect).getMaximumParameterCount();
+        if (maximumParameterCount == Integer.MAX_VALUE) {
+            return batchSize;
+        }
+        // Every batch element is bound as separate parameter per id column, so we reduce the batch size to stay below the parameter limit of the DBMS
+        int columnCount = Math.max(getIdColumnCount(correlationBasisEntity), Math.max(getIdColumnCount(viewRootType.getEntityClass()), getIdColumnCount(embeddingViewType.getEntityClass())));
+        int availableParameterCount = maximumParameterCount - queryBuilder.getParameters().size() - entityViewConfiguration.getOptionalParameters().size();
+        return Math.max(1, Math.min(batchSize, availableParameterCount / columnCount));
+    }
+
+    private int getIdColumnCount(Class<?> entityClass) {
+        if (entityClass == null) {
+            return 1;
+        }
+        ManagedType<?> managedType = entityViewConfiguration.getCriteriaBuilder().getMetamodel().managedType(entityClass);
+        if (!JpaMetamodelUtils.isIdentifiable(managedType)) {
+            return 1;
+        }
+        int columnCount = 0;
+        for (SingularAttribute<?, ?> idAttribute : JpaMetamodelUtils.getIdAttributes((IdentifiableType<?>) managedType)) {
+            columnCount += getColumnCount(idAttribute.getType());
+        }
+        return Math.max(1, columnCount);
+    }
+
+    private static int getColumnCount(Type<?> type) {
+        if (type.getPersistenceType() != Type.PersistenceType.EMBEDDABLE) {
+            return 1;
+        }
+        int columnCount = 0;
+        for (Attribute<?, ?> attribute : ((ManagedType<?>) type).getAttributes()) {
+            if (attribute instanceof SingularAttribute<?, ?>) {
+                columnCount += getColumnCount(((SingularAttribute<?, ?>) attribute).getType());
+            }
+        }
+        return columnCount;
     }
 
     private String generateCorrelationParamName() {
@@ -96,7 +202,7 @@ public abstract class AbstractCorrelatedBatchTupleListTransformer extends Abstra
         }
     }
 
-    private String applyAndGetCorrelationRoot(BatchCorrelationMode batchCorrelationMode) {
+    private String applyAndGetCorrelationRoot(BatchCorrelationMode batchCorrelationMode, boolean allowArrayCorrelation) {
         Class<?> viewRootEntityClass = viewRootType.getEntityClass();
         Class<?> embeddingViewEntityClass = embeddingViewType.getEntityClass();
         String viewRootIdAttributePath = getEntityIdName(viewRootEntityClass);
@@ -124,7 +230,7 @@ public abstract class AbstractCorrelatedBatchTupleListTransformer extends Abstra
             embeddingViewExpression = CORRELATION_KEY_ALIAS;
         }
 
-        this.criteriaBuilder = queryBuilder.getCriteriaBuilderFactory().create(queryBuilder.getEntityManager(), Object[].class);
+        this.criteriaBuilder = queryBuilder.getCriteriaBuilderFactory().create(entityManager == null ? entityViewConfiguration.getEntityManager() : entityManager, Object[].class);
         if (queryBuilder instanceof CTEBuilder<?>) {
             this.criteriaBuilder.withCtesFrom((CTEBuilder<?>) queryBuilder);
         }
@@ -134,13 +240,17 @@ public abstract class AbstractCorrelatedBatchTupleListTransformer extends Abstra
         this.criteriaBuilder.registerMacro("view_root", viewRootJpqlMacro);
         this.criteriaBuilder.registerMacro("embedding_view", embeddingViewJpqlMacro);
 
+        // Bind the correlation keys as single array parameter instead of a VALUES clause if the JPA provider and DBMS support that
+        this.arrayCorrelation = allowArrayCorrelation && batchCorrelationMode == BatchCorrelationMode.VALUES && arrayCorrelationElementType != null;
         String joinBase = CORRELATION_KEY_ALIAS;
-        SubqueryCorrelationBuilder correlationBuilder = new SubqueryCorrelationBuilder(queryBuilder, optionalParameters, criteriaBuilder, correlationAlias, correlationExternalAlias, correlationResult, correlationBasisType, correlationBasisEntityType, joinBase, attributePath, batchSize, limiter, false);
+        SubqueryCorrelationBuilder correlationBuilder = new SubqueryCorrelationBuilder(queryBuilder, optionalParameters, criteriaBuilder, correlationAlias, correlationExternalAlias, correlationResult, correlationBasisType, correlationBasisEntityType, joinBase, attributePath, batchSize, limiter, false, arrayCorrelation);
         CorrelationProvider provider = correlationProviderFactory.create(entityViewConfiguration.getCriteriaBuilder(), entityViewConfiguration.getOptionalParameters());
 
         String correlationKeyExpression;
         if (batchSize > 1) {
-            if (batchCorrelationMode == BatchCorrelationMode.VALUES) {
+            if (arrayCorrelation) {
+                this.correlationParamName = generateCorrelationParamName();
+            } else if (batchCorrelationMode == BatchCorrelationMode.VALUES) {
                 this.correlationParamName = CORRELATION_KEY_ALIAS;
                 // TODO: when using EMBEDDING_VIEW, we could make use of correlationBasis instead of binding parameters separately
             } else {
@@ -169,6 +279,9 @@ public abstract class AbstractCorrelatedBatchTupleListTransformer extends Abstra
         } else {
             provider.applyCorrelation(correlationBuilder, ':' + correlationParamName);
         }
+        if (arrayCorrelation) {
+            criteriaBuilder.where(correlationSelectExpression).eqExpression(ArrayAnyFunction.FUNCTION_NAME + "(:" + correlationParamName + ")");
+        }
         if (batchSize > 1 && (originalFirstResult != criteriaBuilder.getFirstResult()
                 || originalMaxResults != criteriaBuilder.getMaxResults())) {
             throw new IllegalArgumentException("Correlation provider '" + provider + "' wrongly uses setFirstResult() or setMaxResults() on the query builder which might lead to wrong results. Use SELECT fetching with batch size 1 or reformulate the correlation provider to use the limit/offset in a subquery!");
@@ -191,11 +304,54 @@ public abstract class AbstractCorrelatedBatchTupleListTransformer extends Abstra
 
     @Override
     public List<Object[]> transform(List<Object[]> tuples) {
+        load(tuples, null);
+        consumeTupleMacroViewValues(tuples);
+        return tuples;
+    }
+
+    /**
+     * Returns whether the correlated values can be loaded through a separate entity manager.
+     * This is not the case if entities are loaded, because these must be managed by the entity manager of the main query.
+     *
+     * @return Whether the correlated values can be loaded through a separate entity manager
+     */
+    public boolean supportsSeparateEntityManager() {
+        return !correlator.hasJpaManagedResults() && (indexCorrelator == null || !indexCorrelator.hasJpaManagedResults());
+    }
+
+    /**
+     * Loads the correlated values into the given tuples through the given entity manager or the one of the main query if <code>null</code>.
+     * Contrary to {@link #transform(List)}, the tuple elements used for view macros are not consumed,
+     * so that other correlations can be loaded concurrently for the same tuples.
+     *
+     * @param tuples The tuples
+     * @param entityManager The entity manager to use or <code>null</code>
+     */
+    public void load(List<Object[]> tuples, EntityManager entityManager) {
+        this.entityManager = entityManager;
+        try {
+            loadCorrelations(tuples);
+        } finally {
+            this.entityManager = null;
+        }
+    }
+
+    private Query createQuery() {
+        Query query = criteriaBuilder.getQuery();
+        if (entityManager != null) {
+            // The separate entity manager is only used for reading
+            query.setHint(HIBERNATE_READ_ONLY_HINT, true);
+            query.setHint(ECLIPSELINK_READ_ONLY_HINT, true);
+        }
+        return query;
+    }
+
+    private void loadCorrelations(List<Object[]> tuples) {
         FixedArrayList correlationParams = new FixedArrayList(batchSize);
         // We have the correlation key on the first position if we do batching
         final int tupleOffset = (batchSize > 1 ? 1 : 0) + (indexCorrelator == null && indexExpression == null ? 0 : 1);
 
-        final String correlationRoot = applyAndGetCorrelationRoot(expectBatchCorrelationMode);
+        final String correlationRoot = applyAndGetCorrelationRoot(expectBatchCorrelationMode, true);
         // Add select items so that macros are properly used and we can query usage
         ObjectBuilder<?> objectBuilder = correlator.finish(criteriaBuilder, entityViewConfiguration, 0, tupleOffset, correlationRoot, embeddingViewJpqlMacro, true);
         if (batchSize > 1) {
@@ -225,19 +381,17 @@ public abstract class AbstractCorrelatedBatchTupleListTransformer extends Abstra
             if (batchSize > 1) {
                 // If the expectation was wrong, we have to create a new criteria builder
                 if (expectBatchCorrelationMode != BatchCorrelationMode.VALUES) {
-                    applyAndGetCorrelationRoot(BatchCorrelationMode.VALUES);
-                    objectBuilder = correlator.finish(criteriaBuilder, entityViewConfiguration, 0, tupleOffset, correlationRoot, embeddingViewJpqlMacro, true);
-                    criteriaBuilder.select(correlationSelectExpression);
-                    if (indexCorrelator != null) {
-                        ObjectBuilder<?> indexBuilder = indexCorrelator.finish(criteriaBuilder, entityViewConfiguration, tupleOffset, 0, indexExpression, embeddingViewJpqlMacro, true);
-                        if (indexBuilder != null) {
-                            criteriaBuilder.selectNew(new LateAdditionalObjectBuilder(objectBuilder, indexBuilder, false));
-                        }
-                    }
+                    reapplyValuesCorrelation(true, tupleOffset, correlationRoot);
                 }
             }
             populateParameters(criteriaBuilder);
-            query = criteriaBuilder.getQuery();
+            query = createQuery();
+            if (arrayCorrelation && requiresSqlProcessing(query)) {
+                // Parameters of queries that need SQL processing are bound by us, so we fall back to the VALUES clause
+                reapplyValuesCorrelation(false, tupleOffset, correlationRoot);
+                populateParameters(criteriaBuilder);
+                query = createQuery();
+            }
 
             Map<Object, TuplePromise> correlationValues = new HashMap<>(tuples.size());
             while (tupleListIter.hasNext()) {
@@ -280,9 +434,25 @@ public abstract class AbstractCorrelatedBatchTupleListTransformer extends Abstra
 
             fillDefaultValues(Collections.singletonMap(null, correlationValues));
         }
+    }
 
-        consumeTupleMacroViewValues(tuples);
-        return tuples;
+    private void reapplyValuesCorrelation(boolean allowArrayCorrelation, int tupleOffset, String correlationRoot) {
+        applyAndGetCorrelationRoot(BatchCorrelationMode.VALUES, allowArrayCorrelation);
+        ObjectBuilder<?> objectBuilder = correlator.finish(criteriaBuilder, entityViewConfiguration, 0, tupleOffset, correlationRoot, embeddingViewJpqlMacro, true);
+        criteriaBuilder.select(correlationSelectExpression);
+        if (indexCorrelator != null) {
+            ObjectBuilder<?> indexBuilder = indexCorrelator.finish(criteriaBuilder, entityViewConfiguration, tupleOffset, 0, indexExpression, embeddingViewJpqlMacro, true);
+            if (indexBuilder != null) {
+                criteriaBuilder.selectNew(new LateAdditionalObjectBuilder(objectBuilder, indexBuilder, false));
+            }
+        }
+    }
+
+    private static boolean requiresSqlProcessing(Query query) {
+        while (query instanceof QueryWrapper) {
+            query = ((QueryWrapper) query).getDelegate();
+        }
+        return query instanceof AbstractCustomQuery<?>;
     }
 
     @Override
@@ -300,7 +470,7 @@ public abstract class AbstractCorrelatedBatchTupleListTransformer extends Abstra
         }
     }
 
-    private void consumeTupleMacroViewValues(List<Object[]> tuples) {
+    public void consumeTupleMacroViewValues(List<Object[]> tuples) {
         int totalSize = tuples.size();
         if (embeddingViewIndex > startIndex && viewRootIndex > startIndex) {
             for (int i = 0; i < totalSize; i++) {
@@ -366,8 +536,8 @@ public abstract class AbstractCorrelatedBatchTupleListTransformer extends Abstra
         if (batchCorrelationValues) {
             if (batchSize > 1) {
                 // If the expectation was wrong, we have to create a new criteria builder
-                if (expectBatchCorrelationMode != BatchCorrelationMode.VALUES) {
-                    applyAndGetCorrelationRoot(BatchCorrelationMode.VALUES);
+                if (expectBatchCorrelationMode != BatchCorrelationMode.VALUES || arrayCorrelation) {
+                    applyAndGetCorrelationRoot(BatchCorrelationMode.VALUES, false);
                     macro = BatchCorrelationMode.VIEW_ROOTS == correlationMode ? viewRootJpqlMacro : embeddingViewJpqlMacro;
                     ObjectBuilder<?> objectBuilder = correlator.finish(criteriaBuilder, entityViewConfiguration, 0, tupleOffset, correlationRoot, embeddingViewJpqlMacro, true);
                     criteriaBuilder.select(correlationSelectExpression);
@@ -384,7 +554,7 @@ public abstract class AbstractCorrelatedBatchTupleListTransformer extends Abstra
                 macro.addIdParamPredicate(criteriaBuilder);
             }
             populateParameters(criteriaBuilder);
-            query = criteriaBuilder.getQuery();
+            query = createQuery();
 
             for (Map.Entry<Object, Map<Object, TuplePromise>> batchEntry : viewRoots.entrySet()) {
                 Map<Object, TuplePromise> batchValues = batchEntry.getValue();
@@ -418,7 +588,7 @@ public abstract class AbstractCorrelatedBatchTupleListTransformer extends Abstra
             if (batchSize > 1) {
                 // If the expectation was wrong, we have to create a new criteria builder
                 if (expectBatchCorrelationMode != correlationMode) {
-                    applyAndGetCorrelationRoot(correlationMode);
+                    applyAndGetCorrelationRoot(correlationMode, false);
                     macro = BatchCorrelationMode.VIEW_ROOTS == correlationMode ? viewRootJpqlMacro : embeddingViewJpqlMacro;
                     ObjectBuilder<?> objectBuilder = correlator.finish(criteriaBuilder, entityViewConfiguration, 0, tupleOffset, correlationRoot, embeddingViewJpqlMacro, true);
                     criteriaBuilder.select(correlationSelectExpression);
@@ -435,7 +605,7 @@ public abstract class AbstractCorrelatedBatchTupleListTransformer extends Abstra
                 macro.addIdParamPredicate(criteriaBuilder);
             }
             populateParameters(criteriaBuilder);
-            query = criteriaBuilder.getQuery();
+            query = createQuery();
 
             for (Map.Entry<Object, Map<Object, TuplePromise>> batchEntry : correlationValues.entrySet()) {
                 Map<Object, TuplePromise> batchValues = batchEntry.getValue();
@@ -468,9 +638,16 @@ public abstract class AbstractCorrelatedBatchTupleListTransformer extends Abstra
     }
 
     private void batchLoad(Map<Object, TuplePromise> correlationValues, FixedArrayList batchParameters, FixedArrayList viewRootIds, Object defaultKey, CorrelatedSubqueryViewRootJpqlMacro macro, BatchCorrelationMode batchCorrelationMode) {
+        int keys = Math.max(batchParameters.realSize(), viewRootIds == null ? 0 : viewRootIds.realSize());
         batchParameters.clearRest();
         if (criteriaBuilder.containsParameter(correlationParamName)) {
-            if (batchSize > 1 && batchCorrelationMode == BatchCorrelationMode.VALUES) {
+            if (arrayCorrelation) {
+                Object[] correlationKeys = new Object[batchParameters.realSize()];
+                for (int i = 0; i < correlationKeys.length; i++) {
+                    correlationKeys[i] = jpaProvider.getIdentifier(batchParameters.get(i));
+                }
+                ((ArrayParameterJpaProvider) jpaProvider).setArrayParameter(query, correlationParamName, arrayCorrelationElementType, correlationKeys);
+            } else if (batchSize > 1 && batchCorrelationMode == BatchCorrelationMode.VALUES) {
                 criteriaBuilder.setParameter(correlationParamName, batchParameters);
                 query.setParameter(correlationParamName, batchParameters);
             } else {
@@ -488,7 +665,16 @@ public abstract class AbstractCorrelatedBatchTupleListTransformer extends Abstra
             }
         }
 
-        populateResult(correlationValues, defaultKey, (List<Object>) query.getResultList());
+        List<Object> resultList;
+        if (adaptiveBatchSizeStatistics == null) {
+            resultList = (List<Object>) query.getResultList();
+        } else {
+            long start = System.nanoTime();
+            resultList = (List<Object>) query.getResultList();
+            adaptiveBatchSizeStatistics.record(viewRootType.getJavaType(), attributePath, keys, resultList.size(), System.nanoTime() - start,
+                    entityViewConfiguration.getAdaptiveBatchSizeMin(), entityViewConfiguration.getAdaptiveBatchSizeMax(), entityViewConfiguration.getAdaptiveBatchSizeTargetLatencyNanos());
+        }
+        populateResult(correlationValues, defaultKey, resultList);
 
         batchParameters.reset();
         if (viewRootIds != null) {
@@ -20,6 +20,7 @@ import com.blazebit.persistence.FullQueryBuilder;
 import com.blazebit.persistence.LimitBuilder;
 import com.blazebit.persistence.ObjectBuilder;
 import com.blazebit.persistence.PaginatedCriteriaBuilder;
+import com.blazebit.persistence.impl.AbstractFullQueryBuilder;
 import com.blazebit.persistence.parser.expression.Expression;
 import com.blazebit.persistence.parser.expression.ExpressionFactory;
 import com.blazebit.persistence.parser.util.JpaMetamodelUtils;
@@ -47,6 +48,7 @@ import com.blazebit.persistence.view.metamodel.ViewType;
 import com.blazebit.persistence.view.spi.EmbeddingViewJpqlMacro;
 import com.blazebit.persistence.view.spi.ViewJpqlMacro;
 
+import javax.persistence.EntityManager;
 import javax.persistence.Parameter;
 import javax.persistence.metamodel.IdentifiableType;
 import javax.persistence.metamodel.ManagedType;
@@ -159,9 +161,18 @@ public class AbstractCorrelatedSubselectTupleTransformer implements TupleTransfo
         this.idAttributePath = getEntityIdName(entityViewConfiguration, viewRootEntityClass);
     }
 
+    private static FullQueryBuilder<?, ?> copyCriteriaBuilder(FullQueryBuilder<?, ?> queryBuilder, EntityManager entityManager) {
+        // The criteria builder of a prepared query may be used with a different entity manager than the one of the query that is transformed
+        if (queryBuilder instanceof AbstractFullQueryBuilder<?, ?, ?, ?, ?>) {
+            return ((AbstractFullQueryBuilder<?, ?, ?, ?, ?>) queryBuilder).copyCriteriaBuilder(entityManager, Object[].class, false);
+        }
+        return queryBuilder.copyCriteriaBuilder(Object[].class, false);
+    }
+
     private void prepare() {
         JpaProvider jpaProvider = entityViewConfiguration.getCriteriaBuilder().getService(JpaProvider.class);
         FullQueryBuilder<?, ?> queryBuilder = entityViewConfiguration.getCriteriaBuilder();
+        EntityManager entityManager = entityViewConfiguration.getEntityManager();
         Map<String, Object> optionalParameters = entityViewConfiguration.getOptionalParameters();
 
         Class<?> correlationBasisEntityType = correlationBasisEntity;
@@ -170,7 +181,7 @@ public class AbstractCorrelatedSubselectTupleTransformer implements TupleTransfo
         EmbeddingViewJpqlMacro embeddingViewJpqlMacro = entityViewConfiguration.getEmbeddingViewJpqlMacro();
         ViewJpqlMacro viewJpqlMacro = entityViewConfiguration.getViewJpqlMacro();
         if (queryBuilder instanceof PaginatedCriteriaBuilder<?>) {
-            criteriaBuilder = queryBuilder.copyCriteriaBuilder(Object[].class, false);
+            criteriaBuilder = copyCriteriaBuilder(queryBuilder, entityManager);
         } else {
             LimitBuilder<?> limitBuilder = (LimitBuilder<?>) queryBuilder;
             // To set the limit, we need the JPA provider to support this
@@ -178,16 +189,17 @@ public class AbstractCorrelatedSubselectTupleTransformer implements TupleTransfo
                 // In case the outer query defines a limit/offset and this is not a paginated criteria builder
                 // we must turn this query builder into a paginated criteria builder first
                 try {
-                    criteriaBuilder = queryBuilder.copyCriteriaBuilder(Object[].class, true)
-                            .page(limitBuilder.getFirstResult(), limitBuilder.getMaxResults())
-                            .copyCriteriaBuilder(Object[].class, false);
+                    criteriaBuilder = copyCriteriaBuilder(
+                            queryBuilder.copyCriteriaBuilder(Object[].class, true).page(limitBuilder.getFirstResult(), limitBuilder.getMaxResults()),
+                            entityManager
+                    );
                 } catch (IllegalStateException ex) {
                     LOG.log(Level.WARNING, "Could not create a paginated criteria builder for SUBSELECT fetching which might lead to bad performance", ex);
-                    criteriaBuilder = queryBuilder.copyCriteriaBuilder(Object[].class, false);
+                    criteriaBuilder = copyCriteriaBuilder(queryBuilder, entityManager);
                 }
             } else {
                 // Regular query without limit/offset
-                criteriaBuilder = queryBuilder.copyCriteriaBuilder(Object[].class, false);
+                criteriaBuilder = copyCriteriaBuilder(queryBuilder, entityManager);
             }
         }
         int originalFirstResult = 0;
@@ -206,7 +218,7 @@ public class AbstractCorrelatedSubselectTupleTransformer implements TupleTransfo
         embeddingViewJpqlMacro.setEmbeddingViewPath(embeddingViewPath);
 
         String joinBase = embeddingViewPath;
-        SubqueryCorrelationBuilder correlationBuilder = new SubqueryCorrelationBuilder(queryBuilder, optionalParameters, criteriaBuilder, correlationAlias, correlationExternalAlias, correlationResultExpression, correlationBasisType, correlationBasisEntityType, joinBase, attributePath, 1, limiter, true);
+        SubqueryCorrelationBuilder correlationBuilder = new SubqueryCorrelationBuilder(queryBuilder, optionalParameters, criteriaBuilder, correlationAlias, correlationExternalAlias, correlationResultExpression, correlationBasisType, correlationBasisEntityType, joinBase, attributePath, 1, limiter, true, false);
         CorrelationProvider provider = correlationProviderFactory.create(entityViewConfiguration.getCriteriaBuilder(), entityViewConfiguration.getOptionalParameters());
 
         provider.applyCorrelation(correlationBuilder, correlationBasisExpression);
@@ -438,4 +450,10 @@ public class AbstractCorrelatedSubselectTupleTransformer implements TupleTransfo
         return tuple;
     }
 
+    @Override
+    public boolean supportsParallelTransformation() {
+        // Results for missing keys are registered in the shared map, so this level is transformed sequentially
+        return false;
+    }
+
 }
@@ -19,6 +19,8 @@ package com.blazebit.persistence.view.impl.objectbuilder.transformer.correlation
 import com.blazebit.persistence.FullQueryBuilder;
 import com.blazebit.persistence.ObjectBuilder;
 import com.blazebit.persistence.view.impl.EntityViewConfiguration;
+import com.blazebit.persistence.view.impl.metamodel.BasicTypeImpl;
+import com.blazebit.persistence.view.metamodel.Type;
 import com.blazebit.persistence.view.spi.EmbeddingViewJpqlMacro;
 
 /**
@@ -28,11 +30,30 @@ import com.blazebit.persistence.view.spi.EmbeddingViewJpqlMacro;
  */
 public final class BasicCorrelator implements Correlator {
 
+    private final boolean jpaManagedResults;
+
+    public BasicCorrelator() {
+        this(false);
+    }
+
+    public BasicCorrelator(boolean jpaManagedResults) {
+        this.jpaManagedResults = jpaManagedResults;
+    }
+
     @Override
     public int getElementOffset() {
         return 0;
     }
 
+    @Override
+    public boolean hasJpaManagedResults() {
+        return jpaManagedResults;
+    }
+
+    public static boolean isJpaManaged(Type<?> type) {
+        return type instanceof BasicTypeImpl<?> && ((BasicTypeImpl<?>) type).isJpaManaged();
+    }
+
     @Override
     public ObjectBuilder<?> finish(FullQueryBuilder<?, ?> criteriaBuilder, EntityViewConfiguration entityViewConfiguration, int offset, int tupleSuffix, String correlationRoot, EmbeddingViewJpqlMacro embeddingViewJpqlMacro, boolean nullFlatViewIfEmpty) {
         criteriaBuilder.select(correlationRoot);
@@ -30,6 +30,8 @@ public interface Correlator {
 
     public int getElementOffset();
 
+    public boolean hasJpaManagedResults();
+
     public ObjectBuilder<?> finish(FullQueryBuilder<?, ?> criteriaBuilder, EntityViewConfiguration entityViewConfiguration, int offset, int tupleSuffix, String correlationRoot, EmbeddingViewJpqlMacro embeddingViewJpqlMacro, boolean nullFlatViewIfEmpty);
 
 }
@@ -53,11 +53,12 @@ public class SubqueryCorrelationBuilder implements CorrelationBuilder {
     private final int batchSize;
     private final Limiter limiter;
     private final boolean correlateJoinBase;
+    private final boolean correlationBasisArray;
     private String correlationRoot;
     private Object correlationBuilder;
 
     public SubqueryCorrelationBuilder(ParameterHolder<?> parameterHolder, Map<String, Object> optionalParameters, FullQueryBuilder<?, ?> criteriaBuilder, String correlationAlias, String correlationExternalAlias, String correlationResult, Class<?> correlationBasisType, Class<?> correlationBasisEntity, String correlationJoinBase, String attributePath, int batchSize,
-                                      Limiter limiter, boolean correlateJoinBase) {
+                                      Limiter limiter, boolean correlateJoinBase, boolean correlationBasisArray) {
         this.parameterHolder = parameterHolder;
         this.optionalParameters = optionalParameters;
         this.criteriaBuilder = criteriaBuilder;
@@ -71,6 +72,7 @@ public class SubqueryCorrelationBuilder implements CorrelationBuilder {
         this.batchSize = batchSize;
         this.correlateJoinBase = correlateJoinBase;
         this.limiter = limiter;
+        this.correlationBasisArray = correlationBasisArray;
     }
 
     @Override
@@ -105,11 +107,7 @@ public class SubqueryCorrelationBuilder implements CorrelationBuilder {
 
         JoinOnBuilder<CorrelationQueryBuilder> correlationBuilder;
         if (batchSize > 1) {
-            if (correlationBasisEntity != null) {
-                criteriaBuilder.fromIdentifiableValues(correlationBasisEntity, correlationJoinBase, batchSize);
-            } else {
-                criteriaBuilder.fromValues(correlationBasisType, correlationJoinBase, batchSize);
-            }
+            fromCorrelationBasis();
 
             if (limiter == null) {
                 correlationBuilder = (JoinOnBuilder<CorrelationQueryBuilder>) (JoinOnBuilder<?>) criteriaBuilder.innerJoinOn(correlationJoinBase, entityClass, correlationAlias);
@@ -173,11 +171,7 @@ public class SubqueryCorrelationBuilder implements CorrelationBuilder {
 
         JoinOnBuilder<CorrelationQueryBuilder> correlationBuilder;
         if (batchSize > 1) {
-            if (correlationBasisEntity != null) {
-                criteriaBuilder.fromIdentifiableValues(correlationBasisEntity, correlationJoinBase, batchSize);
-            } else {
-                criteriaBuilder.fromValues(correlationBasisType, correlationJoinBase, batchSize);
-            }
+            fromCorrelationBasis();
 
             if (limiter == null) {
                 correlationBuilder = (JoinOnBuilder<CorrelationQueryBuilder>) (JoinOnBuilder<?>) criteriaBuilder.innerJoinOn(entityType, correlationAlias);
@@ -240,11 +234,7 @@ public class SubqueryCorrelationBuilder implements CorrelationBuilder {
 
         JoinOnBuilder<CorrelationQueryBuilder> correlationBuilder;
         if (batchSize > 1) {
-            if (correlationBasisEntity != null) {
-                criteriaBuilder.fromIdentifiableValues(correlationBasisEntity, correlationJoinBase, batchSize);
-            } else {
-                criteriaBuilder.fromValues(correlationBasisType, correlationJoinBase, batchSize);
-            }
+            fromCorrelationBasis();
 
             if (limiter == null) {
                 correlationBuilder = (JoinOnBuilder<CorrelationQueryBuilder>) (JoinOnBuilder<?>) criteriaBuilder.innerJoinOn(correlationPath, correlationAlias);
@@ -283,6 +273,17 @@ public class SubqueryCorrelationBuilder implements CorrelationBuilder {
         return correlationBuilder;
     }
 
+    private void fromCorrelationBasis() {
+        if (correlationBasisArray) {
+            // The correlation basis entities are restricted by the caller through an array parameter
+            criteriaBuilder.from(correlationBasisEntity, correlationJoinBase);
+        } else if (correlationBasisEntity != null) {
+            criteriaBuilder.fromIdentifiableValues(correlationBasisEntity, correlationJoinBase, batchSize);
+        } else {
+            criteriaBuilder.fromValues(correlationBasisType, correlationJoinBase, batchSize);
+        }
+    }
+
     private void checkLimitSupport() {
         DbmsDialect dbmsDialect = getService(DbmsDialect.class);
         if (dbmsDialect.getLateralStyle() == LateralStyle.NONE && !dbmsDialect.supportsLimitInQuantifiedPredicateSubquery()) {
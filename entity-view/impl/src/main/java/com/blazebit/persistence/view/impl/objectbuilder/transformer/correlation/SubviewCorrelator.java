@@ -21,8 +21,10 @@ import com.blazebit.persistence.ObjectBuilder;
 import com.blazebit.persistence.view.impl.EntityViewConfiguration;
 import com.blazebit.persistence.view.impl.EntityViewManagerImpl;
 import com.blazebit.persistence.view.spi.EmbeddingViewJpqlMacro;
+import com.blazebit.persistence.view.impl.metamodel.AbstractMethodAttribute;
 import com.blazebit.persistence.view.impl.metamodel.ManagedViewTypeImplementor;
 import com.blazebit.persistence.view.impl.metamodel.MappingConstructorImpl;
+import com.blazebit.persistence.view.metamodel.MapAttribute;
 
 /**
  *
@@ -50,6 +52,16 @@ public final class SubviewCorrelator implements Correlator {
         return managedViewType.getInheritanceSubtypeConfiguration(null).hasSubtypes() ? 1 : 0;
     }
 
+    @Override
+    public boolean hasJpaManagedResults() {
+        for (AbstractMethodAttribute<?, ?> attribute : managedViewType.getRecursiveAttributes().values()) {
+            if (BasicCorrelator.isJpaManaged(attribute.getElementType()) || attribute instanceof MapAttribute<?, ?, ?> && BasicCorrelator.isJpaManaged(((MapAttribute<?, ?, ?>) attribute).getKeyType())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     @Override
     @SuppressWarnings({"rawtypes", "unchecked"})
     public ObjectBuilder<?> finish(FullQueryBuilder<?, ?> criteriaBuilder, EntityViewConfiguration entityViewConfiguration, int offset, int tupleSuffix, String correlationRoot, EmbeddingViewJpqlMacro embeddingViewJpqlMacro, boolean nullFlatViewIfEmpty) {
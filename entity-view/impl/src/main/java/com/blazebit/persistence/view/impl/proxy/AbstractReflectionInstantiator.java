@@ -16,6 +16,7 @@
 
 package com.blazebit.persistence.view.impl.proxy;
 
+import com.blazebit.persistence.view.StaticImplementation;
 import com.blazebit.persistence.view.impl.EntityViewManagerImpl;
 import com.blazebit.persistence.view.impl.metamodel.ManagedViewTypeImplementor;
 import com.blazebit.persistence.view.impl.metamodel.MappingConstructorImpl;
@@ -30,8 +31,10 @@ import com.blazebit.persistence.view.impl.type.PrimitiveShortTypeConverter;
 import com.blazebit.persistence.view.spi.type.BasicDirtyTracker;
 import com.blazebit.persistence.view.spi.type.BasicUserType;
 import com.blazebit.persistence.view.spi.type.DirtyStateTrackable;
+import com.blazebit.persistence.view.spi.type.EntityViewTupleObjectBuilder;
 import com.blazebit.persistence.view.spi.type.TypeConverter;
 
+import java.lang.reflect.Constructor;
 import java.lang.reflect.Modifier;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -88,6 +91,31 @@ public abstract class AbstractReflectionInstantiator<T> implements ObjectInstant
         return array;
     }
 
+    /**
+     * Returns the constructor of the object builder generated by the annotation processor into the given static implementation class,
+     * or <code>null</code> if the class is a runtime generated proxy or was generated by an older annotation processor version.
+     *
+     * @param proxyClazz The proxy class
+     * @param <T> The proxy type
+     * @return The constructor of the generated object builder or <code>null</code>
+     */
+    @SuppressWarnings("unchecked")
+    protected static <T> Constructor<? extends EntityViewTupleObjectBuilder<T>> getStaticObjectBuilderConstructor(Class<T> proxyClazz) {
+        if (proxyClazz.getAnnotation(StaticImplementation.class) == null) {
+            return null;
+        }
+        for (Class<?> declaredClass : proxyClazz.getDeclaredClasses()) {
+            if (EntityViewTupleObjectBuilder.CLASS_NAME.equals(declaredClass.getSimpleName()) && EntityViewTupleObjectBuilder.class.isAssignableFrom(declaredClass)) {
+                try {
+                    return (Constructor<? extends EntityViewTupleObjectBuilder<T>>) declaredClass.getConstructor(EntityViewTupleObjectBuilder.Delegate.class);
+                } catch (NoSuchMethodException ex) {
+                    return null;
+                }
+            }
+        }
+        return null;
+    }
+
     public static <T> ObjectInstantiator<T> createInstantiator(MappingConstructorImpl<T> mappingConstructor, ProxyFactory proxyFactory, ManagedViewTypeImplementor<T> managedViewType, Class<?>[] constructorParameterTypes, EntityViewManagerImpl evm, List<MutableBasicUserTypeEntry> mutableBasicUserTypes, List<TypeConverterEntry> typeConverterEntries) {
         if (managedViewType.getJavaType().isInterface() || Modifier.isAbstract(managedViewType.getJavaType().getModifiers())) {
             return new TupleConstructorReflectionInstantiator<>(mappingConstructor, proxyFactory, managedViewType, constructorParameterTypes, evm, mutableBasicUserTypes, typeConverterEntries);
@@ -124,7 +152,7 @@ public abstract class AbstractReflectionInstantiator<T> implements ObjectInstant
         }
     }
 
-    protected final void prepareTuple(Object[] tuple) {
+    public final void prepareTuple(Object[] tuple) {
         // TODO: move this into proxy generated code by setting user types on a static AtomicReferenceArray
         // type conversion
         for (int i = 0; i < typeConverters.length; i++) {
@@ -133,7 +161,7 @@ public abstract class AbstractReflectionInstantiator<T> implements ObjectInstant
         }
     }
 
-    protected final void finalizeInstance(Object instance) {
+    public final void finalizeInstance(Object instance) {
         if (mutableBasicUserTypes.length != 0) {
             Object[] initialState = ((DirtyStateTrackable) instance).$$_getInitialState();
             for (int i = 0; i < mutableBasicUserTypes.length; i++) {
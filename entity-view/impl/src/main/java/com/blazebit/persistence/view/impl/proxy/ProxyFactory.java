@@ -134,6 +134,7 @@ public class ProxyFactory {
     private final ConcurrentMap<Class<?>, Class<?>> proxyClasses = new ConcurrentHashMap<>();
     private final ConcurrentMap<Class<?>, Class<?>> unsafeProxyClasses = new ConcurrentHashMap<>();
     private final ConcurrentMap<Class<?>, Class<?>> proxyClassesToViewClasses = new ConcurrentHashMap<>();
+    // The ClassPool is not thread safe, so every access to it must happen while holding this lock
     private final Object proxyLock = new Object();
     private final ClassPool pool;
     private final boolean unsafeDisabled;
@@ -3509,15 +3510,17 @@ public class ProxyFactory {
     }
 
     public void clear() {
-        for (Class<?> proxyClass : proxyClasses.values()) {
-            updateEvmReferences(proxyClass, null, true);
-        }
-        proxyClasses.clear();
-        for (Class<?> unsafeProxyClass : unsafeProxyClasses.values()) {
-            updateEvmReferences(unsafeProxyClass, null, true);
+        synchronized (proxyLock) {
+            for (Class<?> proxyClass : proxyClasses.values()) {
+                updateEvmReferences(proxyClass, null, true);
+            }
+            proxyClasses.clear();
+            for (Class<?> unsafeProxyClass : unsafeProxyClasses.values()) {
+                updateEvmReferences(unsafeProxyClass, null, true);
+            }
+            unsafeProxyClasses.clear();
+            baseClasses.clear();
+            proxyClassesToViewClasses.clear();
         }
-        unsafeProxyClasses.clear();
-        baseClasses.clear();
-        proxyClassesToViewClasses.clear();
     }
 }
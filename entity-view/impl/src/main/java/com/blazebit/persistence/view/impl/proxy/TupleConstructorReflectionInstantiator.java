@@ -19,6 +19,7 @@ package com.blazebit.persistence.view.impl.proxy;
 import com.blazebit.persistence.view.EntityViewManager;
 import com.blazebit.persistence.view.impl.metamodel.ManagedViewTypeImplementor;
 import com.blazebit.persistence.view.impl.metamodel.MappingConstructorImpl;
+import com.blazebit.persistence.view.spi.type.EntityViewTupleObjectBuilder;
 
 import java.lang.reflect.Constructor;
 import java.util.Arrays;
@@ -33,6 +34,7 @@ public class TupleConstructorReflectionInstantiator<T> extends AbstractReflectio
 
     private final Constructor<T> constructor;
     private final Object[] defaultObject;
+    private final Constructor<? extends EntityViewTupleObjectBuilder<T>> staticObjectBuilderConstructor;
 
     public TupleConstructorReflectionInstantiator(MappingConstructorImpl<T> mappingConstructor, ProxyFactory proxyFactory, ManagedViewTypeImplementor<T> viewType, Class<?>[] parameterTypes,
                                                   EntityViewManager entityViewManager, List<MutableBasicUserTypeEntry> mutableBasicUserTypes, List<TypeConverterEntry> typeConverterEntries) {
@@ -40,11 +42,13 @@ public class TupleConstructorReflectionInstantiator<T> extends AbstractReflectio
         Class<T> proxyClazz = (Class<T>) proxyFactory.getProxy(entityViewManager, viewType);
         Constructor<T> javaConstructor;
         Object[] defaultObject;
+        Constructor<? extends EntityViewTupleObjectBuilder<T>> staticObjectBuilderConstructor = null;
 
         try {
-            if (mappingConstructor == null) {
+            if (mappingConstructor == null || mappingConstructor.getParameterAttributes().isEmpty()) {
                 javaConstructor = proxyClazz.getDeclaredConstructor(proxyClazz, int.class, Object[].class);
                 defaultObject = new Object[] { null, 0, null };
+                staticObjectBuilderConstructor = getStaticObjectBuilderConstructor(proxyClazz);
             } else {
                 int parameterSize = mappingConstructor.getParameterAttributes().size();
                 Class[] types = new Class[parameterSize + 3];
@@ -68,6 +72,17 @@ public class TupleConstructorReflectionInstantiator<T> extends AbstractReflectio
 
         this.constructor = javaConstructor;
         this.defaultObject = defaultObject;
+        this.staticObjectBuilderConstructor = staticObjectBuilderConstructor;
+    }
+
+    /**
+     * Returns the constructor of the object builder generated by the annotation processor into the static implementation,
+     * or <code>null</code> if there is none or it can't be used for the mapping constructor.
+     *
+     * @return The constructor of the generated object builder or <code>null</code>
+     */
+    public Constructor<? extends EntityViewTupleObjectBuilder<T>> getStaticObjectBuilderConstructor() {
+        return staticObjectBuilderConstructor;
     }
 
     @Override
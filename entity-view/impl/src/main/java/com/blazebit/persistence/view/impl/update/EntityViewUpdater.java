@@ -23,6 +23,8 @@ import com.blazebit.persistence.view.impl.update.flush.DirtyAttributeFlusher;
 import com.blazebit.persistence.view.impl.update.flush.FetchGraphNode;
 import com.blazebit.persistence.view.spi.type.EntityViewProxy;
 
+import java.util.List;
+
 /**
  *
  * @author Christian Beikov
@@ -40,6 +42,8 @@ public interface EntityViewUpdater extends UpdateQueryFactory {
 
     public Object executeUpdate(UpdateContext context, Object entity, MutableStateTrackable updatableProxy);
 
+    public void executeUpdates(UpdateContext context, List<MutableStateTrackable> updatableProxies);
+
     public Object executePersist(UpdateContext context, MutableStateTrackable updatableProxy);
 
     public Object executePersist(UpdateContext context, Object entity, MutableStateTrackable updatableProxy);
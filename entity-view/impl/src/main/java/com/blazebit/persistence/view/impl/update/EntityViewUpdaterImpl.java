@@ -20,10 +20,12 @@ import com.blazebit.persistence.ObjectBuilder;
 import com.blazebit.persistence.parser.EntityMetamodel;
 import com.blazebit.persistence.parser.expression.ExpressionFactory;
 import com.blazebit.persistence.parser.util.JpaMetamodelUtils;
+import com.blazebit.persistence.spi.DbmsDialect;
 import com.blazebit.persistence.spi.ExtendedAttribute;
 import com.blazebit.persistence.spi.ExtendedManagedType;
 import com.blazebit.persistence.spi.JoinTable;
 import com.blazebit.persistence.spi.JpaProvider;
+import com.blazebit.persistence.spi.ParameterLimitedDbmsDialect;
 import com.blazebit.persistence.view.FlushMode;
 import com.blazebit.persistence.view.FlushStrategy;
 import com.blazebit.persistence.view.InverseRemoveStrategy;
@@ -117,6 +119,8 @@ import java.util.TreeMap;
 public class EntityViewUpdaterImpl implements EntityViewUpdater {
 
     public static final String WHERE_CLAUSE_PREFIX = "_";
+    // Oracle only supports up to 1000 elements in an IN list
+    private static final int MAX_ENTITY_LOAD_BATCH_SIZE = 1000;
 
     private final boolean rootUpdateAllowed;
     private final ManagedViewTypeImplementor<?> managedViewType;
@@ -646,6 +650,69 @@ public class EntityViewUpdaterImpl implements EntityViewUpdater {
         return entity;
     }
 
+    @Override
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    public void executeUpdates(UpdateContext context, List<MutableStateTrackable> updatableProxies) {
+        // Views with the same dirty state share the same fetch joins, so we can load their entities with a single query
+        Map<Long, List<MutableStateTrackable>> dirtyStateGroups = new LinkedHashMap<>();
+        for (int i = 0; i < updatableProxies.size(); i++) {
+            MutableStateTrackable updatableProxy = updatableProxies.get(i);
+            if (updatableProxy.$$_isNew()) {
+                executePersist(context, updatableProxy);
+            } else {
+                if (!rootUpdateAllowed) {
+                    throw new IllegalArgumentException("Updating instances of the view type [" + updatableProxy.getClass().getName() + "] is not allowed because no entity id is known!");
+                }
+                Long dirtyState = updatableProxy.$$_getSimpleDirty();
+                List<MutableStateTrackable> group = dirtyStateGroups.get(dirtyState);
+                if (group == null) {
+                    group = new ArrayList<>();
+                    dirtyStateGroups.put(dirtyState, group);
+                }
+                group.add(updatableProxy);
+            }
+        }
+
+        int batchSize = MAX_ENTITY_LOAD_BATCH_SIZE;
+        DbmsDialect dbmsDialect = context.getEntityViewManager().getDbmsDialect();
+        if (dbmsDialect instanceof ParameterLimitedDbmsDialect) {
+            batchSize = Math.min(batchSize, ((ParameterLimitedDbmsDialect) dbmsDialect).getMaximumParameterCount());
+        }
+        for (List<MutableStateTrackable> group : dirtyStateGroups.values()) {
+            for (int start = 0; start < group.size(); start += batchSize) {
+                int end = Math.min(group.size(), start + batchSize);
+                List<MutableStateTrackable> views = new ArrayList<>(end - start);
+                List<DirtyAttributeFlusher<?, Object, Object>> flushers = new ArrayList<>(end - start);
+                List<Object> entities = new ArrayList<>(end - start);
+                List<Object> ids = new ArrayList<>(end - start);
+                CompositeAttributeFlusher loader = null;
+                for (int i = start; i < end; i++) {
+                    MutableStateTrackable updatableProxy = group.get(i);
+                    DirtyAttributeFlusher<?, Object, Object> flusher = getNestedDirtyFlusher(context, updatableProxy, (DirtyAttributeFlusher) null);
+                    // If nothing is dirty, we don't have to do anything
+                    if (flusher != null) {
+                        if (loader == null) {
+                            loader = (CompositeAttributeFlusher) flusher;
+                        }
+                        views.add(updatableProxy);
+                        flushers.add(flusher);
+                        entities.add(updatableProxy);
+                        ids.add(updatableProxy.$$_getId());
+                    }
+                }
+
+                if (loader != null) {
+                    // Flushing to the loaded entities allows the JPA provider to batch the resulting update statements
+                    loader.loadEntities(context, entities, ids);
+                    for (int i = 0; i < views.size(); i++) {
+                        MutableStateTrackable updatableProxy = views.get(i);
+                        flushers.get(i).flushEntity(context, entities.get(i), updatableProxy, updatableProxy, updatableProxy, null);
+                    }
+                }
+            }
+        }
+    }
+
     @Override
     public Query createUpdateQuery(UpdateContext context, MutableStateTrackable updatableProxy, DirtyAttributeFlusher<?, ?, ?> flusher) {
         String queryString;
@@ -276,6 +276,10 @@ public class CompositeAttributeFlusher extends CompositeAttributeFetchGraphNode<
         return features;
     }
 
+    public void loadEntities(UpdateContext context, List<Object> views, List<Object> ids) {
+        entityLoader.toEntities(context, views, ids);
+    }
+
     public Class<?> getViewTypeClass() {
         return viewType;
     }
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2014 - 2024 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.view.impl;
+
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author Christian Beikov
+ * @since 1.6.13
+ */
+public class AdaptiveBatchSizeStatisticsImplTest {
+
+    private static final long TARGET_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    @Test
+    public void sparseCorrelationUsesMaximumBatchSize() {
+        assertEquals(128, AdaptiveBatchSizeStatisticsImpl.computeBatchSize(0.5, 1000, 1, 128, TARGET_NANOS));
+    }
+
+    @Test
+    public void fanOutReducesBatchSize() {
+        assertEquals(16, AdaptiveBatchSizeStatisticsImpl.computeBatchSize(5, 1000, 1, 128, TARGET_NANOS));
+        assertEquals(1, AdaptiveBatchSizeStatisticsImpl.computeBatchSize(1000, 1000, 1, 128, TARGET_NANOS));
+        assertEquals(4, AdaptiveBatchSizeStatisticsImpl.computeBatchSize(1000, 1000, 4, 128, TARGET_NANOS));
+    }
+
+    @Test
+    public void slowQueriesReduceBatchSize() {
+        assertEquals(8, AdaptiveBatchSizeStatisticsImpl.computeBatchSize(1, TimeUnit.MILLISECONDS.toNanos(10), 1, 128, TARGET_NANOS));
+    }
+
+    @Test
+    public void recordAdjustsBatchSize() {
+        AdaptiveBatchSizeStatisticsImpl statistics = new AdaptiveBatchSizeStatisticsImpl();
+        assertEquals(-1, statistics.getBatchSize(Object.class, "items"));
+        assertEquals(10, statistics.getBatchSize(Object.class, "items", 10, 1, 128));
+
+        statistics.record(Object.class, "items", 10, 80, 1000, 1, 128, TARGET_NANOS);
+        assertEquals(8.0, statistics.getAverageRowsPerKey(Object.class, "items"), 0.0);
+        assertEquals(16, statistics.getBatchSize(Object.class, "items"));
+        assertEquals(8, statistics.getBatchSize(Object.class, "items", 10, 1, 8));
+        assertEquals(Collections.singletonMap(Object.class.getName() + "#items", 16), statistics.getBatchSizes());
+
+        // Sparse results move the average towards bigger batches
+        for (int i = 0; i < 20; i++) {
+            statistics.record(Object.class, "items", 10, 10, 1000, 1, 128, TARGET_NANOS);
+        }
+        assertEquals(64, statistics.getBatchSize(Object.class, "items"));
+    }
+
+    @Test
+    public void constantQueryTimeKeepsBatchSizeStable() {
+        AdaptiveBatchSizeStatisticsImpl statistics = new AdaptiveBatchSizeStatisticsImpl();
+        long queryNanos = TimeUnit.MILLISECONDS.toNanos(80);
+        statistics.record(Object.class, "items", 128, 128, queryNanos, 1, 128, TARGET_NANOS);
+        assertEquals(128, statistics.getBatchSize(Object.class, "items"));
+
+        // The last batch of a result is usually partial, which must not be mistaken for a high cost per key
+        for (int i = 0; i < 50; i++) {
+            statistics.record(Object.class, "items", 3, 3, queryNanos, 1, 128, TARGET_NANOS);
+            assertEquals(128, statistics.getBatchSize(Object.class, "items"));
+            statistics.record(Object.class, "items", 128, 128, queryNanos, 1, 128, TARGET_NANOS);
+            assertEquals(128, statistics.getBatchSize(Object.class, "items"));
+        }
+        assertEquals(0.0, statistics.getAverageNanosPerKey(Object.class, "items"), 0.0);
+    }
+
+    @Test
+    public void fixedCostIsNotAttributedToKeys() {
+        AdaptiveBatchSizeStatisticsImpl statistics = new AdaptiveBatchSizeStatisticsImpl();
+        long fixedNanos = TimeUnit.MILLISECONDS.toNanos(20);
+        long nanosPerKey = TimeUnit.MILLISECONDS.toNanos(1);
+        for (int i = 0; i < 20; i++) {
+            int keys = i % 2 == 0 ? 4 : 32;
+            statistics.record(Object.class, "items", keys, keys, fixedNanos + keys * nanosPerKey, 1, 128, TARGET_NANOS);
+        }
+        // (100ms - 20ms) / 1ms = 80 keys fit into the target latency, which is rounded down to 64
+        assertEquals(nanosPerKey, statistics.getAverageNanosPerKey(Object.class, "items"), 1.0);
+        assertEquals(64, statistics.getBatchSize(Object.class, "items"));
+    }
+
+    @Test
+    public void batchSizesAreQuantized() {
+        assertEquals(128, AdaptiveBatchSizeStatisticsImpl.quantize(200, 1, 128));
+        assertEquals(64, AdaptiveBatchSizeStatisticsImpl.quantize(127, 1, 128));
+        assertEquals(32, AdaptiveBatchSizeStatisticsImpl.quantize(33, 1, 128));
+        assertEquals(100, AdaptiveBatchSizeStatisticsImpl.quantize(100, 1, 100));
+        assertEquals(64, AdaptiveBatchSizeStatisticsImpl.quantize(99, 1, 100));
+        assertEquals(10, AdaptiveBatchSizeStatisticsImpl.quantize(9, 10, 100));
+    }
+}
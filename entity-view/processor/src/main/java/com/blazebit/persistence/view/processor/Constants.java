@@ -29,6 +29,7 @@ public final class Constants {
     public static final String ENTITY_VIEW_MANAGER = "com.blazebit.persistence.view.EntityViewManager";
     public static final String SERIALIZABLE_ENTITY_VIEW_MANAGER = "com.blazebit.persistence.view.SerializableEntityViewManager";
     public static final String ENTITY_VIEW_PROXY = "com.blazebit.persistence.view.spi.type.EntityViewProxy";
+    public static final String ENTITY_VIEW_TUPLE_OBJECT_BUILDER = "com.blazebit.persistence.view.spi.type.EntityViewTupleObjectBuilder";
     public static final String BASIC_DIRTY_TRACKER = "com.blazebit.persistence.view.spi.type.BasicDirtyTracker";
     public static final String MUTABLE_STATE_TRACKABLE = "com.blazebit.persistence.view.spi.type.MutableStateTrackable";
     public static final String DIRTY_TRACKER = "com.blazebit.persistence.view.spi.type.DirtyTracker";
@@ -56,6 +56,8 @@ public final class ImplementationClassWriter extends ClassWriter {
     // The following two must be aligned with com.blazebit.persistence.view.SerializableEntityViewManager
     public static final String EVM_FIELD_NAME = "ENTITY_VIEW_MANAGER";
     public static final String SERIALIZABLE_EVM_FIELD_NAME = "SERIALIZABLE_ENTITY_VIEW_MANAGER";
+    // Must be aligned with com.blazebit.persistence.view.spi.type.EntityViewTupleObjectBuilder
+    public static final String TUPLE_OBJECT_BUILDER_CLASS_NAME = "TupleObjectBuilder";
     private static final String SERIALIZATION_CLASS_NAME_SUFFIX = "Ser";
     private static final char[] HEX_ARRAY = "0123456789ABCDEF".toCharArray();
     private static final String NEW_LINE = System.lineSeparator();
@@ -94,6 +96,7 @@ public final class ImplementationClassWriter extends ClassWriter {
         sb.append("    public static final ").append(entity.implementationImportType(Constants.SERIALIZABLE_ENTITY_VIEW_MANAGER)).append(" ").append(SERIALIZABLE_EVM_FIELD_NAME);
         sb.append(" = new ").append(entity.implementationImportType(Constants.SERIALIZABLE_ENTITY_VIEW_MANAGER)).append("(").append(entity.getSimpleName()).append(IMPL_CLASS_NAME_SUFFIX).append(".class, ").append(EVM_FIELD_NAME).append(");");
         sb.append(NEW_LINE);
+        printTupleObjectBuilder(sb, entity);
         sb.append(NEW_LINE);
 
         Collection<MetaAttribute> members = entity.getMembers();
@@ -957,6 +960,57 @@ public final class ImplementationClassWriter extends ClassWriter {
         }
     }
 
+    private static void printTupleObjectBuilder(StringBuilder sb, MetaEntityView entity) {
+        boolean hasEmptyTupleConstructor = false;
+        for (MetaConstructor constructor : entity.getConstructors()) {
+            if (constructor.getParameters().isEmpty()) {
+                hasEmptyTupleConstructor = true;
+                break;
+            }
+        }
+        // The runtime only uses the object builder for the default mapping constructor, so we only generate it if there is a parameterless one
+        if (!hasEmptyTupleConstructor) {
+            return;
+        }
+        String implName = entity.getSimpleName() + IMPL_CLASS_NAME_SUFFIX;
+        StringBuilder implTypeSb = new StringBuilder(implName);
+        List<JavaTypeVariable> typeArguments = entity.getTypeVariables();
+        sb.append(NEW_LINE);
+        sb.append("    public static final class ").append(TUPLE_OBJECT_BUILDER_CLASS_NAME);
+        if (!typeArguments.isEmpty()) {
+            sb.append("<");
+            implTypeSb.append("<");
+            for (int i = 0; i < typeArguments.size(); i++) {
+                if (i != 0) {
+                    sb.append(", ");
+                    implTypeSb.append(", ");
+                }
+                typeArguments.get(i).append(entity.getImplementationImportContext(), sb);
+                implTypeSb.append(typeArguments.get(i).getName());
+            }
+            sb.append(">");
+            implTypeSb.append(">");
+        }
+        String implType = implTypeSb.toString();
+        String objectBuilderType = entity.implementationImportType(Constants.ENTITY_VIEW_TUPLE_OBJECT_BUILDER);
+        sb.append(" extends ").append(objectBuilderType).append("<").append(implType).append("> {").append(NEW_LINE);
+        sb.append(NEW_LINE);
+        sb.append("        public ").append(TUPLE_OBJECT_BUILDER_CLASS_NAME).append("(").append(objectBuilderType).append(".Delegate<").append(implType).append("> delegate) {").append(NEW_LINE);
+        sb.append("            super(delegate);").append(NEW_LINE);
+        sb.append("        }").append(NEW_LINE);
+        sb.append(NEW_LINE);
+        sb.append("        @Override").append(NEW_LINE);
+        sb.append("        public ").append(implType).append(" build(Object[] tuple) {").append(NEW_LINE);
+        sb.append("            if (!prepareTuple(tuple)) {").append(NEW_LINE);
+        sb.append("                return null;").append(NEW_LINE);
+        sb.append("            }").append(NEW_LINE);
+        sb.append("            ").append(implType).append(" instance = new ").append(implType).append("((").append(implType).append(") null, 0, tuple);").append(NEW_LINE);
+        sb.append("            finalizeInstance(instance);").append(NEW_LINE);
+        sb.append("            return instance;").append(NEW_LINE);
+        sb.append("        }").append(NEW_LINE);
+        sb.append("    }").append(NEW_LINE);
+    }
+
     private static void printConstructor(StringBuilder sb, MetaConstructor constructor, boolean postLoadReflection, Context context) {
         MetaEntityView entity = constructor.getHostingEntity();
         sb.append("    public ").append(entity.getSimpleName()).append(IMPL_CLASS_NAME_SUFFIX).append("(");
@@ -16,10 +16,12 @@
 
 package com.blazebit.persistence.view.processor;
 
+import com.blazebit.persistence.SelectBuilder;
 import com.blazebit.persistence.view.processor.model.AView;
 import com.blazebit.persistence.view.processor.model.BView;
 import com.blazebit.persistence.view.processor.model.BViewImpl;
 import com.blazebit.persistence.view.processor.model.sub.BaseView_com_blazebit_persistence_view_processor_model_BView;
+import com.blazebit.persistence.view.spi.type.EntityViewTupleObjectBuilder;
 import com.google.testing.compile.Compilation;
 import com.google.testing.compile.CompilationSubject;
 import com.google.testing.compile.Compiler;
@@ -28,6 +30,7 @@ import org.junit.Assert;
 import org.junit.Test;
 
 import javax.tools.JavaFileObject;
+import java.util.List;
 
 /**
  * @author Christian Beikov
@@ -51,6 +54,35 @@ public class ProcessorTest {
         Assert.assertEquals("Test", obj.getName());
         Assert.assertEquals("Test", obj.getCapturedName());
         Assert.assertEquals("Test", obj.getPostLoadName());
+        EntityViewTupleObjectBuilder<BViewImpl<Integer>> objectBuilder = new BViewImpl.TupleObjectBuilder<>(new EntityViewTupleObjectBuilder.Delegate<BViewImpl<Integer>>() {
+            @Override
+            public boolean prepareTuple(Object[] tuple) {
+                return tuple[0] != null;
+            }
+
+            @Override
+            public void finalizeInstance(BViewImpl<Integer> instance) {
+            }
+
+            @Override
+            public BViewImpl<Integer> build(Object[] tuple) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public List<BViewImpl<Integer>> buildList(List<BViewImpl<Integer>> list) {
+                return list;
+            }
+
+            @Override
+            public <X extends SelectBuilder<X>> void applySelects(X selectBuilder) {
+            }
+        });
+        Assert.assertNull(objectBuilder.build(new Object[]{ null, "Test", 1}));
+        BView instantiated = objectBuilder.build(new Object[]{ 1, "Test", 1});
+        Assert.assertEquals(1, instantiated.getId());
+        Assert.assertEquals("Test", instantiated.getName());
+        Assert.assertEquals("Test", instantiated.getPostLoadName());
     }
 
     private Compilation test(Class<?>... views) {
@@ -4,6 +4,7 @@ import com.blazebit.persistence.view.EntityViewManager;
 import com.blazebit.persistence.view.SerializableEntityViewManager;
 import com.blazebit.persistence.view.StaticImplementation;
 import com.blazebit.persistence.view.spi.type.EntityViewProxy;
+import com.blazebit.persistence.view.spi.type.EntityViewTupleObjectBuilder;
 
 import java.io.Serializable;
 import java.util.List;
@@ -19,6 +20,22 @@ public class AViewImpl<X extends Serializable> implements AView<X>, EntityViewPr
 
     public static volatile EntityViewManager ENTITY_VIEW_MANAGER;
     public static final SerializableEntityViewManager SERIALIZABLE_ENTITY_VIEW_MANAGER = new SerializableEntityViewManager(AViewImpl.class, ENTITY_VIEW_MANAGER);
+    public static final class TupleObjectBuilder<X extends Serializable> extends EntityViewTupleObjectBuilder<AViewImpl<X>> {
+
+        public TupleObjectBuilder(EntityViewTupleObjectBuilder.Delegate<AViewImpl<X>> delegate) {
+            super(delegate);
+        }
+
+        @Override
+        public AViewImpl<X> build(Object[] tuple) {
+            if (!prepareTuple(tuple)) {
+                return null;
+            }
+            AViewImpl<X> instance = new AViewImpl<X>((AViewImpl<X>) null, 0, tuple);
+            finalizeInstance(instance);
+            return instance;
+        }
+    }
 
     private final int age;
     private final byte[] bytes;
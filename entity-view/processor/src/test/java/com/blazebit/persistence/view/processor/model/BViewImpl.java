@@ -5,6 +5,7 @@ import com.blazebit.persistence.view.SerializableEntityViewManager;
 import com.blazebit.persistence.view.StaticImplementation;
 import com.blazebit.persistence.view.processor.model.sub.BaseView_com_blazebit_persistence_view_processor_model_BView;
 import com.blazebit.persistence.view.spi.type.EntityViewProxy;
+import com.blazebit.persistence.view.spi.type.EntityViewTupleObjectBuilder;
 
 import java.io.Serializable;
 import java.lang.reflect.Method;
@@ -18,6 +19,22 @@ public class BViewImpl<X extends Serializable> extends BaseView_com_blazebit_per
 
     public static volatile EntityViewManager ENTITY_VIEW_MANAGER;
     public static final SerializableEntityViewManager SERIALIZABLE_ENTITY_VIEW_MANAGER = new SerializableEntityViewManager(BViewImpl.class, ENTITY_VIEW_MANAGER);
+    public static final class TupleObjectBuilder<X extends Serializable> extends EntityViewTupleObjectBuilder<BViewImpl<X>> {
+
+        public TupleObjectBuilder(EntityViewTupleObjectBuilder.Delegate<BViewImpl<X>> delegate) {
+            super(delegate);
+        }
+
+        @Override
+        public BViewImpl<X> build(Object[] tuple) {
+            if (!prepareTuple(tuple)) {
+                return null;
+            }
+            BViewImpl<X> instance = new BViewImpl<X>((BViewImpl<X>) null, 0, tuple);
+            finalizeInstance(instance);
+            return instance;
+        }
+    }
 
     private final Integer id;
     private String name;
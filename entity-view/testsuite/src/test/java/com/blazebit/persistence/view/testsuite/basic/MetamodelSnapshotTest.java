@@ -0,0 +1,108 @@
+/*
+ * Copyright 2014 - 2024 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.view.testsuite.basic;
+
+import com.blazebit.persistence.view.ConfigurationProperties;
+import com.blazebit.persistence.view.EntityViewManager;
+import com.blazebit.persistence.view.EntityViews;
+import com.blazebit.persistence.view.MetamodelSnapshot;
+import com.blazebit.persistence.view.impl.MetamodelSnapshotGenerator;
+import com.blazebit.persistence.view.spi.EntityViewConfiguration;
+import com.blazebit.persistence.view.testsuite.AbstractEntityViewTest;
+import com.blazebit.persistence.view.testsuite.basic.model.DocumentValidationView;
+import com.blazebit.persistence.view.testsuite.basic.model.PersonInvalidMappingValidationView;
+import com.blazebit.persistence.view.testsuite.basic.model.PersonValidationView;
+import com.blazebit.persistence.view.testsuite.basic.model.PersonView;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ *
+ * @author Christian Beikov
+ * @since 1.6.13
+ */
+public class MetamodelSnapshotTest extends AbstractEntityViewTest {
+
+    @Test
+    public void testMetamodelSnapshot() throws Exception {
+        File file = File.createTempFile("metamodel-snapshot", ".txt");
+        file.deleteOnExit();
+        if (!file.delete()) {
+            throw new IllegalStateException("Could not delete " + file);
+        }
+
+        // Booting never writes the snapshot
+        MetamodelSnapshot snapshot = createEntityViewManager(file, DocumentValidationView.class, PersonValidationView.class).getService(MetamodelSnapshot.class);
+        assertNotNull(snapshot.getFingerprint());
+        assertFalse(snapshot.isValidationSkipped());
+        assertFalse(file.exists());
+
+        // Simulate the build step that generates the snapshot
+        MetamodelSnapshotGenerator.write(createConfiguration(DocumentValidationView.class, PersonValidationView.class), cbf, file);
+        assertTrue(file.exists());
+
+        // Booting the same views skips the validation
+        MetamodelSnapshot matchingSnapshot = createEntityViewManager(file, DocumentValidationView.class, PersonValidationView.class).getService(MetamodelSnapshot.class);
+        assertEquals(snapshot.getFingerprint(), matchingSnapshot.getFingerprint());
+        assertTrue(matchingSnapshot.isValidationSkipped());
+
+        // A different set of views invalidates the snapshot
+        MetamodelSnapshot changedSnapshot = createEntityViewManager(file, DocumentValidationView.class, PersonValidationView.class, PersonView.class).getService(MetamodelSnapshot.class);
+        assertNotEquals(snapshot.getFingerprint(), changedSnapshot.getFingerprint());
+        assertFalse(changedSnapshot.isValidationSkipped());
+
+        // A different configuration invalidates the snapshot
+        EntityViewConfiguration cfg = createConfiguration(DocumentValidationView.class, PersonValidationView.class);
+        cfg.setProperty(ConfigurationProperties.METAMODEL_SNAPSHOT_FILE, file.getAbsolutePath());
+        cfg.setProperty(ConfigurationProperties.UPDATER_STRICT_CASCADING_CHECK, "false");
+        MetamodelSnapshot changedConfigurationSnapshot = cfg.createEntityViewManager(cbf).getService(MetamodelSnapshot.class);
+        assertNotEquals(snapshot.getFingerprint(), changedConfigurationSnapshot.getFingerprint());
+        assertFalse(changedConfigurationSnapshot.isValidationSkipped());
+
+        // Invalid views are never covered by a snapshot
+        try {
+            MetamodelSnapshotGenerator.write(createConfiguration(PersonInvalidMappingValidationView.class), cbf, file);
+            Assert.fail("Expected validation exception!");
+        } catch (IllegalArgumentException ex) {
+            if (!ex.getMessage().contains("'defaultContact'")) {
+                throw ex;
+            }
+        }
+    }
+
+    private EntityViewManager createEntityViewManager(File file, Class<?>... entityViewClasses) {
+        EntityViewConfiguration cfg = createConfiguration(entityViewClasses);
+        cfg.setProperty(ConfigurationProperties.METAMODEL_SNAPSHOT_FILE, file.getAbsolutePath());
+        return cfg.createEntityViewManager(cbf);
+    }
+
+    private EntityViewConfiguration createConfiguration(Class<?>... entityViewClasses) {
+        EntityViewConfiguration cfg = EntityViews.createDefaultConfiguration();
+        for (Class<?> entityViewClass : entityViewClasses) {
+            cfg.addEntityView(entityViewClass);
+        }
+        return cfg;
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2014 - 2024 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.blazebit.persistence.view.testsuite.basic;
+
+import com.blazebit.persistence.CriteriaBuilder;
+import com.blazebit.persistence.testsuite.entity.Document;
+import com.blazebit.persistence.testsuite.entity.Person;
+import com.blazebit.persistence.testsuite.tx.TxVoidWork;
+import com.blazebit.persistence.view.ConfigurationProperties;
+import com.blazebit.persistence.view.EntityViewManager;
+import com.blazebit.persistence.view.EntityViewSetting;
+import com.blazebit.persistence.view.testsuite.AbstractEntityViewTest;
+import com.blazebit.persistence.view.testsuite.basic.model.ParallelDocumentView;
+import com.blazebit.persistence.view.testsuite.basic.model.ParallelPersonView;
+import com.blazebit.persistence.view.testsuite.basic.model.PersonView;
+import org.junit.Test;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ *
+ * @author Christian Beikov
+ * @since 1.6.13
+ */
+public class ParallelTransformationTest extends AbstractEntityViewTest {
+
+    // More than the minimum chunk size of the parallel transformation, so that the tuples are actually split across the pool
+    private static final int DOCUMENT_COUNT = 300;
+    private static final int PERSON_COUNT = 7;
+
+    @Override
+    public void setUpOnce() {
+        cleanDatabase();
+        transactional(new TxVoidWork() {
+            @Override
+            public void work(EntityManager em) {
+                Person[] persons = new Person[PERSON_COUNT];
+                for (int i = 0; i < PERSON_COUNT; i++) {
+                    persons[i] = new Person("pers" + i);
+                    em.persist(persons[i]);
+                }
+                for (int i = 0; i < DOCUMENT_COUNT; i++) {
+                    em.persist(new Document("doc" + i, persons[i % PERSON_COUNT]));
+                }
+            }
+        });
+    }
+
+    @Test
+    public void testParallelTransformation() {
+        EntityViewManager evm = build(ParallelPersonView.class, ParallelDocumentView.class, PersonView.class);
+        List<ParallelPersonView> sequentialResults = getResults(evm, null);
+
+        AtomicInteger createdThreads = new AtomicInteger();
+        ForkJoinPool pool = new ForkJoinPool(4, p -> {
+            createdThreads.incrementAndGet();
+            return ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+        }, null, false);
+        try {
+            List<ParallelPersonView> parallelResults = getResults(evm, pool);
+            // The subviews of the join fetched documents are built on the configured pool
+            assertTrue(createdThreads.get() > 0);
+            assertEquals(PERSON_COUNT, parallelResults.size());
+            int documentCount = 0;
+            for (int i = 0; i < PERSON_COUNT; i++) {
+                ParallelPersonView sequentialResult = sequentialResults.get(i);
+                ParallelPersonView parallelResult = parallelResults.get(i);
+                assertEquals(sequentialResult.getId(), parallelResult.getId());
+                assertEquals(sequentialResult.getName(), parallelResult.getName());
+                assertEquals(toMap(sequentialResult), toMap(parallelResult));
+                documentCount += parallelResult.getOwnedDocuments().size();
+            }
+            assertEquals(DOCUMENT_COUNT, documentCount);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static Map<Long, String> toMap(ParallelPersonView person) {
+        Map<Long, String> documents = new TreeMap<>();
+        for (ParallelDocumentView document : person.getOwnedDocuments()) {
+            assertEquals(person.getId(), document.getOwner().getId());
+            assertEquals(person.getName(), document.getOwner().getName());
+            documents.put(document.getId(), document.getName());
+        }
+        return documents;
+    }
+
+    private List<ParallelPersonView> getResults(EntityViewManager evm, ForkJoinPool pool) {
+        CriteriaBuilder<Person> criteria = cbf.create(em, Person.class, "p").orderByAsc("id");
+        EntityViewSetting<ParallelPersonView, CriteriaBuilder<ParallelPersonView>> setting = EntityViewSetting.create(ParallelPersonView.class);
+        if (pool != null) {
+            setting.setProperty(ConfigurationProperties.PARALLEL_TRANSFORMATION_THRESHOLD, 1);
+            setting.setProperty(ConfigurationProperties.PARALLEL_TRANSFORMATION_POOL, pool);
+        }
+        return evm.applySetting(setting, criteria).getResultList();
+    }
+}
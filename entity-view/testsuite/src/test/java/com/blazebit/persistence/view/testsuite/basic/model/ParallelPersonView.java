@@ -0,0 +1,36 @@
+/*
+ * Copyright 2014 - 2024 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.blazebit.persistence.view.testsuite.basic.model;
+
+import com.blazebit.persistence.view.EntityView;
+import com.blazebit.persistence.testsuite.entity.Person;
+
+import java.util.Set;
+
+/**
+ *
+ * @author Christian Beikov
+ * @since 1.6.13
+ */
+@EntityView(Person.class)
+public interface ParallelPersonView extends IdHolderView<Long> {
+
+    public String getName();
+
+    public Set<ParallelDocumentView> getOwnedDocuments();
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright 2014 - 2024 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.view.testsuite.cache;
+
+import com.blazebit.persistence.CriteriaBuilder;
+import com.blazebit.persistence.testsuite.entity.Document;
+import com.blazebit.persistence.testsuite.entity.Person;
+import com.blazebit.persistence.testsuite.tx.TxVoidWork;
+import com.blazebit.persistence.view.ConfigurationProperties;
+import com.blazebit.persistence.view.EntityViewManager;
+import com.blazebit.persistence.view.EntityViewSetting;
+import com.blazebit.persistence.view.EntityViews;
+import com.blazebit.persistence.view.spi.EntityViewConfiguration;
+import com.blazebit.persistence.view.testsuite.AbstractEntityViewTest;
+import com.blazebit.persistence.view.testsuite.cache.model.DocumentCorrelatingOwner1View;
+import com.blazebit.persistence.view.testsuite.cache.model.PersonView;
+import org.junit.Test;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ *
+ * @author Christian Beikov
+ * @since 1.6.13
+ */
+public class ParallelEagerLoadingTest extends AbstractEntityViewTest {
+
+    @Override
+    public void setUpOnce() {
+        cleanDatabase();
+        transactional(new TxVoidWork() {
+
+            @Override
+            public void work(EntityManager em) {
+                Person o1 = new Person("pers1");
+                Document doc1 = new Document("doc1", o1);
+
+                em.persist(o1);
+                em.persist(doc1);
+            }
+        });
+    }
+
+    @Test
+    public void testEagerLoadingOnExecutor() {
+        final ExecutorService executorService = Executors.newFixedThreadPool(4);
+        final AtomicInteger executedTasks = new AtomicInteger();
+        try {
+            EntityViewConfiguration cfg = EntityViews.createDefaultConfiguration();
+            cfg.addEntityView(DocumentCorrelatingOwner1View.class);
+            cfg.addEntityView(PersonView.class);
+            cfg.setProperty(ConfigurationProperties.TEMPLATE_EAGER_LOADING, "true");
+            cfg.setProperty(ConfigurationProperties.UPDATER_EAGER_LOADING, "true");
+            cfg.getProperties().put(ConfigurationProperties.EAGER_LOADING_EXECUTOR, new Executor() {
+                @Override
+                public void execute(Runnable command) {
+                    executedTasks.incrementAndGet();
+                    executorService.execute(command);
+                }
+            });
+            EntityViewManager evm = cfg.createEntityViewManager(cbf);
+            assertEquals(evm.getMetamodel().getViews().size(), executedTasks.get());
+
+            CriteriaBuilder<Document> cb = cbf.create(em, Document.class).orderByAsc("id");
+            List<DocumentCorrelatingOwner1View> result = evm.applySetting(EntityViewSetting.create(DocumentCorrelatingOwner1View.class), cb).getResultList();
+            assertEquals(1, result.size());
+            assertEquals("doc1", result.get(0).getName());
+        } finally {
+            executorService.shutdown();
+        }
+    }
+
+    @Test
+    public void testEagerLoadingOnExecutorClassName() {
+        CountingExecutor.EXECUTED_TASKS.set(0);
+        EntityViewConfiguration cfg = createConfiguration(CountingExecutor.class);
+        EntityViewManager evm = cfg.createEntityViewManager(cbf);
+        assertEquals(evm.getMetamodel().getViews().size(), CountingExecutor.EXECUTED_TASKS.get());
+    }
+
+    @Test
+    public void testExecutorConstructorExceptionIsUnwrapped() {
+        EntityViewConfiguration cfg = createConfiguration(FailingExecutor.class);
+        try {
+            cfg.createEntityViewManager(cbf);
+            fail("Expected the exception of the executor constructor");
+        } catch (IllegalStateException ex) {
+            assertEquals(FailingExecutor.MESSAGE, ex.getMessage());
+        }
+    }
+
+    private static EntityViewConfiguration createConfiguration(Class<? extends Executor> executorClass) {
+        EntityViewConfiguration cfg = EntityViews.createDefaultConfiguration();
+        cfg.addEntityView(DocumentCorrelatingOwner1View.class);
+        cfg.addEntityView(PersonView.class);
+        cfg.setProperty(ConfigurationProperties.TEMPLATE_EAGER_LOADING, "true");
+        cfg.setProperty(ConfigurationProperties.EAGER_LOADING_EXECUTOR, executorClass.getName());
+        return cfg;
+    }
+
+    /**
+     * @author Christian Beikov
+     * @since 1.6.13
+     */
+    public static class CountingExecutor implements Executor {
+
+        static final AtomicInteger EXECUTED_TASKS = new AtomicInteger();
+
+        @Override
+        public void execute(Runnable command) {
+            EXECUTED_TASKS.incrementAndGet();
+            command.run();
+        }
+    }
+
+    /**
+     * @author Christian Beikov
+     * @since 1.6.13
+     */
+    public static class FailingExecutor implements Executor {
+
+        static final String MESSAGE = "Executor not available";
+
+        public FailingExecutor() {
+            throw new IllegalStateException(MESSAGE);
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            command.run();
+        }
+    }
+}
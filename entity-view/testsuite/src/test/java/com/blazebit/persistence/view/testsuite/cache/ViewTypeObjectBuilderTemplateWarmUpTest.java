@@ -0,0 +1,146 @@
+/*
+ * Copyright 2014 - 2024 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.view.testsuite.cache;
+
+import com.blazebit.persistence.CriteriaBuilder;
+import com.blazebit.persistence.testsuite.entity.Document;
+import com.blazebit.persistence.testsuite.entity.Person;
+import com.blazebit.persistence.testsuite.tx.TxVoidWork;
+import com.blazebit.persistence.view.ConfigurationProperties;
+import com.blazebit.persistence.view.EntityViewManager;
+import com.blazebit.persistence.view.EntityViewSetting;
+import com.blazebit.persistence.view.EntityViews;
+import com.blazebit.persistence.view.TemplateWarmUp;
+import com.blazebit.persistence.view.spi.EntityViewConfiguration;
+import com.blazebit.persistence.view.testsuite.AbstractEntityViewTest;
+import com.blazebit.persistence.view.testsuite.cache.model.DocumentCorrelatingOwner1View;
+import com.blazebit.persistence.view.testsuite.cache.model.PersonView;
+import org.junit.Test;
+
+import javax.persistence.EntityManager;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ *
+ * @author Christian Beikov
+ * @since 1.6.13
+ */
+public class ViewTypeObjectBuilderTemplateWarmUpTest extends AbstractEntityViewTest {
+
+    @Override
+    public void setUpOnce() {
+        cleanDatabase();
+        transactional(new TxVoidWork() {
+
+            @Override
+            public void work(EntityManager em) {
+                Person o1 = new Person("pers1");
+                Document doc1 = new Document("doc1", o1);
+
+                em.persist(o1);
+                em.persist(doc1);
+            }
+        });
+    }
+
+    @Test
+    public void testRecordAndWarmUpTemplates() throws Exception {
+        File file = File.createTempFile("template-warm-up", ".txt");
+        file.deleteOnExit();
+        if (!file.delete()) {
+            throw new IllegalStateException("Could not delete " + file);
+        }
+
+        EntityViewManager recordingEvm = createEntityViewManager(file);
+        TemplateWarmUp recording = recordingEvm.getService(TemplateWarmUp.class);
+        assertTrue(recording.awaitReady(10, TimeUnit.SECONDS));
+        assertEquals(0, recording.getWarmUpCount());
+
+        CriteriaBuilder<Document> cb = cbf.create(em, Document.class).orderByAsc("id");
+        List<DocumentCorrelatingOwner1View> result = recordingEvm.applySetting(EntityViewSetting.create(DocumentCorrelatingOwner1View.class), cb).getResultList();
+        assertEquals(1, result.size());
+        // The view as well as the correlated subview template are recorded
+        int recordedCount = recording.getRecordedCount();
+        assertTrue(recordedCount > 0);
+        recording.writeRecording();
+
+        EntityViewManager warmUpEvm = createEntityViewManager(file);
+        TemplateWarmUp warmUp = warmUpEvm.getService(TemplateWarmUp.class);
+        assertTrue(warmUp.awaitReady(10, TimeUnit.SECONDS));
+        assertEquals(recordedCount, warmUp.getWarmUpCount());
+        assertEquals(recordedCount, warmUp.getWarmedUpCount());
+        assertEquals(0, warmUp.getFailedCount());
+        assertEquals(0, warmUp.getHitCount());
+
+        // Running the same query uses the warmed up templates instead of building new ones
+        cb = cbf.create(em, Document.class).orderByAsc("id");
+        result = warmUpEvm.applySetting(EntityViewSetting.create(DocumentCorrelatingOwner1View.class), cb).getResultList();
+        assertEquals(1, result.size());
+        assertEquals("doc1", result.get(0).getName());
+        assertEquals(recordedCount, warmUp.getHitCount());
+        assertEquals(recordedCount, warmUp.getRecordedCount());
+    }
+
+    @Test
+    public void testMismatchingRecordedKeyIsNotWarmedUp() throws Exception {
+        File file = File.createTempFile("template-warm-up", ".txt");
+        file.deleteOnExit();
+        if (!file.delete()) {
+            throw new IllegalStateException("Could not delete " + file);
+        }
+
+        EntityViewManager recordingEvm = createEntityViewManager(file);
+        CriteriaBuilder<Document> cb = cbf.create(em, Document.class).orderByAsc("id");
+        recordingEvm.applySetting(EntityViewSetting.create(DocumentCorrelatingOwner1View.class), cb).getResultList();
+        recordingEvm.getService(TemplateWarmUp.class).writeRecording();
+
+        // Record a macro that isn't registered, which leads to a template key that differs from the one of the query
+        List<String> lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+        List<String> changedLines = new ArrayList<>(lines.size());
+        for (String line : lines) {
+            if (line.startsWith(DocumentCorrelatingOwner1View.class.getName() + "\t")) {
+                String[] columns = line.split("\t", -1);
+                columns[6] = columns[6].isEmpty() ? "UNKNOWN_MACRO" : columns[6] + ",UNKNOWN_MACRO";
+                line = String.join("\t", columns);
+            }
+            changedLines.add(line);
+        }
+        Files.write(file.toPath(), changedLines, StandardCharsets.UTF_8);
+
+        EntityViewManager warmUpEvm = createEntityViewManager(file);
+        TemplateWarmUp warmUp = warmUpEvm.getService(TemplateWarmUp.class);
+        assertTrue(warmUp.awaitReady(10, TimeUnit.SECONDS));
+        assertEquals(1, warmUp.getFailedCount());
+        assertEquals(warmUp.getWarmUpCount() - 1, warmUp.getWarmedUpCount());
+    }
+
+    private EntityViewManager createEntityViewManager(File file) {
+        EntityViewConfiguration cfg = EntityViews.createDefaultConfiguration();
+        cfg.addEntityView(DocumentCorrelatingOwner1View.class);
+        cfg.addEntityView(PersonView.class);
+        cfg.setProperty(ConfigurationProperties.TEMPLATE_WARM_UP_FILE, file.getAbsolutePath());
+        return cfg.createEntityViewManager(cbf);
+    }
+}
@@ -22,6 +22,8 @@ import static org.junit.Assert.assertEquals;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import javax.persistence.EntityManager;
 
@@ -32,6 +34,7 @@ import org.junit.runner.RunWith;
 import org.junit.runners.Parameterized;
 
 import com.blazebit.persistence.CriteriaBuilder;
+import com.blazebit.persistence.view.ConfigurationProperties;
 import com.blazebit.persistence.view.EntityViewManager;
 import com.blazebit.persistence.view.EntityViewSetting;
 import com.blazebit.persistence.view.EntityViews;
@@ -150,6 +153,49 @@ public class SimpleCollectionsTest<T extends SubviewDocumentCollectionsView> ext
         CriteriaBuilder<T> cb = evm.applySetting(EntityViewSetting.create(viewType), criteria);
         List<T> results = cb.getResultList();
 
+        assertResults(results);
+    }
+
+    @Test
+    public void testCollectionsStreamWithoutWindowing() {
+        EntityViewManager evm = build(
+                viewType,
+                SubviewPersonForCollectionsView.class
+        );
+
+        CriteriaBuilder<DocumentForCollections> criteria = cbf.create(em, DocumentForCollections.class, "d")
+            .orderByAsc("id");
+        CriteriaBuilder<T> cb = evm.applySetting(EntityViewSetting.create(viewType), criteria);
+        List<T> results;
+        try (Stream<T> stream = cb.getResultStream()) {
+            results = stream.collect(Collectors.<T>toList());
+        }
+
+        assertResults(results);
+    }
+
+    @Test
+    public void testCollectionsStream() {
+        EntityViewManager evm = build(
+                viewType,
+                SubviewPersonForCollectionsView.class
+        );
+
+        CriteriaBuilder<DocumentForCollections> criteria = cbf.create(em, DocumentForCollections.class, "d")
+            .orderByAsc("id");
+        EntityViewSetting<T, CriteriaBuilder<T>> setting = EntityViewSetting.create(viewType);
+        // Build every root view in a separate window
+        setting.setProperty(ConfigurationProperties.STREAMING_WINDOW_SIZE, 1);
+        CriteriaBuilder<T> cb = evm.applySetting(setting, criteria);
+        List<T> results;
+        try (Stream<T> stream = cb.getResultStream()) {
+            results = stream.collect(Collectors.<T>toList());
+        }
+
+        assertResults(results);
+    }
+
+    private void assertResults(List<T> results) {
         assertEquals(2, results.size());
         // Doc1
         assertEquals(doc1.getName(), results.get(0).getName());
@@ -17,6 +17,7 @@
 package com.blazebit.persistence.view.testsuite.correlation;
 
 import com.blazebit.persistence.CriteriaBuilder;
+import com.blazebit.persistence.PreparedCriteriaQuery;
 import com.blazebit.persistence.testsuite.tx.TxVoidWork;
 import com.blazebit.persistence.view.EntityViewManager;
 import com.blazebit.persistence.view.EntityViewSetting;
@@ -32,10 +33,13 @@ import org.junit.Assert;
 import org.junit.Before;
 
 import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
 import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.Executor;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 /**
  *
@@ -90,6 +94,14 @@ public abstract class AbstractCorrelationTest extends AbstractEntityViewTest {
     }
 
     protected <T extends DocumentCorrelationView> void testCorrelation(Class<T> entityView, Integer batchSize) {
+        testCorrelation(entityView, batchSize, null);
+    }
+
+    protected <T extends DocumentCorrelationView> void testCorrelation(Class<T> entityView, Integer batchSize, Integer parallelTransformationThreshold) {
+        testCorrelation(entityView, batchSize, parallelTransformationThreshold, null);
+    }
+
+    protected <T extends DocumentCorrelationView> void testCorrelation(Class<T> entityView, Integer batchSize, Integer parallelTransformationThreshold, Executor correlationExecutor) {
         EntityViewManager evm = build(
                 entityView,
                 SimpleDocumentCorrelatedView.class,
@@ -102,9 +114,94 @@ public abstract class AbstractCorrelationTest extends AbstractEntityViewTest {
         if (batchSize != null) {
             setting.setProperty(ConfigurationProperties.DEFAULT_BATCH_SIZE + ".ownerRelatedDocumentIds", batchSize);
         }
+        if (parallelTransformationThreshold != null) {
+            setting.setProperty(ConfigurationProperties.PARALLEL_TRANSFORMATION_THRESHOLD, parallelTransformationThreshold);
+        }
+        if (correlationExecutor != null) {
+            setting.setProperty(ConfigurationProperties.CORRELATION_EXECUTOR, correlationExecutor);
+        }
         CriteriaBuilder<T> cb = evm.applySetting(setting, criteria);
         List<T> results = cb.getResultList();
+        assertCorrelationResults(results);
+        if (correlationExecutor != null) {
+            // Correlated entities must be managed by the entity manager of the main query even if correlations are loaded concurrently
+            for (T result : results) {
+                assertManaged(result.getCorrelatedOwner());
+                assertManaged(result.getThisCorrelatedEntity());
+                assertManaged(result.getCorrelatedOwnerList());
+                assertManaged(result.getOwnerRelatedDocuments());
+                assertManaged(result.getOwnerOnlyRelatedDocuments());
+                assertManaged(result.getThisCorrelatedEntityList());
+            }
+        }
+    }
+
+    private void assertManaged(Collection<?> entities) {
+        for (Object entity : entities) {
+            assertManaged(entity);
+        }
+    }
+
+    private void assertManaged(Object entity) {
+        assertTrue("Entity is not managed: " + entity, em.contains(entity));
+    }
+
+    protected <T extends DocumentCorrelationView> void testPreparedCorrelation(Class<T> entityView) {
+        EntityViewManager evm = build(
+                entityView,
+                SimpleDocumentCorrelatedView.class,
+                SimplePersonCorrelatedSubView.class,
+                SimpleVersionCorrelatedView.class
+        );
+
+        CriteriaBuilder<Document> criteria = cbf.create(em, Document.class, "d").orderByAsc("id");
+        PreparedCriteriaQuery<T> preparedQuery = evm.applySetting(EntityViewSetting.create(entityView), criteria).prepare();
+        TypedQuery<T> query1 = preparedQuery.createQuery(em);
+        TypedQuery<T> query2 = preparedQuery.createQuery(em);
+        // Every query has its own object builder, so the correlation state of one query doesn't leak into the other
+        assertCorrelationResults(query1.getResultList());
+        assertCorrelationResults(query2.getResultList());
+        assertCorrelationResults(query1.getResultList());
+    }
+
+    protected <T extends DocumentCorrelationView> void testPreparedCorrelationWithOtherEntityManager(Class<T> entityView, Integer batchSize) {
+        EntityViewManager evm = build(
+                entityView,
+                SimpleDocumentCorrelatedView.class,
+                SimplePersonCorrelatedSubView.class,
+                SimpleVersionCorrelatedView.class
+        );
+
+        EntityManager preparingEntityManager = emf.createEntityManager();
+        PreparedCriteriaQuery<T> preparedQuery;
+        try {
+            CriteriaBuilder<Document> criteria = cbf.create(preparingEntityManager, Document.class, "d").orderByAsc("id");
+            EntityViewSetting<T, CriteriaBuilder<T>> setting = EntityViewSetting.create(entityView);
+            if (batchSize != null) {
+                setting.setProperty(ConfigurationProperties.DEFAULT_BATCH_SIZE + ".ownerRelatedDocumentIds", batchSize);
+            }
+            preparedQuery = evm.applySetting(setting, criteria).prepare();
+        } finally {
+            preparingEntityManager.close();
+        }
+
+        EntityManager queryEntityManager = emf.createEntityManager();
+        try {
+            List<T> results = preparedQuery.createQuery(queryEntityManager).getResultList();
+            assertCorrelationResults(results);
+            // The correlated entities are loaded with the entity manager of the query, as the one of the prepared builder is closed
+            for (T result : results) {
+                assertTrue(queryEntityManager.contains(result.getCorrelatedOwner()));
+                for (Object entity : result.getOwnerRelatedDocuments()) {
+                    assertTrue(queryEntityManager.contains(entity));
+                }
+            }
+        } finally {
+            queryEntityManager.close();
+        }
+    }
 
+    protected <T extends DocumentCorrelationView> void assertCorrelationResults(List<T> results) {
         assertEquals(4, results.size());
 
         // Doc1
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2014 - 2024 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.view.testsuite.correlation.simple;
+
+import com.blazebit.persistence.CriteriaBuilder;
+import com.blazebit.persistence.spi.ArrayParameterJpaProvider;
+import com.blazebit.persistence.spi.CriteriaBuilderConfiguration;
+import com.blazebit.persistence.spi.JpaProvider;
+import com.blazebit.persistence.spi.QueryInstrumentationListener;
+import com.blazebit.persistence.spi.QueryPhase;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoDatanucleus;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoDatanucleus4;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoEclipselink;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoOpenJPA;
+import com.blazebit.persistence.testsuite.entity.Document;
+import com.blazebit.persistence.view.ConfigurationProperties;
+import com.blazebit.persistence.view.EntityViewManager;
+import com.blazebit.persistence.view.EntityViewSetting;
+import com.blazebit.persistence.view.testsuite.correlation.AbstractCorrelationTest;
+import com.blazebit.persistence.view.testsuite.correlation.model.SimpleDocumentCorrelatedView;
+import com.blazebit.persistence.view.testsuite.correlation.model.SimplePersonCorrelatedSubView;
+import com.blazebit.persistence.view.testsuite.correlation.model.SimpleVersionCorrelatedView;
+import com.blazebit.persistence.view.testsuite.correlation.simple.model.DocumentSimpleCorrelationViewSubqueryNormal;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author Christian Beikov
+ * @since 1.6.13
+ */
+public class ArrayParameterCorrelationTest extends AbstractCorrelationTest {
+
+    private static final List<String> QUERIES = new CopyOnWriteArrayList<>();
+
+    @Override
+    protected void configure(CriteriaBuilderConfiguration config) {
+        super.configure(config);
+        config.registerQueryInstrumentationListener(new QueryInstrumentationListener() {
+            @Override
+            public void onPhaseCompleted(QueryPhase phase, String query, long durationNanos) {
+                if (phase == QueryPhase.QUERY_GENERATION) {
+                    QUERIES.add(query);
+                }
+            }
+        });
+    }
+
+    @Test
+    // NOTE: Requires values clause which currently is only available for Hibernate
+    @Category({ NoDatanucleus4.class, NoDatanucleus.class, NoOpenJPA.class, NoEclipselink.class})
+    public void testBatchedCorrelationBindsArrayParameterIfSupported() {
+        EntityViewManager evm = build(
+                DocumentSimpleCorrelationViewSubqueryNormal.class,
+                SimpleDocumentCorrelatedView.class,
+                SimplePersonCorrelatedSubView.class,
+                SimpleVersionCorrelatedView.class
+        );
+
+        CriteriaBuilder<Document> criteria = cbf.create(em, Document.class, "d").orderByAsc("id");
+        EntityViewSetting<DocumentSimpleCorrelationViewSubqueryNormal, CriteriaBuilder<DocumentSimpleCorrelationViewSubqueryNormal>> setting = EntityViewSetting.create(DocumentSimpleCorrelationViewSubqueryNormal.class);
+        setting.setProperty(ConfigurationProperties.DEFAULT_BATCH_SIZE, 4);
+        QUERIES.clear();
+        assertCorrelationResults(evm.applySetting(setting, criteria).getResultList());
+
+        JpaProvider jpaProvider = cbf.getService(JpaProvider.class);
+        boolean arrayParameterSupported = jpaProvider instanceof ArrayParameterJpaProvider
+                && ((ArrayParameterJpaProvider) jpaProvider).supportsArrayParameter(Long.class)
+                && cbf.getRegisteredFunctions().containsKey("array_any");
+        boolean arrayParameterUsed = false;
+        for (String query : QUERIES) {
+            if (query.contains("array_any(")) {
+                arrayParameterUsed = true;
+                break;
+            }
+        }
+        assertEquals(arrayParameterSupported, arrayParameterUsed);
+    }
+}
@@ -33,6 +33,9 @@ import com.blazebit.persistence.view.testsuite.correlation.simple.model.Document
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
 
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
 /**
  *
  * @author Christian Beikov
@@ -109,6 +112,47 @@ public class SimpleCorrelationTest extends AbstractCorrelationTest {
         testCorrelation(DocumentSimpleCorrelationViewSubselectId.class, null);
     }
 
+    @Test
+    public void testSubselectCorrelationNormalPrepared() {
+        testPreparedCorrelation(DocumentSimpleCorrelationViewSubselectNormal.class);
+    }
+
+    @Test
+    public void testSubselectCorrelationNormalPreparedWithOtherEntityManager() {
+        testPreparedCorrelationWithOtherEntityManager(DocumentSimpleCorrelationViewSubselectNormal.class, null);
+    }
+
+    @Test
+    // NOTE: Requires values clause which currently is only available for Hibernate
+    @Category({ NoDatanucleus4.class, NoDatanucleus.class, NoOpenJPA.class, NoEclipselink.class})
+    public void testSubqueryBatchedCorrelationNormalPreparedWithOtherEntityManager() {
+        testPreparedCorrelationWithOtherEntityManager(DocumentSimpleCorrelationViewSubqueryNormal.class, 2);
+    }
+
+    @Test
+    public void testSubselectCorrelationNormalParallel() {
+        testCorrelation(DocumentSimpleCorrelationViewSubselectNormal.class, null, 1);
+    }
+
+    @Test
+    // NOTE: Requires values clause which currently is only available for Hibernate
+    @Category({ NoDatanucleus4.class, NoDatanucleus.class, NoOpenJPA.class, NoEclipselink.class})
+    public void testSubqueryBatchedCorrelationNormalSize2Parallel() {
+        testCorrelation(DocumentSimpleCorrelationViewSubqueryNormal.class, 2, 1);
+    }
+
+    @Test
+    // NOTE: Requires values clause which currently is only available for Hibernate
+    @Category({ NoDatanucleus4.class, NoDatanucleus.class, NoOpenJPA.class, NoEclipselink.class})
+    public void testSubqueryBatchedCorrelationNormalSize2Concurrent() {
+        ExecutorService executorService = Executors.newFixedThreadPool(2);
+        try {
+            testCorrelation(DocumentSimpleCorrelationViewSubqueryNormal.class, 2, null, executorService);
+        } finally {
+            executorService.shutdown();
+        }
+    }
+
     @Test
     // NOTE: Requires entity joins which are supported since Hibernate 5.1, Datanucleus 5 and latest Eclipselink
     // NOTE: Eclipselink renders a cross join at the wrong position in the SQL
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2014 - 2024 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.blazebit.persistence.view.testsuite.proxy;
+
+import com.blazebit.persistence.CriteriaBuilder;
+import com.blazebit.persistence.testsuite.entity.Person;
+import com.blazebit.persistence.testsuite.tx.TxVoidWork;
+import com.blazebit.persistence.view.EntityViewManager;
+import com.blazebit.persistence.view.EntityViewSetting;
+import com.blazebit.persistence.view.StaticImplementation;
+import com.blazebit.persistence.view.impl.EntityViewManagerImpl;
+import com.blazebit.persistence.view.impl.metamodel.ManagedViewTypeImplementor;
+import com.blazebit.persistence.view.impl.proxy.AbstractReflectionInstantiator;
+import com.blazebit.persistence.view.impl.proxy.TupleConstructorReflectionInstantiator;
+import com.blazebit.persistence.view.spi.type.EntityViewTupleObjectBuilder;
+import com.blazebit.persistence.view.testsuite.AbstractEntityViewTest;
+import com.blazebit.persistence.view.testsuite.proxy.model.StaticImplementationPersonView;
+import org.junit.Test;
+
+import javax.persistence.EntityManager;
+import java.lang.reflect.Constructor;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Static implementations are only generated when the annotation processor runs on the testsuite, i.e. in the hibernate-apt profile.
+ * Otherwise, the runtime generated proxy is used which has no generated object builder.
+ *
+ * @author Christian Beikov
+ * @since 1.6.13
+ */
+public class StaticImplementationObjectBuilderTest extends AbstractEntityViewTest {
+
+    @Override
+    public void setUpOnce() {
+        cleanDatabase();
+        transactional(new TxVoidWork() {
+            @Override
+            public void work(EntityManager em) {
+                em.persist(new Person("pers1"));
+                em.persist(new Person("pers2"));
+            }
+        });
+    }
+
+    @Test
+    public void testGeneratedObjectBuilderIsPickedUp() {
+        EntityViewManagerImpl evm = (EntityViewManagerImpl) build(StaticImplementationPersonView.class);
+        ManagedViewTypeImplementor<StaticImplementationPersonView> viewType = (ManagedViewTypeImplementor<StaticImplementationPersonView>) evm.getMetamodel().managedView(StaticImplementationPersonView.class);
+        Class<? extends StaticImplementationPersonView> proxyClass = evm.getProxyFactory().getProxy(evm, viewType);
+        TupleConstructorReflectionInstantiator<StaticImplementationPersonView> instantiator = new TupleConstructorReflectionInstantiator<>(
+                null,
+                evm.getProxyFactory(),
+                viewType,
+                new Class[0],
+                evm,
+                Collections.<AbstractReflectionInstantiator.MutableBasicUserTypeEntry>emptyList(),
+                Collections.<AbstractReflectionInstantiator.TypeConverterEntry>emptyList()
+        );
+
+        Constructor<? extends EntityViewTupleObjectBuilder<StaticImplementationPersonView>> constructor = instantiator.getStaticObjectBuilderConstructor();
+        if (proxyClass.isAnnotationPresent(StaticImplementation.class)) {
+            assertNotNull(constructor);
+            assertEquals(proxyClass, constructor.getDeclaringClass().getDeclaringClass());
+        } else {
+            assertNull(constructor);
+        }
+
+        List<StaticImplementationPersonView> results = getResults(evm);
+        assertEquals(2, results.size());
+        assertEquals(proxyClass, results.get(0).getClass());
+        assertEquals("pers1", results.get(0).getName());
+        assertEquals("pers2", results.get(1).getName());
+    }
+
+    private List<StaticImplementationPersonView> getResults(EntityViewManager evm) {
+        CriteriaBuilder<Person> criteria = cbf.create(em, Person.class, "p").orderByAsc("name");
+        return evm.applySetting(EntityViewSetting.create(StaticImplementationPersonView.class), criteria).getResultList();
+    }
+}
@@ -0,0 +1,443 @@
+/*
+ * Copyright 2014 - 2024 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.integration.graphql;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.OffsetTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Date;
+import java.util.UUID;
+
+/**
+ * A cursor codec that encodes the cursor in a compact, versioned binary format with a type tag per tuple element.
+ * Supported tuple element types are booleans, numbers, characters, strings, UUIDs and the <code>java.util</code>, <code>java.sql</code>
+ * and <code>java.time</code> temporal types. Cursors with other types, or cursors that were not encoded by this codec,
+ * are handled by the fallback codec if one is given.
+ *
+ * @author Christian Beikov
+ * @since 1.6.13
+ */
+public class BinaryGraphQLCursorCodec implements GraphQLCursorCodec {
+
+    // A Java serialization stream starts with 0xACED, so this can't be mixed up with serialized cursors
+    private static final byte VERSION_1 = 1;
+
+    private static final byte NULL = 0;
+    private static final byte FALSE = 1;
+    private static final byte TRUE = 2;
+    private static final byte BYTE = 3;
+    private static final byte SHORT = 4;
+    private static final byte INTEGER = 5;
+    private static final byte LONG = 6;
+    private static final byte FLOAT = 7;
+    private static final byte DOUBLE = 8;
+    private static final byte CHARACTER = 9;
+    private static final byte STRING = 10;
+    private static final byte BIG_INTEGER = 11;
+    private static final byte BIG_DECIMAL = 12;
+    private static final byte UUID_TAG = 13;
+    private static final byte UTIL_DATE = 14;
+    private static final byte SQL_DATE = 15;
+    private static final byte SQL_TIME = 16;
+    private static final byte SQL_TIMESTAMP = 17;
+    private static final byte INSTANT = 18;
+    private static final byte LOCAL_DATE = 19;
+    private static final byte LOCAL_TIME = 20;
+    private static final byte LOCAL_DATE_TIME = 21;
+    private static final byte OFFSET_TIME = 22;
+    private static final byte OFFSET_DATE_TIME = 23;
+    private static final byte ZONED_DATE_TIME = 24;
+    // Operations on big decimals with a huge scale are very expensive, so bound the scale that is accepted from cursors
+    private static final int MAX_BIG_DECIMAL_SCALE = 1024;
+
+    private final GraphQLCursorCodec fallbackCodec;
+
+    /**
+     * Creates a new codec without a fallback codec.
+     */
+    public BinaryGraphQLCursorCodec() {
+        this(null);
+    }
+
+    /**
+     * Creates a new codec that uses the given fallback codec for unsupported tuple element types and cursors in a different format.
+     *
+     * @param fallbackCodec The fallback codec or <code>null</code>
+     */
+    public BinaryGraphQLCursorCodec(GraphQLCursorCodec fallbackCodec) {
+        this.fallbackCodec = fallbackCodec;
+    }
+
+    @Override
+    public byte[] encode(int offset, int pageSize, Serializable[] tuple) {
+        Writer writer = new Writer();
+        writer.write(VERSION_1);
+        writer.writeVarLong(offset);
+        writer.writeVarLong(pageSize);
+        if (tuple == null) {
+            writer.writeVarLong(0);
+        } else {
+            writer.writeVarLong(tuple.length + 1);
+            for (int i = 0; i < tuple.length; i++) {
+                if (!writeElement(writer, tuple[i])) {
+                    if (fallbackCodec == null) {
+                        throw new IllegalArgumentException("Unsupported cursor tuple element type: " + tuple[i].getClass().getName());
+                    }
+                    return fallbackCodec.encode(offset, pageSize, tuple);
+                }
+            }
+        }
+        return writer.toByteArray();
+    }
+
+    @Override
+    public GraphQLCursor decode(byte[] bytes) {
+        if (bytes.length == 0 || bytes[0] != VERSION_1) {
+            if (fallbackCodec == null) {
+                throw new IllegalArgumentException("Unsupported cursor format");
+            }
+            return fallbackCodec.decode(bytes);
+        }
+        try {
+            Reader reader = new Reader(bytes, 1);
+            int offset = reader.readInt(0, Integer.MAX_VALUE);
+            int pageSize = reader.readInt(1, Integer.MAX_VALUE);
+            long length = reader.readVarLong();
+            // Every tuple element takes at least one byte, so a larger length can't be valid and must not be used for allocation
+            if (length < 0 || length - 1 > bytes.length - reader.position) {
+                throw new IllegalArgumentException("Invalid tuple length in cursor: " + length);
+            }
+            Serializable[] tuple = null;
+            if (length != 0) {
+                tuple = new Serializable[(int) length - 1];
+                for (int i = 0; i < tuple.length; i++) {
+                    tuple[i] = readElement(reader);
+                }
+            }
+            if (reader.position != bytes.length) {
+                throw new IllegalArgumentException("Unexpected trailing data");
+            }
+            return new GraphQLCursor(offset, pageSize, tuple);
+        } catch (RuntimeException e) {
+            throw new RuntimeException("Couldn't read cursor", e);
+        }
+    }
+
+    private static boolean writeElement(Writer writer, Serializable value) {
+        if (value == null) {
+            writer.write(NULL);
+            return true;
+        }
+        Class<?> type = value.getClass();
+        if (type == Long.class) {
+            writer.write(LONG);
+            writer.writeZigZagLong((Long) value);
+        } else if (type == Integer.class) {
+            writer.write(INTEGER);
+            writer.writeZigZagLong((Integer) value);
+        } else if (type == String.class) {
+            writer.write(STRING);
+            writer.writeString((String) value);
+        } else if (type == UUID.class) {
+            UUID uuid = (UUID) value;
+            writer.write(UUID_TAG);
+            writer.writeFixedLong(uuid.getMostSignificantBits());
+            writer.writeFixedLong(uuid.getLeastSignificantBits());
+        } else if (type == Short.class) {
+            writer.write(SHORT);
+            writer.writeZigZagLong((Short) value);
+        } else if (type == Byte.class) {
+            writer.write(BYTE);
+            writer.write((Byte) value);
+        } else if (type == Boolean.class) {
+            writer.write((Boolean) value ? TRUE : FALSE);
+        } else if (type == Character.class) {
+            writer.write(CHARACTER);
+            writer.writeVarLong((Character) value);
+        } else if (type == Double.class) {
+            writer.write(DOUBLE);
+            writer.writeFixedLong(Double.doubleToLongBits((Double) value));
+        } else if (type == Float.class) {
+            writer.write(FLOAT);
+            writer.writeFixedInt(Float.floatToIntBits((Float) value));
+        } else if (type == BigInteger.class) {
+            writer.write(BIG_INTEGER);
+            writer.writeLengthPrefixed(((BigInteger) value).toByteArray());
+        } else if (type == BigDecimal.class) {
+            BigDecimal bigDecimal = (BigDecimal) value;
+            writer.write(BIG_DECIMAL);
+            writer.writeZigZagLong(bigDecimal.scale());
+            writer.writeLengthPrefixed(bigDecimal.unscaledValue().toByteArray());
+        } else if (type == Date.class) {
+            writer.write(UTIL_DATE);
+            writer.writeZigZagLong(((Date) value).getTime());
+        } else if (type == java.sql.Date.class) {
+            writer.write(SQL_DATE);
+            writer.writeZigZagLong(((Date) value).getTime());
+        } else if (type == java.sql.Time.class) {
+            writer.write(SQL_TIME);
+            writer.writeZigZagLong(((Date) value).getTime());
+        } else if (type == java.sql.Timestamp.class) {
+            java.sql.Timestamp timestamp = (java.sql.Timestamp) value;
+            writer.write(SQL_TIMESTAMP);
+            writer.writeZigZagLong(timestamp.getTime());
+            writer.writeVarLong(timestamp.getNanos());
+        } else if (type == Instant.class) {
+            Instant instant = (Instant) value;
+            writer.write(INSTANT);
+            writer.writeZigZagLong(instant.getEpochSecond());
+            writer.writeVarLong(instant.getNano());
+        } else if (type == LocalDate.class) {
+            writer.write(LOCAL_DATE);
+            writer.writeZigZagLong(((LocalDate) value).toEpochDay());
+        } else if (type == LocalTime.class) {
+            writer.write(LOCAL_TIME);
+            writer.writeVarLong(((LocalTime) value).toNanoOfDay());
+        } else if (type == LocalDateTime.class) {
+            writer.write(LOCAL_DATE_TIME);
+            writeLocalDateTime(writer, (LocalDateTime) value);
+        } else if (type == OffsetTime.class) {
+            OffsetTime offsetTime = (OffsetTime) value;
+            writer.write(OFFSET_TIME);
+            writer.writeVarLong(offsetTime.toLocalTime().toNanoOfDay());
+            writer.writeZigZagLong(offsetTime.getOffset().getTotalSeconds());
+        } else if (type == OffsetDateTime.class) {
+            OffsetDateTime offsetDateTime = (OffsetDateTime) value;
+            writer.write(OFFSET_DATE_TIME);
+            writeLocalDateTime(writer, offsetDateTime.toLocalDateTime());
+            writer.writeZigZagLong(offsetDateTime.getOffset().getTotalSeconds());
+        } else if (type == ZonedDateTime.class) {
+            ZonedDateTime zonedDateTime = (ZonedDateTime) value;
+            writer.write(ZONED_DATE_TIME);
+            writeLocalDateTime(writer, zonedDateTime.toLocalDateTime());
+            writer.writeZigZagLong(zonedDateTime.getOffset().getTotalSeconds());
+            writer.writeString(zonedDateTime.getZone().getId());
+        } else {
+            return false;
+        }
+        return true;
+    }
+
+    private static void writeLocalDateTime(Writer writer, LocalDateTime localDateTime) {
+        writer.writeZigZagLong(localDateTime.toLocalDate().toEpochDay());
+        writer.writeVarLong(localDateTime.toLocalTime().toNanoOfDay());
+    }
+
+    private static Serializable readElement(Reader reader) {
+        byte tag = reader.read();
+        switch (tag) {
+            case NULL:
+                return null;
+            case FALSE:
+                return Boolean.FALSE;
+            case TRUE:
+                return Boolean.TRUE;
+            case BYTE:
+                return reader.read();
+            case SHORT:
+                return (short) reader.readZigZagLong();
+            case INTEGER:
+                return (int) reader.readZigZagLong();
+            case LONG:
+                return reader.readZigZagLong();
+            case FLOAT:
+                return Float.intBitsToFloat(reader.readFixedInt());
+            case DOUBLE:
+                return Double.longBitsToDouble(reader.readFixedLong());
+            case CHARACTER:
+                return (char) reader.readVarLong();
+            case STRING:
+                return reader.readString();
+            case BIG_INTEGER:
+                return new BigInteger(reader.readLengthPrefixed());
+            case BIG_DECIMAL:
+                long scale = reader.readZigZagLong();
+                if (scale < -MAX_BIG_DECIMAL_SCALE || scale > MAX_BIG_DECIMAL_SCALE) {
+                    throw new IllegalArgumentException("Invalid big decimal scale in cursor: " + scale);
+                }
+                return new BigDecimal(new BigInteger(reader.readLengthPrefixed()), (int) scale);
+            case UUID_TAG:
+                return new UUID(reader.readFixedLong(), reader.readFixedLong());
+            case UTIL_DATE:
+                return new Date(reader.readZigZagLong());
+            case SQL_DATE:
+                return new java.sql.Date(reader.readZigZagLong());
+            case SQL_TIME:
+                return new java.sql.Time(reader.readZigZagLong());
+            case SQL_TIMESTAMP:
+                java.sql.Timestamp timestamp = new java.sql.Timestamp(reader.readZigZagLong());
+                timestamp.setNanos((int) reader.readVarLong());
+                return timestamp;
+            case INSTANT:
+                return Instant.ofEpochSecond(reader.readZigZagLong(), reader.readVarLong());
+            case LOCAL_DATE:
+                return LocalDate.ofEpochDay(reader.readZigZagLong());
+            case LOCAL_TIME:
+                return LocalTime.ofNanoOfDay(reader.readVarLong());
+            case LOCAL_DATE_TIME:
+                return readLocalDateTime(reader);
+            case OFFSET_TIME:
+                return OffsetTime.of(LocalTime.ofNanoOfDay(reader.readVarLong()), ZoneOffset.ofTotalSeconds((int) reader.readZigZagLong()));
+            case OFFSET_DATE_TIME:
+                return OffsetDateTime.of(readLocalDateTime(reader), ZoneOffset.ofTotalSeconds((int) reader.readZigZagLong()));
+            case ZONED_DATE_TIME:
+                LocalDateTime localDateTime = readLocalDateTime(reader);
+                ZoneOffset offset = ZoneOffset.ofTotalSeconds((int) reader.readZigZagLong());
+                return ZonedDateTime.ofLocal(localDateTime, ZoneId.of(reader.readString()), offset);
+            default:
+                throw new IllegalArgumentException("Unknown cursor tuple element type tag: " + tag);
+        }
+    }
+
+    private static LocalDateTime readLocalDateTime(Reader reader) {
+        LocalDate localDate = LocalDate.ofEpochDay(reader.readZigZagLong());
+        return LocalDateTime.of(localDate, LocalTime.ofNanoOfDay(reader.readVarLong()));
+    }
+
+    /**
+     * @author Christian Beikov
+     * @since 1.6.13
+     */
+    private static final class Writer extends ByteArrayOutputStream {
+
+        Writer() {
+            super(32);
+        }
+
+        void writeVarLong(long value) {
+            while ((value & ~0x7FL) != 0L) {
+                write((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            write((int) value);
+        }
+
+        void writeZigZagLong(long value) {
+            writeVarLong((value << 1) ^ (value >> 63));
+        }
+
+        void writeFixedInt(int value) {
+            for (int shift = 24; shift >= 0; shift -= 8) {
+                write(value >>> shift);
+            }
+        }
+
+        void writeFixedLong(long value) {
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                write((int) (value >>> shift));
+            }
+        }
+
+        void writeLengthPrefixed(byte[] bytes) {
+            writeVarLong(bytes.length);
+            write(bytes, 0, bytes.length);
+        }
+
+        void writeString(String value) {
+            writeLengthPrefixed(value.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * @author Christian Beikov
+     * @since 1.6.13
+     */
+    private static final class Reader {
+
+        private final byte[] bytes;
+        private int position;
+
+        Reader(byte[] bytes, int position) {
+            this.bytes = bytes;
+            this.position = position;
+        }
+
+        byte read() {
+            if (position == bytes.length) {
+                throw new IllegalArgumentException("Unexpected end of cursor");
+            }
+            return bytes[position++];
+        }
+
+        long readVarLong() {
+            long value = 0L;
+            for (int shift = 0; shift < 64; shift += 7) {
+                byte b = read();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("Malformed variable length number in cursor");
+        }
+
+        int readInt(int min, int max) {
+            long value = readVarLong();
+            if (value < min || value > max) {
+                throw new IllegalArgumentException("Invalid number in cursor: " + value);
+            }
+            return (int) value;
+        }
+
+        long readZigZagLong() {
+            long value = readVarLong();
+            return (value >>> 1) ^ -(value & 1L);
+        }
+
+        int readFixedInt() {
+            int value = 0;
+            for (int i = 0; i < 4; i++) {
+                value = (value << 8) | (read() & 0xFF);
+            }
+            return value;
+        }
+
+        long readFixedLong() {
+            long value = 0L;
+            for (int i = 0; i < 8; i++) {
+                value = (value << 8) | (read() & 0xFFL);
+            }
+            return value;
+        }
+
+        byte[] readLengthPrefixed() {
+            long length = readVarLong();
+            if (length < 0 || length > bytes.length - position) {
+                throw new IllegalArgumentException("Invalid length in cursor: " + length);
+            }
+            byte[] result = new byte[(int) length];
+            System.arraycopy(bytes, position, result, 0, result.length);
+            position += result.length;
+            return result;
+        }
+
+        String readString() {
+            return new String(readLengthPrefixed(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -41,11 +41,6 @@ import graphql.schema.GraphQLType;
 import graphql.schema.GraphQLUnmodifiedType;
 import graphql.schema.SelectedField;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -111,7 +106,7 @@ public class GraphQLEntityViewSupport {
 
     private final Map<String, ManagedViewType<?>> typeNameToViewType;
     private final Map<String, Map<String, String>> typeNameToFieldMapping;
-    private final Set<String> serializableBasicTypes;
+    private final GraphQLCursorCodec cursorCodec;
     private final ConcurrentMap<TypeRootCacheKey, GraphQLUnmodifiedType> typeReferenceCache = new ConcurrentHashMap<>();
     private final ConcurrentMap<String, String> selectedFieldCache = new ConcurrentHashMap<>();
 
@@ -128,7 +123,7 @@ public class GraphQLEntityViewSupport {
      * A default constructor to make this class proxyable.
      */
     GraphQLEntityViewSupport() {
-        this(null, null, null, null, null, null, null, null, null, null, null);
+        this(null, null, (GraphQLCursorCodec) null, null, null, null, null, null, null, null, null);
     }
 
     /**
@@ -188,6 +183,39 @@ public class GraphQLEntityViewSupport {
      * @param elementCursorName The name of the cursor field within elements
      */
     public GraphQLEntityViewSupport(Map<String, ManagedViewType<?>> typeNameToViewType, Map<String, Map<String, String>> typeNameToFieldMapping, Set<String> serializableBasicTypes, String pageSizeName, String offsetName, String beforeCursorName, String afterCursorName, String totalCountName, String pageElementsName, String pageElementObjectName, String elementCursorName) {
+        this(typeNameToViewType, typeNameToFieldMapping, new SerializationGraphQLCursorCodec(serializableBasicTypes), pageSizeName, offsetName, beforeCursorName, afterCursorName, totalCountName, pageElementsName, pageElementObjectName, elementCursorName);
+    }
+
+    /**
+     * Creates a new {@link GraphQLEntityViewSupport} instance with the given type name to class mapping and cursor codec.
+     * It uses the GraphQL Relay specification names for accessing page info fields for paginated settings.
+     *
+     * @param typeNameToViewType The mapping from GraphQL type names to entity view metamodels
+     * @param typeNameToFieldMapping The mapping from GraphQL type names to a map from GraphQL field name to entity view attribute name
+     * @param cursorCodec The codec to use for encoding and decoding cursors
+     * @since 1.6.13
+     */
+    public GraphQLEntityViewSupport(Map<String, ManagedViewType<?>> typeNameToViewType, Map<String, Map<String, String>> typeNameToFieldMapping, GraphQLCursorCodec cursorCodec) {
+        this(typeNameToViewType, typeNameToFieldMapping, cursorCodec, PAGE_SIZE_NAME, OFFSET_NAME, BEFORE_CURSOR_NAME, AFTER_CURSOR_NAME, TOTAL_COUNT_NAME, EDGES_NAME, EDGE_NODE_NAME, EDGE_CURSOR_NAME);
+    }
+
+    /**
+     * Creates a new {@link GraphQLEntityViewSupport} instance with the given type name to class mapping and cursor codec.
+     *
+     * @param typeNameToViewType The mapping from GraphQL type names to entity view metamodels
+     * @param typeNameToFieldMapping The mapping from GraphQL type names to a map from GraphQL field name to entity view attribute name
+     * @param cursorCodec The codec to use for encoding and decoding cursors
+     * @param pageSizeName The name of the page size field
+     * @param offsetName The name of the offset field
+     * @param beforeCursorName The name of the beforeCursor field
+     * @param afterCursorName The name of the afterCursor field
+     * @param totalCountName The name of the totalCount field
+     * @param pageElementsName The name of the elements field
+     * @param pageElementObjectName The name of the element object field within elements
+     * @param elementCursorName The name of the cursor field within elements
+     * @since 1.6.13
+     */
+    public GraphQLEntityViewSupport(Map<String, ManagedViewType<?>> typeNameToViewType, Map<String, Map<String, String>> typeNameToFieldMapping, GraphQLCursorCodec cursorCodec, String pageSizeName, String offsetName, String beforeCursorName, String afterCursorName, String totalCountName, String pageElementsName, String pageElementObjectName, String elementCursorName) {
         this.pageSizeName = pageSizeName;
         this.offsetName = offsetName;
         this.beforeCursorName = beforeCursorName;
@@ -196,7 +224,7 @@ public class GraphQLEntityViewSupport {
         this.pageElementsName = pageElementsName;
         this.typeNameToViewType = typeNameToViewType;
         this.typeNameToFieldMapping = typeNameToFieldMapping;
-        this.serializableBasicTypes = serializableBasicTypes;
+        this.cursorCodec = cursorCodec;
         this.pageElementObjectName = pageElementObjectName;
         this.elementCursorName = elementCursorName;
     }
@@ -673,14 +701,13 @@ public class GraphQLEntityViewSupport {
      * @return a new cursor
      */
     protected GraphQLCursor deserialize(String beforeCursor) {
-        try (ObjectInputStream ois = new GraphQLCursorObjectInputStream(Base64.getDecoder().wrap(new ByteArrayInputStream(beforeCursor.getBytes())), serializableBasicTypes)) {
-            int offset = ois.read();
-            int pageSize = ois.read();
-            Serializable[] tuple = (Serializable[]) ois.readObject();
-            return new GraphQLCursor(offset, pageSize, tuple);
-        } catch (Exception e) {
+        byte[] bytes;
+        try {
+            bytes = Base64.getDecoder().decode(beforeCursor);
+        } catch (IllegalArgumentException e) {
             throw new RuntimeException("Couldn't read cursor", e);
         }
+        return cursorCodec.decode(bytes);
     }
 
     /**
@@ -692,15 +719,7 @@ public class GraphQLEntityViewSupport {
      * @return the serialized form of the cursor
      */
     protected byte[] serializeCursor(int offset, int pageSize, Serializable[] tuple) {
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        try (ObjectOutputStream oos = new ObjectOutputStream(baos)) {
-            oos.write(offset);
-            oos.write(pageSize);
-            oos.writeObject(tuple);
-        } catch (IOException e) {
-            throw new RuntimeException(e);
-        }
-        return baos.toByteArray();
+        return cursorCodec.encode(offset, pageSize, tuple);
     }
 
     /**
@@ -160,6 +160,8 @@ public class GraphQLEntityViewSupportFactory {
     private Pattern typeFilterPattern;
     private Map<String, GraphQLScalarType> scalarTypeMap;
     private Set<String> registeredScalarTypeNames;
+    private boolean binaryCursorEncoding;
+    private GraphQLCursorCodec cursorCodec;
 
     /**
      * Creates a new entity view support factory with the given configuration.
@@ -328,6 +330,49 @@ public class GraphQLEntityViewSupportFactory {
         this.typeFilterPattern = typeFilterPattern;
     }
 
+    /**
+     * Returns <code>true</code> if cursors should be encoded with the compact {@link BinaryGraphQLCursorCodec}.
+     *
+     * @return <code>true</code> if cursors should be encoded with the compact binary format
+     * @since 1.6.13
+     */
+    public boolean isBinaryCursorEncoding() {
+        return binaryCursorEncoding;
+    }
+
+    /**
+     * Sets whether cursors should be encoded with the compact {@link BinaryGraphQLCursorCodec} instead of Java serialization.
+     * Cursors that were encoded with Java serialization and cursors with tuple element types that the binary format doesn't support
+     * are still handled through Java serialization.
+     *
+     * @param binaryCursorEncoding <code>true</code> if cursors should be encoded with the compact binary format
+     * @since 1.6.13
+     */
+    public void setBinaryCursorEncoding(boolean binaryCursorEncoding) {
+        this.binaryCursorEncoding = binaryCursorEncoding;
+    }
+
+    /**
+     * Returns the custom cursor codec to use for the created {@link GraphQLEntityViewSupport}.
+     *
+     * @return the custom cursor codec or <code>null</code>
+     * @since 1.6.13
+     */
+    public GraphQLCursorCodec getCursorCodec() {
+        return cursorCodec;
+    }
+
+    /**
+     * Sets a custom cursor codec to use for the created {@link GraphQLEntityViewSupport}.
+     * If set, this takes precedence over {@link #setBinaryCursorEncoding(boolean)}.
+     *
+     * @param cursorCodec the custom cursor codec
+     * @since 1.6.13
+     */
+    public void setCursorCodec(GraphQLCursorCodec cursorCodec) {
+        this.cursorCodec = cursorCodec;
+    }
+
     /**
      * Returns a new {@link GraphQLEntityViewSupport} after registering the entity view types from {@link EntityViewManager}
      * on the given {@link TypeDefinitionRegistry}.
@@ -465,7 +510,7 @@ public class GraphQLEntityViewSupportFactory {
 
         serializableBasicTypes.add(Serializable[].class.getName());
         serializableBasicTypes.add(GraphQLCursor.class.getName());
-        return new GraphQLEntityViewSupport(typeNameToViewType, typeNameToFieldMapping, serializableBasicTypes);
+        return new GraphQLEntityViewSupport(typeNameToViewType, typeNameToFieldMapping, createCursorCodec(serializableBasicTypes));
     }
 
     /**
@@ -664,7 +709,18 @@ public class GraphQLEntityViewSupportFactory {
                 schemaBuilder.additionalType(additionalType);
             }
         }
-        return new GraphQLEntityViewSupport(typeNameToViewType, typeNameToFieldMapping, serializableBasicTypes);
+        return new GraphQLEntityViewSupport(typeNameToViewType, typeNameToFieldMapping, createCursorCodec(serializableBasicTypes));
+    }
+
+    private GraphQLCursorCodec createCursorCodec(Set<String> serializableBasicTypes) {
+        if (cursorCodec != null) {
+            return cursorCodec;
+        }
+        GraphQLCursorCodec serializationCodec = new SerializationGraphQLCursorCodec(serializableBasicTypes);
+        if (binaryCursorEncoding) {
+            return new BinaryGraphQLCursorCodec(serializationCodec);
+        }
+        return serializationCodec;
     }
 
     private GraphQLList getListType(GraphQLType elementType) {
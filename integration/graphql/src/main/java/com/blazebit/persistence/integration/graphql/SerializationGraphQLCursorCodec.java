@@ -0,0 +1,71 @@
+/*
+ * Copyright 2014 - 2024 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.integration.graphql;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.Set;
+
+/**
+ * A cursor codec that uses Java serialization and only allows to deserialize the given basic types
+ * through the {@link GraphQLCursorObjectInputStream}.
+ *
+ * @author Christian Beikov
+ * @since 1.6.13
+ */
+public class SerializationGraphQLCursorCodec implements GraphQLCursorCodec {
+
+    private final Set<String> serializableBasicTypes;
+
+    /**
+     * Creates a new codec that allows to deserialize the given basic types.
+     *
+     * @param serializableBasicTypes The whitelist of allowed serializable basic types to use for cursor deserialization
+     */
+    public SerializationGraphQLCursorCodec(Set<String> serializableBasicTypes) {
+        this.serializableBasicTypes = serializableBasicTypes;
+    }
+
+    @Override
+    public byte[] encode(int offset, int pageSize, Serializable[] tuple) {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (ObjectOutputStream oos = new ObjectOutputStream(baos)) {
+            oos.write(offset);
+            oos.write(pageSize);
+            oos.writeObject(tuple);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        return baos.toByteArray();
+    }
+
+    @Override
+    public GraphQLCursor decode(byte[] bytes) {
+        try (ObjectInputStream ois = new GraphQLCursorObjectInputStream(new ByteArrayInputStream(bytes), serializableBasicTypes)) {
+            int offset = ois.read();
+            int pageSize = ois.read();
+            Serializable[] tuple = (Serializable[]) ois.readObject();
+            return new GraphQLCursor(offset, pageSize, tuple);
+        } catch (Exception e) {
+            throw new RuntimeException("Couldn't read cursor", e);
+        }
+    }
+}
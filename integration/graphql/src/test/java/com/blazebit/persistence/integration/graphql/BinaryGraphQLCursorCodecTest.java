@@ -0,0 +1,172 @@
+/*
+ * Copyright 2014 - 2024 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.integration.graphql;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.OffsetTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.UUID;
+
+/**
+ * @author Christian Beikov
+ * @since 1.6.13
+ */
+public class BinaryGraphQLCursorCodecTest {
+
+    @Test
+    public void testRoundTrip() {
+        java.sql.Timestamp timestamp = new java.sql.Timestamp(1234567890123L);
+        timestamp.setNanos(123456789);
+        Serializable[] tuple = new Serializable[]{
+            null, true, false, (byte) -3, (short) 300, -5, Long.MAX_VALUE, 1.5f, -2.25d, 'x', "äbc",
+            new BigInteger("-123456789012345678901234567890"), new BigDecimal("1234.5600"), UUID.randomUUID(),
+            new Date(1234567890123L), new java.sql.Date(1234567890123L), new java.sql.Time(1234567890123L), timestamp,
+            Instant.ofEpochSecond(1234567890L, 987654321), LocalDate.of(2024, 2, 29), LocalTime.of(23, 59, 59, 999),
+            LocalDateTime.of(1900, 1, 1, 0, 0, 1), OffsetTime.of(12, 0, 0, 0, ZoneOffset.ofHours(-5)),
+            OffsetDateTime.of(2024, 3, 10, 1, 2, 3, 4, ZoneOffset.ofHoursMinutes(5, 30)),
+            ZonedDateTime.of(2024, 10, 27, 2, 30, 0, 0, ZoneId.of("Europe/Vienna")).withLaterOffsetAtOverlap()
+        };
+        BinaryGraphQLCursorCodec codec = new BinaryGraphQLCursorCodec();
+        GraphQLCursor cursor = codec.decode(codec.encode(100000, 20, tuple));
+        Assert.assertEquals(100000, cursor.getOffset());
+        Assert.assertEquals(20, cursor.getPageSize());
+        Assert.assertArrayEquals(tuple, cursor.getTuple());
+        for (int i = 0; i < tuple.length; i++) {
+            if (tuple[i] != null) {
+                Assert.assertEquals(tuple[i].getClass(), cursor.getTuple()[i].getClass());
+            }
+        }
+    }
+
+    @Test
+    public void testSmallerThanSerialization() {
+        Serializable[] tuple = new Serializable[]{ 123L, "name" };
+        byte[] binary = new BinaryGraphQLCursorCodec().encode(0, 10, tuple);
+        byte[] serialized = new SerializationGraphQLCursorCodec(new HashSet<String>()).encode(0, 10, tuple);
+        Assert.assertTrue(binary.length * 10 < serialized.length);
+    }
+
+    @Test
+    public void testFallback() {
+        HashSet<String> allowedTypes = new HashSet<>(Arrays.asList(Serializable[].class.getName(), Locale.class.getName()));
+        SerializationGraphQLCursorCodec serializationCodec = new SerializationGraphQLCursorCodec(allowedTypes);
+        BinaryGraphQLCursorCodec codec = new BinaryGraphQLCursorCodec(serializationCodec);
+
+        // Unsupported types are encoded with the fallback codec
+        Serializable[] tuple = new Serializable[]{ Locale.GERMAN };
+        Assert.assertArrayEquals(tuple, codec.decode(codec.encode(1, 2, tuple)).getTuple());
+
+        // Cursors encoded by the fallback codec are decoded by it
+        GraphQLCursor cursor = codec.decode(serializationCodec.encode(1, 2, tuple));
+        Assert.assertEquals(1, cursor.getOffset());
+        Assert.assertArrayEquals(tuple, cursor.getTuple());
+    }
+
+    @Test
+    public void testUnsupportedType() {
+        try {
+            new BinaryGraphQLCursorCodec().encode(0, 10, new Serializable[]{ Locale.GERMAN });
+            Assert.fail("Expected to fail encoding of Locale");
+        } catch (IllegalArgumentException ex) {
+            Assert.assertEquals("Unsupported cursor tuple element type: java.util.Locale", ex.getMessage());
+        }
+    }
+
+    @Test
+    public void testInvalid() {
+        BinaryGraphQLCursorCodec codec = new BinaryGraphQLCursorCodec();
+        byte[] bytes = codec.encode(0, 10, new Serializable[]{ "abc" });
+        try {
+            codec.decode(Arrays.copyOf(bytes, bytes.length - 1));
+            Assert.fail("Expected to fail decoding of truncated cursor");
+        } catch (RuntimeException ex) {
+            Assert.assertEquals("Couldn't read cursor", ex.getMessage());
+        }
+    }
+
+    @Test
+    public void testTruncated() {
+        BinaryGraphQLCursorCodec codec = new BinaryGraphQLCursorCodec();
+        byte[] bytes = codec.encode(0, 10, new Serializable[]{ 1L, "abc" });
+        for (int length = 1; length < bytes.length; length++) {
+            assertInvalid(codec, Arrays.copyOf(bytes, length));
+        }
+    }
+
+    @Test
+    public void testOversizedTupleLength() {
+        // Version, offset 0, page size 10 and a tuple length of Integer.MAX_VALUE
+        assertInvalid(new BinaryGraphQLCursorCodec(), new byte[]{ 1, 0, 10, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07 });
+        // A tuple length that is just one more than the remaining bytes
+        assertInvalid(new BinaryGraphQLCursorCodec(), new byte[]{ 1, 0, 10, 3, 0 });
+    }
+
+    @Test
+    public void testNegativeLength() {
+        // A tuple length of -1 encoded as 64-bit variable length number
+        byte[] bytes = new byte[]{ 1, 0, 10, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x01 };
+        assertInvalid(new BinaryGraphQLCursorCodec(), bytes);
+        // A string length of -1
+        bytes = new byte[]{ 1, 0, 10, 2, 10, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x01 };
+        assertInvalid(new BinaryGraphQLCursorCodec(), bytes);
+    }
+
+    @Test
+    public void testInvalidOffsetAndPageSize() {
+        BinaryGraphQLCursorCodec codec = new BinaryGraphQLCursorCodec();
+        // Negative offset
+        assertInvalid(codec, new byte[]{ 1, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x0F, 10, 0 });
+        // Zero page size
+        assertInvalid(codec, new byte[]{ 1, 0, 0, 0 });
+        // Page size larger than Integer.MAX_VALUE
+        assertInvalid(codec, new byte[]{ 1, 0, (byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, 0x08, 0 });
+    }
+
+    @Test
+    public void testBigDecimalScaleLimit() {
+        BinaryGraphQLCursorCodec codec = new BinaryGraphQLCursorCodec();
+        Serializable[] tuple = new Serializable[]{ BigDecimal.ONE.scaleByPowerOfTen(-1024) };
+        Assert.assertArrayEquals(tuple, codec.decode(codec.encode(0, 10, tuple)).getTuple());
+        assertInvalid(codec, codec.encode(0, 10, new Serializable[]{ BigDecimal.ONE.scaleByPowerOfTen(-1025) }));
+        assertInvalid(codec, codec.encode(0, 10, new Serializable[]{ BigDecimal.ONE.scaleByPowerOfTen(Integer.MAX_VALUE) }));
+    }
+
+    private static void assertInvalid(BinaryGraphQLCursorCodec codec, byte[] bytes) {
+        try {
+            codec.decode(bytes);
+            Assert.fail("Expected to fail decoding of invalid cursor: " + Arrays.toString(bytes));
+        } catch (RuntimeException ex) {
+            Assert.assertEquals("Couldn't read cursor", ex.getMessage());
+        }
+    }
+}
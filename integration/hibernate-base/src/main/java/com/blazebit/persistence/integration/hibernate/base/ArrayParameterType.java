@@ -0,0 +1,140 @@
+/*
+ * Copyright 2014 - 2024 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.integration.hibernate.base;
+
+import org.hibernate.type.AbstractSingleColumnStandardBasicType;
+import org.hibernate.type.descriptor.ValueBinder;
+import org.hibernate.type.descriptor.ValueExtractor;
+import org.hibernate.type.descriptor.WrapperOptions;
+import org.hibernate.type.descriptor.java.AbstractTypeDescriptor;
+import org.hibernate.type.descriptor.java.JavaTypeDescriptor;
+import org.hibernate.type.descriptor.sql.SqlTypeDescriptor;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Arrays;
+
+/**
+ * A type that binds an object array as single JDBC array parameter with the given element SQL type name.
+ * The type can only be used for binding query parameters.
+ *
+ * @author Christian Beikov
+ * @since 1.6.13
+ */
+public class ArrayParameterType extends AbstractSingleColumnStandardBasicType<Object[]> {
+
+    private final String elementTypeName;
+
+    public ArrayParameterType(String elementTypeName) {
+        super(new ArraySqlTypeDescriptor(elementTypeName), ArrayJavaTypeDescriptor.INSTANCE);
+        this.elementTypeName = elementTypeName;
+    }
+
+    @Override
+    public String getName() {
+        return elementTypeName + "[]";
+    }
+
+    /**
+     * @author Christian Beikov
+     * @since 1.6.13
+     */
+    private static class ArraySqlTypeDescriptor implements SqlTypeDescriptor {
+
+        private final String elementTypeName;
+
+        public ArraySqlTypeDescriptor(String elementTypeName) {
+            this.elementTypeName = elementTypeName;
+        }
+
+        @Override
+        public int getSqlType() {
+            return Types.ARRAY;
+        }
+
+        @Override
+        public boolean canBeRemapped() {
+            return false;
+        }
+
+        @Override
+        public <X> ValueBinder<X> getBinder(final JavaTypeDescriptor<X> javaTypeDescriptor) {
+            return new ValueBinder<X>() {
+                @Override
+                public void bind(PreparedStatement st, X value, int index, WrapperOptions options) throws SQLException {
+                    if (value == null) {
+                        st.setNull(index, Types.ARRAY);
+                    } else {
+                        st.setArray(index, st.getConnection().createArrayOf(elementTypeName, (Object[]) value));
+                    }
+                }
+            };
+        }
+
+        @Override
+        public <X> ValueExtractor<X> getExtractor(JavaTypeDescriptor<X> javaTypeDescriptor) {
+            throw new UnsupportedOperationException("Array parameter types can only be used for binding parameters!");
+        }
+    }
+
+    /**
+     * @author Christian Beikov
+     * @since 1.6.13
+     */
+    private static class ArrayJavaTypeDescriptor extends AbstractTypeDescriptor<Object[]> {
+
+        public static final ArrayJavaTypeDescriptor INSTANCE = new ArrayJavaTypeDescriptor();
+
+        private ArrayJavaTypeDescriptor() {
+            super(Object[].class);
+        }
+
+        @Override
+        public String toString(Object[] value) {
+            return Arrays.toString(value);
+        }
+
+        @Override
+        public Object[] fromString(String string) {
+            throw new UnsupportedOperationException("Array parameter types can't be parsed!");
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <X> X unwrap(Object[] value, Class<X> type, WrapperOptions options) {
+            if (value == null) {
+                return null;
+            }
+            if (type.isInstance(value)) {
+                return (X) value;
+            }
+            throw unknownUnwrap(type);
+        }
+
+        @Override
+        public <X> Object[] wrap(X value, WrapperOptions options) {
+            if (value == null) {
+                return null;
+            }
+            if (value instanceof Object[]) {
+                return (Object[]) value;
+            }
+            throw unknownWrap(value.getClass());
+        }
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2014 - 2024 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.integration.hibernate.base;
+
+import com.blazebit.persistence.spi.QueryPlanCache;
+import org.hibernate.internal.util.collections.BoundedConcurrentHashMap;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A query plan cache that holds at most a configurable amount of query plans and evicts them based on the LIRS algorithm.
+ *
+ * @author Christian Beikov
+ * @since 1.6.13
+ */
+public class BoundedQueryPlanCache<K, V> implements QueryPlanCache<K, V> {
+
+    public static final int DEFAULT_MAXIMUM_SIZE = org.hibernate.engine.query.spi.QueryPlanCache.DEFAULT_QUERY_PLAN_MAX_COUNT;
+
+    private final int maximumSize;
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong evictionCount = new AtomicLong();
+    private final BoundedConcurrentHashMap<K, V> queryPlans;
+
+    public BoundedQueryPlanCache() {
+        this(DEFAULT_MAXIMUM_SIZE);
+    }
+
+    public BoundedQueryPlanCache(int maximumSize) {
+        if (maximumSize < 1) {
+            throw new IllegalArgumentException("Invalid maximum size for query plan cache: " + maximumSize);
+        }
+        this.maximumSize = maximumSize;
+        this.queryPlans = new BoundedConcurrentHashMap<>(maximumSize, 20, BoundedConcurrentHashMap.Eviction.LIRS, new BoundedConcurrentHashMap.EvictionListener<K, V>() {
+            @Override
+            public void onEntryEviction(Map<K, V> evicted) {
+                evictionCount.addAndGet(evicted.size());
+            }
+
+            @Override
+            public void onEntryChosenForEviction(V internalCacheEntry) {
+                // Counted in onEntryEviction
+            }
+        });
+    }
+
+    public int getMaximumSize() {
+        return maximumSize;
+    }
+
+    @Override
+    public V get(K key) {
+        V value = queryPlans.get(key);
+        if (value == null) {
+            missCount.incrementAndGet();
+        } else {
+            hitCount.incrementAndGet();
+        }
+        return value;
+    }
+
+    @Override
+    public V putIfAbsent(K key, V value) {
+        return queryPlans.putIfAbsent(key, value);
+    }
+
+    @Override
+    public void clear() {
+        queryPlans.clear();
+        hitCount.set(0L);
+        missCount.set(0L);
+        evictionCount.set(0L);
+    }
+
+    @Override
+    public Statistics getStatistics() {
+        return new Statistics(hitCount.get(), missCount.get(), evictionCount.get(), queryPlans.size(), maximumSize);
+    }
+}
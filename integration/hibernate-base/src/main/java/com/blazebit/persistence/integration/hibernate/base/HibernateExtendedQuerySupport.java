@@ -25,13 +25,19 @@ import com.blazebit.persistence.spi.CteQueryWrapper;
 import com.blazebit.persistence.spi.DbmsDialect;
 import com.blazebit.persistence.spi.DbmsStatementType;
 import com.blazebit.persistence.spi.ExtendedQuerySupport;
+import com.blazebit.persistence.spi.FilterAwareExtendedQuerySupport;
+import com.blazebit.persistence.spi.QueryInstrumentationListener;
+import com.blazebit.persistence.spi.QueryPhase;
+import com.blazebit.persistence.spi.QueryPlanCache;
+import com.blazebit.persistence.spi.QueryPlanCachingExtendedQuerySupport;
+import com.blazebit.persistence.spi.QueryStatisticsRecorder;
 import com.blazebit.reflection.ReflectionUtils;
+import org.hibernate.Filter;
 import org.hibernate.HibernateException;
 import org.hibernate.LockMode;
 import org.hibernate.LockOptions;
 import org.hibernate.TypeMismatchException;
 import org.hibernate.engine.query.spi.HQLQueryPlan;
-import org.hibernate.engine.query.spi.QueryPlanCache;
 import org.hibernate.engine.spi.QueryParameters;
 import org.hibernate.engine.spi.RowSelection;
 import org.hibernate.engine.spi.SessionFactoryImplementor;
@@ -54,8 +60,8 @@ import org.hibernate.hql.internal.ast.tree.InsertStatement;
 import org.hibernate.hql.internal.ast.tree.QueryNode;
 import org.hibernate.hql.internal.ast.tree.SelectClause;
 import org.hibernate.hql.spi.ParameterTranslations;
+import org.hibernate.internal.FilterImpl;
 import org.hibernate.hql.spi.QueryTranslator;
-import org.hibernate.internal.util.collections.BoundedConcurrentHashMap;
 import org.hibernate.loader.hql.QueryLoader;
 import org.hibernate.param.ParameterSpecification;
 import org.hibernate.persister.entity.AbstractEntityPersister;
@@ -82,6 +88,7 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.ServiceLoader;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.logging.Logger;
@@ -91,12 +98,12 @@ import java.util.logging.Logger;
  * @since 1.2.0
  */
 @ServiceProvider(ExtendedQuerySupport.class)
-public class HibernateExtendedQuerySupport implements ExtendedQuerySupport {
+public class HibernateExtendedQuerySupport implements FilterAwareExtendedQuerySupport, QueryPlanCachingExtendedQuerySupport {
 
     private static final Logger LOG = Logger.getLogger(HibernateExtendedQuerySupport.class.getName());
     private static final String[] KNOWN_STATEMENTS = { "select ", "insert ", "update ", "delete " };
     
-    private final ConcurrentMap<SessionFactoryImplementor, BoundedConcurrentHashMap<QueryPlanCacheKey, QueryPlanCacheValue>> queryPlanCachesCache = new ConcurrentHashMap<>();
+    private final ConcurrentMap<SessionFactoryImplementor, QueryPlanCache<QueryPlanCacheKey, QueryPlanCacheValue>> queryPlanCachesCache = new ConcurrentHashMap<>();
     private final ConcurrentMap<FieldKey, Field> fieldCache = new ConcurrentHashMap<>();
     private final HibernateAccess hibernateAccess;
     
@@ -113,6 +120,29 @@ public class HibernateExtendedQuerySupport implements ExtendedQuerySupport {
         return true;
     }
 
+    @Override
+    public boolean hasEnabledFilters(EntityManager em) {
+        return !em.unwrap(SessionImplementor.class).getLoadQueryInfluencers().getEnabledFilters().isEmpty();
+    }
+
+    @Override
+    public Object getFilterDiscriminator(EntityManager em) {
+        SessionImplementor session = em.unwrap(SessionImplementor.class);
+        String tenantIdentifier = session.getTenantIdentifier();
+        Map<String, Filter> enabledFilters = session.getLoadQueryInfluencers().getEnabledFilters();
+        if (tenantIdentifier == null && enabledFilters.isEmpty()) {
+            return null;
+        }
+        List<Object> discriminator = new ArrayList<>(1 + enabledFilters.size() * 2);
+        discriminator.add(tenantIdentifier);
+        // Sort by name so that the order in which filters were enabled doesn't matter
+        for (Map.Entry<String, Filter> entry : new TreeMap<>(enabledFilters).entrySet()) {
+            discriminator.add(entry.getKey());
+            discriminator.add(new TreeMap<>(((FilterImpl) entry.getValue()).getParameters()));
+        }
+        return discriminator;
+    }
+
     @Override
     public boolean needsExampleQueryForAdvancedDml() {
         return false;
@@ -443,14 +473,14 @@ public class HibernateExtendedQuerySupport implements ExtendedQuerySupport {
         QueryParameters queryParameters = queryParametersEntry.queryParameters;
 
         QueryPlanCacheKey cacheKey = queryPlanCacheEnabled ? createCacheKey(finalSql, participatingQueries, queryStrings) : null;
-        CacheEntry<QueryPlanCacheValue> queryPlanEntry = getQueryPlan(sfi, query, cacheKey);
+        CacheEntry<QueryPlanCacheValue> queryPlanEntry = getQueryPlan(serviceProvider, sfi, query, cacheKey, serviceProvider.getService(QueryInstrumentationListener.class), finalSql);
         QueryPlanCacheValue queryPlanCacheValue = queryPlanEntry.getValue();
         HQLQueryPlan queryPlan = queryPlanCacheValue.getQueryPlan();
         
         if (!queryPlanEntry.isFromCache()) {
             prepareQueryPlan(queryPlan, queryParametersEntry.specifications, finalSql, session, null, false, serviceProvider.getService(DbmsDialect.class));
             if (queryPlanCacheEnabled) {
-                putQueryPlanIfAbsent(sfi, cacheKey, queryPlanCacheValue);
+                putQueryPlanIfAbsent(serviceProvider, sfi, cacheKey, queryPlanCacheValue);
             }
         }
 
@@ -474,14 +504,14 @@ public class HibernateExtendedQuerySupport implements ExtendedQuerySupport {
         QueryParameters queryParameters = queryParametersEntry.queryParameters;
 
         QueryPlanCacheKey cacheKey = queryPlanCacheEnabled ? createCacheKey(finalSql, participatingQueries, queryStrings) : null;
-        CacheEntry<QueryPlanCacheValue> queryPlanEntry = getQueryPlan(sfi, query, cacheKey);
+        CacheEntry<QueryPlanCacheValue> queryPlanEntry = getQueryPlan(serviceProvider, sfi, query, cacheKey, serviceProvider.getService(QueryInstrumentationListener.class), finalSql);
         QueryPlanCacheValue queryPlanCacheValue = queryPlanEntry.getValue();
         HQLQueryPlan queryPlan = queryPlanCacheValue.getQueryPlan();
 
         if (!queryPlanEntry.isFromCache()) {
             prepareQueryPlan(queryPlan, queryParametersEntry.specifications, finalSql, session, null, false, serviceProvider.getService(DbmsDialect.class));
             if (queryPlanCacheEnabled) {
-                putQueryPlanIfAbsent(sfi, cacheKey, queryPlanCacheValue);
+                putQueryPlanIfAbsent(serviceProvider, sfi, cacheKey, queryPlanCacheValue);
             }
         }
 
@@ -517,7 +547,7 @@ public class HibernateExtendedQuerySupport implements ExtendedQuerySupport {
         QueryParameters queryParameters = queryParametersEntry.queryParameters;
 
         QueryPlanCacheKey cacheKey = queryPlanCacheEnabled ? createCacheKey(finalSql, participatingQueries, queryStrings, firstResult, maxResults) : null;
-        CacheEntry<QueryPlanCacheValue> queryPlanEntry = getQueryPlan(sfi, query, cacheKey);
+        CacheEntry<QueryPlanCacheValue> queryPlanEntry = getQueryPlan(serviceProvider, sfi, query, cacheKey, serviceProvider.getService(QueryInstrumentationListener.class), finalSql);
         QueryPlanCacheValue queryPlanCacheValue = queryPlanEntry.getValue();
         HQLQueryPlan queryPlan = queryPlanCacheValue.getQueryPlan();
 
@@ -541,7 +571,7 @@ public class HibernateExtendedQuerySupport implements ExtendedQuerySupport {
         if (!queryPlanEntry.isFromCache()) {
             prepareQueryPlan(queryPlan, queryParametersEntry.specifications, finalSql, session, baseQuery, true, dbmsDialect);
             if (queryPlanCacheEnabled) {
-                putQueryPlanIfAbsent(sfi, cacheKey, new QueryPlanCacheValue(queryPlan, returningColumns, returningColumnTypes));
+                putQueryPlanIfAbsent(serviceProvider, sfi, cacheKey, new QueryPlanCacheValue(queryPlan, returningColumns, returningColumnTypes));
             }
         }
 
@@ -594,7 +624,7 @@ public class HibernateExtendedQuerySupport implements ExtendedQuerySupport {
         
         // Create plan for example query
         QueryPlanCacheKey cacheKey = queryPlanCacheEnabled ? createCacheKey(sqlOverride, participatingQueries, queryStrings) : null;
-        CacheEntry<QueryPlanCacheValue> queryPlanEntry = getQueryPlan(sfi, exampleQuery, cacheKey);
+        CacheEntry<QueryPlanCacheValue> queryPlanEntry = getQueryPlan(serviceProvider, sfi, exampleQuery, cacheKey, serviceProvider.getService(QueryInstrumentationListener.class), sqlOverride);
         QueryPlanCacheValue queryPlanCacheValue = queryPlanEntry.getValue();
         HQLQueryPlan queryPlan = queryPlanCacheValue.getQueryPlan();
 
@@ -619,7 +649,7 @@ public class HibernateExtendedQuerySupport implements ExtendedQuerySupport {
             if (!queryPlanEntry.isFromCache()) {
                 prepareQueryPlan(queryPlan, queryParametersEntry.specifications, finalSql, session, modificationBaseQuery, true, dbmsDialect);
                 if (queryPlanCacheEnabled) {
-                    putQueryPlanIfAbsent(sfi, cacheKey, new QueryPlanCacheValue(queryPlan, returningColumns, returningColumnTypes));
+                    putQueryPlanIfAbsent(serviceProvider, sfi, cacheKey, new QueryPlanCacheValue(queryPlan, returningColumns, returningColumnTypes));
                 }
             }
 
@@ -682,6 +712,46 @@ public class HibernateExtendedQuerySupport implements ExtendedQuerySupport {
         }
     }
 
+    @Override
+    public QueryPlanCache<?, ?> createQueryPlanCache(int maximumSize) {
+        return new BoundedQueryPlanCache<>(maximumSize);
+    }
+
+    @Override
+    public void prepareQueryPlan(com.blazebit.persistence.spi.ServiceProvider serviceProvider, List<Query> participatingQueries, Query query, String sqlOverride, boolean queryPlanCacheEnabled) {
+        if (!queryPlanCacheEnabled) {
+            return;
+        }
+        EntityManager em = serviceProvider.getService(EntityManager.class);
+        try {
+            SessionImplementor session = em.unwrap(SessionImplementor.class);
+            SessionFactoryImplementor sfi = session.getFactory();
+
+            if (session.isClosed()) {
+                throw new PersistenceException("Entity manager is closed!");
+            }
+
+            // Only the query strings and parameter specifications are needed to build the query plan, parameter values may be unbound
+            List<String> queryStrings = new ArrayList<>(participatingQueries.size());
+            List<ParameterSpecification> specifications = new ArrayList<>();
+            for (QueryParamEntry queryParamEntry : getQueryParamEntries(em, participatingQueries, new HashSet<String>(), false)) {
+                queryStrings.add(queryParamEntry.queryString);
+                specifications.addAll(queryParamEntry.specifications);
+            }
+
+            QueryPlanCacheKey cacheKey = createCacheKey(sqlOverride, participatingQueries, queryStrings);
+            CacheEntry<QueryPlanCacheValue> queryPlanEntry = getQueryPlan(serviceProvider, sfi, query, cacheKey, null, sqlOverride);
+            if (!queryPlanEntry.isFromCache()) {
+                QueryPlanCacheValue queryPlanCacheValue = queryPlanEntry.getValue();
+                prepareQueryPlan(queryPlanCacheValue.getQueryPlan(), specifications, sqlOverride, session, null, false, serviceProvider.getService(DbmsDialect.class));
+                putQueryPlanIfAbsent(serviceProvider, sfi, cacheKey, queryPlanCacheValue);
+            }
+        } catch (HibernateException he) {
+            LOG.severe("Could not prepare the query plan for the following SQL query: " + sqlOverride);
+            throw hibernateAccess.convert(em, he);
+        }
+    }
+
     public void autoFlush(Set<String> querySpaces, SessionImplementor sessionImplementor) {
         AutoFlushEvent event = new AutoFlushEvent(querySpaces, (EventSource) sessionImplementor);
         for (AutoFlushEventListener listener : sessionImplementor.getFactory().getServiceRegistry().getService(EventListenerRegistry.class).getEventListenerGroup(EventType.AUTO_FLUSH).listeners()) {
@@ -817,7 +887,7 @@ public class HibernateExtendedQuerySupport implements ExtendedQuerySupport {
             comment = comment != null ? comment : hibernateAccess.getQueryParameters(hibernateParticipatingQuery, namedParams).getComment();
         }
 
-        for (QueryParamEntry queryParamEntry : getQueryParamEntries(em, participatingQueries, querySpaces)) {
+        for (QueryParamEntry queryParamEntry : getQueryParamEntries(em, participatingQueries, querySpaces, true)) {
             queryStrings.add(queryParamEntry.queryString);
 
             QueryParameters participatingQueryParameters = queryParamEntry.queryParameters;
@@ -876,7 +946,7 @@ public class HibernateExtendedQuerySupport implements ExtendedQuerySupport {
         return hibernateAccess.wrapSession(session, dbmsDialect, columns, returningSqlTypes, returningResult);
     }
     
-    private List<QueryParamEntry> getQueryParamEntries(EntityManager em, List<Query> queries, Set<String> querySpaces) {
+    private List<QueryParamEntry> getQueryParamEntries(EntityManager em, List<Query> queries, Set<String> querySpaces, boolean resolveQueryParameters) {
         SessionImplementor session = em.unwrap(SessionImplementor.class);
         SessionFactoryImplementor sfi = session.getFactory();
         List<QueryParamEntry> result = new ArrayList<QueryParamEntry>(queries.size());
@@ -910,7 +980,7 @@ public class HibernateExtendedQuerySupport implements ExtendedQuerySupport {
             List<ParameterSpecification> specifications;
             
             try {
-                queryParameters = hibernateAccess.getQueryParameters(hibernateQuery, namedParams);
+                queryParameters = resolveQueryParameters ? hibernateAccess.getQueryParameters(hibernateQuery, namedParams) : null;
                 specifications = getField(queryTranslator, "collectedParameterSpecifications");
                 
                 // This only happens for modification queries
@@ -1112,14 +1182,15 @@ public class HibernateExtendedQuerySupport implements ExtendedQuerySupport {
         return i;
     }
 
-    private CacheEntry<QueryPlanCacheValue> getQueryPlan(SessionFactoryImplementor sfi, Query query, QueryPlanCacheKey cacheKey) {
+    private CacheEntry<QueryPlanCacheValue> getQueryPlan(com.blazebit.persistence.spi.ServiceProvider serviceProvider, SessionFactoryImplementor sfi, Query query, QueryPlanCacheKey cacheKey, QueryInstrumentationListener instrumentationListener, String sql) {
+        long start = instrumentationListener == null ? 0L : System.nanoTime();
         QueryPlanCacheValue queryPlan;
         boolean fromCache;
         if (cacheKey == null) {
             fromCache = false;
             queryPlan = createQueryPlan(sfi, query);
         } else {
-            BoundedConcurrentHashMap<QueryPlanCacheKey, QueryPlanCacheValue> queryPlanCache = getQueryPlanCache(sfi);
+            QueryPlanCache<QueryPlanCacheKey, QueryPlanCacheValue> queryPlanCache = getQueryPlanCache(serviceProvider, sfi);
             queryPlan = queryPlanCache.get(cacheKey);
             if (queryPlan == null) {
                 fromCache = false;
@@ -1127,13 +1198,21 @@ public class HibernateExtendedQuerySupport implements ExtendedQuerySupport {
             } else {
                 fromCache = true;
             }
+            // The recorder of the query builder attributes the lookup to the JPQL query string of the builder
+            QueryStatisticsRecorder statisticsRecorder = serviceProvider.getService(QueryStatisticsRecorder.class);
+            if (statisticsRecorder != null) {
+                statisticsRecorder.recordQueryPlanCacheLookup(sql, fromCache);
+            }
+        }
+        if (instrumentationListener != null) {
+            instrumentationListener.onPhaseCompleted(QueryPhase.QUERY_PLAN_CACHE_LOOKUP, sql, System.nanoTime() - start);
         }
         
         return new CacheEntry<>(queryPlan, fromCache);
     }
     
-    private QueryPlanCacheValue putQueryPlanIfAbsent(SessionFactoryImplementor sfi, QueryPlanCacheKey cacheKey, QueryPlanCacheValue queryPlan) {
-        BoundedConcurrentHashMap<QueryPlanCacheKey, QueryPlanCacheValue> queryPlanCache = getQueryPlanCache(sfi);
+    private QueryPlanCacheValue putQueryPlanIfAbsent(com.blazebit.persistence.spi.ServiceProvider serviceProvider, SessionFactoryImplementor sfi, QueryPlanCacheKey cacheKey, QueryPlanCacheValue queryPlan) {
+        QueryPlanCache<QueryPlanCacheKey, QueryPlanCacheValue> queryPlanCache = getQueryPlanCache(serviceProvider, sfi);
         return queryPlanCache.putIfAbsent(cacheKey, queryPlan);
     }
     
@@ -1143,11 +1222,17 @@ public class HibernateExtendedQuerySupport implements ExtendedQuerySupport {
         return new QueryPlanCacheValue(new HQLQueryPlan(queryString, false, Collections.EMPTY_MAP, sfi), null, null);
     }
     
-    private BoundedConcurrentHashMap<QueryPlanCacheKey, QueryPlanCacheValue> getQueryPlanCache(SessionFactoryImplementor sfi) {
-        BoundedConcurrentHashMap<QueryPlanCacheKey, QueryPlanCacheValue> queryPlanCache = queryPlanCachesCache.get(sfi);
+    @SuppressWarnings("unchecked")
+    private QueryPlanCache<QueryPlanCacheKey, QueryPlanCacheValue> getQueryPlanCache(com.blazebit.persistence.spi.ServiceProvider serviceProvider, SessionFactoryImplementor sfi) {
+        QueryPlanCache<QueryPlanCacheKey, QueryPlanCacheValue> queryPlanCache = serviceProvider.getService(QueryPlanCache.class);
+        if (queryPlanCache != null) {
+            return queryPlanCache;
+        }
+        // Fallback for service providers that don't provide a query plan cache
+        queryPlanCache = queryPlanCachesCache.get(sfi);
         if (queryPlanCache == null) {
-            queryPlanCache = new BoundedConcurrentHashMap<QueryPlanCacheKey, QueryPlanCacheValue>(QueryPlanCache.DEFAULT_QUERY_PLAN_MAX_COUNT, 20, BoundedConcurrentHashMap.Eviction.LIRS);
-            BoundedConcurrentHashMap<QueryPlanCacheKey, QueryPlanCacheValue> oldQueryPlanCache = queryPlanCachesCache.putIfAbsent(sfi, queryPlanCache);
+            queryPlanCache = new BoundedQueryPlanCache<>();
+            QueryPlanCache<QueryPlanCacheKey, QueryPlanCacheValue> oldQueryPlanCache = queryPlanCachesCache.putIfAbsent(sfi, queryPlanCache);
             if (oldQueryPlanCache != null) {
                 queryPlanCache = oldQueryPlanCache;
             }
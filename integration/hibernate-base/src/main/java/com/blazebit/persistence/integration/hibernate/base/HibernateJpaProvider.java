@@ -18,9 +18,9 @@ package com.blazebit.persistence.integration.hibernate.base;
 
 import com.blazebit.persistence.JoinType;
 import com.blazebit.persistence.integration.jpa.JpaMetamodelAccessorImpl;
+import com.blazebit.persistence.spi.ArrayParameterJpaProvider;
 import com.blazebit.persistence.spi.JoinTable;
 import com.blazebit.persistence.spi.JpaMetamodelAccessor;
-import com.blazebit.persistence.spi.JpaProvider;
 import org.hibernate.Hibernate;
 import org.hibernate.MappingException;
 import org.hibernate.QueryException;
@@ -74,6 +74,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
@@ -87,7 +88,7 @@ import java.util.logging.Logger;
  * @author Christian Beikov
  * @since 1.0.0
  */
-public class HibernateJpaProvider implements JpaProvider {
+public class HibernateJpaProvider implements ArrayParameterJpaProvider {
 
     private static final Method GET_TYPE_NAME;
     private static final Method IS_NULLABLE;
@@ -112,6 +113,7 @@ public class HibernateJpaProvider implements JpaProvider {
     private final boolean supportsTableGroupJoins;
     private final boolean needsElementCollectionIdCutoffForCompositeIdOwner;
     private final boolean supportsNonDrivingAliasInOnClause;
+    private final Map<Class<?>, ArrayParameterType> arrayParameterTypes;
 
     static {
         Class<?> typeClass = null;
@@ -219,6 +221,16 @@ public class HibernateJpaProvider implements JpaProvider {
             this.needsElementCollectionIdCutoffForCompositeIdOwner = major < 5 || major == 5 && minor < 4;
             // Table group joins are added in Hibernate 5.2.8
             this.supportsTableGroupJoins = major > 5 || (major == 5 && (minor > 2 || (minor == 2 && fix >= 8)));
+            if ("postgresql".equals(dbms) || "h2".equals(dbms)) {
+                Map<Class<?>, ArrayParameterType> arrayParameterTypes = new HashMap<>();
+                arrayParameterTypes.put(Long.class, new ArrayParameterType("bigint"));
+                arrayParameterTypes.put(Integer.class, new ArrayParameterType("integer"));
+                arrayParameterTypes.put(Short.class, new ArrayParameterType("smallint"));
+                arrayParameterTypes.put(String.class, new ArrayParameterType("varchar"));
+                this.arrayParameterTypes = arrayParameterTypes;
+            } else {
+                this.arrayParameterTypes = Collections.emptyMap();
+            }
         } catch (Exception e) {
             throw new RuntimeException(e);
         }
@@ -1638,6 +1650,20 @@ public class HibernateJpaProvider implements JpaProvider {
         }
     }
 
+    @Override
+    public boolean supportsArrayParameter(Class<?> elementType) {
+        return arrayParameterTypes.containsKey(elementType);
+    }
+
+    @Override
+    public void setArrayParameter(Query query, String name, Class<?> elementType, Object[] values) {
+        ArrayParameterType type = arrayParameterTypes.get(elementType);
+        if (type == null) {
+            throw new IllegalArgumentException("Unsupported array parameter element type: " + elementType.getName());
+        }
+        query.unwrap(org.hibernate.Query.class).setParameter(name, values, type);
+    }
+
     @Override
     public List<String> getIdentifierOrUniqueKeyEmbeddedPropertyNames(EntityType<?> owner, String attributeName) {
         return new ArrayList<>(getJoinMappingPropertyNames(owner, null, attributeName).keySet());
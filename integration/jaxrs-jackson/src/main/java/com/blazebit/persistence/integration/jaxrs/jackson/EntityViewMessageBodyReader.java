@@ -481,6 +481,10 @@ public class EntityViewMessageBodyReader implements MessageBodyReader<Object> {
             entityViewManager.get().saveFull(entityManager, view);
         }
 
+        public void saveAll(EntityManager entityManager, Iterable<?> views) {
+            entityViewManager.get().saveAll(entityManager, views);
+        }
+
         public void saveTo(EntityManager entityManager, Object view, Object entity) {
             entityViewManager.get().saveTo(entityManager, view, entity);
         }
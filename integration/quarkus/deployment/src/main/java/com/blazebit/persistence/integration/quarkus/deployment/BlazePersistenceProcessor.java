@@ -22,6 +22,7 @@ import com.blazebit.persistence.integration.quarkus.runtime.BlazePersistenceHibe
 import com.blazebit.persistence.integration.quarkus.runtime.BlazePersistenceInstance;
 import com.blazebit.persistence.integration.quarkus.runtime.BlazePersistenceInstanceConfiguration;
 import com.blazebit.persistence.integration.quarkus.runtime.BlazePersistenceInstanceUtil;
+import com.blazebit.persistence.parser.expression.BoundedExpressionCache;
 import com.blazebit.persistence.parser.expression.ConcurrentHashMapExpressionCache;
 import com.blazebit.persistence.view.EntityView;
 import com.blazebit.persistence.view.EntityViews;
@@ -266,6 +267,7 @@ class BlazePersistenceProcessor {
                     BuildProducer<ReflectiveClassBuildItem> reflectionProducer) {
         reflectionProducer.produce(new ReflectiveClassBuildItem(true, true, ValuesEntity.class));
         reflectionProducer.produce(new ReflectiveClassBuildItem(true, false, false, ConcurrentHashMapExpressionCache.class));
+        reflectionProducer.produce(new ReflectiveClassBuildItem(true, false, false, BoundedExpressionCache.class));
         reflectionProducer.produce(new ReflectiveClassBuildItem(true, false, false, "com.blazebit.persistence.integration.hibernate.CustomOneToManyPersister"));
         reflectionProducer.produce(new ReflectiveClassBuildItem(true, false, false, "com.blazebit.persistence.integration.hibernate.CustomBasicCollectionPersister"));
         // Needed by AbstractHibernateEntityManagerFactoryIntegrator
@@ -62,6 +62,14 @@ public class BlazePersistenceInstanceConfiguration {
     @ConfigItem(defaultValue = "false")
     public boolean managedTypeValidationDisabled;
 
+    /**
+     * The path to a metamodel snapshot file, or a class path resource prefixed with <code>classpath:</code>,
+     * which allows to skip the expression and managed type validation during boot.
+     * The snapshot is generated during the build and is only read during boot. When it is missing or its fingerprint doesn't match
+     * the entity view classes, the JPA metamodel and the configuration, the entity view metamodel is validated as usual.
+     */
+    public Optional<String> metamodelSnapshotFile;
+
     /**
      * An integer value that defines the default batch size for entity view attributes.
      * By default the value is 1 and can be overridden either via {@linkplain com.blazebit.persistence.view.BatchFetch#size()}
@@ -174,6 +182,9 @@ public class BlazePersistenceInstanceConfiguration {
         entityViewConfiguration.setProperty(com.blazebit.persistence.view.ConfigurationProperties.UPDATER_STRICT_CASCADING_CHECK, Boolean.toString(updaterStrictCascadingCheck));
         entityViewConfiguration.setProperty(com.blazebit.persistence.view.ConfigurationProperties.UPDATER_ERROR_ON_INVALID_PLURAL_SETTER, Boolean.toString(updaterErrorOnInvalidPluralSetter));
         entityViewConfiguration.setProperty(com.blazebit.persistence.view.ConfigurationProperties.CREATE_EMPTY_FLAT_VIEWS, Boolean.toString(createEmptyFlatViews));
+        if (metamodelSnapshotFile.isPresent()) {
+            entityViewConfiguration.setProperty(com.blazebit.persistence.view.ConfigurationProperties.METAMODEL_SNAPSHOT_FILE, metamodelSnapshotFile.get());
+        }
     }
 
     public boolean isAnyPropertySet() {
@@ -187,6 +198,7 @@ public class BlazePersistenceInstanceConfiguration {
                 packages.isPresent() ||
                 templateEagerLoading ||
                 managedTypeValidationDisabled ||
+                metamodelSnapshotFile.isPresent() ||
                 !updaterDisallowOwnedUpdatableSubview ||
                 updaterEagerLoading ||
                 updaterErrorOnInvalidPluralSetter ||
@@ -59,14 +59,28 @@ import com.blazebit.persistence.WindowFrameBuilder;
 import com.blazebit.persistence.WindowFrameExclusionBuilder;
 import com.blazebit.persistence.impl.JpaUtils;
 import com.blazebit.persistence.parser.EntityMetamodel;
+import com.blazebit.persistence.parser.expression.ExpressionClauseBuilder;
+import com.blazebit.persistence.parser.expression.ParameterExpression;
+import com.blazebit.persistence.parser.expression.PathExpression;
+import com.blazebit.persistence.parser.expression.PropertyExpression;
+import com.blazebit.persistence.parser.predicate.CompoundPredicate;
+import com.blazebit.persistence.parser.predicate.EqPredicate;
+import com.blazebit.persistence.parser.predicate.GePredicate;
+import com.blazebit.persistence.parser.predicate.GtPredicate;
+import com.blazebit.persistence.parser.predicate.IsNullPredicate;
+import com.blazebit.persistence.parser.predicate.LePredicate;
+import com.blazebit.persistence.parser.predicate.LtPredicate;
+import com.blazebit.persistence.parser.predicate.PredicateQuantifier;
 import com.blazebit.persistence.spi.ExtendedAttribute;
 import com.blazebit.persistence.spi.ExtendedManagedType;
+import com.blazebit.persistence.spi.ServiceProvider;
 import com.querydsl.core.JoinExpression;
 import com.querydsl.core.QueryFlag;
 import com.querydsl.core.QueryFlag.Position;
 import com.querydsl.core.QueryMetadata;
 import com.querydsl.core.QueryModifiers;
 import com.querydsl.core.types.Constant;
+import com.querydsl.core.types.ConstantImpl;
 import com.querydsl.core.types.Expression;
 import com.querydsl.core.types.FactoryExpression;
 import com.querydsl.core.types.Operation;
@@ -76,12 +90,14 @@ import com.querydsl.core.types.Order;
 import com.querydsl.core.types.OrderSpecifier;
 import com.querydsl.core.types.ParamExpression;
 import com.querydsl.core.types.Path;
+import com.querydsl.core.types.PathMetadata;
 import com.querydsl.core.types.Predicate;
 import com.querydsl.core.types.SubQueryExpression;
 import com.querydsl.core.types.TemplateExpression;
 import com.querydsl.core.types.Visitor;
 import com.querydsl.core.types.dsl.BeanPath;
 import com.querydsl.core.types.dsl.CollectionExpressionBase;
+import com.querydsl.core.util.MathUtils;
 import com.querydsl.jpa.JPAQueryMixin;
 import com.querydsl.jpa.JPQLTemplates;
 
@@ -114,6 +130,7 @@ public class BlazeCriteriaBuilderRenderer<T> {
 
     private final CriteriaBuilderFactory criteriaBuilderFactory;
     private final EntityManager entityManager;
+    private final JPQLTemplates templates;
     private final JPQLNextSerializer serializer;
     private final Map<Object, String> constantToLabel = new IdentityHashMap<>();
     private Map<Expression<?>, String> subQueryToLabel = new IdentityHashMap<>();
@@ -122,6 +139,7 @@ public class BlazeCriteriaBuilderRenderer<T> {
     private CriteriaBuilder<T> criteriaBuilder;
 
     public BlazeCriteriaBuilderRenderer(CriteriaBuilderFactory criteriaBuilderFactory, EntityManager entityManager, JPQLTemplates templates) {
+        this.templates = templates;
         this.serializer = new JPQLNextExpressionSerializer(templates, entityManager);
         this.criteriaBuilderFactory = criteriaBuilderFactory;
         this.entityManager = entityManager;
@@ -434,7 +452,13 @@ public class BlazeCriteriaBuilderRenderer<T> {
 
     private void renderHaving(QueryMetadata metadata, final HavingBuilder<?> criteriaBuilder) {
         if (metadata.getHaving() != null) {
-            setExpressionSubqueries(metadata.getHaving(), null, criteriaBuilder, HavingBuilderExpressionSetter.INSTANCE);
+            ExpressionClauseBuilder expressionClauseBuilder = getExpressionClauseBuilder(criteriaBuilder);
+            com.blazebit.persistence.parser.predicate.Predicate predicate = expressionClauseBuilder == null ? null : new ExpressionTreeTranslator().translatePredicate(metadata.getHaving());
+            if (predicate == null) {
+                setExpressionSubqueries(metadata.getHaving(), null, criteriaBuilder, HavingBuilderExpressionSetter.INSTANCE);
+            } else {
+                expressionClauseBuilder.setHavingExpression(predicate);
+            }
         }
     }
 
@@ -446,7 +470,13 @@ public class BlazeCriteriaBuilderRenderer<T> {
 
     private void renderWhere(QueryMetadata metadata, final WhereBuilder<?> criteriaBuilder) {
         if (metadata.getWhere() != null) {
-            setExpressionSubqueries(metadata.getWhere(), null, criteriaBuilder, WhereBuilderExpressionSetter.INSTANCE);
+            ExpressionClauseBuilder expressionClauseBuilder = getExpressionClauseBuilder(criteriaBuilder);
+            com.blazebit.persistence.parser.predicate.Predicate predicate = expressionClauseBuilder == null ? null : new ExpressionTreeTranslator().translatePredicate(metadata.getWhere());
+            if (predicate == null) {
+                setExpressionSubqueries(metadata.getWhere(), null, criteriaBuilder, WhereBuilderExpressionSetter.INSTANCE);
+            } else {
+                expressionClauseBuilder.setWhereExpression(predicate);
+            }
         }
     }
 
@@ -714,7 +744,30 @@ public class BlazeCriteriaBuilderRenderer<T> {
             }
         }
 
-        setExpressionSubqueries(select, alias, selectBuilder, SelectBuilderExpressionSetter.INSTANCE);
+        ExpressionClauseBuilder expressionClauseBuilder = select instanceof Path<?> ? getExpressionClauseBuilder(selectBuilder) : null;
+        PathExpression pathExpression = expressionClauseBuilder == null ? null : new ExpressionTreeTranslator().translatePath((Path<?>) select);
+        if (pathExpression == null) {
+            setExpressionSubqueries(select, alias, selectBuilder, SelectBuilderExpressionSetter.INSTANCE);
+        } else {
+            expressionClauseBuilder.select(pathExpression, alias);
+        }
+    }
+
+    private ExpressionClauseBuilder getExpressionClauseBuilder(Object builder) {
+        // The expression tree translation mirrors the JPQLTemplates operator templates, so custom templates are always serialized
+        if (templates instanceof JPQLNextTemplates && builder instanceof ServiceProvider) {
+            return ((ServiceProvider) builder).getService(ExpressionClauseBuilder.class);
+        }
+        return null;
+    }
+
+    private String labelConstant(Object constant) {
+        String label = constantToLabel.get(constant);
+        if (label == null) {
+            label = "param_" + constantToLabel.size();
+            constantToLabel.put(constant, label);
+        }
+        return label;
     }
 
     private String renderExpression(Expression<?> select) {
@@ -1086,13 +1139,7 @@ public class BlazeCriteriaBuilderRenderer<T> {
                 append("(");
             }
             append(":");
-            final Map<Object, String> constantToLabel = getConstantToLabel();
-            String label = constantToLabel.get(constant);
-            if (label == null) {
-                label = "param_" + constantToLabel.size();
-                constantToLabel.put(constant, label);
-            }
-            append(label);
+            append(labelConstant(constant));
             if (wrap) {
                 append(")");
             }
@@ -1212,6 +1259,199 @@ public class BlazeCriteriaBuilderRenderer<T> {
 
     }
 
+    /**
+     * Translates predicates and paths directly to the expression trees that the expression parser produces for the serialized JPQL,
+     * so that the query builders don't have to parse the JPQL again.
+     * Only comparisons, null checks and logical combinations of paths, parameters and constants are supported.
+     * For anything else <code>null</code> is returned, so that the caller can fall back to serialization.
+     * Constants are only labeled once the whole expression could be translated.
+     */
+    private class ExpressionTreeTranslator extends DefaultVisitorImpl<com.blazebit.persistence.parser.expression.Expression, Void> {
+
+        private final List<Object> constants = new ArrayList<>();
+        private final List<ParameterExpression> constantExpressions = new ArrayList<>();
+
+        public com.blazebit.persistence.parser.predicate.Predicate translatePredicate(Expression<?> expression) {
+            com.blazebit.persistence.parser.predicate.Predicate predicate = predicate(expression);
+            if (predicate != null) {
+                for (int i = 0; i < constants.size(); i++) {
+                    constantExpressions.get(i).setName(labelConstant(constants.get(i)));
+                }
+            }
+            return predicate;
+        }
+
+        public PathExpression translatePath(Path<?> path) {
+            com.blazebit.persistence.parser.expression.Expression expression = path.accept(this, null);
+            return expression instanceof PathExpression ? (PathExpression) expression : null;
+        }
+
+        @Override
+        public com.blazebit.persistence.parser.expression.Expression visit(Constant<?> constant, Void context) {
+            if (templates.wrapConstant(constant.getConstant())) {
+                return null;
+            }
+            // The name is set when the constants are labeled
+            ParameterExpression parameterExpression = new ParameterExpression(null);
+            constants.add(constant.getConstant());
+            constantExpressions.add(parameterExpression);
+            return parameterExpression;
+        }
+
+        @Override
+        public com.blazebit.persistence.parser.expression.Expression visit(ParamExpression<?> paramExpression, Void context) {
+            return new ParameterExpression(paramExpression.getName());
+        }
+
+        @Override
+        public com.blazebit.persistence.parser.expression.Expression visit(Path<?> path, Void context) {
+            PathMetadata metadata = path.getMetadata();
+            switch (metadata.getPathType()) {
+                case VARIABLE:
+                    PathExpression pathExpression = new PathExpression();
+                    pathExpression.getExpressions().add(new PropertyExpression(metadata.getElement().toString()));
+                    return pathExpression;
+                case PROPERTY:
+                    com.blazebit.persistence.parser.expression.Expression parent = metadata.getParent().accept(this, null);
+                    if (parent instanceof PathExpression) {
+                        ((PathExpression) parent).getExpressions().add(new PropertyExpression(metadata.getElement().toString()));
+                        return parent;
+                    }
+                    return null;
+                case DELEGATE:
+                    return metadata.getParent().accept(this, null);
+                default:
+                    return null;
+            }
+        }
+
+        @Override
+        public com.blazebit.persistence.parser.expression.Expression visit(Operation<?> operation, Void context) {
+            if (!(operation.getOperator() instanceof Ops)) {
+                return null;
+            }
+            Ops operator = (Ops) operation.getOperator();
+            List<Expression<?>> args = operation.getArgs();
+            switch (operator) {
+                case AND:
+                    return compound(CompoundPredicate.BooleanOperator.AND, args);
+                case OR:
+                    return compound(CompoundPredicate.BooleanOperator.OR, args);
+                case NOT:
+                    com.blazebit.persistence.parser.predicate.Predicate predicate = predicate(args.get(0));
+                    if (predicate == null) {
+                        return null;
+                    }
+                    if (predicate.isNegated()) {
+                        // wrap in this case to maintain negational structure
+                        predicate = new CompoundPredicate(CompoundPredicate.BooleanOperator.AND, predicate);
+                    }
+                    predicate.negate();
+                    return predicate;
+                case EQ:
+                case NE:
+                    return comparison(operator, args);
+                case LT:
+                case LOE:
+                case GT:
+                case GOE:
+                    return comparison(operator, normalizeNumericArgs(args));
+                case IS_NULL:
+                case IS_NOT_NULL:
+                    com.blazebit.persistence.parser.expression.Expression operand = operand(args.get(0));
+                    return operand == null ? null : new IsNullPredicate(operand, operator == Ops.IS_NOT_NULL);
+                default:
+                    return null;
+            }
+        }
+
+        private com.blazebit.persistence.parser.predicate.Predicate compound(CompoundPredicate.BooleanOperator operator, List<Expression<?>> args) {
+            com.blazebit.persistence.parser.predicate.Predicate left = predicate(args.get(0));
+            if (left == null) {
+                return null;
+            }
+            com.blazebit.persistence.parser.predicate.Predicate right = predicate(args.get(1));
+            if (right == null) {
+                return null;
+            }
+            // Flatten left nested predicates of the same operator like the parser does for a AND b AND c
+            if (left instanceof CompoundPredicate && !left.isNegated() && ((CompoundPredicate) left).getOperator() == operator) {
+                ((CompoundPredicate) left).getChildren().add(right);
+                return left;
+            }
+            return new CompoundPredicate(operator, left, right);
+        }
+
+        private com.blazebit.persistence.parser.predicate.Predicate comparison(Ops operator, List<? extends Expression<?>> args) {
+            com.blazebit.persistence.parser.expression.Expression left = operand(args.get(0));
+            if (left == null) {
+                return null;
+            }
+            com.blazebit.persistence.parser.expression.Expression right = operand(args.get(1));
+            // A single identifier on the right hand side is parsed as quantified predicate over a subquery alias
+            if (right == null || right instanceof PathExpression && ((PathExpression) right).getExpressions().size() == 1) {
+                return null;
+            }
+            switch (operator) {
+                case EQ:
+                    return new EqPredicate(left, right, PredicateQuantifier.ONE, false);
+                case NE:
+                    return new EqPredicate(left, right, PredicateQuantifier.ONE, true);
+                case LT:
+                    return new LtPredicate(left, right, PredicateQuantifier.ONE, false);
+                case LOE:
+                    return new LePredicate(left, right, PredicateQuantifier.ONE, false);
+                case GT:
+                    return new GtPredicate(left, right, PredicateQuantifier.ONE, false);
+                case GOE:
+                    return new GePredicate(left, right, PredicateQuantifier.ONE, false);
+                default:
+                    return null;
+            }
+        }
+
+        /**
+         * Converts numeric constants to the type of the compared expression like {@link com.querydsl.jpa.JPQLSerializer} does.
+         */
+        @SuppressWarnings("unchecked")
+        private List<? extends Expression<?>> normalizeNumericArgs(List<Expression<?>> args) {
+            boolean hasConstants = false;
+            Class<? extends Number> numType = null;
+            for (Expression<?> arg : args) {
+                if (Number.class.isAssignableFrom(arg.getType())) {
+                    if (arg instanceof Constant<?>) {
+                        hasConstants = true;
+                    } else {
+                        numType = (Class<? extends Number>) arg.getType();
+                    }
+                }
+            }
+            if (!hasConstants || numType == null) {
+                return args;
+            }
+            List<Expression<?>> newArgs = new ArrayList<>(args.size());
+            for (Expression<?> arg : args) {
+                if (arg instanceof Constant<?> && Number.class.isAssignableFrom(arg.getType()) && !arg.getType().equals(numType)) {
+                    Number number = (Number) ((Constant<?>) arg).getConstant();
+                    newArgs.add(ConstantImpl.create(MathUtils.cast(number, numType)));
+                } else {
+                    newArgs.add(arg);
+                }
+            }
+            return newArgs;
+        }
+
+        private com.blazebit.persistence.parser.predicate.Predicate predicate(Expression<?> expression) {
+            com.blazebit.persistence.parser.expression.Expression result = expression.accept(this, null);
+            return result instanceof com.blazebit.persistence.parser.predicate.Predicate ? (com.blazebit.persistence.parser.predicate.Predicate) result : null;
+        }
+
+        private com.blazebit.persistence.parser.expression.Expression operand(Expression<?> expression) {
+            com.blazebit.persistence.parser.expression.Expression result = expression.accept(this, null);
+            return result instanceof com.blazebit.persistence.parser.predicate.Predicate ? null : result;
+        }
+    }
+
     /**
      * Visitor for rendering window expressions.
      *
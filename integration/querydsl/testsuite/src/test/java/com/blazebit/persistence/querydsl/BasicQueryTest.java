@@ -280,6 +280,29 @@ public class BasicQueryTest extends AbstractCoreTest {
         });
     }
 
+    @Test
+    public void testExpressionTreeTranslation() {
+        doInJPA(entityManager -> {
+            Param<Integer> param = new Param<>(Integer.class, "idx");
+            JPAQuery<Tuple> query = new JPAQuery<Document>(entityManager).from(document)
+                    .select(document.name.as("docName"), document.owner.name)
+                    .where(document.name.eq("bogus 1").or(document.age.lt(10).not().and(document.owner.name.isNull()))
+                            .and(document.idx.ne(param))
+                            .and(document.age.goe(0L)))
+                    .set(param, 1);
+
+            // JPQLNextTemplates enable the translation to expression trees whereas other templates are always serialized
+            Queryable<Tuple, ?> translated = new BlazeCriteriaBuilderRenderer<Tuple>(cbf, entityManager, JPQLNextTemplates.DEFAULT).render(query);
+            Queryable<Tuple, ?> serialized = new BlazeCriteriaBuilderRenderer<Tuple>(cbf, entityManager, JPQLTemplates.DEFAULT).render(query);
+            assertEquals(serialized.getQueryString(), translated.getQueryString());
+
+            List<Tuple> fetch = translated.getResultList();
+            assertEquals(1, fetch.size());
+            assertEquals("bogus 1", fetch.get(0).get(0, String.class));
+            assertEquals("Person 1", fetch.get(0).get(1, String.class));
+        });
+    }
+
     @Test
     public void testThroughBlazeJPAQuery() {
         doInJPA(entityManager -> {
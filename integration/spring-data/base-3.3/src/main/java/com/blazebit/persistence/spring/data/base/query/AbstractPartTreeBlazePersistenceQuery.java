@@ -199,9 +199,10 @@ public abstract class AbstractPartTreeBlazePersistenceQuery extends AbstractJpaQ
      */
     private class QueryPreparer {
 
-        private final CriteriaQuery<?> cachedCriteriaQuery;
+        protected final CriteriaQuery<?> cachedCriteriaQuery;
         private final List<ParameterMetadataProvider.ParameterMetadata<?>> expressions;
         private final PersistenceProvider persistenceProvider;
+        private volatile com.blazebit.persistence.CriteriaBuilder<?> cachedCriteriaBuilder;
 
         public QueryPreparer(PersistenceProvider persistenceProvider, boolean recreateQueries) {
 
@@ -217,19 +218,10 @@ public abstract class AbstractPartTreeBlazePersistenceQuery extends AbstractJpaQ
          * Moritz Becker, Christian Beikov:
          * The following methods were modified to work with entity views.
          ******************************************/
-        private TypedQuery<?> createQuery(CriteriaQuery<?> criteriaQuery, Object[] values) {
-            if (this.cachedCriteriaQuery != null) {
-                synchronized (this.cachedCriteriaQuery) {
-                    return createQuery0(criteriaQuery, values);
-                }
-            }
-            return createQuery0(criteriaQuery, values);
-        }
-
         protected TypedQuery<?> createQuery0(CriteriaQuery<?> criteriaQuery, Object[] values) {
             processSpecification(criteriaQuery, values);
 
-            com.blazebit.persistence.CriteriaBuilder<?> cb = ((BlazeCriteriaQuery<?>) criteriaQuery).createCriteriaBuilder(getEntityManager());
+            com.blazebit.persistence.CriteriaBuilder<?> cb = createCriteriaBuilder(criteriaQuery);
 
             processBlazeSpecification(cb, values);
 
@@ -272,7 +264,7 @@ public abstract class AbstractPartTreeBlazePersistenceQuery extends AbstractJpaQ
 
             processSpecification(criteriaQuery, values);
 
-            com.blazebit.persistence.CriteriaBuilder<?> cb = ((BlazeCriteriaQuery<?>) criteriaQuery).createCriteriaBuilder(getEntityManager());
+            com.blazebit.persistence.CriteriaBuilder<?> cb = createCriteriaBuilder(criteriaQuery);
 
             processBlazeSpecification(cb, values);
 
@@ -347,6 +339,27 @@ public abstract class AbstractPartTreeBlazePersistenceQuery extends AbstractJpaQ
             return binder.bind(jpaQuery);
         }
 
+        private com.blazebit.persistence.CriteriaBuilder<?> createCriteriaBuilder(CriteriaQuery<?> criteriaQuery) {
+            if (criteriaQuery != cachedCriteriaQuery) {
+                return ((BlazeCriteriaQuery<?>) criteriaQuery).createCriteriaBuilder(getEntityManager());
+            }
+            // The cached criteria query is compiled once to a template of which every invocation gets a copy,
+            // so that concurrent invocations don't have to synchronize on the shared query
+            com.blazebit.persistence.CriteriaBuilder<?> template = cachedCriteriaBuilder;
+            if (template == null) {
+                synchronized (this) {
+                    template = cachedCriteriaBuilder;
+                    if (template == null) {
+                        template = ((BlazeCriteriaQuery<?>) criteriaQuery).createCriteriaBuilder(getEntityManager());
+                        // Resolve implicit joins etc. upfront so that copying doesn't modify the template
+                        template.getQueryString();
+                        cachedCriteriaBuilder = template;
+                    }
+                }
+            }
+            return template.copy(template.getResultType());
+        }
+
         @SuppressWarnings("unchecked")
         protected <T> EntityViewSetting<? extends T, ?> processSetting(EntityViewSetting<T, ?> setting, Object[] values) {
             EntityViewSetting<? extends T, ?> processedSetting = setting;
@@ -438,7 +451,7 @@ public abstract class AbstractPartTreeBlazePersistenceQuery extends AbstractJpaQ
                 expressions = creator.getParameterExpressions();
             }
 
-            TypedQuery<?> jpaQuery = createQuery(criteriaQuery, values);
+            TypedQuery<?> jpaQuery = createQuery0(criteriaQuery, values);
 
             return restrictMaxResultsIfNecessary(invokeBinding(getBinder(values, expressions), jpaQuery));
         }
@@ -542,6 +555,12 @@ public abstract class AbstractPartTreeBlazePersistenceQuery extends AbstractJpaQ
 
         @Override
         protected TypedQuery<?> createQuery0(CriteriaQuery<?> criteriaQuery, Object[] values) {
+            if (criteriaQuery == cachedCriteriaQuery) {
+                // JPA providers may assign aliases to the cached criteria query of the JPA provider while compiling it
+                synchronized (criteriaQuery) {
+                    return getEntityManager().createQuery(criteriaQuery);
+                }
+            }
             return getEntityManager().createQuery(criteriaQuery);
         }
 
@@ -115,6 +115,9 @@ public class AbstractModificationCriteriaQuery<T> implements BlazeCommonAbstract
         }
 
         context.setClauseType(RenderContext.ClauseType.WHERE);
+        if (PredicateTranslator.setWhereExpression(wb, context, restriction)) {
+            return;
+        }
         context.getBuffer().setLength(0);
         ((AbstractSelection<?>) restriction).render(context);
         String expression = context.takeBuffer();
@@ -650,6 +650,9 @@ public class InternalQuery<T> implements Serializable {
         }
 
         context.setClauseType(ClauseType.WHERE);
+        if (treatedSelections.isEmpty() && PredicateTranslator.setWhereExpression(wb, context, restriction)) {
+            return;
+        }
         context.getBuffer().setLength(0);
         ((AbstractSelection<?>) restriction).render(context);
         renderTreatTypeRestrictions(context, treatedSelections);
@@ -724,6 +727,9 @@ public class InternalQuery<T> implements Serializable {
         }
 
         context.setClauseType(ClauseType.HAVING);
+        if (PredicateTranslator.setHavingExpression(hb, context, having)) {
+            return;
+        }
         context.getBuffer().setLength(0);
         ((AbstractSelection<?>) having).render(context);
         String expression = context.takeBuffer();
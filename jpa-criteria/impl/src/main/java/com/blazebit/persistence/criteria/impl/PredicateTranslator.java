@@ -0,0 +1,254 @@
+/*
+ * Copyright 2014 - 2024 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.criteria.impl;
+
+import com.blazebit.persistence.HavingBuilder;
+import com.blazebit.persistence.WhereBuilder;
+import com.blazebit.persistence.criteria.impl.expression.AbstractPredicate;
+import com.blazebit.persistence.criteria.impl.expression.BooleanLiteralPredicate;
+import com.blazebit.persistence.criteria.impl.expression.ComparisonPredicate;
+import com.blazebit.persistence.criteria.impl.expression.CompoundPredicate;
+import com.blazebit.persistence.criteria.impl.expression.IsNullPredicate;
+import com.blazebit.persistence.criteria.impl.expression.NotPredicate;
+import com.blazebit.persistence.criteria.impl.expression.ParameterExpressionImpl;
+import com.blazebit.persistence.criteria.impl.path.AbstractFrom;
+import com.blazebit.persistence.criteria.impl.path.AbstractPath;
+import com.blazebit.persistence.criteria.impl.path.PluralAttributePath;
+import com.blazebit.persistence.criteria.impl.path.SingularAttributePath;
+import com.blazebit.persistence.criteria.impl.path.TreatedPath;
+import com.blazebit.persistence.parser.expression.ExpressionClauseBuilder;
+import com.blazebit.persistence.parser.expression.NumericLiteral;
+import com.blazebit.persistence.parser.expression.NumericType;
+import com.blazebit.persistence.parser.expression.ParameterExpression;
+import com.blazebit.persistence.parser.expression.PathElementExpression;
+import com.blazebit.persistence.parser.expression.PathExpression;
+import com.blazebit.persistence.parser.expression.PropertyExpression;
+import com.blazebit.persistence.parser.predicate.EqPredicate;
+import com.blazebit.persistence.parser.predicate.GePredicate;
+import com.blazebit.persistence.parser.predicate.GtPredicate;
+import com.blazebit.persistence.parser.predicate.LePredicate;
+import com.blazebit.persistence.parser.predicate.LtPredicate;
+import com.blazebit.persistence.parser.predicate.Predicate;
+import com.blazebit.persistence.parser.predicate.PredicateQuantifier;
+import com.blazebit.persistence.spi.ServiceProvider;
+
+import javax.persistence.criteria.Expression;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Translates criteria predicates directly to the predicates of the expression parser, which are equal to what the parser produces for the rendered predicate.
+ * Only comparisons, null checks and logical combinations of paths and parameters are supported.
+ * Parameters are registered in rendering order once the whole predicate could be translated,
+ * so that the caller can fall back to rendering if <code>null</code> is returned.
+ *
+ * @author Christian Beikov
+ * @since 1.6.13
+ */
+final class PredicateTranslator {
+
+    private final RenderContextImpl context;
+    private final List<ParameterExpressionImpl<?>> parameters = new ArrayList<>();
+    private final List<ParameterExpression> parameterExpressions = new ArrayList<>();
+
+    private PredicateTranslator(RenderContextImpl context) {
+        this.context = context;
+    }
+
+    public static boolean setWhereExpression(WhereBuilder<?> wb, RenderContextImpl context, Expression<Boolean> restriction) {
+        ExpressionClauseBuilder expressionClauseBuilder = ((ServiceProvider) wb).getService(ExpressionClauseBuilder.class);
+        if (expressionClauseBuilder == null) {
+            return false;
+        }
+        Predicate predicate = translate(context, restriction);
+        if (predicate == null) {
+            return false;
+        }
+        expressionClauseBuilder.setWhereExpression(predicate);
+        return true;
+    }
+
+    public static boolean setHavingExpression(HavingBuilder<?> hb, RenderContextImpl context, Expression<Boolean> restriction) {
+        ExpressionClauseBuilder expressionClauseBuilder = ((ServiceProvider) hb).getService(ExpressionClauseBuilder.class);
+        if (expressionClauseBuilder == null) {
+            return false;
+        }
+        Predicate predicate = translate(context, restriction);
+        if (predicate == null) {
+            return false;
+        }
+        expressionClauseBuilder.setHavingExpression(predicate);
+        return true;
+    }
+
+    public static Predicate translate(RenderContextImpl context, Expression<Boolean> restriction) {
+        PredicateTranslator translator = new PredicateTranslator(context);
+        Predicate predicate = translator.predicate(restriction);
+        if (predicate != null) {
+            translator.registerParameters();
+        }
+        return predicate;
+    }
+
+    private void registerParameters() {
+        for (int i = 0; i < parameters.size(); i++) {
+            ParameterExpressionImpl<?> parameter = parameters.get(i);
+            Object value = parameter.getValue();
+            String parameterName;
+            if (value == null) {
+                parameterName = context.registerExplicitParameter(parameter);
+            } else {
+                parameterName = context.registerLiteralParameterBinding(parameter.getRealValue(), parameter.getJavaType());
+            }
+            parameterExpressions.get(i).setName(parameterName);
+        }
+    }
+
+    private Predicate predicate(Expression<Boolean> expression) {
+        if (expression instanceof CompoundPredicate) {
+            return compound((CompoundPredicate) expression);
+        } else if (expression instanceof NotPredicate) {
+            Predicate predicate = predicate(((NotPredicate) expression).getPredicate());
+            if (predicate == null) {
+                return null;
+            }
+            if (predicate.isNegated()) {
+                // wrap in this case to maintain negational structure
+                predicate = new com.blazebit.persistence.parser.predicate.CompoundPredicate(com.blazebit.persistence.parser.predicate.CompoundPredicate.BooleanOperator.AND, predicate);
+            }
+            predicate.negate();
+            return predicate;
+        } else if (expression instanceof ComparisonPredicate) {
+            return comparison((ComparisonPredicate) expression);
+        } else if (expression instanceof IsNullPredicate) {
+            IsNullPredicate isNullPredicate = (IsNullPredicate) expression;
+            com.blazebit.persistence.parser.expression.Expression operand = operand(isNullPredicate.getOperand());
+            return operand == null ? null : new com.blazebit.persistence.parser.predicate.IsNullPredicate(operand, isNullPredicate.isNegated());
+        } else if (expression instanceof BooleanLiteralPredicate) {
+            BooleanLiteralPredicate literalPredicate = (BooleanLiteralPredicate) expression;
+            return constant(literalPredicate.getValue() ^ literalPredicate.isNegated());
+        }
+        return null;
+    }
+
+    private Predicate compound(CompoundPredicate compoundPredicate) {
+        List<Expression<Boolean>> expressions = compoundPredicate.getExpressions();
+        int size = expressions.size();
+        if (size == 0) {
+            return constant(compoundPredicate.getOperator() == javax.persistence.criteria.Predicate.BooleanOperator.AND ^ compoundPredicate.isNegated());
+        }
+        for (int i = 0; i < size; i++) {
+            // Boolean expressions that are no predicates would render as plain boolean paths
+            if (!(expressions.get(i) instanceof AbstractPredicate)) {
+                return null;
+            }
+        }
+        Predicate left = predicate(expressions.get(0));
+        if (left == null || size == 1) {
+            return left;
+        }
+        com.blazebit.persistence.parser.predicate.CompoundPredicate.BooleanOperator operator;
+        if (compoundPredicate.getOperator() == javax.persistence.criteria.Predicate.BooleanOperator.AND) {
+            operator = com.blazebit.persistence.parser.predicate.CompoundPredicate.BooleanOperator.AND;
+        } else {
+            operator = com.blazebit.persistence.parser.predicate.CompoundPredicate.BooleanOperator.OR;
+        }
+        for (int i = 1; i < size; i++) {
+            Predicate right = predicate(expressions.get(i));
+            if (right == null) {
+                return null;
+            }
+            // Flatten left nested predicates of the same operator like the parser does for (a) AND (b) AND (c)
+            if (left instanceof com.blazebit.persistence.parser.predicate.CompoundPredicate && !left.isNegated()
+                    && ((com.blazebit.persistence.parser.predicate.CompoundPredicate) left).getOperator() == operator) {
+                ((com.blazebit.persistence.parser.predicate.CompoundPredicate) left).getChildren().add(right);
+            } else {
+                List<Predicate> children = new ArrayList<>(2);
+                children.add(left);
+                children.add(right);
+                left = new com.blazebit.persistence.parser.predicate.CompoundPredicate(operator, children);
+            }
+        }
+        return left;
+    }
+
+    private Predicate comparison(ComparisonPredicate comparisonPredicate) {
+        com.blazebit.persistence.parser.expression.Expression left = operand(comparisonPredicate.getLeftHandSide());
+        if (left == null) {
+            return null;
+        }
+        com.blazebit.persistence.parser.expression.Expression right = operand(comparisonPredicate.getRightHandSide());
+        // A single identifier on the right hand side might be interpreted as entity literal by the parser
+        if (right == null || right instanceof PathExpression && ((PathExpression) right).getExpressions().size() == 1) {
+            return null;
+        }
+        switch (comparisonPredicate.getComparisonOperator()) {
+            case EQUAL:
+                return new EqPredicate(left, right, PredicateQuantifier.ONE, false);
+            case NOT_EQUAL:
+                return new EqPredicate(left, right, PredicateQuantifier.ONE, true);
+            case LESS_THAN:
+                return new LtPredicate(left, right, PredicateQuantifier.ONE, false);
+            case LESS_THAN_OR_EQUAL:
+                return new LePredicate(left, right, PredicateQuantifier.ONE, false);
+            case GREATER_THAN:
+                return new GtPredicate(left, right, PredicateQuantifier.ONE, false);
+            case GREATER_THAN_OR_EQUAL:
+                return new GePredicate(left, right, PredicateQuantifier.ONE, false);
+            default:
+                return null;
+        }
+    }
+
+    private com.blazebit.persistence.parser.expression.Expression operand(Expression<?> expression) {
+        if (expression instanceof ParameterExpressionImpl<?>) {
+            // The name is set when the parameters are registered
+            ParameterExpression parameterExpression = new ParameterExpression(null);
+            parameters.add((ParameterExpressionImpl<?>) expression);
+            parameterExpressions.add(parameterExpression);
+            return parameterExpression;
+        } else if (expression instanceof AbstractPath<?>) {
+            List<PathElementExpression> pathElements = new ArrayList<>();
+            return path((AbstractPath<?>) expression, pathElements) ? new PathExpression(pathElements) : null;
+        }
+        return null;
+    }
+
+    private boolean path(AbstractPath<?> path, List<PathElementExpression> pathElements) {
+        if (path instanceof TreatedPath<?>) {
+            return false;
+        } else if (path instanceof AbstractFrom<?, ?>) {
+            // The alias of embeddable joins contains the attribute path
+            for (String element : ((AbstractFrom<?, ?>) path).resolveAlias(context).split("\\.")) {
+                pathElements.add(new PropertyExpression(element));
+            }
+            return true;
+        } else if (path.getClass() == SingularAttributePath.class || path.getClass() == PluralAttributePath.class) {
+            AbstractPath<?> basePath = path.getBasePath();
+            if (basePath == null || !path(basePath, pathElements)) {
+                return false;
+            }
+            pathElements.add(new PropertyExpression(path.getAttribute().getName()));
+            return true;
+        }
+        return false;
+    }
+
+    private static Predicate constant(boolean value) {
+        return new EqPredicate(new NumericLiteral("1", NumericType.INTEGER), new NumericLiteral(value ? "1" : "0", NumericType.INTEGER));
+    }
+}
@@ -35,6 +35,10 @@ public class BooleanLiteralPredicate extends AbstractSimplePredicate {
         this.value = value;
     }
 
+    public Boolean getValue() {
+        return value;
+    }
+
     @Override
     public AbstractPredicate copyNegated() {
         return new BooleanLiteralPredicate(criteriaBuilder, !value);
@@ -41,6 +41,18 @@ public class ComparisonPredicate extends AbstractSimplePredicate {
         this.rightHandSide = rightHandSide;
     }
 
+    public ComparisonOperator getComparisonOperator() {
+        return comparisonOperator;
+    }
+
+    public Expression<?> getLeftHandSide() {
+        return leftHandSide;
+    }
+
+    public Expression<?> getRightHandSide() {
+        return rightHandSide;
+    }
+
     /**
      * @author Christian Beikov
      * @since 1.2.0
@@ -37,6 +37,10 @@ public class IsNullPredicate extends AbstractSimplePredicate {
         this.operand = operand;
     }
 
+    public Expression<?> getOperand() {
+        return operand;
+    }
+
     @Override
     public AbstractPredicate copyNegated() {
         return new IsNullPredicate(criteriaBuilder, !isNegated(), operand);
@@ -212,6 +212,64 @@ public class WhereTest extends AbstractCoreTest {
         assertEquals(Long.class, criteriaBuilder.getParameter("param").getParameterType());
     }
 
+    @Test
+    public void parameterUsageInCopy() {
+        BlazeCriteriaQuery<Long> cq = BlazeCriteria.get(cbf, Long.class);
+        BlazeCriteriaBuilder cb = cq.getCriteriaBuilder();
+        Root<Document> root = cq.from(Document.class, "document");
+        ParameterExpression<Long> param = cb.parameter(Long.class);
+
+        cq.select(root.get(Document_.id));
+        cq.where(cb.equal(root.get(Document_.id), param));
+
+        CriteriaBuilder<Long> criteriaBuilder = cq.createCriteriaBuilder(em);
+        criteriaBuilder.getQueryString();
+        CriteriaBuilder<Long> copy = criteriaBuilder.copy(Long.class);
+        assertEquals("SELECT document.id FROM Document document WHERE document.id = :generated_param_0", copy.getQueryString());
+
+        TypedQuery<Long> query = copy.getQuery();
+        query.setParameter(param, 1L);
+        assertEquals(Long.valueOf(1L), query.getParameterValue(param));
+        assertTrue(query.getResultList().isEmpty());
+    }
+
+    @Test
+    public void pathAndParameterPredicates() {
+        for (CriteriaBuilderFactory factory : Arrays.asList(cbf, cbfUnoptimized)) {
+            BlazeCriteriaQuery<Long> cq = BlazeCriteria.get(factory, Long.class);
+            BlazeCriteriaBuilder cb = cq.getCriteriaBuilder();
+            BlazeRoot<Document> root = cq.from(Document.class, "document");
+            BlazeJoin<Document, Person> owner = root.join(Document_.owner, "owner");
+            Expression<String> param = cb.parameter(String.class, "name");
+
+            cq.select(root.get(Document_.id));
+            cq.where(cb.and(
+                    cb.or(
+                            cb.equal(owner.get("name"), param),
+                            cb.not(cb.and(
+                                    cb.lessThan(root.get(Document_.age), 10L),
+                                    cb.isNull(root.get(Document_.nameObject).get(NameObject_.primaryName))
+                            ))
+                    ),
+                    cb.notEqual(root.get(Document_.name), "abc"),
+                    cb.conjunction()
+            ));
+
+            // The predicate is translated without rendering, so compare against parsing what the criteria would render
+            CriteriaBuilder<?> criteriaBuilder = cq.createCriteriaBuilder(em);
+            CriteriaBuilder<Long> parsedCriteriaBuilder = factory.create(em, Long.class)
+                    .from(Document.class, "document")
+                    .innerJoin("document.owner", "owner")
+                    .select("document.id")
+                    .setWhereExpression("((owner.name=:name) OR (NOT ((document.age<:generated_param_0) AND (document.nameObject.primaryName IS NULL))))" +
+                            " AND (document.name<>:generated_param_1) AND (1=1)");
+            assertEquals(parsedCriteriaBuilder.getQueryString(), criteriaBuilder.getQueryString());
+            assertEquals(10L, criteriaBuilder.getParameterValue("generated_param_0"));
+            assertEquals("abc", criteriaBuilder.getParameterValue("generated_param_1"));
+            assertEquals(String.class, criteriaBuilder.getParameter("name").getParameterType());
+        }
+    }
+
     @Test
     public void multipleNegations() {
         BlazeCriteriaQuery<Integer> cq = BlazeCriteria.get(cbfUnoptimized, Integer.class);